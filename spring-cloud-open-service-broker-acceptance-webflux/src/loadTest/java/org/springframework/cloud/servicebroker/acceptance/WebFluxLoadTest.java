@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.acceptance;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.cloud.servicebroker.benchmark.load.LoadDriver;
+import org.springframework.cloud.servicebroker.benchmark.load.LoadReport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = "logging.level.org.springframework.cloud.servicebroker.controller=warn")
+class WebFluxLoadTest {
+
+	private static final Logger LOG = LoggerFactory.getLogger(WebFluxLoadTest.class);
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void load() throws IOException {
+		Duration warmup = Duration.ofSeconds(Long.getLong("loadTest.warmup", 5));
+		Duration duration = Duration.ofSeconds(Long.getLong("loadTest.duration", 10));
+
+		List<LoadReport> reports;
+		try (LoadDriver driver = new LoadDriver("http://localhost:" + this.port)) {
+			reports = driver.runAll("webflux", warmup, duration);
+		}
+
+		LOG.info("Load test results:{}{}", System.lineSeparator(), LoadReport.format(reports));
+		LoadReport.write(reports, Paths.get("build", "reports", "load", "results.json"));
+		assertThat(reports).allSatisfy(report -> {
+			assertThat(report.getRequests()).isPositive();
+			assertThat(report.getErrors()).isZero();
+		});
+	}
+
+}
@@ -18,6 +18,7 @@ package org.springframework.cloud.servicebroker.acceptance;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
 import org.springframework.context.annotation.Bean;
 
@@ -48,4 +49,14 @@ public class WebMvcApplication {
 		return new NoOpServiceInstanceService();
 	}
 
+	/**
+	 * NoOp ServiceInstanceBindingService Bean
+	 *
+	 * @return the bean
+	 */
+	@Bean
+	public ServiceInstanceBindingService serviceInstanceBindingService() {
+		return new NoOpServiceInstanceBindingService();
+	}
+
 }
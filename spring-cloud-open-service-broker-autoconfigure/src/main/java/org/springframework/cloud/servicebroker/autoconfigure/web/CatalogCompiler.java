@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cloud.servicebroker.autoconfigure.web.exception.CatalogDefinitionDoesNotExistException;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compiles a catalog defined in YAML under {@literal spring.cloud.openservicebroker.catalog} into a JSON catalog
+ * snapshot at build time.
+ *
+ * <p>
+ * A snapshot is read directly into the catalog model when the application starts, which avoids binding the catalog
+ * properties and converting them to the model on every start. Configure the snapshot location with the
+ * {@literal spring.cloud.openservicebroker.catalog-snapshot} property.
+ *
+ * <p>
+ * The compiler can be run from a build with the catalog YAML file and the snapshot file as arguments, for example
+ * from a Gradle {@literal JavaExec} task.
+ *
+ * @author agent
+ */
+public final class CatalogCompiler {
+
+	private static final String CATALOG_PREFIX = "spring.cloud.openservicebroker.catalog";
+
+	private CatalogCompiler() {
+	}
+
+	/**
+	 * Compile a catalog YAML file into a catalog snapshot
+	 *
+	 * @param args the catalog YAML file and the snapshot file to write
+	 * @throws IOException if the catalog cannot be read or the snapshot cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			throw new IllegalArgumentException("Usage: CatalogCompiler <catalog YAML file> <snapshot file>");
+		}
+		Path snapshot = Paths.get(args[1]);
+		if (snapshot.getParent() != null) {
+			Files.createDirectories(snapshot.getParent());
+		}
+		writeSnapshot(compile(new FileSystemResource(args[0])), snapshot,
+				Jackson2ObjectMapperBuilder.json().build());
+	}
+
+	/**
+	 * Bind the catalog defined in a YAML resource and convert it to the catalog model
+	 *
+	 * @param yaml the YAML resource
+	 * @return the catalog
+	 * @throws IOException if the resource cannot be read
+	 * @throws CatalogDefinitionDoesNotExistException if the resource does not define a catalog
+	 */
+	public static org.springframework.cloud.servicebroker.model.catalog.Catalog compile(Resource yaml)
+			throws IOException {
+		List<PropertySource<?>> propertySources = new YamlPropertySourceLoader().load(yaml.getDescription(), yaml);
+		return new Binder(ConfigurationPropertySources.from(propertySources))
+				.bind(CATALOG_PREFIX, Bindable.of(Catalog.class))
+				.map(Catalog::toModel)
+				.orElseThrow(CatalogDefinitionDoesNotExistException::new);
+	}
+
+	/**
+	 * Write a catalog snapshot
+	 *
+	 * @param catalog the catalog
+	 * @param snapshot the snapshot file to write
+	 * @param objectMapper the object mapper used to write the snapshot
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	public static void writeSnapshot(org.springframework.cloud.servicebroker.model.catalog.Catalog catalog,
+			Path snapshot, ObjectMapper objectMapper) throws IOException {
+		objectMapper.writeValue(snapshot.toFile(), catalog);
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.time.Duration;
+
+import org.springframework.boot.convert.DataSizeUnit;
+import org.springframework.cloud.servicebroker.service.events.DetachedCompletionQueue.OverflowPolicy;
+import org.springframework.util.unit.DataSize;
+import org.springframework.util.unit.DataUnit;
+
+/**
+ * Internal class for marshaling {@link EventFlowProperties} configuration properties that describe the queue that runs
+ * detached completion flows.
+ *
+ * @author agent
+ * @see org.springframework.cloud.servicebroker.service.events.DetachedCompletionQueue
+ */
+public class DetachedCompletionProperties {
+
+	/**
+	 * Maximum number of completion events held in memory.
+	 */
+	private int capacity = 10000;
+
+	/**
+	 * Maximum number of completion events passed to batch completion flows at once.
+	 */
+	private int batchSize = 100;
+
+	/**
+	 * What happens to a completion event when the queue is full: drop it, block the request until there is room, or
+	 * spill it to the spill file.
+	 */
+	private OverflowPolicy overflow = OverflowPolicy.DROP;
+
+	/**
+	 * How long the block overflow policy waits for room in the queue before dropping the event.
+	 */
+	private Duration blockTimeout = Duration.ofSeconds(1);
+
+	/**
+	 * How long the queue is drained for when the application stops.
+	 */
+	private Duration closeTimeout = Duration.ofSeconds(10);
+
+	/**
+	 * File completion events are spilled to by the spill overflow policy.
+	 */
+	private String spillFile;
+
+	/**
+	 * Directory of the journal that completion events are appended to before the response is returned, and replayed
+	 * from after a restart. Events are not journaled by default.
+	 */
+	private String journalDirectory;
+
+	/**
+	 * Size of each memory-mapped journal segment file, which bounds the size of a completion event.
+	 */
+	@DataSizeUnit(DataUnit.MEGABYTES)
+	private DataSize journalSegmentSize = DataSize.ofMegabytes(16);
+
+	/**
+	 * How long the journal waits for further events, while other requests are appending events, before forcing them to
+	 * disk together.
+	 */
+	private Duration journalCommitInterval = Duration.ofMillis(2);
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public OverflowPolicy getOverflow() {
+		return overflow;
+	}
+
+	public void setOverflow(OverflowPolicy overflow) {
+		this.overflow = overflow;
+	}
+
+	public Duration getBlockTimeout() {
+		return blockTimeout;
+	}
+
+	public void setBlockTimeout(Duration blockTimeout) {
+		this.blockTimeout = blockTimeout;
+	}
+
+	public Duration getCloseTimeout() {
+		return closeTimeout;
+	}
+
+	public void setCloseTimeout(Duration closeTimeout) {
+		this.closeTimeout = closeTimeout;
+	}
+
+	public String getSpillFile() {
+		return spillFile;
+	}
+
+	public void setSpillFile(String spillFile) {
+		this.spillFile = spillFile;
+	}
+
+	public String getJournalDirectory() {
+		return journalDirectory;
+	}
+
+	public void setJournalDirectory(String journalDirectory) {
+		this.journalDirectory = journalDirectory;
+	}
+
+	public DataSize getJournalSegmentSize() {
+		return journalSegmentSize;
+	}
+
+	public void setJournalSegmentSize(DataSize journalSegmentSize) {
+		this.journalSegmentSize = journalSegmentSize;
+	}
+
+	public Duration getJournalCommitInterval() {
+		return journalCommitInterval;
+	}
+
+	public void setJournalCommitInterval(Duration journalCommitInterval) {
+		this.journalCommitInterval = journalCommitInterval;
+	}
+
+}
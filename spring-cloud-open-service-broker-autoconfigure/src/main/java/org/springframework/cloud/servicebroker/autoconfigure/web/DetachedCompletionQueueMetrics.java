@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.cloud.servicebroker.service.events.DetachedCompletionQueue;
+
+/**
+ * Binds the depth and the event counts of the {@link DetachedCompletionQueue} to a {@link MeterRegistry}. Nothing is
+ * bound when no registry has detached completion flows.
+ *
+ * @author agent
+ */
+public class DetachedCompletionQueueMetrics implements MeterBinder {
+
+	private static final String PREFIX = "servicebroker.event.flows.completion.";
+
+	private static final String EVENTS = PREFIX + "events";
+
+	private static final String RESULT_TAG = "result";
+
+	private final EventFlowExecutionPolicies executionPolicies;
+
+	/**
+	 * Construct a new {@link DetachedCompletionQueueMetrics}
+	 *
+	 * @param executionPolicies the execution policies that own the queue
+	 */
+	public DetachedCompletionQueueMetrics(EventFlowExecutionPolicies executionPolicies) {
+		this.executionPolicies = executionPolicies;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		DetachedCompletionQueue queue = this.executionPolicies.getCompletionQueue();
+		if (queue == null) {
+			return;
+		}
+		Gauge.builder(PREFIX + "queue.depth", queue, DetachedCompletionQueue::getQueueDepth)
+				.description("Number of completion events waiting in memory")
+				.baseUnit("events")
+				.register(registry);
+		Gauge.builder(PREFIX + "queue.capacity", queue, DetachedCompletionQueue::getCapacity)
+				.description("Maximum number of completion events held in memory")
+				.baseUnit("events")
+				.register(registry);
+		Gauge.builder(PREFIX + "spill.depth", queue, DetachedCompletionQueue::getSpillDepth)
+				.description("Number of completion events waiting in the spill file")
+				.baseUnit("events")
+				.register(registry);
+		Gauge.builder(PREFIX + "journal.depth", queue, DetachedCompletionQueue::getJournalDepth)
+				.description("Number of journaled completion events that have not been delivered")
+				.baseUnit("events")
+				.register(registry);
+		counter(registry, queue, "enqueued", DetachedCompletionQueue::getEnqueuedCount);
+		counter(registry, queue, "completed", DetachedCompletionQueue::getCompletedCount);
+		counter(registry, queue, "failed", DetachedCompletionQueue::getFailedCount);
+		counter(registry, queue, "dropped", DetachedCompletionQueue::getDroppedCount);
+		counter(registry, queue, "spilled", DetachedCompletionQueue::getSpilledCount);
+	}
+
+	private static void counter(MeterRegistry registry, DetachedCompletionQueue queue, String result,
+			ToDoubleFunction<DetachedCompletionQueue> count) {
+		FunctionCounter.builder(EVENTS, queue, count)
+				.description("Number of completion events by result")
+				.tag(RESULT_TAG, result)
+				.register(registry);
+	}
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.cloud.servicebroker.autoconfigure.web.EventFlowExecutionProperties.CompletionMode;
+import org.springframework.cloud.servicebroker.autoconfigure.web.EventFlowExecutionProperties.SchedulerType;
+import org.springframework.cloud.servicebroker.service.events.CompletionEventJournal;
+import org.springframework.cloud.servicebroker.service.events.DetachedCompletionQueue;
+import org.springframework.cloud.servicebroker.service.events.EventFlowExecutionPolicy;
+import org.springframework.cloud.servicebroker.service.events.flows.BatchCompletionFlow;
+
+/**
+ * Resolves the {@link EventFlowExecutionPolicy} of each event flow registry from {@link EventFlowProperties}, and
+ * owns the schedulers dedicated to registries and the {@link DetachedCompletionQueue} of the registries whose
+ * completion flows are detached. The queue is started once all singletons have been created, so that events spilled
+ * by a previous run are replayed with all registries registered.
+ *
+ * @author agent
+ */
+public class EventFlowExecutionPolicies implements SmartInitializingSingleton, DisposableBean {
+
+	/**
+	 * The name of the create service instance registry
+	 */
+	public static final String CREATE_INSTANCE = "create-instance";
+
+	/**
+	 * The name of the update service instance registry
+	 */
+	public static final String UPDATE_INSTANCE = "update-instance";
+
+	/**
+	 * The name of the delete service instance registry
+	 */
+	public static final String DELETE_INSTANCE = "delete-instance";
+
+	/**
+	 * The name of the service instance last operation registry
+	 */
+	public static final String ASYNC_OPERATION = "async-operation";
+
+	/**
+	 * The name of the create service instance binding registry
+	 */
+	public static final String CREATE_INSTANCE_BINDING = "create-instance-binding";
+
+	/**
+	 * The name of the delete service instance binding registry
+	 */
+	public static final String DELETE_INSTANCE_BINDING = "delete-instance-binding";
+
+	/**
+	 * The name of the service instance binding last operation registry
+	 */
+	public static final String ASYNC_OPERATION_BINDING = "async-operation-binding";
+
+	private static final List<String> REGISTRIES = Collections.unmodifiableList(Arrays.asList(CREATE_INSTANCE,
+			UPDATE_INSTANCE, DELETE_INSTANCE, ASYNC_OPERATION, CREATE_INSTANCE_BINDING, DELETE_INSTANCE_BINDING,
+			ASYNC_OPERATION_BINDING));
+
+	private final Map<String, EventFlowExecutionPolicy> policies = new LinkedHashMap<>();
+
+	private final List<Scheduler> dedicatedSchedulers = new ArrayList<>();
+
+	private final DetachedCompletionQueue completionQueue;
+
+	/**
+	 * Construct a new {@link EventFlowExecutionPolicies}
+	 *
+	 * @param properties the event flow properties
+	 * @throws IllegalArgumentException if a policy is configured for an unknown registry
+	 */
+	public EventFlowExecutionPolicies(EventFlowProperties properties) {
+		this(properties, null, null);
+	}
+
+	/**
+	 * Construct a new {@link EventFlowExecutionPolicies}
+	 *
+	 * @param properties the event flow properties
+	 * @param objectMapper the object mapper used to spill completion events, or {@literal null} to use a new one
+	 * @param batchFlows the flows that receive detached completion events in batches
+	 * @throws IllegalArgumentException if a policy is configured for an unknown registry
+	 */
+	@SuppressWarnings("PMD.NullAssignment")
+	public EventFlowExecutionPolicies(EventFlowProperties properties, ObjectMapper objectMapper,
+			List<BatchCompletionFlow> batchFlows) {
+		for (String registry : properties.getRegistries().keySet()) {
+			if (!REGISTRIES.contains(registry)) {
+				throw new IllegalArgumentException("Unknown event flow registry '" + registry + "', expected one of " +
+						REGISTRIES);
+			}
+		}
+		EventFlowExecutionProperties defaults = properties.getDefaults();
+		Map<String, EventFlowExecutionProperties> overrides = new LinkedHashMap<>();
+		boolean detached = false;
+		for (String registry : REGISTRIES) {
+			EventFlowExecutionProperties registryOverrides = properties.getRegistries()
+					.getOrDefault(registry, new EventFlowExecutionProperties());
+			overrides.put(registry, registryOverrides);
+			if (valueOf(registryOverrides, effective(defaults), EventFlowExecutionProperties::getCompletion) ==
+					CompletionMode.DETACHED) {
+				detached = true;
+			}
+		}
+		this.completionQueue = detached ? completionQueue(properties.getDetachedCompletion(), objectMapper,
+				batchFlows) : null;
+		overrides.forEach((registry, registryOverrides) ->
+				this.policies.put(registry, resolve(registry, registryOverrides, defaults)));
+	}
+
+	/**
+	 * Get the execution policy of a registry
+	 *
+	 * @param registry the name of the registry
+	 * @return the execution policy
+	 */
+	public EventFlowExecutionPolicy getPolicy(String registry) {
+		return this.policies.getOrDefault(registry, EventFlowExecutionPolicy.DEFAULT);
+	}
+
+	/**
+	 * Get the queue that runs detached completion flows
+	 *
+	 * @return the completion queue, or {@literal null} if no registry has detached completion flows
+	 */
+	public DetachedCompletionQueue getCompletionQueue() {
+		return this.completionQueue;
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		if (this.completionQueue != null) {
+			try {
+				this.completionQueue.start();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (this.completionQueue != null) {
+			this.completionQueue.close();
+		}
+		this.dedicatedSchedulers.forEach(Scheduler::dispose);
+	}
+
+	private EventFlowExecutionPolicy resolve(String registry, EventFlowExecutionProperties overrides,
+			EventFlowExecutionProperties defaults) {
+		EventFlowExecutionPolicy.EventFlowExecutionPolicyBuilder builder = EventFlowExecutionPolicy.builder();
+		EventFlowExecutionProperties effective = effective(defaults);
+		applyIfSet(overrides, effective, EventFlowExecutionProperties::getDispatch, builder::dispatch);
+		applyIfSet(overrides, effective, EventFlowExecutionProperties::getConcurrency, builder::concurrency);
+		applyIfSet(overrides, effective, EventFlowExecutionProperties::getTimeout, builder::timeout);
+		applyIfSet(overrides, effective, EventFlowExecutionProperties::getOnTimeout, builder::timeoutAction);
+		SchedulerType schedulerType = valueOf(overrides, effective, EventFlowExecutionProperties::getScheduler);
+		if (schedulerType == SchedulerType.BOUNDED_ELASTIC) {
+			builder.scheduler(Schedulers.boundedElastic());
+		}
+		else if (schedulerType == SchedulerType.DEDICATED) {
+			Integer threads = valueOf(overrides, effective, EventFlowExecutionProperties::getSchedulerThreads);
+			Scheduler scheduler = Schedulers.newBoundedElastic(
+					(threads != null) ? threads : Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+					Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "event-flows-" + registry);
+			this.dedicatedSchedulers.add(scheduler);
+			builder.scheduler(scheduler);
+		}
+		if (valueOf(overrides, effective, EventFlowExecutionProperties::getCompletion) == CompletionMode.DETACHED) {
+			builder.completionQueue(this.completionQueue);
+		}
+		return builder.build();
+	}
+
+	private static DetachedCompletionQueue completionQueue(DetachedCompletionProperties properties,
+			ObjectMapper objectMapper, List<BatchCompletionFlow> batchFlows) {
+		return DetachedCompletionQueue.builder()
+				.capacity(properties.getCapacity())
+				.batchSize(properties.getBatchSize())
+				.overflowPolicy(properties.getOverflow())
+				.blockTimeout(properties.getBlockTimeout())
+				.closeTimeout(properties.getCloseTimeout())
+				.spillFile((properties.getSpillFile() != null) ? Paths.get(properties.getSpillFile()) : null)
+				.objectMapper(objectMapper)
+				.batchFlows(batchFlows)
+				.journal((properties.getJournalDirectory() != null) ? new CompletionEventJournal(
+						Paths.get(properties.getJournalDirectory()),
+						Math.toIntExact(properties.getJournalSegmentSize().toBytes()),
+						properties.getJournalCommitInterval()) : null)
+				.build();
+	}
+
+	private static EventFlowExecutionProperties effective(EventFlowExecutionProperties defaults) {
+		return (defaults != null) ? defaults : new EventFlowExecutionProperties();
+	}
+
+	private static <T> void applyIfSet(EventFlowExecutionProperties overrides, EventFlowExecutionProperties defaults,
+			Function<EventFlowExecutionProperties, T> property, Consumer<T> setter) {
+		T value = valueOf(overrides, defaults, property);
+		if (value != null) {
+			setter.accept(value);
+		}
+	}
+
+	private static <T> T valueOf(EventFlowExecutionProperties overrides, EventFlowExecutionProperties defaults,
+			Function<EventFlowExecutionProperties, T> property) {
+		T value = property.apply(overrides);
+		return (value != null) ? value : property.apply(defaults);
+	}
+
+}
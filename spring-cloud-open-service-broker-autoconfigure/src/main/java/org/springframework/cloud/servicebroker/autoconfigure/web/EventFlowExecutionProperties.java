@@ -0,0 +1,167 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.time.Duration;
+
+import org.springframework.cloud.servicebroker.service.events.EventFlowExecutionPolicy.Dispatch;
+import org.springframework.cloud.servicebroker.service.events.EventFlowExecutionPolicy.TimeoutAction;
+
+/**
+ * Internal class for marshaling {@link EventFlowProperties} configuration properties that describe how the flows of an
+ * event flow registry are run. Unset values are inherited from the defaults.
+ *
+ * @author agent
+ * @see org.springframework.cloud.servicebroker.service.events.EventFlowExecutionPolicy
+ */
+public class EventFlowExecutionProperties {
+
+	/**
+	 * How flows are run relative to each other: sequential, concurrent (bounded by the concurrency) or parallel.
+	 * Defaults to parallel.
+	 */
+	private Dispatch dispatch;
+
+	/**
+	 * Maximum number of flows run at once with concurrent dispatch. Defaults to 1.
+	 */
+	private Integer concurrency;
+
+	/**
+	 * Time each flow may run. Flows may run indefinitely by default.
+	 */
+	private Duration timeout;
+
+	/**
+	 * What happens when a flow does not complete within the timeout: fail the request, or skip the flow. Defaults to
+	 * fail.
+	 */
+	private TimeoutAction onTimeout;
+
+	/**
+	 * Scheduler flows are run on: the caller thread, the shared bounded elastic scheduler, or a scheduler dedicated to
+	 * the registry. Defaults to the caller thread.
+	 */
+	private SchedulerType scheduler;
+
+	/**
+	 * Maximum number of threads of a dedicated scheduler. Defaults to ten times the number of CPU cores.
+	 */
+	private Integer schedulerThreads;
+
+	/**
+	 * When completion flows run: inline, before the response is returned, or detached, from a bounded queue after the
+	 * response is returned. Defaults to inline.
+	 */
+	private CompletionMode completion;
+
+	public Dispatch getDispatch() {
+		return dispatch;
+	}
+
+	public void setDispatch(Dispatch dispatch) {
+		this.dispatch = dispatch;
+	}
+
+	public Integer getConcurrency() {
+		return concurrency;
+	}
+
+	public void setConcurrency(Integer concurrency) {
+		this.concurrency = concurrency;
+	}
+
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	public TimeoutAction getOnTimeout() {
+		return onTimeout;
+	}
+
+	public void setOnTimeout(TimeoutAction onTimeout) {
+		this.onTimeout = onTimeout;
+	}
+
+	public SchedulerType getScheduler() {
+		return scheduler;
+	}
+
+	public void setScheduler(SchedulerType scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	public Integer getSchedulerThreads() {
+		return schedulerThreads;
+	}
+
+	public void setSchedulerThreads(Integer schedulerThreads) {
+		this.schedulerThreads = schedulerThreads;
+	}
+
+	public CompletionMode getCompletion() {
+		return completion;
+	}
+
+	public void setCompletion(CompletionMode completion) {
+		this.completion = completion;
+	}
+
+	/**
+	 * The scheduler event flows are run on
+	 */
+	public enum SchedulerType {
+
+		/**
+		 * Run flows on the thread that dispatches them
+		 */
+		CALLER,
+
+		/**
+		 * Run flows on the shared {@link reactor.core.scheduler.Schedulers#boundedElastic()} scheduler
+		 */
+		BOUNDED_ELASTIC,
+
+		/**
+		 * Run flows on a bounded elastic scheduler dedicated to the registry
+		 */
+		DEDICATED
+
+	}
+
+	/**
+	 * When completion flows run relative to the response
+	 */
+	public enum CompletionMode {
+
+		/**
+		 * Run completion flows before the response is returned
+		 */
+		INLINE,
+
+		/**
+		 * Run completion flows from the detached completion queue after the response is returned
+		 */
+		DETACHED
+
+	}
+
+}
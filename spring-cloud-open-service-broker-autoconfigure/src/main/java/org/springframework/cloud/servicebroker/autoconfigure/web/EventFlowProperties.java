@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@link ConfigurationProperties} for the execution of event flows
+ *
+ * @author agent
+ */
+@ConfigurationProperties(prefix = "spring.cloud.openservicebroker.event-flows")
+public class EventFlowProperties {
+
+	/**
+	 * Execution policy of the flows of every registry, unless overridden for the registry.
+	 */
+	private EventFlowExecutionProperties defaults = new EventFlowExecutionProperties();
+
+	/**
+	 * Execution policies that override the defaults for individual registries, keyed by create-instance,
+	 * update-instance, delete-instance, async-operation, create-instance-binding, delete-instance-binding or
+	 * async-operation-binding.
+	 */
+	private Map<String, EventFlowExecutionProperties> registries = new LinkedHashMap<>();
+
+	/**
+	 * Queue of the registries whose completion flows are detached.
+	 */
+	private DetachedCompletionProperties detachedCompletion = new DetachedCompletionProperties();
+
+	public EventFlowExecutionProperties getDefaults() {
+		return defaults;
+	}
+
+	public void setDefaults(EventFlowExecutionProperties defaults) {
+		this.defaults = defaults;
+	}
+
+	public Map<String, EventFlowExecutionProperties> getRegistries() {
+		return registries;
+	}
+
+	public void setRegistries(Map<String, EventFlowExecutionProperties> registries) {
+		this.registries = registries;
+	}
+
+	public DetachedCompletionProperties getDetachedCompletion() {
+		return detachedCompletion;
+	}
+
+	public void setDetachedCompletion(DetachedCompletionProperties detachedCompletion) {
+		this.detachedCompletion = detachedCompletion;
+	}
+
+}
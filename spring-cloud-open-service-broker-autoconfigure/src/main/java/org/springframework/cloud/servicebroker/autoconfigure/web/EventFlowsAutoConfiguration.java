@@ -17,10 +17,17 @@
 package org.springframework.cloud.servicebroker.autoconfigure.web;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.servicebroker.service.events.AsyncOperationServiceInstanceBindingEventFlowRegistry;
 import org.springframework.cloud.servicebroker.service.events.AsyncOperationServiceInstanceEventFlowRegistry;
 import org.springframework.cloud.servicebroker.service.events.CreateServiceInstanceBindingEventFlowRegistry;
@@ -35,6 +42,7 @@ import org.springframework.cloud.servicebroker.service.events.flows.AsyncOperati
 import org.springframework.cloud.servicebroker.service.events.flows.AsyncOperationServiceInstanceCompletionFlow;
 import org.springframework.cloud.servicebroker.service.events.flows.AsyncOperationServiceInstanceErrorFlow;
 import org.springframework.cloud.servicebroker.service.events.flows.AsyncOperationServiceInstanceInitializationFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.BatchCompletionFlow;
 import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceBindingCompletionFlow;
 import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceBindingErrorFlow;
 import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceBindingInitializationFlow;
@@ -59,14 +67,32 @@ import org.springframework.context.annotation.Configuration;
  * @author Roy Clarkson
  */
 @Configuration
+@EnableConfigurationProperties(EventFlowProperties.class)
 public class EventFlowsAutoConfiguration {
 
+	/**
+	 * Conditionally create a new {@link EventFlowExecutionPolicies} bean
+	 *
+	 * @param properties the event flow properties
+	 * @param objectMapper the ObjectMapper bean, if available, used to spill detached completion events
+	 * @param batchFlows the flows that receive detached completion events in batches
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(EventFlowExecutionPolicies.class)
+	public EventFlowExecutionPolicies eventFlowExecutionPolicies(EventFlowProperties properties,
+			ObjectProvider<ObjectMapper> objectMapper, ObjectProvider<BatchCompletionFlow> batchFlows) {
+		return new EventFlowExecutionPolicies(properties, objectMapper.getIfAvailable(),
+				batchFlows.orderedStream().collect(Collectors.toList()));
+	}
+
 	/**
 	 * Conditionally create a new {@link CreateServiceInstanceEventFlowRegistry} bean
 	 *
 	 * @param initializationFlows the initialization flows
 	 * @param completionFlows the completion flows
 	 * @param errorFlows the error flows
+	 * @param executionPolicies the execution policies of the registries
 	 * @return the bean
 	 */
 	@Bean
@@ -74,8 +100,10 @@ public class EventFlowsAutoConfiguration {
 	public CreateServiceInstanceEventFlowRegistry createInstanceRegistry(
 			@Autowired(required = false) List<CreateServiceInstanceInitializationFlow> initializationFlows,
 			@Autowired(required = false) List<CreateServiceInstanceCompletionFlow> completionFlows,
-			@Autowired(required = false) List<CreateServiceInstanceErrorFlow> errorFlows) {
-		return new CreateServiceInstanceEventFlowRegistry(initializationFlows, completionFlows, errorFlows);
+			@Autowired(required = false) List<CreateServiceInstanceErrorFlow> errorFlows,
+			EventFlowExecutionPolicies executionPolicies) {
+		return new CreateServiceInstanceEventFlowRegistry(initializationFlows, completionFlows, errorFlows,
+				executionPolicies.getPolicy(EventFlowExecutionPolicies.CREATE_INSTANCE));
 	}
 
 	/**
@@ -84,6 +112,7 @@ public class EventFlowsAutoConfiguration {
 	 * @param initializationFlows the initialization flows
 	 * @param completionFlows the completion flows
 	 * @param errorFlows the error flows
+	 * @param executionPolicies the execution policies of the registries
 	 * @return the bean
 	 */
 	@Bean
@@ -91,8 +120,10 @@ public class EventFlowsAutoConfiguration {
 	public DeleteServiceInstanceEventFlowRegistry deleteInstanceRegistry(
 			@Autowired(required = false) List<DeleteServiceInstanceInitializationFlow> initializationFlows,
 			@Autowired(required = false) List<DeleteServiceInstanceCompletionFlow> completionFlows,
-			@Autowired(required = false) List<DeleteServiceInstanceErrorFlow> errorFlows) {
-		return new DeleteServiceInstanceEventFlowRegistry(initializationFlows, completionFlows, errorFlows);
+			@Autowired(required = false) List<DeleteServiceInstanceErrorFlow> errorFlows,
+			EventFlowExecutionPolicies executionPolicies) {
+		return new DeleteServiceInstanceEventFlowRegistry(initializationFlows, completionFlows, errorFlows,
+				executionPolicies.getPolicy(EventFlowExecutionPolicies.DELETE_INSTANCE));
 	}
 
 	/**
@@ -101,6 +132,7 @@ public class EventFlowsAutoConfiguration {
 	 * @param initializationFlows the initialization flows
 	 * @param completionFlows the completion flows
 	 * @param errorFlows the error flows
+	 * @param executionPolicies the execution policies of the registries
 	 * @return the bean
 	 */
 	@Bean
@@ -108,8 +140,10 @@ public class EventFlowsAutoConfiguration {
 	public UpdateServiceInstanceEventFlowRegistry updateInstanceRegistry(
 			@Autowired(required = false) List<UpdateServiceInstanceInitializationFlow> initializationFlows,
 			@Autowired(required = false) List<UpdateServiceInstanceCompletionFlow> completionFlows,
-			@Autowired(required = false) List<UpdateServiceInstanceErrorFlow> errorFlows) {
-		return new UpdateServiceInstanceEventFlowRegistry(initializationFlows, completionFlows, errorFlows);
+			@Autowired(required = false) List<UpdateServiceInstanceErrorFlow> errorFlows,
+			EventFlowExecutionPolicies executionPolicies) {
+		return new UpdateServiceInstanceEventFlowRegistry(initializationFlows, completionFlows, errorFlows,
+				executionPolicies.getPolicy(EventFlowExecutionPolicies.UPDATE_INSTANCE));
 	}
 
 	/**
@@ -118,6 +152,7 @@ public class EventFlowsAutoConfiguration {
 	 * @param initializationFlows the initialization flows
 	 * @param completionFlows the completion flows
 	 * @param errorFlows the error flows
+	 * @param executionPolicies the execution policies of the registries
 	 * @return the bean
 	 */
 	@Bean
@@ -125,8 +160,10 @@ public class EventFlowsAutoConfiguration {
 	public AsyncOperationServiceInstanceEventFlowRegistry asyncOperationRegistry(
 			@Autowired(required = false) List<AsyncOperationServiceInstanceInitializationFlow> initializationFlows,
 			@Autowired(required = false) List<AsyncOperationServiceInstanceCompletionFlow> completionFlows,
-			@Autowired(required = false) List<AsyncOperationServiceInstanceErrorFlow> errorFlows) {
-		return new AsyncOperationServiceInstanceEventFlowRegistry(initializationFlows, completionFlows, errorFlows);
+			@Autowired(required = false) List<AsyncOperationServiceInstanceErrorFlow> errorFlows,
+			EventFlowExecutionPolicies executionPolicies) {
+		return new AsyncOperationServiceInstanceEventFlowRegistry(initializationFlows, completionFlows, errorFlows,
+				executionPolicies.getPolicy(EventFlowExecutionPolicies.ASYNC_OPERATION));
 	}
 
 	/**
@@ -135,6 +172,7 @@ public class EventFlowsAutoConfiguration {
 	 * @param initializationFlows the initialization flows
 	 * @param completionFlows the completion flows
 	 * @param errorFlows the error flows
+	 * @param executionPolicies the execution policies of the registries
 	 * @return the bean
 	 */
 	@Bean
@@ -142,8 +180,10 @@ public class EventFlowsAutoConfiguration {
 	public CreateServiceInstanceBindingEventFlowRegistry createInstanceBindingRegistry(
 			@Autowired(required = false) List<CreateServiceInstanceBindingInitializationFlow> initializationFlows,
 			@Autowired(required = false) List<CreateServiceInstanceBindingCompletionFlow> completionFlows,
-			@Autowired(required = false) List<CreateServiceInstanceBindingErrorFlow> errorFlows) {
-		return new CreateServiceInstanceBindingEventFlowRegistry(initializationFlows, completionFlows, errorFlows);
+			@Autowired(required = false) List<CreateServiceInstanceBindingErrorFlow> errorFlows,
+			EventFlowExecutionPolicies executionPolicies) {
+		return new CreateServiceInstanceBindingEventFlowRegistry(initializationFlows, completionFlows, errorFlows,
+				executionPolicies.getPolicy(EventFlowExecutionPolicies.CREATE_INSTANCE_BINDING));
 	}
 
 	/**
@@ -152,6 +192,7 @@ public class EventFlowsAutoConfiguration {
 	 * @param initializationFlows the initialization flows
 	 * @param completionFlows the completion flows
 	 * @param errorFlows the error flows
+	 * @param executionPolicies the execution policies of the registries
 	 * @return the bean
 	 */
 	@Bean
@@ -159,8 +200,10 @@ public class EventFlowsAutoConfiguration {
 	public DeleteServiceInstanceBindingEventFlowRegistry deleteInstanceBindingRegistry(
 			@Autowired(required = false) List<DeleteServiceInstanceBindingInitializationFlow> initializationFlows,
 			@Autowired(required = false) List<DeleteServiceInstanceBindingCompletionFlow> completionFlows,
-			@Autowired(required = false) List<DeleteServiceInstanceBindingErrorFlow> errorFlows) {
-		return new DeleteServiceInstanceBindingEventFlowRegistry(initializationFlows, completionFlows, errorFlows);
+			@Autowired(required = false) List<DeleteServiceInstanceBindingErrorFlow> errorFlows,
+			EventFlowExecutionPolicies executionPolicies) {
+		return new DeleteServiceInstanceBindingEventFlowRegistry(initializationFlows, completionFlows, errorFlows,
+				executionPolicies.getPolicy(EventFlowExecutionPolicies.DELETE_INSTANCE_BINDING));
 	}
 
 	/**
@@ -169,6 +212,7 @@ public class EventFlowsAutoConfiguration {
 	 * @param initializationFlows the initialization flows
 	 * @param completionFlows the completion flows
 	 * @param errorFlows the error flows
+	 * @param executionPolicies the execution policies of the registries
 	 * @return the bean
 	 */
 	@Bean
@@ -176,9 +220,10 @@ public class EventFlowsAutoConfiguration {
 	public AsyncOperationServiceInstanceBindingEventFlowRegistry asyncOperationBindingRegistry(
 			@Autowired(required = false) List<AsyncOperationServiceInstanceBindingInitializationFlow> initializationFlows,
 			@Autowired(required = false) List<AsyncOperationServiceInstanceBindingCompletionFlow> completionFlows,
-			@Autowired(required = false) List<AsyncOperationServiceInstanceBindingErrorFlow> errorFlows) {
-		return new AsyncOperationServiceInstanceBindingEventFlowRegistry(initializationFlows, completionFlows,
-				errorFlows);
+			@Autowired(required = false) List<AsyncOperationServiceInstanceBindingErrorFlow> errorFlows,
+			EventFlowExecutionPolicies executionPolicies) {
+		return new AsyncOperationServiceInstanceBindingEventFlowRegistry(initializationFlows, completionFlows, errorFlows,
+				executionPolicies.getPolicy(EventFlowExecutionPolicies.ASYNC_OPERATION_BINDING));
 	}
 
 	/**
@@ -208,4 +253,26 @@ public class EventFlowsAutoConfiguration {
 				deleteInstanceBindingRegistry, asyncOperationBindingRegistry);
 	}
 
+	/**
+	 * Binds the metrics of the detached completion queue when Micrometer is available
+	 */
+	@Configuration
+	@ConditionalOnClass(MeterBinder.class)
+	protected static class DetachedCompletionMetricsConfiguration {
+
+		/**
+		 * Conditionally create a new {@link DetachedCompletionQueueMetrics} bean
+		 *
+		 * @param executionPolicies the execution policies that own the queue
+		 * @return the bean
+		 */
+		@Bean
+		@ConditionalOnMissingBean(DetachedCompletionQueueMetrics.class)
+		public DetachedCompletionQueueMetrics detachedCompletionQueueMetrics(
+				EventFlowExecutionPolicies executionPolicies) {
+			return new DetachedCompletionQueueMetrics(executionPolicies);
+		}
+
+	}
+
 }
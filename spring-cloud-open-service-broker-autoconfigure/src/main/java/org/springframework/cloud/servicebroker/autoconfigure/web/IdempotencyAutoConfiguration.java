@@ -0,0 +1,77 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.servicebroker.service.idempotency.IdempotencyCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link EnableAutoConfiguration Auto-configuration} for the idempotent handling of retried create requests. When an
+ * {@link IdempotencyCache} bean is available, service instance and service instance binding create requests received
+ * by the service broker REST API endpoints that repeat a recent request are answered with its outcome, and conflicting
+ * requests are rejected, without calling the services.
+ *
+ * @author agent
+ * @see IdempotencyProperties
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "spring.cloud.openservicebroker.idempotency", name = "enabled", havingValue = "true")
+public class IdempotencyAutoConfiguration {
+
+	/**
+	 * Conditionally create a new {@link IdempotencyCache} bean
+	 *
+	 * @param properties the idempotency properties
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(IdempotencyCache.class)
+	public IdempotencyCache idempotencyCache(IdempotencyProperties properties) {
+		return new IdempotencyCache(properties.getTimeToLive());
+	}
+
+	/**
+	 * Binds the metrics of the idempotency cache when Micrometer is available
+	 */
+	@Configuration
+	@ConditionalOnClass(MeterBinder.class)
+	protected static class IdempotencyCacheMetricsConfiguration {
+
+		/**
+		 * Conditionally create a new {@link IdempotencyCacheMetrics} bean
+		 *
+		 * @param idempotencyCache the idempotency cache
+		 * @return the bean
+		 */
+		@Bean
+		@ConditionalOnMissingBean(IdempotencyCacheMetrics.class)
+		public IdempotencyCacheMetrics idempotencyCacheMetrics(IdempotencyCache idempotencyCache) {
+			return new IdempotencyCacheMetrics(idempotencyCache);
+		}
+
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.cloud.servicebroker.service.idempotency.IdempotencyCache;
+
+/**
+ * Binds the request counts and the number of held outcomes of an {@link IdempotencyCache} to a {@link MeterRegistry}
+ *
+ * @author agent
+ */
+public class IdempotencyCacheMetrics implements MeterBinder {
+
+	private static final String PREFIX = "servicebroker.idempotency.";
+
+	private final IdempotencyCache idempotencyCache;
+
+	/**
+	 * Construct a new {@link IdempotencyCacheMetrics}
+	 *
+	 * @param idempotencyCache the idempotency cache
+	 */
+	public IdempotencyCacheMetrics(IdempotencyCache idempotencyCache) {
+		this.idempotencyCache = idempotencyCache;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder(PREFIX + "requests", this.idempotencyCache, IdempotencyCache::getRequestCount)
+				.description("Number of create requests received")
+				.baseUnit("requests")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + "replays", this.idempotencyCache, IdempotencyCache::getReplayCount)
+				.description("Number of retried create requests answered with a held outcome")
+				.baseUnit("requests")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + "conflicts", this.idempotencyCache, IdempotencyCache::getConflictCount)
+				.description("Number of create requests rejected because they conflict with a held outcome")
+				.baseUnit("requests")
+				.register(registry);
+		Gauge.builder(PREFIX + "outcomes", this.idempotencyCache, IdempotencyCache::size)
+				.description("Number of create requests in flight or holding an outcome")
+				.baseUnit("requests")
+				.register(registry);
+	}
+
+}
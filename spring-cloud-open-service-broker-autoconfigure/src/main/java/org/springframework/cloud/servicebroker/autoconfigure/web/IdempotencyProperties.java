@@ -0,0 +1,59 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@link ConfigurationProperties} for the idempotent handling of retried create requests
+ *
+ * @author agent
+ * @see org.springframework.cloud.servicebroker.service.idempotency.IdempotencyCache
+ */
+@ConfigurationProperties(prefix = "spring.cloud.openservicebroker.idempotency")
+public class IdempotencyProperties {
+
+	/**
+	 * Whether retried service instance and service instance binding create requests are answered with the outcome of
+	 * the request they repeat, instead of being passed to the service again.
+	 */
+	private boolean enabled;
+
+	/**
+	 * How long the outcome of a create request is held after the call to the service completed.
+	 */
+	private Duration timeToLive = Duration.ofMinutes(5);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getTimeToLive() {
+		return timeToLive;
+	}
+
+	public void setTimeToLive(Duration timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Clock;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.cloud.servicebroker.service.async.AutoAsyncExecutor;
+import org.springframework.cloud.servicebroker.service.operation.AdaptivePollingIntervals;
+import org.springframework.cloud.servicebroker.service.operation.AsyncOperationTracker;
+import org.springframework.cloud.servicebroker.service.operation.FileOperationStateStore;
+import org.springframework.cloud.servicebroker.service.operation.InMemoryOperationStateStore;
+import org.springframework.cloud.servicebroker.service.operation.OperationStateStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link EnableAutoConfiguration Auto-configuration} for the tracking of asynchronous operations. When an
+ * {@link AsyncOperationTracker} bean is available, the service broker REST API endpoints track the asynchronous
+ * operations of the services and answer last operation requests from the tracker.
+ *
+ * @author agent
+ * @see OperationTrackingProperties
+ */
+@Configuration
+@EnableConfigurationProperties(OperationTrackingProperties.class)
+@ConditionalOnProperty(prefix = "spring.cloud.openservicebroker.operation-tracking", name = "enabled", havingValue = "true")
+public class OperationTrackingAutoConfiguration {
+
+	/**
+	 * Conditionally create a new {@link AsyncOperationTracker} bean
+	 *
+	 * @param properties the operation tracking properties
+	 * @param catalogService the catalog service, used to bound adaptive Retry-After hints by the maximum polling
+	 * 		duration of the plan
+	 * @param store the store that holds the tracked operations
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(AsyncOperationTracker.class)
+	public AsyncOperationTracker asyncOperationTracker(OperationTrackingProperties properties,
+			ObjectProvider<CatalogService> catalogService, OperationStateStore store) {
+		AdaptivePollingIntervals pollingIntervals = properties.isAdaptiveRetryAfter()
+				? new AdaptivePollingIntervals(catalogService.getIfAvailable(), properties.getMinimumRetryAfter(),
+				properties.getMaximumRetryAfter())
+				: null;
+		return new AsyncOperationTracker(properties.getTimeToLive(), Clock.systemUTC(), pollingIntervals,
+				store);
+	}
+
+	/**
+	 * Conditionally create a new {@link OperationStateStore} bean. Tracked operations are written to a
+	 * {@link FileOperationStateStore} when a store directory is configured, and only held in memory otherwise.
+	 *
+	 * @param properties the operation tracking properties
+	 * @return the bean
+	 * @throws IOException if the operations in the store directory cannot be recovered
+	 */
+	@Bean
+	@ConditionalOnMissingBean(OperationStateStore.class)
+	public OperationStateStore operationStateStore(OperationTrackingProperties properties) throws IOException {
+		if (properties.getStoreDirectory() == null) {
+			return new InMemoryOperationStateStore();
+		}
+		FileOperationStateStore store = new FileOperationStateStore(Paths.get(properties.getStoreDirectory()),
+				properties.getStoreCommitInterval(), FileOperationStateStore.DEFAULT_COMPACTION_THRESHOLD);
+		store.open();
+		return store;
+	}
+
+	/**
+	 * Conditionally create a new {@link AutoAsyncExecutor} bean when an auto async deadline is configured
+	 *
+	 * @param properties the operation tracking properties
+	 * @param tracker the tracker the outcomes of detached operations are recorded in
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(AutoAsyncExecutor.class)
+	@ConditionalOnProperty(prefix = "spring.cloud.openservicebroker.operation-tracking", name = "auto-async-deadline")
+	public AutoAsyncExecutor autoAsyncExecutor(OperationTrackingProperties properties, AsyncOperationTracker tracker) {
+		return new AutoAsyncExecutor(tracker, properties.getAutoAsyncDeadline(), properties.getAutoAsyncThreads(),
+				properties.getAutoAsyncQueueCapacity());
+	}
+
+}
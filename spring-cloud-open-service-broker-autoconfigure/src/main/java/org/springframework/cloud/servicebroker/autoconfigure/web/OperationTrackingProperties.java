@@ -0,0 +1,185 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.time.Duration;
+
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@link ConfigurationProperties} for the tracking of asynchronous operations
+ *
+ * @author agent
+ * @see org.springframework.cloud.servicebroker.service.operation.AsyncOperationTracker
+ */
+@ConfigurationProperties(prefix = "spring.cloud.openservicebroker.operation-tracking")
+public class OperationTrackingProperties {
+
+	/**
+	 * Whether asynchronous operations are tracked in memory, and last operation requests are answered from memory
+	 * when the operation is tracked.
+	 */
+	private boolean enabled;
+
+	/**
+	 * How long an operation is held after its state was last recorded.
+	 */
+	private Duration timeToLive = Duration.ofMinutes(1);
+
+	/**
+	 * Whether a Retry-After hint is derived for in progress operations from the durations of completed operations
+	 * of the same plan, when the service does not provide one.
+	 */
+	private boolean adaptiveRetryAfter;
+
+	/**
+	 * The shortest Retry-After hint derived for in progress operations.
+	 */
+	private Duration minimumRetryAfter = Duration.ofSeconds(1);
+
+	/**
+	 * The longest Retry-After hint derived for in progress operations.
+	 */
+	private Duration maximumRetryAfter = Duration.ofMinutes(1);
+
+	/**
+	 * The longest time a last operation request for an operation in progress is held open until the state of the
+	 * operation changes. Last operation requests are answered immediately when not set. Only supported by WebFlux
+	 * applications.
+	 */
+	private Duration longPollTimeout;
+
+	/**
+	 * Directory of the log that tracked operations are written to, and recovered from after a restart. Operations are
+	 * only held in memory by default.
+	 */
+	private String storeDirectory;
+
+	/**
+	 * How long the operation log waits for further changes before forcing them to disk together.
+	 */
+	private Duration storeCommitInterval = Duration.ofMillis(5);
+
+	/**
+	 * The time a create, update, or delete operation may take before the platform is answered with an asynchronous
+	 * response, when it accepts one, while the operation keeps running. Operations are never detached when not set.
+	 */
+	private Duration autoAsyncDeadline;
+
+	/**
+	 * The maximum number of threads the create, update, and delete operations run on when an auto async deadline is
+	 * set.
+	 */
+	private int autoAsyncThreads = Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+
+	/**
+	 * The maximum number of create, update, and delete operations waiting for a thread when an auto async deadline is
+	 * set.
+	 */
+	private int autoAsyncQueueCapacity = Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getTimeToLive() {
+		return timeToLive;
+	}
+
+	public void setTimeToLive(Duration timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	public boolean isAdaptiveRetryAfter() {
+		return adaptiveRetryAfter;
+	}
+
+	public void setAdaptiveRetryAfter(boolean adaptiveRetryAfter) {
+		this.adaptiveRetryAfter = adaptiveRetryAfter;
+	}
+
+	public Duration getMinimumRetryAfter() {
+		return minimumRetryAfter;
+	}
+
+	public void setMinimumRetryAfter(Duration minimumRetryAfter) {
+		this.minimumRetryAfter = minimumRetryAfter;
+	}
+
+	public Duration getMaximumRetryAfter() {
+		return maximumRetryAfter;
+	}
+
+	public void setMaximumRetryAfter(Duration maximumRetryAfter) {
+		this.maximumRetryAfter = maximumRetryAfter;
+	}
+
+	public Duration getLongPollTimeout() {
+		return longPollTimeout;
+	}
+
+	public void setLongPollTimeout(Duration longPollTimeout) {
+		this.longPollTimeout = longPollTimeout;
+	}
+
+	public String getStoreDirectory() {
+		return storeDirectory;
+	}
+
+	public void setStoreDirectory(String storeDirectory) {
+		this.storeDirectory = storeDirectory;
+	}
+
+	public Duration getStoreCommitInterval() {
+		return storeCommitInterval;
+	}
+
+	public void setStoreCommitInterval(Duration storeCommitInterval) {
+		this.storeCommitInterval = storeCommitInterval;
+	}
+
+	public Duration getAutoAsyncDeadline() {
+		return autoAsyncDeadline;
+	}
+
+	public void setAutoAsyncDeadline(Duration autoAsyncDeadline) {
+		this.autoAsyncDeadline = autoAsyncDeadline;
+	}
+
+	public int getAutoAsyncThreads() {
+		return autoAsyncThreads;
+	}
+
+	public void setAutoAsyncThreads(int autoAsyncThreads) {
+		this.autoAsyncThreads = autoAsyncThreads;
+	}
+
+	public int getAutoAsyncQueueCapacity() {
+		return autoAsyncQueueCapacity;
+	}
+
+	public void setAutoAsyncQueueCapacity(int autoAsyncQueueCapacity) {
+		this.autoAsyncQueueCapacity = autoAsyncQueueCapacity;
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.cloud.servicebroker.controller.OriginatingIdentityParser;
+
+/**
+ * Binds the cache hit and miss counts of an {@link OriginatingIdentityParser} to a {@link MeterRegistry}
+ *
+ * @author agent
+ */
+public class OriginatingIdentityParserMetrics implements MeterBinder {
+
+	private static final String PREFIX = "servicebroker.originating.identity.cache.";
+
+	private final OriginatingIdentityParser originatingIdentityParser;
+
+	/**
+	 * Construct a new {@link OriginatingIdentityParserMetrics}
+	 *
+	 * @param originatingIdentityParser the originating identity parser
+	 */
+	public OriginatingIdentityParserMetrics(OriginatingIdentityParser originatingIdentityParser) {
+		this.originatingIdentityParser = originatingIdentityParser;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder(PREFIX + "hits", this.originatingIdentityParser,
+				OriginatingIdentityParser::getCacheHitCount)
+				.description("Number of originating identity headers parsed from the cache")
+				.baseUnit("requests")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + "misses", this.originatingIdentityParser,
+				OriginatingIdentityParser::getCacheMissCount)
+				.description("Number of originating identity headers decoded and parsed")
+				.baseUnit("requests")
+				.register(registry);
+		Gauge.builder(PREFIX + "size", this.originatingIdentityParser, OriginatingIdentityParser::getCacheSize)
+				.description("Number of originating identity header values held in the cache")
+				.register(registry);
+	}
+
+}
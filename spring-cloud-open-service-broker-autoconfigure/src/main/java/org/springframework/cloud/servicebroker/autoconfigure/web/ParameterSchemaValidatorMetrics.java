@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.cloud.servicebroker.controller.ParameterSchemaValidator;
+
+/**
+ * Binds the validation, rejection and compilation counts of a {@link ParameterSchemaValidator} to a
+ * {@link MeterRegistry}
+ *
+ * @author agent
+ */
+public class ParameterSchemaValidatorMetrics implements MeterBinder {
+
+	private static final String PREFIX = "servicebroker.parameter.validation.";
+
+	private final ParameterSchemaValidator parameterSchemaValidator;
+
+	/**
+	 * Construct a new {@link ParameterSchemaValidatorMetrics}
+	 *
+	 * @param parameterSchemaValidator the parameter schema validator
+	 */
+	public ParameterSchemaValidatorMetrics(ParameterSchemaValidator parameterSchemaValidator) {
+		this.parameterSchemaValidator = parameterSchemaValidator;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionTimer.builder(PREFIX + "time", this.parameterSchemaValidator,
+				ParameterSchemaValidator::getValidationCount, ParameterSchemaValidator::getValidationTimeNanos,
+				TimeUnit.NANOSECONDS)
+				.description("Number of requests whose parameters were validated and the time spent validating")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + "rejections", this.parameterSchemaValidator,
+				ParameterSchemaValidator::getRejectionCount)
+				.description("Number of requests rejected because the parameters did not match the schema")
+				.baseUnit("requests")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + "compilations", this.parameterSchemaValidator,
+				ParameterSchemaValidator::getCompilationCount)
+				.description("Number of times the schemas of a plan were compiled")
+				.register(registry);
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.cloud.servicebroker.service.coalescing.RequestCoalescer;
+
+/**
+ * Binds the read counts and the coalescing ratio of a {@link RequestCoalescer} to a {@link MeterRegistry}
+ *
+ * @author agent
+ */
+public class RequestCoalescerMetrics implements MeterBinder {
+
+	private static final String PREFIX = "servicebroker.request.coalescing.";
+
+	private final RequestCoalescer requestCoalescer;
+
+	/**
+	 * Construct a new {@link RequestCoalescerMetrics}
+	 *
+	 * @param requestCoalescer the request coalescer
+	 */
+	public RequestCoalescerMetrics(RequestCoalescer requestCoalescer) {
+		this.requestCoalescer = requestCoalescer;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder(PREFIX + "requests", this.requestCoalescer, RequestCoalescer::getRequestCount)
+				.description("Number of reads received")
+				.baseUnit("requests")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + "executions", this.requestCoalescer, RequestCoalescer::getExecutionCount)
+				.description("Number of reads passed to the services")
+				.baseUnit("requests")
+				.register(registry);
+		Gauge.builder(PREFIX + "ratio", this.requestCoalescer, RequestCoalescer::getCoalescingRatio)
+				.description("Fraction of the reads received that shared a read passed to the services")
+				.register(registry);
+		Gauge.builder(PREFIX + "in.flight", this.requestCoalescer, RequestCoalescer::size)
+				.description("Number of shared reads in flight or holding a result")
+				.baseUnit("requests")
+				.register(registry);
+	}
+
+}
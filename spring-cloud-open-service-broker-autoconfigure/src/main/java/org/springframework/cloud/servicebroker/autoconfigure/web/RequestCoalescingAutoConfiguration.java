@@ -0,0 +1,77 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.servicebroker.service.coalescing.RequestCoalescer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link EnableAutoConfiguration Auto-configuration} for the coalescing of concurrent identical reads. When a
+ * {@link RequestCoalescer} bean is available, concurrent identical reads of service instances, service instance
+ * bindings, and their last operations received by the service broker REST API endpoints share a single call to the
+ * services.
+ *
+ * @author agent
+ * @see RequestCoalescingProperties
+ */
+@Configuration
+@EnableConfigurationProperties(RequestCoalescingProperties.class)
+@ConditionalOnProperty(prefix = "spring.cloud.openservicebroker.request-coalescing", name = "enabled", havingValue = "true")
+public class RequestCoalescingAutoConfiguration {
+
+	/**
+	 * Conditionally create a new {@link RequestCoalescer} bean
+	 *
+	 * @param properties the request coalescing properties
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(RequestCoalescer.class)
+	public RequestCoalescer requestCoalescer(RequestCoalescingProperties properties) {
+		return new RequestCoalescer(properties.getResultTimeToLive());
+	}
+
+	/**
+	 * Binds the metrics of the request coalescer when Micrometer is available
+	 */
+	@Configuration
+	@ConditionalOnClass(MeterBinder.class)
+	protected static class RequestCoalescerMetricsConfiguration {
+
+		/**
+		 * Conditionally create a new {@link RequestCoalescerMetrics} bean
+		 *
+		 * @param requestCoalescer the request coalescer
+		 * @return the bean
+		 */
+		@Bean
+		@ConditionalOnMissingBean(RequestCoalescerMetrics.class)
+		public RequestCoalescerMetrics requestCoalescerMetrics(RequestCoalescer requestCoalescer) {
+			return new RequestCoalescerMetrics(requestCoalescer);
+		}
+
+	}
+
+}
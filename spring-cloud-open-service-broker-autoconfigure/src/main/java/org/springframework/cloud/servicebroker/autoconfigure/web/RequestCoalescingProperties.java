@@ -0,0 +1,60 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@link ConfigurationProperties} for the coalescing of concurrent identical reads
+ *
+ * @author agent
+ * @see org.springframework.cloud.servicebroker.service.coalescing.RequestCoalescer
+ */
+@ConfigurationProperties(prefix = "spring.cloud.openservicebroker.request-coalescing")
+public class RequestCoalescingProperties {
+
+	/**
+	 * Whether concurrent identical reads of service instances, service instance bindings, and their last operations
+	 * share a single call to the service.
+	 */
+	private boolean enabled;
+
+	/**
+	 * How long a successful result is shared with identical reads after the call to the service completed. Results
+	 * are shared only while the call is in flight when not set.
+	 */
+	private Duration resultTimeToLive = Duration.ZERO;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getResultTimeToLive() {
+		return resultTimeToLive;
+	}
+
+	public void setResultTimeToLive(Duration resultTimeToLive) {
+		this.resultTimeToLive = resultTimeToLive;
+	}
+
+}
@@ -16,25 +16,40 @@
 
 package org.springframework.cloud.servicebroker.autoconfigure.web;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.servicebroker.autoconfigure.web.exception.CatalogDefinitionDoesNotExistException;
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.util.ParametersDeserializer;
 import org.springframework.cloud.servicebroker.service.BeanCatalogService;
 import org.springframework.cloud.servicebroker.service.CatalogService;
 import org.springframework.cloud.servicebroker.service.NonBindableServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.ReloadableCatalogService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
 /**
  * {@link EnableAutoConfiguration Auto-configuration} for the service broker implementation beans.
  * <p>
  * Provides a default {@link CatalogService} bean if a {@link Catalog} bean is provided. A catalog may be defined in
- * external configuration, or via a Spring bean.
+ * external configuration, or via a Spring bean. A {@link ReloadableCatalogService} is provided instead when a catalog
+ * location is configured. A catalog may also be read from a snapshot compiled at build time by {@link CatalogCompiler}.
  * <p>
  * Provides a {@link NonBindableServiceInstanceBindingService} if a {@link ServiceInstanceBindingService} is not
  * provided, indicating that the service broker provides no bindable services.
@@ -72,6 +87,83 @@ public class ServiceBrokerAutoConfiguration {
 		return new NonBindableServiceInstanceBindingService();
 	}
 
+	/**
+	 * Conditionally provides a customizer that configures the application {@link ObjectMapper} to keep request
+	 * parameters as raw JSON tokens until they are read
+	 *
+	 * @return the bean
+	 * @see ParametersDeserializer
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "spring.cloud.openservicebroker", name = "raw-parameters-enabled", havingValue = "true")
+	public Jackson2ObjectMapperBuilderCustomizer rawParametersObjectMapperCustomizer() {
+		return builder -> builder.postConfigurer(ParametersDeserializer::enableRawParameters);
+	}
+
+	/**
+	 * Provides a {@link ReloadableCatalogService} bean when a catalog location is available in external configuration
+	 */
+	@Configuration
+	@ConditionalOnMissingBean(CatalogService.class)
+	@EnableConfigurationProperties(ServiceBrokerProperties.class)
+	@ConditionalOnProperty(prefix = "spring.cloud.openservicebroker", name = "catalog-location")
+	protected static class ReloadableCatalogConfiguration {
+
+		private final ServiceBrokerProperties serviceBrokerProperties;
+
+		/**
+		 * Construct a new {@link ReloadableCatalogConfiguration}
+		 *
+		 * @param serviceBrokerProperties the service broker properties
+		 */
+		public ReloadableCatalogConfiguration(ServiceBrokerProperties serviceBrokerProperties) {
+			this.serviceBrokerProperties = serviceBrokerProperties;
+		}
+
+		/**
+		 * Provide a {@link ReloadableCatalogService} bean
+		 *
+		 * @param objectMapper the object mapper used to read the catalog
+		 * @return the bean
+		 */
+		@Bean(initMethod = "start", destroyMethod = "close")
+		public ReloadableCatalogService reloadableCatalogService(ObjectProvider<ObjectMapper> objectMapper) {
+			return new ReloadableCatalogService(Paths.get(this.serviceBrokerProperties.getCatalogLocation()),
+					objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build()));
+		}
+
+	}
+
+	/**
+	 * Provides a {@link Catalog} bean read from a catalog snapshot compiled by {@link CatalogCompiler} when a snapshot
+	 * location is available in external configuration
+	 */
+	@Configuration
+	@ConditionalOnMissingBean({Catalog.class, CatalogService.class})
+	@ConditionalOnProperty(prefix = "spring.cloud.openservicebroker", name = "catalog-snapshot")
+	protected static class CatalogSnapshotConfiguration {
+
+		/**
+		 * Provide a {@link Catalog} bean
+		 *
+		 * @param snapshot the location of the catalog snapshot
+		 * @param resourceLoader the resource loader used to resolve the snapshot location
+		 * @param objectMapper the object mapper used to read the snapshot
+		 * @return the bean
+		 * @throws IOException if the snapshot cannot be read
+		 */
+		@Bean
+		public Catalog snapshotCatalog(@Value("${spring.cloud.openservicebroker.catalog-snapshot}") String snapshot,
+				ResourceLoader resourceLoader, ObjectProvider<ObjectMapper> objectMapper) throws IOException {
+			Resource resource = resourceLoader.getResource(snapshot);
+			try (InputStream in = resource.getInputStream()) {
+				return objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build())
+						.readValue(in, Catalog.class);
+			}
+		}
+
+	}
+
 	/**
 	 * Provides a {@link Catalog} bean when catalog properties are available in external configuration
 	 */
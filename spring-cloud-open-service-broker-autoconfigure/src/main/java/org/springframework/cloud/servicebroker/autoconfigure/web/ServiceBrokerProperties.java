@@ -34,6 +34,12 @@ public class ServiceBrokerProperties {
 	@NestedConfigurationProperty
 	private Catalog catalog;
 
+	/**
+	 * Location of a JSON catalog file, or a directory of JSON catalog files, that is watched and reloaded when it
+	 * changes.
+	 */
+	private String catalogLocation;
+
 	public String getApiVersion() {
 		return apiVersion;
 	}
@@ -50,4 +56,12 @@ public class ServiceBrokerProperties {
 		this.catalog = catalog;
 	}
 
+	public String getCatalogLocation() {
+		return catalogLocation;
+	}
+
+	public void setCatalogLocation(String catalogLocation) {
+		this.catalogLocation = catalogLocation;
+	}
+
 }
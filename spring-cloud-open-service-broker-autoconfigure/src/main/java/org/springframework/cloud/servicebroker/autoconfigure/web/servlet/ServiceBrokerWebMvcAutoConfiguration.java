@@ -16,15 +16,34 @@
 
 package org.springframework.cloud.servicebroker.autoconfigure.web.servlet;
 
+import java.util.EnumSet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
 import org.springframework.cloud.servicebroker.autoconfigure.web.EventFlowsAutoConfiguration;
+import org.springframework.cloud.servicebroker.autoconfigure.web.IdempotencyAutoConfiguration;
+import org.springframework.cloud.servicebroker.autoconfigure.web.OperationTrackingAutoConfiguration;
+import org.springframework.cloud.servicebroker.autoconfigure.web.OriginatingIdentityParserMetrics;
+import org.springframework.cloud.servicebroker.autoconfigure.web.ParameterSchemaValidatorMetrics;
+import org.springframework.cloud.servicebroker.autoconfigure.web.RequestCoalescingAutoConfiguration;
 import org.springframework.cloud.servicebroker.autoconfigure.web.ServiceBrokerAutoConfiguration;
 import org.springframework.cloud.servicebroker.autoconfigure.web.exception.ServiceInstanceServiceBeanDoesNotExistException;
+import org.springframework.cloud.servicebroker.controller.CatalogContentEncoding;
 import org.springframework.cloud.servicebroker.controller.CatalogController;
+import org.springframework.cloud.servicebroker.controller.CatalogResponseCache;
+import org.springframework.cloud.servicebroker.controller.OriginatingIdentityParser;
+import org.springframework.cloud.servicebroker.controller.ParameterSchemaValidator;
 import org.springframework.cloud.servicebroker.controller.ServiceBrokerWebMvcExceptionHandler;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceBindingController;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceController;
@@ -33,9 +52,22 @@ import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingEve
 import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceEventService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.async.AutoAsyncExecutor;
+import org.springframework.cloud.servicebroker.service.async.AutoAsyncServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.async.AutoAsyncServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.coalescing.CoalescingServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.coalescing.CoalescingServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.coalescing.RequestCoalescer;
 import org.springframework.cloud.servicebroker.service.events.EventFlowRegistries;
+import org.springframework.cloud.servicebroker.service.idempotency.IdempotencyCache;
+import org.springframework.cloud.servicebroker.service.idempotency.IdempotentServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.idempotency.IdempotentServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.operation.AsyncOperationTracker;
+import org.springframework.cloud.servicebroker.service.operation.OperationTrackingServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.operation.OperationTrackingServiceInstanceService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
 /**
  * {@link EnableAutoConfiguration Auto-configuration} for the service broker REST API endpoints.
@@ -45,7 +77,9 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 @AutoConfigureAfter({WebMvcAutoConfiguration.class,
-		ServiceBrokerAutoConfiguration.class, EventFlowsAutoConfiguration.class})
+		ServiceBrokerAutoConfiguration.class, EventFlowsAutoConfiguration.class,
+		OperationTrackingAutoConfiguration.class, RequestCoalescingAutoConfiguration.class,
+		IdempotencyAutoConfiguration.class})
 @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ServiceBrokerWebMvcAutoConfiguration {
 
@@ -62,51 +96,133 @@ public class ServiceBrokerWebMvcAutoConfiguration {
 	 * @param serviceInstanceService the ServiceInstanceService bean
 	 * @param serviceInstanceBindingService the ServiceInstanceBindingService bean
 	 * @param eventFlowRegistries the EventFlowRegistries bean
+	 * @param asyncOperationTracker the AsyncOperationTracker bean, if available
+	 * @param autoAsyncExecutor the AutoAsyncExecutor bean, if available
+	 * @param requestCoalescer the RequestCoalescer bean, if available
+	 * @param idempotencyCache the IdempotencyCache bean, if available
 	 */
 	protected ServiceBrokerWebMvcAutoConfiguration(CatalogService catalogService,
 			@Autowired(required = false) ServiceInstanceService serviceInstanceService,
 			ServiceInstanceBindingService serviceInstanceBindingService,
-			EventFlowRegistries eventFlowRegistries) {
+			EventFlowRegistries eventFlowRegistries, ObjectProvider<AsyncOperationTracker> asyncOperationTracker,
+			ObjectProvider<AutoAsyncExecutor> autoAsyncExecutor,
+			ObjectProvider<RequestCoalescer> requestCoalescer, ObjectProvider<IdempotencyCache> idempotencyCache) {
 		if (serviceInstanceService == null) {
 			throw new ServiceInstanceServiceBeanDoesNotExistException();
 		}
 		this.catalogService = catalogService;
-		this.serviceInstanceEventService = new ServiceInstanceEventService(
-				serviceInstanceService, eventFlowRegistries);
-		this.serviceInstanceBindingEventService = new ServiceInstanceBindingEventService(
-				serviceInstanceBindingService, eventFlowRegistries);
+		ServiceInstanceService instanceService = serviceInstanceService;
+		ServiceInstanceBindingService bindingService = serviceInstanceBindingService;
+		AutoAsyncExecutor executor = autoAsyncExecutor.getIfAvailable();
+		if (executor != null) {
+			instanceService = new AutoAsyncServiceInstanceService(instanceService, executor);
+			bindingService = new AutoAsyncServiceInstanceBindingService(bindingService, executor);
+		}
+		AsyncOperationTracker tracker = asyncOperationTracker.getIfAvailable();
+		if (tracker != null) {
+			instanceService = new OperationTrackingServiceInstanceService(instanceService, tracker);
+			bindingService = new OperationTrackingServiceInstanceBindingService(bindingService, tracker);
+		}
+		RequestCoalescer coalescer = requestCoalescer.getIfAvailable();
+		if (coalescer != null) {
+			instanceService = new CoalescingServiceInstanceService(instanceService, coalescer);
+			bindingService = new CoalescingServiceInstanceBindingService(bindingService, coalescer);
+		}
+		IdempotencyCache cache = idempotencyCache.getIfAvailable();
+		if (cache != null) {
+			instanceService = new IdempotentServiceInstanceService(instanceService, cache);
+			bindingService = new IdempotentServiceInstanceBindingService(bindingService, cache);
+		}
+		this.serviceInstanceEventService = new ServiceInstanceEventService(instanceService, eventFlowRegistries);
+		this.serviceInstanceBindingEventService = new ServiceInstanceBindingEventService(bindingService,
+				eventFlowRegistries);
 	}
 
 	/**
 	 * Provide a {@link CatalogController} bean
 	 *
+	 * @param catalogResponseCache the CatalogResponseCache bean, if available
+	 * @return the bean
+	 */
+	@Bean
+	public CatalogController catalogController(ObjectProvider<CatalogResponseCache> catalogResponseCache) {
+		return new CatalogController(this.catalogService, catalogResponseCache.getIfAvailable());
+	}
+
+	/**
+	 * Conditionally provide a {@link CatalogResponseCache} bean that produces {@literal byte[]} response bodies
+	 *
+	 * @param objectMapper the ObjectMapper bean, if available
+	 * @param compressionEnabled whether to pre-compress the catalog with gzip and deflate
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(CatalogResponseCache.class)
+	@ConditionalOnProperty(prefix = "spring.cloud.openservicebroker", name = "catalog-cache-enabled", havingValue = "true", matchIfMissing = true)
+	public CatalogResponseCache catalogResponseCache(ObjectProvider<ObjectMapper> objectMapper,
+			@Value("${spring.cloud.openservicebroker.catalog-compression-enabled:true}") boolean compressionEnabled) {
+		return new CatalogResponseCache(objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build()),
+				null, compressionEnabled ? EnumSet.of(CatalogContentEncoding.GZIP, CatalogContentEncoding.DEFLATE) :
+						EnumSet.noneOf(CatalogContentEncoding.class));
+	}
+
+	/**
+	 * Conditionally provide an {@link OriginatingIdentityParser} bean
+	 *
+	 * @param objectMapper the ObjectMapper bean, if available
+	 * @param cacheSize the number of originating identity header values for which the parsed context is cached
+	 * @param strict whether the originating identity header is validated when the request is received
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(OriginatingIdentityParser.class)
+	public OriginatingIdentityParser originatingIdentityParser(ObjectProvider<ObjectMapper> objectMapper,
+			@Value("${spring.cloud.openservicebroker.originating-identity-cache-size:"
+					+ OriginatingIdentityParser.DEFAULT_CACHE_SIZE + "}") int cacheSize,
+			@Value("${spring.cloud.openservicebroker.originating-identity-strict:false}") boolean strict) {
+		return new OriginatingIdentityParser(
+				objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build()), cacheSize, strict);
+	}
+
+	/**
+	 * Conditionally provide a {@link ParameterSchemaValidator} bean
+	 *
 	 * @return the bean
 	 */
 	@Bean
-	public CatalogController catalogController() {
-		return new CatalogController(this.catalogService);
+	@ConditionalOnMissingBean(ParameterSchemaValidator.class)
+	@ConditionalOnProperty(prefix = "spring.cloud.openservicebroker", name = "parameter-validation-enabled", havingValue = "true")
+	public ParameterSchemaValidator parameterSchemaValidator() {
+		return new ParameterSchemaValidator();
 	}
 
 	/**
 	 * Provide a {@link ServiceInstanceController} bean
 	 *
+	 * @param originatingIdentityParser the OriginatingIdentityParser bean
+	 * @param parameterSchemaValidator the ParameterSchemaValidator bean, if available
 	 * @return the bean
 	 */
 	@Bean
-	public ServiceInstanceController serviceInstanceController() {
+	public ServiceInstanceController serviceInstanceController(OriginatingIdentityParser originatingIdentityParser,
+			ObjectProvider<ParameterSchemaValidator> parameterSchemaValidator) {
 		return new ServiceInstanceController(this.catalogService,
-				this.serviceInstanceEventService);
+				this.serviceInstanceEventService, originatingIdentityParser, parameterSchemaValidator.getIfAvailable());
 	}
 
 	/**
 	 * Provide a {@link ServiceInstanceBindingController} bean
 	 *
+	 * @param originatingIdentityParser the OriginatingIdentityParser bean
+	 * @param parameterSchemaValidator the ParameterSchemaValidator bean, if available
 	 * @return the bean
 	 */
 	@Bean
-	public ServiceInstanceBindingController serviceInstanceBindingController() {
-		return new ServiceInstanceBindingController(this.catalogService,
-				this.serviceInstanceBindingEventService);
+	public ServiceInstanceBindingController serviceInstanceBindingController(
+			OriginatingIdentityParser originatingIdentityParser,
+			ObjectProvider<ParameterSchemaValidator> parameterSchemaValidator) {
+		return new ServiceInstanceBindingController(this.catalogService, this.serviceInstanceBindingEventService,
+				originatingIdentityParser, parameterSchemaValidator.getIfAvailable());
 	}
 
 	/**
@@ -129,4 +245,40 @@ public class ServiceBrokerWebMvcAutoConfiguration {
 		return new RequestIdentityInterceptor();
 	}
 
+	/**
+	 * Binds the metrics of the request parsing and validation components when Micrometer is available
+	 */
+	@Configuration
+	@ConditionalOnClass(MeterBinder.class)
+	protected static class ServiceBrokerRequestMetricsConfiguration {
+
+		/**
+		 * Conditionally create a new {@link OriginatingIdentityParserMetrics} bean
+		 *
+		 * @param originatingIdentityParser the OriginatingIdentityParser bean
+		 * @return the bean
+		 */
+		@Bean
+		@ConditionalOnMissingBean(OriginatingIdentityParserMetrics.class)
+		public OriginatingIdentityParserMetrics originatingIdentityParserMetrics(
+				OriginatingIdentityParser originatingIdentityParser) {
+			return new OriginatingIdentityParserMetrics(originatingIdentityParser);
+		}
+
+		/**
+		 * Conditionally create a new {@link ParameterSchemaValidatorMetrics} bean
+		 *
+		 * @param parameterSchemaValidator the ParameterSchemaValidator bean
+		 * @return the bean
+		 */
+		@Bean
+		@ConditionalOnMissingBean(ParameterSchemaValidatorMetrics.class)
+		@ConditionalOnProperty(prefix = "spring.cloud.openservicebroker", name = "parameter-validation-enabled", havingValue = "true")
+		public ParameterSchemaValidatorMetrics parameterSchemaValidatorMetrics(
+				ParameterSchemaValidator parameterSchemaValidator) {
+			return new ParameterSchemaValidatorMetrics(parameterSchemaValidator);
+		}
+
+	}
+
 }
@@ -69,9 +69,11 @@ public final class MetadataUtils {
 	}
 
 	private static List<Object> convertNumberedMapToArray(Map<String, Object> map) {
-		List<Object> list = new ArrayList<>(map.size());
-		for (int i = 0; map.get(Integer.toString(i)) != null; i++) {
-			Object arrayItem = map.get(Integer.toString(i));
+		Object[] items = new Object[map.size()];
+		map.forEach((key, value) -> items[Integer.parseInt(key)] = value);
+		List<Object> list = new ArrayList<>(items.length);
+		for (Object item : items) {
+			Object arrayItem = item;
 			if (arrayItem instanceof Map) {
 				@SuppressWarnings("unchecked")
 				Map<String, Object> castedArrayItem = (Map<String, Object>) arrayItem;
@@ -88,14 +90,40 @@ public final class MetadataUtils {
 		return convertedList;
 	}
 
+	/**
+	 * A map is numbered when its keys are exactly the indices {@literal 0} to {@literal size - 1}, written without
+	 * leading zeros, and none of its values are null. Since map keys are unique, this holds when every key is such an
+	 * index, which is checked in a single pass over the entries.
+	 */
 	private static boolean isNumberedMap(Map<String, Object> map) {
-		int matchingKeyIndex = -1;
-		for (int i = 0; map.get(Integer.toString(i)) != null; i++) {
-			matchingKeyIndex = i;
+		if (map.isEmpty()) {
+			return false;
+		}
+		for (Map.Entry<String, Object> entry : map.entrySet()) {
+			if (entry.getValue() == null || !isIndex(entry.getKey(), map.size())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isIndex(String key, int size) {
+		int length = key.length();
+		if (length == 0 || length > 1 && key.charAt(0) == '0') {
+			return false;
+		}
+		int index = 0;
+		for (int i = 0; i < length; i++) {
+			char c = key.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+			index = index * 10 + c - '0';
+			if (index >= size) {
+				return false;
+			}
 		}
-		boolean atLeastOneIntegerIndexFound = matchingKeyIndex >= 0;
-		boolean mapHasOnlyIntegerIndices = matchingKeyIndex == map.size() - 1;
-		return atLeastOneIntegerIndexFound && mapHasOnlyIntegerIndices;
+		return true;
 	}
 
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCompilerTest {
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void catalogIsCompiledFromYaml() throws IOException {
+		Catalog catalog = CatalogCompiler.compile(new ClassPathResource("catalog-minimal.yml"));
+
+		assertThat(catalog.getServiceDefinitions()).hasSize(1);
+		ServiceDefinition serviceDefinition = catalog.getServiceDefinitions().get(0);
+		assertThat(serviceDefinition.getId()).isEqualTo("service-one-id");
+		assertThat(serviceDefinition.getPlans()).extracting(Plan::getId).containsExactly("plan-one-id");
+	}
+
+	@Test
+	void snapshotMatchesCompiledCatalog() throws IOException {
+		Catalog catalog = CatalogCompiler.compile(new ClassPathResource("catalog-full.yml"));
+		Path snapshot = tempDir.resolve("catalog-snapshot.json");
+
+		CatalogCompiler.main(new String[] {new ClassPathResource("catalog-full.yml").getFile().getPath(),
+				snapshot.toString()});
+
+		assertThat(objectMapper.readValue(snapshot.toFile(), Catalog.class)).isEqualTo(catalog);
+	}
+
+	@Test
+	void catalogIsCreatedFromSnapshot() throws IOException {
+		Catalog catalog = CatalogCompiler.compile(new ClassPathResource("catalog-full.yml"));
+		Path snapshot = tempDir.resolve("catalog-snapshot.json");
+		CatalogCompiler.writeSnapshot(catalog, snapshot, objectMapper);
+
+		new ApplicationContextRunner()
+				.withConfiguration(AutoConfigurations.of(ServiceBrokerAutoConfiguration.class))
+				.withPropertyValues("spring.cloud.openservicebroker.catalog-snapshot=" + snapshot.toUri())
+				.run(context -> {
+					assertThat(context).hasSingleBean(Catalog.class);
+					assertThat(context.getBean(Catalog.class)).isEqualTo(catalog);
+				});
+	}
+
+}
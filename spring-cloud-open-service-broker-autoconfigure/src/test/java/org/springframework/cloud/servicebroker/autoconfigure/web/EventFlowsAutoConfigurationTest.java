@@ -16,8 +16,11 @@
 
 package org.springframework.cloud.servicebroker.autoconfigure.web;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Mono;
 
@@ -45,6 +48,10 @@ import org.springframework.cloud.servicebroker.service.events.CreateServiceInsta
 import org.springframework.cloud.servicebroker.service.events.CreateServiceInstanceEventFlowRegistry;
 import org.springframework.cloud.servicebroker.service.events.DeleteServiceInstanceBindingEventFlowRegistry;
 import org.springframework.cloud.servicebroker.service.events.DeleteServiceInstanceEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.DetachedCompletionQueue;
+import org.springframework.cloud.servicebroker.service.events.EventFlowExecutionPolicy;
+import org.springframework.cloud.servicebroker.service.events.EventFlowExecutionPolicy.Dispatch;
+import org.springframework.cloud.servicebroker.service.events.EventFlowExecutionPolicy.TimeoutAction;
 import org.springframework.cloud.servicebroker.service.events.EventFlowRegistries;
 import org.springframework.cloud.servicebroker.service.events.EventFlowRegistry;
 import org.springframework.cloud.servicebroker.service.events.UpdateServiceInstanceEventFlowRegistry;
@@ -175,6 +182,84 @@ class EventFlowsAutoConfigurationTest {
 				});
 	}
 
+	@Test
+	void executionPoliciesAreConfiguredFromProperties() {
+		this.contextRunner
+				.withPropertyValues(
+						"spring.cloud.openservicebroker.event-flows.defaults.timeout=5s",
+						"spring.cloud.openservicebroker.event-flows.defaults.on-timeout=skip",
+						"spring.cloud.openservicebroker.event-flows.registries.create-instance.dispatch=sequential",
+						"spring.cloud.openservicebroker.event-flows.registries.delete-instance.dispatch=concurrent",
+						"spring.cloud.openservicebroker.event-flows.registries.delete-instance.concurrency=2",
+						"spring.cloud.openservicebroker.event-flows.registries.delete-instance.on-timeout=fail",
+						"spring.cloud.openservicebroker.event-flows.registries.delete-instance.scheduler=dedicated")
+				.run(context -> {
+					assertBeans(context);
+					EventFlowExecutionPolicy create = context.getBean(CreateServiceInstanceEventFlowRegistry.class)
+							.getExecutionPolicy();
+					assertThat(create.getDispatch()).isEqualTo(Dispatch.SEQUENTIAL);
+					assertThat(create.getTimeout()).isEqualTo(Duration.ofSeconds(5));
+					assertThat(create.getTimeoutAction()).isEqualTo(TimeoutAction.SKIP);
+					assertThat(create.getScheduler()).isNull();
+
+					EventFlowExecutionPolicy delete = context.getBean(DeleteServiceInstanceEventFlowRegistry.class)
+							.getExecutionPolicy();
+					assertThat(delete.getDispatch()).isEqualTo(Dispatch.CONCURRENT);
+					assertThat(delete.getConcurrency()).isEqualTo(2);
+					assertThat(delete.getTimeout()).isEqualTo(Duration.ofSeconds(5));
+					assertThat(delete.getTimeoutAction()).isEqualTo(TimeoutAction.FAIL);
+					assertThat(delete.getScheduler()).isNotNull();
+
+					EventFlowExecutionPolicy update = context.getBean(UpdateServiceInstanceEventFlowRegistry.class)
+							.getExecutionPolicy();
+					assertThat(update.getDispatch()).isEqualTo(Dispatch.PARALLEL);
+					assertThat(update.getTimeoutAction()).isEqualTo(TimeoutAction.SKIP);
+				});
+	}
+
+	@Test
+	void completionFlowsAreDetachedFromProperties() {
+		this.contextRunner
+				.withPropertyValues(
+						"spring.cloud.openservicebroker.event-flows.registries.create-instance.completion=detached",
+						"spring.cloud.openservicebroker.event-flows.detached-completion.capacity=10",
+						"spring.cloud.openservicebroker.event-flows.detached-completion.batch-size=5")
+				.run(context -> {
+					assertBeans(context);
+					DetachedCompletionQueue queue = context.getBean(EventFlowExecutionPolicies.class)
+							.getCompletionQueue();
+					assertThat(queue).isNotNull();
+					assertThat(queue.getCapacity()).isEqualTo(10);
+					assertThat(context.getBean(CreateServiceInstanceEventFlowRegistry.class).getExecutionPolicy()
+							.getCompletionQueue()).isSameAs(queue);
+					assertThat(context.getBean(DeleteServiceInstanceEventFlowRegistry.class).getExecutionPolicy()
+							.getCompletionQueue()).isNull();
+
+					MeterRegistry meterRegistry = new SimpleMeterRegistry();
+					context.getBean(DetachedCompletionQueueMetrics.class).bindTo(meterRegistry);
+					assertThat(meterRegistry.get("servicebroker.event.flows.completion.queue.depth").gauge().value())
+							.isZero();
+				});
+	}
+
+	@Test
+	void completionQueueIsNotCreatedWithoutDetachedRegistries() {
+		this.contextRunner
+				.run(context -> {
+					assertThat(context.getBean(EventFlowExecutionPolicies.class).getCompletionQueue()).isNull();
+					MeterRegistry meterRegistry = new SimpleMeterRegistry();
+					context.getBean(DetachedCompletionQueueMetrics.class).bindTo(meterRegistry);
+					assertThat(meterRegistry.getMeters()).isEmpty();
+				});
+	}
+
+	@Test
+	void executionPolicyForUnknownRegistryFails() {
+		this.contextRunner
+				.withPropertyValues("spring.cloud.openservicebroker.event-flows.registries.unknown.dispatch=sequential")
+				.run(context -> assertThat(context).hasFailed());
+	}
+
 	private void assertBeans(AssertableApplicationContext context) {
 		assertThat(context)
 				.getBean(CreateServiceInstanceEventFlowRegistry.class)
@@ -233,18 +318,15 @@ class EventFlowsAutoConfigurationTest {
 
 	private void assertEventFlowBeans(EventFlowRegistry<?, ?, ?, ?, ?> registry, int initializationFlowCount,
 			int completionFlowCount, int errorFlowCount) {
-		List<?> initializationFlows = (List<?>) ReflectionTestUtils
-				.getField(registry, "initializationFlows");
-		assertThat(initializationFlows).isNotNull();
-		assertThat(initializationFlows.size()).isEqualTo(initializationFlowCount);
-
-		List<?> completionFlows = (List<?>) ReflectionTestUtils.getField(registry, "completionFlows");
-		assertThat(completionFlows).isNotNull();
-		assertThat(completionFlows.size()).isEqualTo(completionFlowCount);
-
-		List<?> errorFlows = (List<?>) ReflectionTestUtils.getField(registry, "errorFlows");
-		assertThat(errorFlows).isNotNull();
-		assertThat(errorFlows.size()).isEqualTo(errorFlowCount);
+		assertThat(flowCount(registry, "initializationFlows")).isEqualTo(initializationFlowCount);
+		assertThat(flowCount(registry, "completionFlows")).isEqualTo(completionFlowCount);
+		assertThat(flowCount(registry, "errorFlows")).isEqualTo(errorFlowCount);
+	}
+
+	private static int flowCount(EventFlowRegistry<?, ?, ?, ?, ?> registry, String field) {
+		AtomicReference<?> flows = (AtomicReference<?>) ReflectionTestUtils.getField(registry, field);
+		assertThat(flows).isNotNull();
+		return ((Object[]) flows.get()).length;
 	}
 
 	@TestConfiguration
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.servicebroker.service.idempotency.IdempotencyCache;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyAutoConfigurationTest {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(IdempotencyAutoConfiguration.class));
+
+	@Test
+	void cacheIsNotCreatedByDefault() {
+		contextRunner.run(context -> assertThat(context).doesNotHaveBean(IdempotencyCache.class)
+				.doesNotHaveBean(IdempotencyCacheMetrics.class));
+	}
+
+	@Test
+	void cacheIsCreatedWhenEnabled() {
+		contextRunner
+				.withPropertyValues("spring.cloud.openservicebroker.idempotency.enabled=true",
+						"spring.cloud.openservicebroker.idempotency.time-to-live=30s")
+				.run(context -> {
+					assertThat(context).hasSingleBean(IdempotencyCache.class);
+					assertThat(ReflectionTestUtils.getField(context.getBean(IdempotencyCache.class),
+							"timeToLive")).isEqualTo(Duration.ofSeconds(30));
+				});
+	}
+
+	@Test
+	void idempotencyMetricsAreBound() {
+		contextRunner
+				.withPropertyValues("spring.cloud.openservicebroker.idempotency.enabled=true")
+				.run(context -> {
+					IdempotencyCache cache = context.getBean(IdempotencyCache.class);
+					cache.execute("key", "fingerprint", Mono::never, value -> value, IllegalStateException::new)
+							.subscribe();
+					cache.execute("key", "fingerprint", Mono::never, value -> value, IllegalStateException::new)
+							.subscribe();
+					cache.execute("key", "other-fingerprint", Mono::never, value -> value, IllegalStateException::new)
+							.onErrorResume(IllegalStateException.class, e -> Mono.empty())
+							.subscribe();
+
+					MeterRegistry meterRegistry = new SimpleMeterRegistry();
+					context.getBean(IdempotencyCacheMetrics.class).bindTo(meterRegistry);
+					assertThat(meterRegistry.get("servicebroker.idempotency.requests").functionCounter()
+							.count()).isEqualTo(3);
+					assertThat(meterRegistry.get("servicebroker.idempotency.replays").functionCounter()
+							.count()).isEqualTo(1);
+					assertThat(meterRegistry.get("servicebroker.idempotency.conflicts").functionCounter()
+							.count()).isEqualTo(1);
+					assertThat(meterRegistry.get("servicebroker.idempotency.outcomes").gauge().value())
+							.isEqualTo(1);
+				});
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.servicebroker.service.async.AutoAsyncExecutor;
+import org.springframework.cloud.servicebroker.service.operation.AdaptivePollingIntervals;
+import org.springframework.cloud.servicebroker.service.operation.AsyncOperationTracker;
+import org.springframework.cloud.servicebroker.service.operation.FileOperationStateStore;
+import org.springframework.cloud.servicebroker.service.operation.InMemoryOperationStateStore;
+import org.springframework.cloud.servicebroker.service.operation.OperationStateStore;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OperationTrackingAutoConfigurationTest {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(OperationTrackingAutoConfiguration.class));
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void trackerIsNotCreatedByDefault() {
+		contextRunner.run(context -> assertThat(context).doesNotHaveBean(AsyncOperationTracker.class));
+	}
+
+	@Test
+	void trackerIsCreatedWhenEnabled() {
+		contextRunner
+				.withPropertyValues("spring.cloud.openservicebroker.operation-tracking.enabled=true",
+						"spring.cloud.openservicebroker.operation-tracking.time-to-live=30s",
+						"spring.cloud.openservicebroker.operation-tracking.long-poll-timeout=20s")
+				.run(context -> {
+					assertThat(context).hasSingleBean(AsyncOperationTracker.class);
+					assertThat(context.getBean(OperationTrackingProperties.class).getLongPollTimeout())
+							.isEqualTo(Duration.ofSeconds(20));
+					assertThat(ReflectionTestUtils.getField(context.getBean(AsyncOperationTracker.class),
+							"timeToLive")).isEqualTo(Duration.ofSeconds(30).toMillis());
+					assertThat(ReflectionTestUtils.getField(context.getBean(AsyncOperationTracker.class),
+							"pollingIntervals")).isNull();
+					assertThat(context.getBean(OperationStateStore.class))
+							.isInstanceOf(InMemoryOperationStateStore.class);
+					assertThat(context).doesNotHaveBean(AutoAsyncExecutor.class);
+				});
+	}
+
+	@Test
+	void trackerDerivesRetryAfterWhenAdaptiveRetryAfterIsEnabled() {
+		contextRunner
+				.withPropertyValues("spring.cloud.openservicebroker.operation-tracking.enabled=true",
+						"spring.cloud.openservicebroker.operation-tracking.adaptive-retry-after=true",
+						"spring.cloud.openservicebroker.operation-tracking.minimum-retry-after=2s",
+						"spring.cloud.openservicebroker.operation-tracking.maximum-retry-after=30s")
+				.run(context -> {
+					assertThat(context).hasSingleBean(AsyncOperationTracker.class);
+					Object pollingIntervals = ReflectionTestUtils.getField(
+							context.getBean(AsyncOperationTracker.class), "pollingIntervals");
+					assertThat(pollingIntervals).isInstanceOf(AdaptivePollingIntervals.class);
+					assertThat(ReflectionTestUtils.getField(pollingIntervals, "minimumInterval"))
+							.isEqualTo(Duration.ofSeconds(2).toMillis());
+					assertThat(ReflectionTestUtils.getField(pollingIntervals, "maximumInterval"))
+							.isEqualTo(Duration.ofSeconds(30).toMillis());
+				});
+	}
+
+	@Test
+	void trackerWritesOperationsToStoreDirectory() {
+		Path storeDirectory = directory.resolve("operations");
+		contextRunner
+				.withPropertyValues("spring.cloud.openservicebroker.operation-tracking.enabled=true",
+						"spring.cloud.openservicebroker.operation-tracking.store-directory=" + storeDirectory)
+				.run(context -> {
+					assertThat(context).hasSingleBean(AsyncOperationTracker.class);
+					assertThat(context.getBean(OperationStateStore.class)).isInstanceOf(FileOperationStateStore.class);
+					assertThat(ReflectionTestUtils.getField(context.getBean(AsyncOperationTracker.class),
+							"operations")).isSameAs(context.getBean(OperationStateStore.class));
+					assertThat(Files.exists(storeDirectory.resolve("operations.log"))).isTrue();
+				});
+	}
+
+	@Test
+	void autoAsyncExecutorIsCreatedWhenDeadlineIsSet() {
+		contextRunner
+				.withPropertyValues("spring.cloud.openservicebroker.operation-tracking.enabled=true",
+						"spring.cloud.openservicebroker.operation-tracking.auto-async-deadline=15s")
+				.run(context -> {
+					assertThat(context).hasSingleBean(AutoAsyncExecutor.class);
+					AutoAsyncExecutor executor = context.getBean(AutoAsyncExecutor.class);
+					assertThat(executor.getTracker()).isSameAs(context.getBean(AsyncOperationTracker.class));
+					assertThat(ReflectionTestUtils.getField(executor, "deadline")).isEqualTo(Duration.ofSeconds(15));
+				});
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.servicebroker.service.coalescing.RequestCoalescer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescingAutoConfigurationTest {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(RequestCoalescingAutoConfiguration.class));
+
+	@Test
+	void coalescerIsNotCreatedByDefault() {
+		contextRunner.run(context -> assertThat(context).doesNotHaveBean(RequestCoalescer.class)
+				.doesNotHaveBean(RequestCoalescerMetrics.class));
+	}
+
+	@Test
+	void coalescerIsCreatedWhenEnabled() {
+		contextRunner
+				.withPropertyValues("spring.cloud.openservicebroker.request-coalescing.enabled=true",
+						"spring.cloud.openservicebroker.request-coalescing.result-time-to-live=500ms")
+				.run(context -> {
+					assertThat(context).hasSingleBean(RequestCoalescer.class);
+					assertThat(ReflectionTestUtils.getField(context.getBean(RequestCoalescer.class),
+							"resultTimeToLive")).isEqualTo(Duration.ofMillis(500));
+				});
+	}
+
+	@Test
+	void coalescingMetricsAreBound() {
+		contextRunner
+				.withPropertyValues("spring.cloud.openservicebroker.request-coalescing.enabled=true")
+				.run(context -> {
+					RequestCoalescer coalescer = context.getBean(RequestCoalescer.class);
+					Mono<String> read = coalescer.coalesce("key", Mono::never);
+					read.subscribe();
+					read.subscribe();
+
+					MeterRegistry meterRegistry = new SimpleMeterRegistry();
+					context.getBean(RequestCoalescerMetrics.class).bindTo(meterRegistry);
+					assertThat(meterRegistry.get("servicebroker.request.coalescing.requests").functionCounter()
+							.count()).isEqualTo(2);
+					assertThat(meterRegistry.get("servicebroker.request.coalescing.executions").functionCounter()
+							.count()).isEqualTo(1);
+					assertThat(meterRegistry.get("servicebroker.request.coalescing.ratio").gauge().value())
+							.isEqualTo(0.5);
+				});
+	}
+
+}
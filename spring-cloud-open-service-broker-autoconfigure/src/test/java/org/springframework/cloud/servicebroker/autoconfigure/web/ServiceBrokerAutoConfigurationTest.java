@@ -16,19 +16,30 @@
 
 package org.springframework.cloud.servicebroker.autoconfigure.web;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.beans.factory.UnsatisfiedDependencyException;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.diagnostics.FailureAnalysis;
 import org.springframework.boot.diagnostics.FailureAnalyzer;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.cloud.servicebroker.autoconfigure.web.exception.CatalogDefinitionDoesNotExistException;
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.util.ParametersDeserializer;
 import org.springframework.cloud.servicebroker.service.BeanCatalogService;
 import org.springframework.cloud.servicebroker.service.CatalogService;
 import org.springframework.cloud.servicebroker.service.NonBindableServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.ReloadableCatalogService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
 import org.springframework.context.annotation.Bean;
@@ -194,6 +205,46 @@ class ServiceBrokerAutoConfigurationTest {
 				});
 	}
 
+	@Test
+	void servicesAreCreatedFromCatalogLocation(@TempDir Path tempDir) throws IOException {
+		Path catalogFile = Files.write(tempDir.resolve("catalog.json"), ("{\"services\":[{\"id\":\"service-one-id\"," +
+				"\"name\":\"Service One\",\"description\":\"Description for Service One\"}]}")
+				.getBytes(StandardCharsets.UTF_8));
+
+		this.contextRunner
+				.withUserConfiguration(MissingCatalogServiceConfiguration.class)
+				.withPropertyValues("spring.cloud.openservicebroker.catalog-location=" + catalogFile)
+				.run((context) -> {
+					assertThat(context).doesNotHaveBean(Catalog.class);
+					assertThat(context)
+							.getBean(CatalogService.class)
+							.isExactlyInstanceOf(ReloadableCatalogService.class);
+
+					CatalogService catalogService = context.getBean(CatalogService.class);
+					assertThat(catalogService.getServiceDefinition("service-one-id").block()).isNotNull();
+				});
+	}
+
+	@Test
+	void rawParametersAreEnabledOnObjectMapper() {
+		this.contextRunner
+				.withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class))
+				.withUserConfiguration(MinimalWithCatalogConfiguration.class)
+				.withPropertyValues("spring.cloud.openservicebroker.raw-parameters-enabled=true")
+				.run((context) -> {
+					ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+					assertThat(objectMapper.getDeserializationConfig().getAttributes()
+							.getAttribute(ParametersDeserializer.RAW_PARAMETERS_ATTRIBUTE)).isEqualTo(Boolean.TRUE);
+				});
+	}
+
+	@Test
+	void rawParametersAreNotEnabledByDefault() {
+		this.contextRunner
+				.withUserConfiguration(MinimalWithCatalogConfiguration.class)
+				.run((context) -> assertThat(context).doesNotHaveBean(Jackson2ObjectMapperBuilderCustomizer.class));
+	}
+
 	@TestConfiguration
 	protected static class MinimalWithCatalogConfiguration {
 
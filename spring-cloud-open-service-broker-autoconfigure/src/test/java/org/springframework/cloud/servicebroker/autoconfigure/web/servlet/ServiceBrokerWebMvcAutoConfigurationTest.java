@@ -23,8 +23,13 @@ import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.UnsatisfiedDependencyException;
 import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
 import org.springframework.cloud.servicebroker.autoconfigure.web.AbstractServiceBrokerWebAutoConfigurationTest;
+import org.springframework.cloud.servicebroker.autoconfigure.web.OriginatingIdentityParserMetrics;
+import org.springframework.cloud.servicebroker.autoconfigure.web.ParameterSchemaValidatorMetrics;
 import org.springframework.cloud.servicebroker.autoconfigure.web.exception.ServiceInstanceServiceBeanDoesNotExistException;
 import org.springframework.cloud.servicebroker.controller.CatalogController;
+import org.springframework.cloud.servicebroker.controller.CatalogResponseCache;
+import org.springframework.cloud.servicebroker.controller.OriginatingIdentityParser;
+import org.springframework.cloud.servicebroker.controller.ParameterSchemaValidator;
 import org.springframework.cloud.servicebroker.controller.ServiceBrokerWebMvcExceptionHandler;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceBindingController;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceController;
@@ -47,7 +52,31 @@ class ServiceBrokerWebMvcAutoConfigurationTest extends AbstractServiceBrokerWebA
 				.run(context -> assertThat(context).hasSingleBean(CatalogController.class)
 						.hasSingleBean(ServiceInstanceController.class)
 						.hasSingleBean(ServiceInstanceBindingController.class)
-						.hasSingleBean(ServiceBrokerWebMvcExceptionHandler.class));
+						.hasSingleBean(ServiceBrokerWebMvcExceptionHandler.class)
+						.hasSingleBean(CatalogResponseCache.class)
+						.hasSingleBean(OriginatingIdentityParser.class)
+						.hasSingleBean(OriginatingIdentityParserMetrics.class)
+						.doesNotHaveBean(ParameterSchemaValidator.class)
+						.doesNotHaveBean(ParameterSchemaValidatorMetrics.class));
+	}
+
+	@Test
+	void parameterSchemaValidatorIsCreatedWhenEnabled() {
+		webApplicationContextRunner()
+				.withUserConfiguration(FullServicesConfiguration.class)
+				.withPropertyValues("spring.cloud.openservicebroker.parameter-validation-enabled=true")
+				.run(context -> assertThat(context)
+						.hasSingleBean(ParameterSchemaValidator.class)
+						.hasSingleBean(ParameterSchemaValidatorMetrics.class));
+	}
+
+	@Test
+	void catalogResponseCacheIsNotCreatedWhenDisabled() {
+		webApplicationContextRunner()
+				.withUserConfiguration(FullServicesConfiguration.class)
+				.withPropertyValues("spring.cloud.openservicebroker.catalog-cache-enabled=false")
+				.run(context -> assertThat(context).hasSingleBean(CatalogController.class)
+						.doesNotHaveBean(CatalogResponseCache.class));
 	}
 
 	@Test
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.service.events.AsyncOperationServiceInstanceBindingEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.AsyncOperationServiceInstanceEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.CreateServiceInstanceBindingEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.CreateServiceInstanceEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.DeleteServiceInstanceBindingEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.DeleteServiceInstanceEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.EventFlowRegistries;
+import org.springframework.cloud.servicebroker.service.events.UpdateServiceInstanceEventFlowRegistry;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Shared fixtures for the benchmarks.
+ *
+ * @author agent
+ */
+final class BenchmarkFixtures {
+
+	static final String SERVICE_DEFINITION_ID = "service-definition-id-0";
+
+	static final String PLAN_ID = "plan-id-0-0";
+
+	static final String CREATE_SERVICE_INSTANCE_REQUEST = "{"
+			+ "\"service_id\":\"" + SERVICE_DEFINITION_ID + "\","
+			+ "\"plan_id\":\"" + PLAN_ID + "\","
+			+ "\"organization_guid\":\"organization-guid\","
+			+ "\"space_guid\":\"space-guid\","
+			+ "\"context\":{\"platform\":\"cloudfoundry\",\"organizationGuid\":\"organization-guid\","
+			+ "\"spaceGuid\":\"space-guid\",\"instance_name\":\"instance-name\"},"
+			+ "\"parameters\":{\"size\":3,\"region\":\"eu-west-1\",\"tags\":[\"one\",\"two\"],"
+			+ "\"nested\":{\"enabled\":true,\"retention\":\"7d\"}}"
+			+ "}";
+
+	private BenchmarkFixtures() {
+	}
+
+	static ObjectMapper objectMapper() {
+		return Jackson2ObjectMapperBuilder.json().build();
+	}
+
+	static Catalog catalog(int serviceCount, int planCount) {
+		List<ServiceDefinition> serviceDefinitions = new ArrayList<>();
+		for (int i = 0; i < serviceCount; i++) {
+			List<Plan> plans = new ArrayList<>();
+			for (int j = 0; j < planCount; j++) {
+				plans.add(Plan.builder()
+						.id("plan-id-" + i + "-" + j)
+						.name("plan-" + i + "-" + j)
+						.description("A description of plan " + j + " of service " + i)
+						.metadata("costs", Collections.singletonMap("amount", Collections.singletonMap("usd", 10)))
+						.bindable(true)
+						.free(false)
+						.build());
+			}
+			serviceDefinitions.add(ServiceDefinition.builder()
+					.id("service-definition-id-" + i)
+					.name("service-" + i)
+					.description("A description of service " + i)
+					.bindable(true)
+					.tags("tag-one", "tag-two")
+					.metadata("displayName", "Service " + i)
+					.plans(plans)
+					.build());
+		}
+		return Catalog.builder()
+				.serviceDefinitions(serviceDefinitions)
+				.build();
+	}
+
+	static String originatingIdentityHeader(String userId) {
+		String properties = "{\"user_id\":\"" + userId + "\",\"user_name\":\"user@example.com\"}";
+		return "cloudfoundry " + Base64.getEncoder().encodeToString(properties.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static EventFlowRegistries eventFlowRegistries(CreateServiceInstanceEventFlowRegistry createInstanceRegistry) {
+		return new EventFlowRegistries(createInstanceRegistry,
+				new UpdateServiceInstanceEventFlowRegistry(null, null, null),
+				new DeleteServiceInstanceEventFlowRegistry(null, null, null),
+				new AsyncOperationServiceInstanceEventFlowRegistry(null, null, null),
+				new CreateServiceInstanceBindingEventFlowRegistry(null, null, null),
+				new DeleteServiceInstanceBindingEventFlowRegistry(null, null, null),
+				new AsyncOperationServiceInstanceBindingEventFlowRegistry(null, null, null));
+	}
+
+}
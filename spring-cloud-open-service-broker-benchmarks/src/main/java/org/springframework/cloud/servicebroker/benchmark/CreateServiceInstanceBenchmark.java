@@ -0,0 +1,121 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.controller.ServiceInstanceController;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.BeanCatalogService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceEventService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.events.CreateServiceInstanceEventFlowRegistry;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Measures a create service instance request end to end: reading the request body, dispatching through
+ * {@link ServiceInstanceController} and the event flow registries to a service that does no work, and writing the
+ * response body.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateServiceInstanceBenchmark {
+
+	private final Map<String, String> pathVariables = Collections.emptyMap();
+
+	private byte[] requestBody;
+
+	private String originatingIdentity;
+
+	private ObjectReader requestReader;
+
+	private ObjectWriter responseWriter;
+
+	private ServiceInstanceController controller;
+
+	@Setup
+	public void setUp() {
+		ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+		this.requestBody = BenchmarkFixtures.CREATE_SERVICE_INSTANCE_REQUEST.getBytes(StandardCharsets.UTF_8);
+		this.originatingIdentity = BenchmarkFixtures.originatingIdentityHeader("user-id");
+		this.requestReader = objectMapper.readerFor(CreateServiceInstanceRequest.class);
+		this.responseWriter = objectMapper.writerFor(CreateServiceInstanceResponse.class);
+		ServiceInstanceEventService serviceInstanceService = new ServiceInstanceEventService(
+				new NoOpServiceInstanceService(), BenchmarkFixtures.eventFlowRegistries(
+				new CreateServiceInstanceEventFlowRegistry(null, null, null)));
+		this.controller = new ServiceInstanceController(
+				new BeanCatalogService(BenchmarkFixtures.catalog(10, 5)), serviceInstanceService);
+	}
+
+	@Benchmark
+	public byte[] createServiceInstance() throws IOException {
+		CreateServiceInstanceRequest request = this.requestReader.readValue(this.requestBody);
+		ResponseEntity<CreateServiceInstanceResponse> response = this.controller.createServiceInstance(
+				this.pathVariables, "service-instance-id", true, "api-info-location", this.originatingIdentity,
+				"request-id", request)
+				.block();
+		return this.responseWriter.writeValueAsBytes(response.getBody());
+	}
+
+	private static final class NoOpServiceInstanceService implements ServiceInstanceService {
+
+		private final Mono<CreateServiceInstanceResponse> createResponse = Mono.just(
+				CreateServiceInstanceResponse.builder()
+						.dashboardUrl("https://dashboard.example.com/service-instance-id")
+						.build());
+
+		@Override
+		public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
+			return this.createResponse;
+		}
+
+		@Override
+		public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
+			return Mono.empty();
+		}
+
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.events.CreateServiceInstanceEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceCompletionFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceErrorFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceInitializationFlow;
+
+/**
+ * Measures dispatching a create service instance request to the initialization and completion flows of an
+ * {@link org.springframework.cloud.servicebroker.service.events.EventFlowRegistry}, including a registry with no
+ * flows, which is the most common case.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventFlowRegistryBenchmark {
+
+	/**
+	 * The number of flows of each kind in the registry
+	 */
+	@Param({"0", "1", "4"})
+	public int flowCount;
+
+	private CreateServiceInstanceEventFlowRegistry registry;
+
+	private CreateServiceInstanceRequest request;
+
+	private CreateServiceInstanceResponse response;
+
+	@Setup
+	public void setUp() {
+		List<CreateServiceInstanceInitializationFlow> initializationFlows = new ArrayList<>();
+		List<CreateServiceInstanceCompletionFlow> completionFlows = new ArrayList<>();
+		List<CreateServiceInstanceErrorFlow> errorFlows = new ArrayList<>();
+		for (int i = 0; i < this.flowCount; i++) {
+			initializationFlows.add(new CreateServiceInstanceInitializationFlow() {
+			});
+			completionFlows.add(new CreateServiceInstanceCompletionFlow() {
+			});
+			errorFlows.add(new CreateServiceInstanceErrorFlow() {
+			});
+		}
+		this.registry = new CreateServiceInstanceEventFlowRegistry(initializationFlows, completionFlows, errorFlows);
+		this.request = CreateServiceInstanceRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.serviceDefinitionId(BenchmarkFixtures.SERVICE_DEFINITION_ID)
+				.planId(BenchmarkFixtures.PLAN_ID)
+				.build();
+		this.response = CreateServiceInstanceResponse.builder().build();
+	}
+
+	@Benchmark
+	public Void initializationFlows() {
+		return this.registry.getInitializationFlows(this.request).then().block();
+	}
+
+	@Benchmark
+	public Void completionFlows() {
+		return this.registry.getCompletionFlows(this.request, this.response).then().block();
+	}
+
+	@Benchmark
+	public CreateServiceInstanceResponse attachFlows() {
+		return this.registry.attachFlows(this.request, Mono.just(this.response)).block();
+	}
+
+}
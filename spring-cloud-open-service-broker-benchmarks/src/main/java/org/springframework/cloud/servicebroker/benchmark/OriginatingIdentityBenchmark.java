@@ -0,0 +1,86 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.servicebroker.controller.BaseController;
+import org.springframework.cloud.servicebroker.controller.OriginatingIdentityParser;
+import org.springframework.cloud.servicebroker.model.Context;
+import org.springframework.cloud.servicebroker.service.BeanCatalogService;
+
+/**
+ * Measures parsing of the originating identity header by {@link BaseController#parseOriginatingIdentity(String)},
+ * with and without the cache of parsed header values.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OriginatingIdentityBenchmark {
+
+	/**
+	 * The size of the cache of parsed header values, {@literal 0} disables the cache
+	 */
+	@Param({"0", "256"})
+	public int cacheSize;
+
+	private String header;
+
+	private BenchmarkController controller;
+
+	@Setup
+	public void setUp() {
+		this.header = BenchmarkFixtures.originatingIdentityHeader("user-id");
+		this.controller = new BenchmarkController(new OriginatingIdentityParser(BenchmarkFixtures.objectMapper(),
+				this.cacheSize));
+	}
+
+	@Benchmark
+	public Context parseOriginatingIdentity() {
+		return this.controller.parse(this.header);
+	}
+
+	private static final class BenchmarkController extends BaseController {
+
+		private BenchmarkController(OriginatingIdentityParser originatingIdentityParser) {
+			super(new BeanCatalogService(BenchmarkFixtures.catalog(1, 1)), originatingIdentityParser);
+		}
+
+		private Context parse(String header) {
+			return parseOriginatingIdentity(header);
+		}
+
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.SuppressPropertiesBeanIntrospector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.servicebroker.model.util.ParameterBeanMapperUtils;
+
+/**
+ * Compares binding parameters with {@link ParameterBeanMapperUtils} against the previous implementation, which
+ * created a {@link BeanUtilsBean} and instantiated the target reflectively on every call.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParameterBeanMapperBenchmark {
+
+	private Map<String, Object> parameters;
+
+	@Setup
+	public void setUp() {
+		this.parameters = new HashMap<>();
+		this.parameters.put("name", "instance-name");
+		this.parameters.put("count", 3);
+		this.parameters.put("size", "1024");
+		this.parameters.put("enabled", true);
+		this.parameters.put("unknown", "ignored");
+		this.parameters.put("nested.region", "eu-west-1");
+	}
+
+	@Benchmark
+	public Parameters beanUtils() throws ReflectiveOperationException {
+		Parameters bean = Parameters.class.newInstance();
+		BeanUtilsBean beanUtils = new BeanUtilsBean();
+		beanUtils.getPropertyUtils().addBeanIntrospector(SuppressPropertiesBeanIntrospector.SUPPRESS_CLASS);
+		beanUtils.populate(bean, this.parameters);
+		return bean;
+	}
+
+	@Benchmark
+	public Parameters cachedBinder() {
+		return ParameterBeanMapperUtils.mapParametersToBean(this.parameters, Parameters.class);
+	}
+
+	public static class Parameters {
+
+		private String name;
+
+		private int count;
+
+		private long size;
+
+		private boolean enabled;
+
+		private final Nested nested = new Nested();
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getCount() {
+			return this.count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public long getSize() {
+			return this.size;
+		}
+
+		public void setSize(long size) {
+			this.size = size;
+		}
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Nested getNested() {
+			return this.nested;
+		}
+
+	}
+
+	public static class Nested {
+
+		private String region;
+
+		public String getRegion() {
+			return this.region;
+		}
+
+		public void setRegion(String region) {
+			this.region = region;
+		}
+
+	}
+
+}
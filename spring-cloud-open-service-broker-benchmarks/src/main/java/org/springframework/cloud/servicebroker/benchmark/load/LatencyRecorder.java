@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.benchmark.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records response latencies into a log-linear histogram, in the manner of HdrHistogram, so that percentiles can be
+ * reported for millions of requests without keeping every sample. Values are reported with a precision of better
+ * than 4%.
+ *
+ * @author agent
+ */
+final class LatencyRecorder {
+
+	private static final int SUB_BUCKET_BITS = 6;
+
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+	private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT
+			+ SUB_BUCKET_HALF_COUNT;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+	private final AtomicLong count = new AtomicLong();
+
+	private final AtomicLong errorCount = new AtomicLong();
+
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Record the latency of a response
+	 *
+	 * @param nanos the latency in nanoseconds
+	 * @param status the HTTP status of the response
+	 */
+	void record(long nanos, int status) {
+		this.counts.incrementAndGet(index(nanos));
+		this.count.incrementAndGet();
+		this.maxNanos.accumulateAndGet(nanos, Math::max);
+		if (!isExpected(status)) {
+			this.errorCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Record a request that did not receive a response
+	 */
+	void recordFailure() {
+		this.errorCount.incrementAndGet();
+	}
+
+	long getCount() {
+		return this.count.get();
+	}
+
+	long getErrorCount() {
+		return this.errorCount.get();
+	}
+
+	long getMaxNanos() {
+		return this.maxNanos.get();
+	}
+
+	/**
+	 * Get the latency at or below which the given fraction of the responses were received
+	 *
+	 * @param fraction the fraction, for example {@literal 0.99}
+	 * @return the latency in nanoseconds, or zero if no responses were recorded
+	 */
+	long getPercentileNanos(double fraction) {
+		long total = this.count.get();
+		if (total == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(fraction * total));
+		long cumulative = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			cumulative += this.counts.get(i);
+			if (cumulative >= target) {
+				return Math.min(highestEquivalentValue(i), getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	// 410 GONE is a successful response to deletes of resources that no longer exist
+	private static boolean isExpected(int status) {
+		return status < 400 || status == 410;
+	}
+
+	static int index(long value) {
+		long positive = Math.max(0, value);
+		int bucket = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(positive) - SUB_BUCKET_BITS);
+		int subBucket = (int) (positive >>> bucket);
+		return bucket * SUB_BUCKET_HALF_COUNT + subBucket;
+	}
+
+	static long highestEquivalentValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int bucket = index / SUB_BUCKET_HALF_COUNT - 1;
+		long subBucket = index - (long) bucket * SUB_BUCKET_HALF_COUNT;
+		return ((subBucket + 1) << bucket) - 1;
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.benchmark.load;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import org.springframework.cloud.servicebroker.model.BrokerApiVersion;
+import org.springframework.cloud.servicebroker.model.ServiceBrokerRequest;
+
+/**
+ * Drives Open Service Broker API traffic against a running service broker with a Reactor Netty client, and reports
+ * the throughput and latency percentiles of each {@link LoadScenario}.
+ *
+ * <p>
+ * Each scenario is driven by a fixed number of virtual users, each sending its next request as soon as the previous
+ * response is received. The connection pool is larger than the number of virtual users of any scenario, so the
+ * measured latencies include little time spent waiting for a connection.
+ *
+ * <p>
+ * The driver can be run against any broker with the base URL of the broker as an argument, and optionally the
+ * warmup and measurement durations in seconds.
+ *
+ * @author agent
+ */
+public final class LoadDriver implements Closeable {
+
+	private static final String API_VERSION_HEADER = "X-Broker-API-Version";
+
+	private static final int MAX_CONNECTIONS = 512;
+
+	private static final Duration DEFAULT_WARMUP = Duration.ofSeconds(5);
+
+	private static final Duration DEFAULT_DURATION = Duration.ofSeconds(10);
+
+	private final ConnectionProvider connectionProvider;
+
+	private final HttpClient client;
+
+	/**
+	 * Construct a new {@link LoadDriver}
+	 *
+	 * @param baseUrl the base URL of the service broker
+	 */
+	public LoadDriver(String baseUrl) {
+		this.connectionProvider = ConnectionProvider.builder("load-driver")
+				.maxConnections(MAX_CONNECTIONS)
+				.pendingAcquireMaxCount(-1)
+				.build();
+		this.client = HttpClient.create(this.connectionProvider)
+				.baseUrl(baseUrl)
+				.headers(headers -> headers
+						.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+						.set(API_VERSION_HEADER, BrokerApiVersion.API_VERSION_CURRENT)
+						.set(ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER, originatingIdentity()));
+	}
+
+	/**
+	 * Drive all scenarios against a service broker and print the results
+	 *
+	 * @param args the base URL of the service broker, and optionally the warmup and measurement durations in
+	 * 		seconds
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1 || args.length > 3) {
+			throw new IllegalArgumentException(
+					"Usage: LoadDriver <base URL> [<warmup seconds> [<measurement seconds>]]");
+		}
+		Duration warmup = (args.length > 1) ? Duration.ofSeconds(Long.parseLong(args[1])) : DEFAULT_WARMUP;
+		Duration duration = (args.length > 2) ? Duration.ofSeconds(Long.parseLong(args[2])) : DEFAULT_DURATION;
+		try (LoadDriver driver = new LoadDriver(args[0])) {
+			System.out.print(LoadReport.format(driver.runAll(args[0], warmup, duration)));
+		}
+	}
+
+	/**
+	 * Drive every scenario with its default number of virtual users
+	 *
+	 * @param stack the name of the stack the service broker runs on, included in the reports
+	 * @param warmup the time each scenario is driven before measuring
+	 * @param duration the time each scenario is measured
+	 * @return a report for each scenario
+	 */
+	public List<LoadReport> runAll(String stack, Duration warmup, Duration duration) {
+		List<LoadReport> reports = new ArrayList<>();
+		for (LoadScenario scenario : LoadScenario.values()) {
+			reports.add(run(stack, scenario, scenario.getDefaultConcurrency(), warmup, duration));
+		}
+		return reports;
+	}
+
+	/**
+	 * Drive a scenario
+	 *
+	 * @param stack the name of the stack the service broker runs on, included in the report
+	 * @param scenario the scenario
+	 * @param concurrency the number of virtual users
+	 * @param warmup the time the scenario is driven before measuring
+	 * @param duration the time the scenario is measured
+	 * @return the report
+	 */
+	public LoadReport run(String stack, LoadScenario scenario, int concurrency, Duration warmup,
+			Duration duration) {
+		drive(scenario, concurrency, warmup, new LatencyRecorder());
+		LatencyRecorder recorder = new LatencyRecorder();
+		long start = System.nanoTime();
+		drive(scenario, concurrency, duration, recorder);
+		return new LoadReport(stack, scenario, concurrency, System.nanoTime() - start, recorder);
+	}
+
+	@Override
+	public void close() {
+		this.connectionProvider.dispose();
+	}
+
+	private void drive(LoadScenario scenario, int concurrency, Duration duration, LatencyRecorder recorder) {
+		long deadline = System.nanoTime() + duration.toNanos();
+		AtomicLong iterations = new AtomicLong();
+		Flux.range(0, concurrency)
+				.flatMap(user -> Mono.defer(() -> iterate(scenario.requests(iterations.getAndIncrement()), recorder))
+						.repeat(() -> System.nanoTime() - deadline < 0), concurrency)
+				.blockLast();
+	}
+
+	private Mono<Void> iterate(List<LoadRequest> requests, LatencyRecorder recorder) {
+		return Flux.fromIterable(requests)
+				.concatMap(request -> exchange(request, recorder))
+				.then();
+	}
+
+	private Mono<Integer> exchange(LoadRequest request, LatencyRecorder recorder) {
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			return send(request)
+					.doOnNext(status -> recorder.record(System.nanoTime() - start, status))
+					.onErrorResume(e -> {
+						recorder.recordFailure();
+						return Mono.empty();
+					});
+		});
+	}
+
+	private Mono<Integer> send(LoadRequest request) {
+		HttpClient.RequestSender sender = this.client.request(request.getMethod()).uri(request.getUri());
+		HttpClient.ResponseReceiver<?> receiver = (request.getBody() == null) ? sender
+				: sender.send(ByteBufFlux.fromString(Mono.just(request.getBody())));
+		return receiver.responseSingle((response, content) -> content.then(Mono.just(response.status().code())));
+	}
+
+	private static String originatingIdentity() {
+		String user = "{\"user_id\":\"load-driver-user\"}";
+		return "cloudfoundry " + Base64.getEncoder().encodeToString(user.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
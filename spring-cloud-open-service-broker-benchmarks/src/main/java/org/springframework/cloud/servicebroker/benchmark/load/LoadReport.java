@@ -0,0 +1,159 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.benchmark.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * The throughput and latency of a {@link LoadScenario} driven against a service broker.
+ *
+ * @author agent
+ */
+public final class LoadReport {
+
+	private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static final String FORMAT = "%-8s %-22s %6s %10s %7s %12s %9s %9s %9s %9s%n";
+
+	private final String stack;
+
+	private final LoadScenario scenario;
+
+	private final int concurrency;
+
+	private final long requests;
+
+	private final long errors;
+
+	private final double throughput;
+
+	private final double p50Millis;
+
+	private final double p99Millis;
+
+	private final double p999Millis;
+
+	private final double maxMillis;
+
+	LoadReport(String stack, LoadScenario scenario, int concurrency, long elapsedNanos, LatencyRecorder recorder) {
+		this.stack = stack;
+		this.scenario = scenario;
+		this.concurrency = concurrency;
+		this.requests = recorder.getCount();
+		this.errors = recorder.getErrorCount();
+		this.throughput = (elapsedNanos > 0) ? this.requests * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+		this.p50Millis = recorder.getPercentileNanos(0.5) / NANOS_PER_MILLI;
+		this.p99Millis = recorder.getPercentileNanos(0.99) / NANOS_PER_MILLI;
+		this.p999Millis = recorder.getPercentileNanos(0.999) / NANOS_PER_MILLI;
+		this.maxMillis = recorder.getMaxNanos() / NANOS_PER_MILLI;
+	}
+
+	public String getStack() {
+		return this.stack;
+	}
+
+	public LoadScenario getScenario() {
+		return this.scenario;
+	}
+
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	public long getRequests() {
+		return this.requests;
+	}
+
+	/**
+	 * Get the number of requests that failed or received an error response
+	 *
+	 * @return the number of errors
+	 */
+	public long getErrors() {
+		return this.errors;
+	}
+
+	/**
+	 * Get the number of responses received per second
+	 *
+	 * @return the throughput
+	 */
+	public double getThroughput() {
+		return this.throughput;
+	}
+
+	public double getP50Millis() {
+		return this.p50Millis;
+	}
+
+	public double getP99Millis() {
+		return this.p99Millis;
+	}
+
+	public double getP999Millis() {
+		return this.p999Millis;
+	}
+
+	public double getMaxMillis() {
+		return this.maxMillis;
+	}
+
+	/**
+	 * Format a table of reports
+	 *
+	 * @param reports the reports
+	 * @return the table
+	 */
+	public static String format(List<LoadReport> reports) {
+		StringBuilder table = new StringBuilder(String.format(Locale.ROOT, FORMAT, "stack", "scenario", "users",
+				"requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+		for (LoadReport report : reports) {
+			table.append(String.format(Locale.ROOT, FORMAT, report.stack, report.scenario, report.concurrency,
+					report.requests, report.errors, String.format(Locale.ROOT, "%.1f", report.throughput),
+					millis(report.p50Millis), millis(report.p99Millis), millis(report.p999Millis),
+					millis(report.maxMillis)));
+		}
+		return table.toString();
+	}
+
+	/**
+	 * Write reports as JSON, so that the results of runs can be compared
+	 *
+	 * @param reports the reports
+	 * @param file the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(List<LoadReport> reports, Path file) throws IOException {
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), reports);
+	}
+
+	private static String millis(double value) {
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+
+}
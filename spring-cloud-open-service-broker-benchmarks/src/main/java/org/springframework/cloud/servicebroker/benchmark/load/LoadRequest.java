@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.benchmark.load;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+/**
+ * A request sent by the {@link LoadDriver}.
+ *
+ * @author agent
+ */
+final class LoadRequest {
+
+	private final HttpMethod method;
+
+	private final String uri;
+
+	private final String body;
+
+	private LoadRequest(HttpMethod method, String uri, String body) {
+		this.method = method;
+		this.uri = uri;
+		this.body = body;
+	}
+
+	static LoadRequest get(String uri) {
+		return new LoadRequest(HttpMethod.GET, uri, null);
+	}
+
+	static LoadRequest put(String uri, String body) {
+		return new LoadRequest(HttpMethod.PUT, uri, body);
+	}
+
+	static LoadRequest delete(String uri) {
+		return new LoadRequest(HttpMethod.DELETE, uri, null);
+	}
+
+	HttpMethod getMethod() {
+		return this.method;
+	}
+
+	String getUri() {
+		return this.uri;
+	}
+
+	String getBody() {
+		return this.body;
+	}
+
+}
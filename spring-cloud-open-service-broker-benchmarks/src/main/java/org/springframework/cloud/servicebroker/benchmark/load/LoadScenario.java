@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.benchmark.load;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The Open Service Broker API traffic replayed by the {@link LoadDriver}. Each virtual user of a scenario sends the
+ * requests of one iteration in order, then starts the next iteration.
+ *
+ * @author agent
+ */
+public enum LoadScenario {
+
+	/**
+	 * Platforms polling the catalog
+	 */
+	CATALOG_POLL(16) {
+		@Override
+		List<LoadRequest> requests(long iteration) {
+			return CATALOG_REQUESTS;
+		}
+	},
+
+	/**
+	 * Bursts of service instances being provisioned, bound, unbound and deprovisioned
+	 */
+	PROVISION_BIND_UNBIND(32) {
+		@Override
+		List<LoadRequest> requests(long iteration) {
+			String instanceUri = "/v2/service_instances/instance-" + iteration;
+			String bindingUri = instanceUri + "/service_bindings/binding-" + iteration;
+			return Arrays.asList(
+					LoadRequest.put(instanceUri + "?accepts_incomplete=true", CREATE_SERVICE_INSTANCE_BODY),
+					LoadRequest.put(bindingUri, CREATE_SERVICE_INSTANCE_BINDING_BODY),
+					LoadRequest.delete(bindingUri + PLAN_QUERY),
+					LoadRequest.delete(instanceUri + PLAN_QUERY + "&accepts_incomplete=true"));
+		}
+	},
+
+	/**
+	 * Platforms polling the last operation of many asynchronous operations at once
+	 */
+	LAST_OPERATION_STORM(128) {
+		@Override
+		List<LoadRequest> requests(long iteration) {
+			return Collections.singletonList(LoadRequest.get("/v2/service_instances/instance-" + iteration % 1024
+					+ "/last_operation" + PLAN_QUERY + "&operation=provision-" + iteration % 1024));
+		}
+	};
+
+	private static final String SERVICE_DEFINITION_ID = "service-one-id";
+
+	private static final String PLAN_ID = "plan-one-id";
+
+	private static final String PLAN_QUERY = "?service_id=" + SERVICE_DEFINITION_ID + "&plan_id=" + PLAN_ID;
+
+	private static final List<LoadRequest> CATALOG_REQUESTS = Collections.singletonList(
+			LoadRequest.get("/v2/catalog"));
+
+	private static final String CREATE_SERVICE_INSTANCE_BODY = "{"
+			+ "\"service_id\":\"" + SERVICE_DEFINITION_ID + "\","
+			+ "\"plan_id\":\"" + PLAN_ID + "\","
+			+ "\"organization_guid\":\"organization-guid\","
+			+ "\"space_guid\":\"space-guid\","
+			+ "\"context\":{\"platform\":\"cloudfoundry\",\"organizationGuid\":\"organization-guid\","
+			+ "\"spaceGuid\":\"space-guid\",\"instance_name\":\"instance-name\"},"
+			+ "\"parameters\":{\"size\":3,\"region\":\"eu-west-1\",\"tags\":[\"one\",\"two\"]}"
+			+ "}";
+
+	private static final String CREATE_SERVICE_INSTANCE_BINDING_BODY = "{"
+			+ "\"service_id\":\"" + SERVICE_DEFINITION_ID + "\","
+			+ "\"plan_id\":\"" + PLAN_ID + "\","
+			+ "\"bind_resource\":{\"app_guid\":\"app-guid\"},"
+			+ "\"context\":{\"platform\":\"cloudfoundry\",\"organizationGuid\":\"organization-guid\","
+			+ "\"spaceGuid\":\"space-guid\"}"
+			+ "}";
+
+	private final int defaultConcurrency;
+
+	LoadScenario(int defaultConcurrency) {
+		this.defaultConcurrency = defaultConcurrency;
+	}
+
+	/**
+	 * Get the number of virtual users the scenario is driven with by default
+	 *
+	 * @return the number of virtual users
+	 */
+	public int getDefaultConcurrency() {
+		return this.defaultConcurrency;
+	}
+
+	abstract List<LoadRequest> requests(long iteration);
+
+}
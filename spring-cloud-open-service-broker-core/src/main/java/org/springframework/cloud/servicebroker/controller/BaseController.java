@@ -16,30 +16,24 @@
 
 package org.springframework.cloud.servicebroker.controller;
 
-import java.io.IOException;
-import java.util.Map;
+import java.time.Duration;
+import java.util.function.Supplier;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidOriginatingIdentityException;
 import org.springframework.cloud.servicebroker.exception.ServiceDefinitionDoesNotExistException;
 import org.springframework.cloud.servicebroker.exception.ServiceDefinitionPlanDoesNotExistException;
 import org.springframework.cloud.servicebroker.model.AsyncServiceBrokerRequest;
 import org.springframework.cloud.servicebroker.model.AsyncServiceBrokerResponse;
-import org.springframework.cloud.servicebroker.model.CloudFoundryContext;
 import org.springframework.cloud.servicebroker.model.Context;
-import org.springframework.cloud.servicebroker.model.KubernetesContext;
-import org.springframework.cloud.servicebroker.model.PlatformContext;
 import org.springframework.cloud.servicebroker.model.ServiceBrokerRequest;
 import org.springframework.cloud.servicebroker.model.catalog.Plan;
 import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
 import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.cloud.servicebroker.service.PlatformCatalogService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
-import org.springframework.util.Base64Utils;
+import org.springframework.http.ResponseEntity;
 
 /**
  * Base functionality shared by controllers.
@@ -50,17 +44,28 @@ import org.springframework.util.Base64Utils;
  */
 public class BaseController {
 
-	private static final int ORIGINATING_IDENTITY_HEADER_PARTS = 2;
-
 	protected CatalogService catalogService;
 
+	private final OriginatingIdentityParser originatingIdentityParser;
+
 	/**
 	 * Construct a new {@link BaseController}
 	 *
 	 * @param catalogService the catalog service
 	 */
 	public BaseController(CatalogService catalogService) {
+		this(catalogService, new OriginatingIdentityParser());
+	}
+
+	/**
+	 * Construct a new {@link BaseController}
+	 *
+	 * @param catalogService the catalog service
+	 * @param originatingIdentityParser the parser for the originating identity header
+	 */
+	public BaseController(CatalogService catalogService, OriginatingIdentityParser originatingIdentityParser) {
 		this.catalogService = catalogService;
+		this.originatingIdentityParser = originatingIdentityParser;
 	}
 
 	/**
@@ -78,7 +83,7 @@ public class BaseController {
 			String apiInfoLocation, String originatingIdentityString, String requestIdentity) {
 		request.setPlatformInstanceId(platformInstanceId);
 		request.setApiInfoLocation(apiInfoLocation);
-		request.setOriginatingIdentity(parseOriginatingIdentity(originatingIdentityString));
+		configureOriginatingIdentity(request, originatingIdentityString);
 		request.setRequestIdentity(requestIdentity);
 		return Mono.just(request);
 	}
@@ -103,6 +108,20 @@ public class BaseController {
 				.cast(AsyncServiceBrokerRequest.class);
 	}
 
+	/**
+	 * Get the catalog service for a platform instance. When the catalog service is a {@link PlatformCatalogService},
+	 * the view of the catalog for the platform instance is returned.
+	 *
+	 * @param platformInstanceId the platform instance ID, may be null
+	 * @return the catalog service
+	 */
+	protected CatalogService getCatalogService(String platformInstanceId) {
+		if (platformInstanceId != null && catalogService instanceof PlatformCatalogService) {
+			return ((PlatformCatalogService) catalogService).getCatalogService(platformInstanceId);
+		}
+		return catalogService;
+	}
+
 	/**
 	 * Find the Service Definition for the provided ID. Emits an error if not found.
 	 *
@@ -110,7 +129,20 @@ public class BaseController {
 	 * @return the Service Definition
 	 */
 	protected Mono<ServiceDefinition> getRequiredServiceDefinition(String serviceDefinitionId) {
-		return getServiceDefinition(serviceDefinitionId)
+		return getRequiredServiceDefinition(null, serviceDefinitionId);
+	}
+
+	/**
+	 * Find the Service Definition for the provided ID in the catalog of a platform instance. Emits an error if not
+	 * found.
+	 *
+	 * @param platformInstanceId the platform instance ID, may be null
+	 * @param serviceDefinitionId the service definition ID
+	 * @return the Service Definition
+	 */
+	protected Mono<ServiceDefinition> getRequiredServiceDefinition(String platformInstanceId,
+			String serviceDefinitionId) {
+		return getServiceDefinition(platformInstanceId, serviceDefinitionId)
 				.switchIfEmpty(Mono.error(new ServiceDefinitionDoesNotExistException(serviceDefinitionId)));
 	}
 
@@ -121,7 +153,18 @@ public class BaseController {
 	 * @return the Service Definition
 	 */
 	protected Mono<ServiceDefinition> getServiceDefinition(String serviceDefinitionId) {
-		return catalogService.getServiceDefinition(serviceDefinitionId);
+		return getServiceDefinition(null, serviceDefinitionId);
+	}
+
+	/**
+	 * Find the Service Definition for the provided ID in the catalog of a platform instance, or empty if not found.
+	 *
+	 * @param platformInstanceId the platform instance ID, may be null
+	 * @param serviceDefinitionId the service definition ID
+	 * @return the Service Definition
+	 */
+	protected Mono<ServiceDefinition> getServiceDefinition(String platformInstanceId, String serviceDefinitionId) {
+		return getCatalogService(platformInstanceId).getServiceDefinition(serviceDefinitionId);
 	}
 
 	/**
@@ -132,11 +175,23 @@ public class BaseController {
 	 * @return the Plan
 	 */
 	protected Mono<Plan> getServiceDefinitionPlan(ServiceDefinition serviceDefinition, String planId) {
+		return getServiceDefinitionPlan(null, serviceDefinition, planId);
+	}
+
+	/**
+	 * Find the Plan for the Service Definition and Plan ID in the catalog of a platform instance, or empty if not
+	 * found.
+	 *
+	 * @param platformInstanceId the platform instance ID, may be null
+	 * @param serviceDefinition the Service Definition
+	 * @param planId the plan ID
+	 * @return the Plan
+	 */
+	protected Mono<Plan> getServiceDefinitionPlan(String platformInstanceId, ServiceDefinition serviceDefinition,
+			String planId) {
 		return Mono.justOrEmpty(serviceDefinition)
-				.flatMap(serviceDef -> Mono.justOrEmpty(serviceDef.getPlans())
-						.flatMap(plans -> Flux.fromIterable(plans)
-								.filter(plan -> plan.getId().equals(planId))
-								.singleOrEmpty()));
+				.flatMap(serviceDef -> getCatalogService(platformInstanceId)
+						.getServiceDefinitionPlan(serviceDef.getId(), planId));
 	}
 
 	/**
@@ -147,76 +202,52 @@ public class BaseController {
 	 * @return the Plan
 	 */
 	protected Mono<Plan> getRequiredServiceDefinitionPlan(ServiceDefinition serviceDefinition, String planId) {
-		return getServiceDefinitionPlan(serviceDefinition, planId)
+		return getRequiredServiceDefinitionPlan(null, serviceDefinition, planId);
+	}
+
+	/**
+	 * Find the Plan for the Service Definition and Plan ID in the catalog of a platform instance. Emits an error if
+	 * not found.
+	 *
+	 * @param platformInstanceId the platform instance ID, may be null
+	 * @param serviceDefinition the Service Definition
+	 * @param planId the plan ID
+	 * @return the Plan
+	 */
+	protected Mono<Plan> getRequiredServiceDefinitionPlan(String platformInstanceId,
+			ServiceDefinition serviceDefinition, String planId) {
+		return getServiceDefinitionPlan(platformInstanceId, serviceDefinition, planId)
 				.switchIfEmpty(Mono.error(new ServiceDefinitionPlanDoesNotExistException(planId)));
 	}
 
 	/**
-	 * Populates a platform specific context from the originating identity
+	 * Sets the originating identity of the request. Unless the {@link OriginatingIdentityParser} is strict, the header
+	 * is parsed when the originating identity is first read from the request.
 	 *
+	 * @param request the request in which to set the originating identity
 	 * @param originatingIdentityString identity of the user that initiated the request from the platform
-	 * @return the Context
+	 * @param <T> the type of request
+	 * @return the request
 	 */
-	protected Context parseOriginatingIdentity(String originatingIdentityString) {
-		if (originatingIdentityString == null) {
-			return null;
-		}
-
-		String[] parts = splitOriginatingIdentityHeaderParts(originatingIdentityString);
-		String encodedProperties = decodeOriginatingIdentityHeader(parts[1]);
-		Map<String, Object> properties = parseOriginatingIdentityHeader(encodedProperties);
-		String platform = parts[0];
-
-		if (CloudFoundryContext.CLOUD_FOUNDRY_PLATFORM.equals(platform)) {
-			return CloudFoundryContext.builder()
-					.properties(properties)
-					.build();
-		}
-		else if (KubernetesContext.KUBERNETES_PLATFORM.equals(platform)) {
-			return KubernetesContext.builder()
-					.properties(properties)
-					.build();
+	protected <T extends ServiceBrokerRequest> T configureOriginatingIdentity(T request,
+			String originatingIdentityString) {
+		if (originatingIdentityString == null || this.originatingIdentityParser.isStrict()) {
+			request.setOriginatingIdentity(parseOriginatingIdentity(originatingIdentityString));
 		}
 		else {
-			return PlatformContext.builder()
-					.platform(platform)
-					.properties(properties)
-					.build();
-		}
-	}
-
-	private String[] splitOriginatingIdentityHeaderParts(String header) {
-		String[] parts = header.split(" ", ORIGINATING_IDENTITY_HEADER_PARTS);
-		if (parts.length != ORIGINATING_IDENTITY_HEADER_PARTS) {
-			throw new ServiceBrokerInvalidOriginatingIdentityException("Expected platform and properties values in "
-					+ ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER + " header in request");
+			request.setOriginatingIdentitySupplier(new LazyOriginatingIdentity(originatingIdentityString));
 		}
-		return parts;
+		return request;
 	}
 
-	private String decodeOriginatingIdentityHeader(String encodedProperties) {
-		try {
-			return new String(Base64Utils.decode(encodedProperties.getBytes()));
-		}
-		catch (IllegalArgumentException e) {
-			throw new ServiceBrokerInvalidOriginatingIdentityException("Error decoding JSON properties from "
-					+ ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER + " header in request", e);
-		}
-	}
-
-	private Map<String, Object> parseOriginatingIdentityHeader(String encodedProperties) {
-		try {
-			return readJsonFromString(encodedProperties);
-		}
-		catch (IOException e) {
-			throw new ServiceBrokerInvalidOriginatingIdentityException("Error parsing JSON properties from "
-					+ ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER + " header in request", e);
-		}
-	}
-
-	private Map<String, Object> readJsonFromString(String value) throws IOException {
-		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
-		return objectMapper.readValue(value, new TypeReference<Map<String, Object>>() {});
+	/**
+	 * Populates a platform specific context from the originating identity
+	 *
+	 * @param originatingIdentityString identity of the user that initiated the request from the platform
+	 * @return the Context
+	 */
+	protected Context parseOriginatingIdentity(String originatingIdentityString) {
+		return this.originatingIdentityParser.parse(originatingIdentityString);
 	}
 
 	/**
@@ -232,4 +263,49 @@ public class BaseController {
 		return HttpStatus.OK;
 	}
 
+	/**
+	 * Build the response to a last operation request, with a {@literal Retry-After} header in whole seconds when the
+	 * service indicates how long the platform should wait before polling again
+	 *
+	 * @param body the response body
+	 * @param status the HTTP status
+	 * @param retryAfter how long the platform should wait before polling again, may be null
+	 * @param <T> the type of the response body
+	 * @return the response
+	 */
+	protected <T> ResponseEntity<T> lastOperationResponse(T body, HttpStatus status, Duration retryAfter) {
+		ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+		if (retryAfter != null && !retryAfter.isNegative()) {
+			long seconds = retryAfter.getSeconds() + (retryAfter.getNano() > 0 ? 1 : 0);
+			builder.header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+		}
+		return builder.body(body);
+	}
+
+	/**
+	 * Parses the originating identity header the first time it is read and holds the result
+	 */
+	private final class LazyOriginatingIdentity implements Supplier<Context> {
+
+		private final String originatingIdentityString;
+
+		@SuppressWarnings("PMD.AvoidUsingVolatile")
+		private volatile Context originatingIdentity;
+
+		private LazyOriginatingIdentity(String originatingIdentityString) {
+			this.originatingIdentityString = originatingIdentityString;
+		}
+
+		@Override
+		public Context get() {
+			Context context = this.originatingIdentity;
+			if (context == null) {
+				context = parseOriginatingIdentity(this.originatingIdentityString);
+				this.originatingIdentity = context;
+			}
+			return context;
+		}
+
+	}
+
 }
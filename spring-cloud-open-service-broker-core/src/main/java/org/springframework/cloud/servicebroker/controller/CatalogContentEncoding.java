@@ -0,0 +1,209 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * The content codings in which a serialized catalog can be held, in order of preference when a client accepts more
+ * than one of them with the same quality.
+ *
+ * @author agent
+ * @see SerializedCatalog
+ */
+public enum CatalogContentEncoding {
+
+	/**
+	 * The gzip content coding
+	 */
+	GZIP("gzip", "x-gzip") {
+		@Override
+		OutputStream encoder(OutputStream out) throws IOException {
+			return new BestCompressionGZIPOutputStream(out);
+		}
+	},
+
+	/**
+	 * The deflate content coding, which is the zlib format
+	 */
+	DEFLATE("deflate", "deflate") {
+		@Override
+		OutputStream encoder(OutputStream out) {
+			return new BestCompressionDeflaterOutputStream(out);
+		}
+	},
+
+	/**
+	 * No content coding
+	 */
+	IDENTITY("identity", "identity") {
+		@Override
+		OutputStream encoder(OutputStream out) {
+			return out;
+		}
+	};
+
+	private static final String ANY_CODING = "*";
+
+	private static final String QUALITY_PARAMETER = "q=";
+
+	private static final double IMPLICIT_IDENTITY_QUALITY = 0.001;
+
+	private final String value;
+
+	private final String alias;
+
+	CatalogContentEncoding(String value, String alias) {
+		this.value = value;
+		this.alias = alias;
+	}
+
+	/**
+	 * Get the value of the {@literal Content-Encoding} header for this content coding
+	 *
+	 * @return the content coding name
+	 */
+	public String getValue() {
+		return this.value;
+	}
+
+	/**
+	 * Encode the provided content with this content coding
+	 *
+	 * @param content the content to encode
+	 * @return the encoded content
+	 * @throws IOException if the content cannot be encoded
+	 */
+	public byte[] encode(byte[] content) throws IOException {
+		if (this == IDENTITY) {
+			return content;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4);
+		try (OutputStream encoder = encoder(out)) {
+			encoder.write(content);
+		}
+		return out.toByteArray();
+	}
+
+	abstract OutputStream encoder(OutputStream out) throws IOException;
+
+	/**
+	 * Select the content coding to respond with based on the value of an {@literal Accept-Encoding} request header.
+	 * The available coding with the highest quality is selected, and {@link #IDENTITY} is selected when no available
+	 * coding is acceptable.
+	 *
+	 * @param acceptEncoding the value of the {@literal Accept-Encoding} header, may be null
+	 * @param available the content codings that can be served
+	 * @return the selected content coding
+	 */
+	public static CatalogContentEncoding select(String acceptEncoding, Collection<CatalogContentEncoding> available) {
+		if (!StringUtils.hasText(acceptEncoding)) {
+			return IDENTITY;
+		}
+		String[] codings = StringUtils.commaDelimitedListToStringArray(acceptEncoding.toLowerCase(Locale.ROOT));
+		CatalogContentEncoding selected = IDENTITY;
+		double selectedQuality = 0;
+		for (CatalogContentEncoding encoding : values()) {
+			if (available.contains(encoding)) {
+				double quality = encoding.quality(codings);
+				if (quality > selectedQuality) {
+					selected = encoding;
+					selectedQuality = quality;
+				}
+			}
+		}
+		return selected;
+	}
+
+	private double quality(String[] codings) {
+		Double anyQuality = null;
+		for (String coding : codings) {
+			String[] parts = StringUtils.delimitedListToStringArray(coding, ";");
+			String name = parts[0].trim();
+			if (this.value.equals(name) || this.alias.equals(name)) {
+				return parseQuality(parts);
+			}
+			if (ANY_CODING.equals(name)) {
+				anyQuality = parseQuality(parts);
+			}
+		}
+		if (anyQuality != null) {
+			return anyQuality;
+		}
+		return this == IDENTITY ? IMPLICIT_IDENTITY_QUALITY : 0;
+	}
+
+	private static double parseQuality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String parameter = parts[i].trim();
+			if (parameter.startsWith(QUALITY_PARAMETER)) {
+				try {
+					return Double.parseDouble(parameter.substring(QUALITY_PARAMETER.length()));
+				}
+				catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * A {@link GZIPOutputStream} that compresses at the best compression level, since catalogs are compressed once and
+	 * served many times
+	 */
+	private static final class BestCompressionGZIPOutputStream extends GZIPOutputStream {
+
+		BestCompressionGZIPOutputStream(OutputStream out) throws IOException {
+			super(out);
+			this.def.setLevel(Deflater.BEST_COMPRESSION);
+		}
+
+	}
+
+	/**
+	 * A {@link DeflaterOutputStream} that compresses at the best compression level, and releases the native memory of
+	 * its {@link Deflater} when closed, since a stream does not end a deflater that it did not create
+	 */
+	private static final class BestCompressionDeflaterOutputStream extends DeflaterOutputStream {
+
+		BestCompressionDeflaterOutputStream(OutputStream out) {
+			super(out, new Deflater(Deflater.BEST_COMPRESSION));
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}
+			finally {
+				this.def.end();
+			}
+		}
+
+	}
+
+}
@@ -16,14 +16,24 @@
 
 package org.springframework.cloud.servicebroker.controller;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.annotation.ServiceBrokerRestController;
+import org.springframework.cloud.servicebroker.model.ServiceBrokerRequest;
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
 import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 /**
  * Provide endpoints for the catalog API.
@@ -38,23 +48,92 @@ public class CatalogController extends BaseController {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CatalogController.class);
 
+	private final CatalogResponseCache catalogResponseCache;
+
 	/**
 	 * Construct a new {@link CatalogController}
 	 *
 	 * @param service the catalog service
 	 */
 	public CatalogController(CatalogService service) {
+		this(service, null);
+	}
+
+	/**
+	 * Construct a new {@link CatalogController}
+	 *
+	 * @param service the catalog service
+	 * @param catalogResponseCache the cache of serialized catalog responses, or null to serialize the catalog on
+	 * 		every request
+	 */
+	public CatalogController(CatalogService service, CatalogResponseCache catalogResponseCache) {
 		super(service);
+		this.catalogResponseCache = catalogResponseCache;
 	}
 
 	/**
-	 * REST controller for getting a catalog
+	 * REST controller for getting a catalog. When a {@link CatalogResponseCache} is configured, the response carries
+	 * an entity tag and a request with a matching {@literal If-None-Match} header receives an HTTP 304 Not Modified
+	 * response with no body. A pre-compressed variant of the catalog is served when the cache holds one that the
+	 * platform accepts.
 	 *
-	 * @return the catalog
+	 * <p>
+	 * When the catalog service is a {@link org.springframework.cloud.servicebroker.service.PlatformCatalogService},
+	 * the view of the catalog for the platform instance in the request path is returned.
+	 *
+	 * @param pathVariables the path variables
+	 * @param ifNoneMatch entity tags of the catalog representations already held by the platform
+	 * @param acceptEncoding content codings accepted by the platform
+	 * @return the response
 	 */
 	@GetMapping({"/v2/catalog", "{platformInstanceId}/v2/catalog"})
+	public Mono<ResponseEntity<Object>> getCatalogResponse(
+			@PathVariable Map<String, String> pathVariables,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		CatalogService platformCatalogService = getCatalogService(
+				pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE));
+		if (this.catalogResponseCache == null) {
+			return getCatalog(platformCatalogService)
+					.map(catalog -> ResponseEntity.ok().body(catalog));
+		}
+		return this.catalogResponseCache.getSerializedCatalog(platformCatalogService)
+				.doOnRequest(v -> LOG.info("Retrieving serialized catalog"))
+				.doOnSuccess(serializedCatalog -> LOG.info("Success retrieving serialized catalog"))
+				.doOnError(e -> LOG.error("Error retrieving serialized catalog. error=" + e.getMessage(), e))
+				.map(serializedCatalog -> {
+					CatalogContentEncoding encoding = serializedCatalog.selectEncoding(acceptEncoding);
+					HttpHeaders headers = new HttpHeaders();
+					headers.setETag(serializedCatalog.getETag(encoding));
+					if (serializedCatalog.getEncodings().size() > 1) {
+						headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT_ENCODING));
+					}
+					if (serializedCatalog.matches(ifNoneMatch, encoding)) {
+						return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+								.headers(headers)
+								.build();
+					}
+					if (encoding != CatalogContentEncoding.IDENTITY) {
+						headers.set(HttpHeaders.CONTENT_ENCODING, encoding.getValue());
+					}
+					return ResponseEntity.ok()
+							.headers(headers)
+							.contentType(MediaType.APPLICATION_JSON)
+							.body(this.catalogResponseCache.createResponseBody(serializedCatalog, encoding));
+				});
+	}
+
+	/**
+	 * Retrieve the catalog from the catalog service
+	 *
+	 * @return the catalog
+	 */
 	public Mono<Catalog> getCatalog() {
-		return catalogService.getCatalog()
+		return getCatalog(catalogService);
+	}
+
+	private Mono<Catalog> getCatalog(CatalogService service) {
+		return service.getCatalog()
 				.doOnRequest(v -> LOG.info("Retrieving catalog"))
 				.doOnSuccess(catalog -> {
 					LOG.info("Success retrieving catalog");
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.core.io.buffer.DataBufferFactory;
+
+/**
+ * Holds the serialized representation of the catalog so that it does not need to be rebuilt for every request.
+ *
+ * <p>
+ * The cached representation is discarded whenever the {@link CatalogService} reports a new
+ * {@link CatalogService#getCatalogVersion() catalog version}. Catalogs that are not versioned are serialized on every
+ * request, but still benefit from entity tag validation. A separate representation is held for each catalog service,
+ * so each view of a {@link org.springframework.cloud.servicebroker.service.PlatformCatalogService} has its own.
+ *
+ * <p>
+ * When a {@link DataBufferFactory} is provided, response bodies are produced as {@literal DataBuffer} instances that
+ * wrap the cached content without copying it, which is suitable for WebFlux applications. Otherwise the cached
+ * {@literal byte[]} is used as the response body, which is suitable for WebMvc applications.
+ *
+ * <p>
+ * When content codings are provided, versioned catalogs are also held pre-compressed with each of them, so that
+ * compressed responses cost no more per request than uncompressed ones.
+ *
+ * @author agent
+ */
+public class CatalogResponseCache {
+
+	private final ObjectMapper objectMapper;
+
+	private final DataBufferFactory dataBufferFactory;
+
+	private final Set<CatalogContentEncoding> encodings;
+
+	private final Map<CatalogService, SerializedCatalog> serializedCatalogs = new ConcurrentHashMap<>();
+
+	/**
+	 * Construct a new {@link CatalogResponseCache} that produces {@literal byte[]} response bodies
+	 *
+	 * @param objectMapper the object mapper used to serialize the catalog
+	 */
+	public CatalogResponseCache(ObjectMapper objectMapper) {
+		this(objectMapper, null);
+	}
+
+	/**
+	 * Construct a new {@link CatalogResponseCache}
+	 *
+	 * @param objectMapper the object mapper used to serialize the catalog
+	 * @param dataBufferFactory the factory used to wrap the cached content, or null to produce {@literal byte[]}
+	 * 		response bodies
+	 */
+	public CatalogResponseCache(ObjectMapper objectMapper, DataBufferFactory dataBufferFactory) {
+		this(objectMapper, dataBufferFactory, Collections.emptySet());
+	}
+
+	/**
+	 * Construct a new {@link CatalogResponseCache}
+	 *
+	 * @param objectMapper the object mapper used to serialize the catalog
+	 * @param dataBufferFactory the factory used to wrap the cached content, or null to produce {@literal byte[]}
+	 * 		response bodies
+	 * @param encodings the content codings to pre-compress versioned catalogs with
+	 */
+	public CatalogResponseCache(ObjectMapper objectMapper, DataBufferFactory dataBufferFactory,
+			Set<CatalogContentEncoding> encodings) {
+		this.objectMapper = objectMapper;
+		this.dataBufferFactory = dataBufferFactory;
+		this.encodings = encodings.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(
+				EnumSet.copyOf(encodings));
+	}
+
+	/**
+	 * Get the serialized catalog, building it from the catalog service if the catalog version has changed
+	 *
+	 * @param catalogService the catalog service
+	 * @return the serialized catalog
+	 */
+	public Mono<SerializedCatalog> getSerializedCatalog(CatalogService catalogService) {
+		String version = catalogService.getCatalogVersion();
+		SerializedCatalog cached = this.serializedCatalogs.get(catalogService);
+		if (cached != null && version != null && version.equals(cached.getVersion())) {
+			return Mono.just(cached);
+		}
+		return catalogService.getCatalog()
+				.flatMap(catalog -> Mono.fromCallable(() -> serialize(catalog, version)))
+				.doOnNext(serialized -> {
+					if (version != null) {
+						this.serializedCatalogs.put(catalogService, serialized);
+					}
+				});
+	}
+
+	/**
+	 * Create a response body for the serialized catalog
+	 *
+	 * @param serializedCatalog the serialized catalog
+	 * @return a {@literal DataBuffer} or {@literal byte[]} wrapping the serialized catalog
+	 */
+	public Object createResponseBody(SerializedCatalog serializedCatalog) {
+		return createResponseBody(serializedCatalog, CatalogContentEncoding.IDENTITY);
+	}
+
+	/**
+	 * Create a response body for the variant of the serialized catalog encoded with a content coding
+	 *
+	 * @param serializedCatalog the serialized catalog
+	 * @param encoding a content coding held by the serialized catalog
+	 * @return a {@literal DataBuffer} or {@literal byte[]} wrapping the encoded serialized catalog
+	 */
+	public Object createResponseBody(SerializedCatalog serializedCatalog, CatalogContentEncoding encoding) {
+		byte[] content = serializedCatalog.getContent(encoding);
+		if (this.dataBufferFactory == null) {
+			return content;
+		}
+		return this.dataBufferFactory.wrap(content);
+	}
+
+	/**
+	 * Discard the cached representations so that they are rebuilt on the next request
+	 */
+	public void invalidate() {
+		this.serializedCatalogs.clear();
+	}
+
+	private SerializedCatalog serialize(Catalog catalog, String version) throws IOException {
+		byte[] content = this.objectMapper.writeValueAsBytes(catalog);
+		if (version == null || this.encodings.isEmpty()) {
+			return new SerializedCatalog(version, content);
+		}
+		return new SerializedCatalog(version, content, this.encodings);
+	}
+
+}
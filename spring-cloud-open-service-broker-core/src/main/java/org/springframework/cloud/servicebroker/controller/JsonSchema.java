@@ -0,0 +1,524 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A JSON Schema compiled into a tree of constraints that can be evaluated repeatedly against parsed JSON values.
+ *
+ * <p>
+ * The validation keywords of JSON Schema draft 4 to draft 7 are supported, with the exception of {@literal format},
+ * which is ignored. A schema that uses {@literal $ref}, {@literal dependencies} or {@literal if}/{@literal then}/
+ * {@literal else} at any level cannot be enforced faithfully and is rejected at compile time, since evaluating it
+ * without those keywords would accept or reject the wrong values.
+ *
+ * @author agent
+ */
+final class JsonSchema {
+
+	private static final String ROOT_PATH = "$";
+
+	private static final Set<String> TYPES = new HashSet<>(
+			Arrays.asList("null", "boolean", "string", "array", "object", "number", "integer"));
+
+	private static final List<String> UNSUPPORTED_KEYWORDS = Arrays.asList("$ref", "dependencies", "if", "then",
+			"else");
+
+	private final List<Constraint> constraints;
+
+	private JsonSchema(List<Constraint> constraints) {
+		this.constraints = constraints;
+	}
+
+	/**
+	 * Compile a JSON Schema
+	 *
+	 * @param schema the schema, as parsed from JSON
+	 * @return the compiled schema
+	 * @throws IllegalArgumentException if the schema is malformed or uses an unsupported keyword
+	 */
+	static JsonSchema compile(Map<String, Object> schema) {
+		return compileSchema(schema);
+	}
+
+	/**
+	 * Validate a value against the schema
+	 *
+	 * @param value the value, as parsed from JSON
+	 * @return the validation errors, empty if the value is valid
+	 */
+	List<String> validate(Object value) {
+		List<String> errors = new ArrayList<>();
+		validate(value, ROOT_PATH, errors);
+		return errors;
+	}
+
+	private void validate(Object value, String path, List<String> errors) {
+		for (Constraint constraint : this.constraints) {
+			constraint.validate(value, path, errors);
+		}
+	}
+
+	private boolean isValid(Object value) {
+		List<String> errors = new ArrayList<>();
+		validate(value, ROOT_PATH, errors);
+		return errors.isEmpty();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static JsonSchema compileSchema(Object schema) {
+		if (Boolean.TRUE.equals(schema)) {
+			return new JsonSchema(new ArrayList<>());
+		}
+		List<Constraint> constraints = new ArrayList<>();
+		if (Boolean.FALSE.equals(schema)) {
+			constraints.add((value, path, errors) -> errors.add(path + ": is not allowed"));
+			return new JsonSchema(constraints);
+		}
+		if (!(schema instanceof Map)) {
+			throw new IllegalArgumentException("A schema must be an object or a boolean");
+		}
+		Map<String, Object> keywords = (Map<String, Object>) schema;
+		UNSUPPORTED_KEYWORDS.stream().filter(keywords::containsKey).findFirst().ifPresent(keyword -> {
+			throw new IllegalArgumentException("Unsupported schema keyword " + keyword);
+		});
+		compileGeneric(keywords, constraints);
+		compileNumeric(keywords, constraints);
+		compileString(keywords, constraints);
+		compileArray(keywords, constraints);
+		compileObject(keywords, constraints);
+		compileCombinators(keywords, constraints);
+		return new JsonSchema(constraints);
+	}
+
+	private static void compileGeneric(Map<String, Object> keywords, List<Constraint> constraints) {
+		Object type = keywords.get("type");
+		if (type != null) {
+			List<String> types = new ArrayList<>();
+			if (type instanceof Collection) {
+				((Collection<?>) type).forEach(t -> types.add(String.valueOf(t)));
+			}
+			else {
+				types.add(String.valueOf(type));
+			}
+			types.stream().filter(t -> !TYPES.contains(t)).findFirst().ifPresent(t -> {
+				throw new IllegalArgumentException("Unknown schema type " + t);
+			});
+			constraints.add((value, path, errors) -> {
+				if (types.stream().noneMatch(t -> isType(value, t))) {
+					errors.add(path + ": must be of type " + String.join(" or ", types));
+				}
+			});
+		}
+		if (keywords.containsKey("enum")) {
+			List<Object> values = new ArrayList<>(asList(keywords.get("enum"), "enum"));
+			constraints.add((value, path, errors) -> {
+				if (values.stream().noneMatch(v -> jsonEquals(v, value))) {
+					errors.add(path + ": must be one of " + values);
+				}
+			});
+		}
+		if (keywords.containsKey("const")) {
+			Object constant = keywords.get("const");
+			constraints.add((value, path, errors) -> {
+				if (!jsonEquals(constant, value)) {
+					errors.add(path + ": must be " + constant);
+				}
+			});
+		}
+	}
+
+	private static void compileNumeric(Map<String, Object> keywords, List<Constraint> constraints) {
+		BigDecimal minimum = asNumber(keywords.get("minimum"), "minimum");
+		BigDecimal maximum = asNumber(keywords.get("maximum"), "maximum");
+		Object exclusiveMinimum = keywords.get("exclusiveMinimum");
+		Object exclusiveMaximum = keywords.get("exclusiveMaximum");
+		if (minimum != null) {
+			boolean exclusive = Boolean.TRUE.equals(exclusiveMinimum);
+			addNumeric(constraints, n -> exclusive ? n.compareTo(minimum) > 0 : n.compareTo(minimum) >= 0,
+					(exclusive ? "must be greater than " : "must be at least ") + minimum);
+		}
+		if (exclusiveMinimum instanceof Number) {
+			BigDecimal bound = asNumber(exclusiveMinimum, "exclusiveMinimum");
+			addNumeric(constraints, n -> n.compareTo(bound) > 0, "must be greater than " + bound);
+		}
+		if (maximum != null) {
+			boolean exclusive = Boolean.TRUE.equals(exclusiveMaximum);
+			addNumeric(constraints, n -> exclusive ? n.compareTo(maximum) < 0 : n.compareTo(maximum) <= 0,
+					(exclusive ? "must be less than " : "must be at most ") + maximum);
+		}
+		if (exclusiveMaximum instanceof Number) {
+			BigDecimal bound = asNumber(exclusiveMaximum, "exclusiveMaximum");
+			addNumeric(constraints, n -> n.compareTo(bound) < 0, "must be less than " + bound);
+		}
+		BigDecimal multipleOf = asNumber(keywords.get("multipleOf"), "multipleOf");
+		if (multipleOf != null) {
+			addNumeric(constraints, n -> n.remainder(multipleOf).signum() == 0, "must be a multiple of " + multipleOf);
+		}
+	}
+
+	private static void addNumeric(List<Constraint> constraints, NumericPredicate predicate, String message) {
+		constraints.add((value, path, errors) -> {
+			if (isNumber(value) && !predicate.test(toBigDecimal((Number) value))) {
+				errors.add(path + ": " + message);
+			}
+		});
+	}
+
+	private static void compileString(Map<String, Object> keywords, List<Constraint> constraints) {
+		Integer minLength = asInteger(keywords.get("minLength"), "minLength");
+		Integer maxLength = asInteger(keywords.get("maxLength"), "maxLength");
+		if (minLength != null || maxLength != null) {
+			constraints.add((value, path, errors) -> {
+				if (value instanceof String) {
+					String string = (String) value;
+					int length = string.codePointCount(0, string.length());
+					if (minLength != null && length < minLength) {
+						errors.add(path + ": must be at least " + minLength + " characters long");
+					}
+					if (maxLength != null && length > maxLength) {
+						errors.add(path + ": must be at most " + maxLength + " characters long");
+					}
+				}
+			});
+		}
+		if (keywords.containsKey("pattern")) {
+			Pattern pattern = asPattern(keywords.get("pattern"));
+			constraints.add((value, path, errors) -> {
+				if (value instanceof String && !pattern.matcher((String) value).find()) {
+					errors.add(path + ": must match the pattern " + pattern.pattern());
+				}
+			});
+		}
+	}
+
+	private static void compileArray(Map<String, Object> keywords, List<Constraint> constraints) {
+		Object items = keywords.get("items");
+		if (items instanceof List) {
+			List<JsonSchema> tuple = new ArrayList<>();
+			((List<?>) items).forEach(item -> tuple.add(compileSchema(item)));
+			JsonSchema additionalItems = keywords.containsKey("additionalItems") ?
+					compileSchema(keywords.get("additionalItems")) : null;
+			constraints.add((value, path, errors) -> {
+				if (value instanceof List) {
+					List<?> list = (List<?>) value;
+					for (int i = 0; i < list.size(); i++) {
+						JsonSchema itemSchema = (i < tuple.size()) ? tuple.get(i) : additionalItems;
+						if (itemSchema != null) {
+							itemSchema.validate(list.get(i), path + "[" + i + "]", errors);
+						}
+					}
+				}
+			});
+		}
+		else if (items != null) {
+			JsonSchema itemSchema = compileSchema(items);
+			constraints.add((value, path, errors) -> {
+				if (value instanceof List) {
+					List<?> list = (List<?>) value;
+					for (int i = 0; i < list.size(); i++) {
+						itemSchema.validate(list.get(i), path + "[" + i + "]", errors);
+					}
+				}
+			});
+		}
+		Integer minItems = asInteger(keywords.get("minItems"), "minItems");
+		Integer maxItems = asInteger(keywords.get("maxItems"), "maxItems");
+		boolean uniqueItems = Boolean.TRUE.equals(keywords.get("uniqueItems"));
+		if (minItems != null || maxItems != null || uniqueItems) {
+			constraints.add((value, path, errors) -> {
+				if (value instanceof List) {
+					List<?> list = (List<?>) value;
+					if (minItems != null && list.size() < minItems) {
+						errors.add(path + ": must contain at least " + minItems + " items");
+					}
+					if (maxItems != null && list.size() > maxItems) {
+						errors.add(path + ": must contain at most " + maxItems + " items");
+					}
+					if (uniqueItems && !hasUniqueItems(list)) {
+						errors.add(path + ": must contain unique items");
+					}
+				}
+			});
+		}
+		if (keywords.containsKey("contains")) {
+			JsonSchema contains = compileSchema(keywords.get("contains"));
+			constraints.add((value, path, errors) -> {
+				if (value instanceof List && ((List<?>) value).stream().noneMatch(contains::isValid)) {
+					errors.add(path + ": must contain an item matching the schema");
+				}
+			});
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void compileObject(Map<String, Object> keywords, List<Constraint> constraints) {
+		if (keywords.containsKey("required")) {
+			List<Object> required = new ArrayList<>(asList(keywords.get("required"), "required"));
+			constraints.add((value, path, errors) -> {
+				if (value instanceof Map) {
+					for (Object name : required) {
+						if (!((Map<?, ?>) value).containsKey(name)) {
+							errors.add(path + ": must have the property " + name);
+						}
+					}
+				}
+			});
+		}
+		Map<String, JsonSchema> properties = new LinkedHashMap<>();
+		Object propertiesKeyword = keywords.get("properties");
+		if (propertiesKeyword instanceof Map) {
+			((Map<String, Object>) propertiesKeyword).forEach((name, schema) ->
+					properties.put(name, compileSchema(schema)));
+		}
+		Map<Pattern, JsonSchema> patternProperties = new LinkedHashMap<>();
+		Object patternPropertiesKeyword = keywords.get("patternProperties");
+		if (patternPropertiesKeyword instanceof Map) {
+			((Map<String, Object>) patternPropertiesKeyword).forEach((pattern, schema) ->
+					patternProperties.put(asPattern(pattern), compileSchema(schema)));
+		}
+		JsonSchema additionalProperties = keywords.containsKey("additionalProperties") ?
+				compileSchema(keywords.get("additionalProperties")) : null;
+		if (!properties.isEmpty() || !patternProperties.isEmpty() || additionalProperties != null) {
+			constraints.add((value, path, errors) -> {
+				if (value instanceof Map) {
+					((Map<?, ?>) value).forEach((name, propertyValue) -> validateProperty(String.valueOf(name),
+							propertyValue, path, errors, properties, patternProperties, additionalProperties));
+				}
+			});
+		}
+		Integer minProperties = asInteger(keywords.get("minProperties"), "minProperties");
+		Integer maxProperties = asInteger(keywords.get("maxProperties"), "maxProperties");
+		if (minProperties != null || maxProperties != null) {
+			constraints.add((value, path, errors) -> {
+				if (value instanceof Map) {
+					int size = ((Map<?, ?>) value).size();
+					if (minProperties != null && size < minProperties) {
+						errors.add(path + ": must have at least " + minProperties + " properties");
+					}
+					if (maxProperties != null && size > maxProperties) {
+						errors.add(path + ": must have at most " + maxProperties + " properties");
+					}
+				}
+			});
+		}
+	}
+
+	private static void validateProperty(String name, Object value, String path, List<String> errors,
+			Map<String, JsonSchema> properties, Map<Pattern, JsonSchema> patternProperties,
+			JsonSchema additionalProperties) {
+		String propertyPath = path + "." + name;
+		boolean matched = false;
+		JsonSchema propertySchema = properties.get(name);
+		if (propertySchema != null) {
+			propertySchema.validate(value, propertyPath, errors);
+			matched = true;
+		}
+		for (Map.Entry<Pattern, JsonSchema> patternProperty : patternProperties.entrySet()) {
+			if (patternProperty.getKey().matcher(name).find()) {
+				patternProperty.getValue().validate(value, propertyPath, errors);
+				matched = true;
+			}
+		}
+		if (!matched && additionalProperties != null) {
+			additionalProperties.validate(value, propertyPath, errors);
+		}
+	}
+
+	private static void compileCombinators(Map<String, Object> keywords, List<Constraint> constraints) {
+		if (keywords.containsKey("allOf")) {
+			List<JsonSchema> schemas = compileSchemas(keywords.get("allOf"), "allOf");
+			constraints.add((value, path, errors) -> schemas.forEach(schema -> schema.validate(value, path, errors)));
+		}
+		if (keywords.containsKey("anyOf")) {
+			List<JsonSchema> schemas = compileSchemas(keywords.get("anyOf"), "anyOf");
+			constraints.add((value, path, errors) -> {
+				if (schemas.stream().noneMatch(schema -> schema.isValid(value))) {
+					errors.add(path + ": must match at least one of the schemas in anyOf");
+				}
+			});
+		}
+		if (keywords.containsKey("oneOf")) {
+			List<JsonSchema> schemas = compileSchemas(keywords.get("oneOf"), "oneOf");
+			constraints.add((value, path, errors) -> {
+				if (schemas.stream().filter(schema -> schema.isValid(value)).count() != 1) {
+					errors.add(path + ": must match exactly one of the schemas in oneOf");
+				}
+			});
+		}
+		if (keywords.containsKey("not")) {
+			JsonSchema schema = compileSchema(keywords.get("not"));
+			constraints.add((value, path, errors) -> {
+				if (schema.isValid(value)) {
+					errors.add(path + ": must not match the schema in not");
+				}
+			});
+		}
+	}
+
+	private static List<JsonSchema> compileSchemas(Object schemas, String keyword) {
+		List<JsonSchema> compiled = new ArrayList<>();
+		asList(schemas, keyword).forEach(schema -> compiled.add(compileSchema(schema)));
+		return compiled;
+	}
+
+	private static boolean isType(Object value, String type) {
+		switch (type) {
+			case "null":
+				return value == null;
+			case "boolean":
+				return value instanceof Boolean;
+			case "string":
+				return value instanceof String;
+			case "array":
+				return value instanceof List;
+			case "object":
+				return value instanceof Map;
+			case "number":
+				return isNumber(value);
+			case "integer":
+				return isNumber(value) && isIntegral(toBigDecimal((Number) value));
+			default:
+				return false;
+		}
+	}
+
+	private static boolean isNumber(Object value) {
+		return value instanceof Number;
+	}
+
+	private static boolean isIntegral(BigDecimal number) {
+		return number.signum() == 0 || number.stripTrailingZeros().scale() <= 0;
+	}
+
+	private static BigDecimal toBigDecimal(Number number) {
+		if (number instanceof BigDecimal) {
+			return (BigDecimal) number;
+		}
+		if (number instanceof BigInteger) {
+			return new BigDecimal((BigInteger) number);
+		}
+		if (number instanceof Double || number instanceof Float) {
+			return BigDecimal.valueOf(number.doubleValue());
+		}
+		return BigDecimal.valueOf(number.longValue());
+	}
+
+	private static boolean jsonEquals(Object expected, Object actual) {
+		if (isNumber(expected) && isNumber(actual)) {
+			return toBigDecimal((Number) expected).compareTo(toBigDecimal((Number) actual)) == 0;
+		}
+		if (expected instanceof List && actual instanceof List) {
+			List<?> expectedList = (List<?>) expected;
+			List<?> actualList = (List<?>) actual;
+			if (expectedList.size() != actualList.size()) {
+				return false;
+			}
+			for (int i = 0; i < expectedList.size(); i++) {
+				if (!jsonEquals(expectedList.get(i), actualList.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (expected instanceof Map && actual instanceof Map) {
+			Map<?, ?> expectedMap = (Map<?, ?>) expected;
+			Map<?, ?> actualMap = (Map<?, ?>) actual;
+			return expectedMap.size() == actualMap.size() && expectedMap.entrySet().stream()
+					.allMatch(entry -> actualMap.containsKey(entry.getKey())
+							&& jsonEquals(entry.getValue(), actualMap.get(entry.getKey())));
+		}
+		return (expected == null) ? actual == null : expected.equals(actual);
+	}
+
+	private static boolean hasUniqueItems(List<?> list) {
+		Set<Object> simpleItems = new HashSet<>();
+		for (int i = 0; i < list.size(); i++) {
+			Object item = list.get(i);
+			if (item instanceof String || item instanceof Boolean) {
+				if (!simpleItems.add(item)) {
+					return false;
+				}
+				continue;
+			}
+			for (int j = i + 1; j < list.size(); j++) {
+				if (jsonEquals(item, list.get(j))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static Collection<?> asList(Object value, String keyword) {
+		if (!(value instanceof Collection)) {
+			throw new IllegalArgumentException("The value of " + keyword + " must be an array");
+		}
+		return (Collection<?>) value;
+	}
+
+	private static BigDecimal asNumber(Object value, String keyword) {
+		if (value == null) {
+			return null;
+		}
+		if (!isNumber(value)) {
+			throw new IllegalArgumentException("The value of " + keyword + " must be a number");
+		}
+		return toBigDecimal((Number) value);
+	}
+
+	private static Integer asInteger(Object value, String keyword) {
+		BigDecimal number = asNumber(value, keyword);
+		return (number != null) ? number.intValue() : null;
+	}
+
+	private static Pattern asPattern(Object value) {
+		try {
+			return Pattern.compile(String.valueOf(value));
+		}
+		catch (PatternSyntaxException e) {
+			throw new IllegalArgumentException("Invalid schema pattern " + value, e);
+		}
+	}
+
+	@FunctionalInterface
+	private interface Constraint {
+
+		void validate(Object value, String path, List<String> errors);
+
+	}
+
+	@FunctionalInterface
+	private interface NumericPredicate {
+
+		boolean test(BigDecimal number);
+
+	}
+
+}
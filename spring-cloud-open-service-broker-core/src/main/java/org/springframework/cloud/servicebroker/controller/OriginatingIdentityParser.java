@@ -0,0 +1,289 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidOriginatingIdentityException;
+import org.springframework.cloud.servicebroker.model.CloudFoundryContext;
+import org.springframework.cloud.servicebroker.model.Context;
+import org.springframework.cloud.servicebroker.model.KubernetesContext;
+import org.springframework.cloud.servicebroker.model.PlatformContext;
+import org.springframework.cloud.servicebroker.model.ServiceBrokerRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.Base64Utils;
+
+/**
+ * Parses the value of the {@literal X-Broker-API-Originating-Identity} header into a platform specific
+ * {@link Context}.
+ *
+ * <p>
+ * The JSON properties in the header are read with a single shared reader. Platforms send the same header value for
+ * every request from a user, so the properties parsed from the most recently used header values are held in a bounded
+ * least-recently-used cache. Each request receives its own {@link Context} built from the cached properties, so a
+ * request cannot change the identity seen by another request. Nested objects and arrays in the properties are shared
+ * by all requests that carry the same header value and cannot be modified.
+ *
+ * <p>
+ * By default, controllers defer parsing the header until a service reads the originating identity of a request, so
+ * requests are not charged for an identity the service never uses. A strict parser requires the header to be parsed
+ * and validated when the request is received.
+ *
+ * @author agent
+ */
+public class OriginatingIdentityParser {
+
+	/**
+	 * The default number of header values for which the parsed context is cached
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 256;
+
+	private static final int ORIGINATING_IDENTITY_HEADER_PARTS = 2;
+
+	private static final int MAX_CACHED_HEADER_LENGTH = 8192;
+
+	private final ObjectReader propertiesReader;
+
+	private final Map<String, ParsedIdentity> cache;
+
+	private final Object monitor = new Object();
+
+	private final boolean strict;
+
+	private final AtomicLong cacheHitCount = new AtomicLong();
+
+	private final AtomicLong cacheMissCount = new AtomicLong();
+
+	/**
+	 * Construct a new {@link OriginatingIdentityParser} with the default cache size
+	 */
+	public OriginatingIdentityParser() {
+		this(Jackson2ObjectMapperBuilder.json().build(), DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Construct a new {@link OriginatingIdentityParser}
+	 *
+	 * @param objectMapper the object mapper used to read the header properties
+	 * @param cacheSize the maximum number of header values for which the parsed context is cached, or {@literal 0}
+	 * 		to disable caching
+	 */
+	public OriginatingIdentityParser(ObjectMapper objectMapper, int cacheSize) {
+		this(objectMapper, cacheSize, false);
+	}
+
+	/**
+	 * Construct a new {@link OriginatingIdentityParser}
+	 *
+	 * @param objectMapper the object mapper used to read the header properties
+	 * @param cacheSize the maximum number of header values for which the parsed context is cached, or {@literal 0}
+	 * 		to disable caching
+	 * @param strict whether the header is parsed and validated when the request is received, instead of when the
+	 * 		originating identity is first read
+	 */
+	public OriginatingIdentityParser(ObjectMapper objectMapper, int cacheSize, boolean strict) {
+		if (cacheSize < 0) {
+			throw new IllegalArgumentException("Cache size must not be negative");
+		}
+		this.propertiesReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {
+		});
+		this.cache = new LinkedHashMap<String, ParsedIdentity>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ParsedIdentity> eldest) {
+				return size() > cacheSize;
+			}
+		};
+		this.strict = strict;
+	}
+
+	/**
+	 * Parse the value of the originating identity header
+	 *
+	 * @param originatingIdentityString identity of the user that initiated the request from the platform
+	 * @return the Context, or {@literal null} if the header value is {@literal null}
+	 * @throws ServiceBrokerInvalidOriginatingIdentityException if the header value is invalid
+	 */
+	public Context parse(String originatingIdentityString) {
+		if (originatingIdentityString == null) {
+			return null;
+		}
+
+		ParsedIdentity identity;
+		synchronized (this.monitor) {
+			identity = this.cache.get(originatingIdentityString);
+		}
+		if (identity != null) {
+			this.cacheHitCount.incrementAndGet();
+			return createContext(identity);
+		}
+
+		this.cacheMissCount.incrementAndGet();
+		identity = parseIdentity(originatingIdentityString);
+		if (originatingIdentityString.length() <= MAX_CACHED_HEADER_LENGTH) {
+			synchronized (this.monitor) {
+				this.cache.put(originatingIdentityString, identity);
+			}
+		}
+		return createContext(identity);
+	}
+
+	/**
+	 * Whether the header is parsed and validated when the request is received
+	 *
+	 * @return true if the header is parsed eagerly
+	 */
+	public boolean isStrict() {
+		return this.strict;
+	}
+
+	/**
+	 * Get the number of header values parsed from the cache
+	 *
+	 * @return the number of cache hits
+	 */
+	public long getCacheHitCount() {
+		return this.cacheHitCount.get();
+	}
+
+	/**
+	 * Get the number of header values that were not in the cache and were decoded and parsed
+	 *
+	 * @return the number of cache misses
+	 */
+	public long getCacheMissCount() {
+		return this.cacheMissCount.get();
+	}
+
+	/**
+	 * Get the number of header values currently held in the cache
+	 *
+	 * @return the cache size
+	 */
+	public int getCacheSize() {
+		synchronized (this.monitor) {
+			return this.cache.size();
+		}
+	}
+
+	private ParsedIdentity parseIdentity(String originatingIdentityString) {
+		String[] parts = splitOriginatingIdentityHeaderParts(originatingIdentityString);
+		Map<String, Object> properties = parseOriginatingIdentityHeader(decodeOriginatingIdentityHeader(parts[1]));
+		return new ParsedIdentity(parts[0], unmodifiableMap(properties));
+	}
+
+	private static Context createContext(ParsedIdentity identity) {
+		if (CloudFoundryContext.CLOUD_FOUNDRY_PLATFORM.equals(identity.platform)) {
+			return CloudFoundryContext.builder()
+					.properties(identity.properties)
+					.build();
+		}
+		else if (KubernetesContext.KUBERNETES_PLATFORM.equals(identity.platform)) {
+			return KubernetesContext.builder()
+					.properties(identity.properties)
+					.build();
+		}
+		else {
+			return PlatformContext.builder()
+					.platform(identity.platform)
+					.properties(identity.properties)
+					.build();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object unmodifiable(Object value) {
+		if (value instanceof Map) {
+			return unmodifiableMap((Map<String, Object>) value);
+		}
+		if (value instanceof List) {
+			List<Object> list = new ArrayList<>();
+			for (Object element : (List<Object>) value) {
+				list.add(unmodifiable(element));
+			}
+			return Collections.unmodifiableList(list);
+		}
+		return value;
+	}
+
+	private static Map<String, Object> unmodifiableMap(Map<String, Object> map) {
+		Map<String, Object> copy = new LinkedHashMap<>();
+		map.forEach((key, value) -> copy.put(key, unmodifiable(value)));
+		return Collections.unmodifiableMap(copy);
+	}
+
+	private String[] splitOriginatingIdentityHeaderParts(String header) {
+		String[] parts = header.split(" ", ORIGINATING_IDENTITY_HEADER_PARTS);
+		if (parts.length != ORIGINATING_IDENTITY_HEADER_PARTS) {
+			throw new ServiceBrokerInvalidOriginatingIdentityException("Expected platform and properties values in "
+					+ ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER + " header in request");
+		}
+		return parts;
+	}
+
+	private byte[] decodeOriginatingIdentityHeader(String encodedProperties) {
+		try {
+			return Base64Utils.decode(encodedProperties.getBytes(StandardCharsets.ISO_8859_1));
+		}
+		catch (IllegalArgumentException e) {
+			throw new ServiceBrokerInvalidOriginatingIdentityException("Error decoding JSON properties from "
+					+ ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER + " header in request", e);
+		}
+	}
+
+	private Map<String, Object> parseOriginatingIdentityHeader(byte[] properties) {
+		Map<String, Object> parsed;
+		try {
+			parsed = this.propertiesReader.readValue(properties);
+		}
+		catch (IOException e) {
+			throw new ServiceBrokerInvalidOriginatingIdentityException("Error parsing JSON properties from "
+					+ ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER + " header in request", e);
+		}
+		if (parsed == null) {
+			throw new ServiceBrokerInvalidOriginatingIdentityException("Expected JSON object properties in "
+					+ ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER + " header in request");
+		}
+		return parsed;
+	}
+
+	private static final class ParsedIdentity {
+
+		private final String platform;
+
+		private final Map<String, Object> properties;
+
+		private ParsedIdentity(String platform, Map<String, Object> properties) {
+			this.platform = platform;
+			this.properties = properties;
+		}
+
+	}
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidParametersException;
+import org.springframework.cloud.servicebroker.model.catalog.MethodSchema;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.Schemas;
+
+/**
+ * Validates the parameters of create and update requests against the JSON Schemas of the requested plan before the
+ * request is dispatched to the service.
+ *
+ * <p>
+ * The schemas of a plan are compiled once and cached by plan ID. When the catalog is reloaded and the plan carries a
+ * different {@link Schemas} instance, the schemas are compiled again. A schema that cannot be compiled, or that uses a
+ * keyword such as {@literal $ref} that cannot be evaluated, is logged once when it is compiled and not enforced.
+ *
+ * @author agent
+ */
+public class ParameterSchemaValidator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ParameterSchemaValidator.class);
+
+	private final ConcurrentMap<String, PlanValidators> validators = new ConcurrentHashMap<>();
+
+	private final AtomicLong validationCount = new AtomicLong();
+
+	private final AtomicLong rejectionCount = new AtomicLong();
+
+	private final AtomicLong validationTimeNanos = new AtomicLong();
+
+	private final AtomicLong compilationCount = new AtomicLong();
+
+	/**
+	 * Validate the parameters of a create service instance request
+	 *
+	 * @param plan the requested plan, may be null
+	 * @param parameters the request parameters, may be null
+	 * @throws ServiceBrokerInvalidParametersException if the parameters do not match the schema
+	 */
+	public void validateCreateServiceInstance(Plan plan, Map<String, Object> parameters) {
+		validate(plan, parameters, PlanValidators::getCreateServiceInstance);
+	}
+
+	/**
+	 * Validate the parameters of an update service instance request
+	 *
+	 * @param plan the requested plan, may be null
+	 * @param parameters the request parameters, may be null
+	 * @throws ServiceBrokerInvalidParametersException if the parameters do not match the schema
+	 */
+	public void validateUpdateServiceInstance(Plan plan, Map<String, Object> parameters) {
+		validate(plan, parameters, PlanValidators::getUpdateServiceInstance);
+	}
+
+	/**
+	 * Validate the parameters of a create service instance binding request
+	 *
+	 * @param plan the requested plan, may be null
+	 * @param parameters the request parameters, may be null
+	 * @throws ServiceBrokerInvalidParametersException if the parameters do not match the schema
+	 */
+	public void validateCreateServiceInstanceBinding(Plan plan, Map<String, Object> parameters) {
+		validate(plan, parameters, PlanValidators::getCreateServiceInstanceBinding);
+	}
+
+	/**
+	 * Get the number of requests whose parameters were validated against a schema
+	 *
+	 * @return the number of validations
+	 */
+	public long getValidationCount() {
+		return this.validationCount.get();
+	}
+
+	/**
+	 * Get the number of requests rejected because the parameters did not match the schema
+	 *
+	 * @return the number of rejections
+	 */
+	public long getRejectionCount() {
+		return this.rejectionCount.get();
+	}
+
+	/**
+	 * Get the total time spent validating parameters
+	 *
+	 * @return the validation time in nanoseconds
+	 */
+	public long getValidationTimeNanos() {
+		return this.validationTimeNanos.get();
+	}
+
+	/**
+	 * Get the number of times the schemas of a plan were compiled
+	 *
+	 * @return the number of compilations
+	 */
+	public long getCompilationCount() {
+		return this.compilationCount.get();
+	}
+
+	private void validate(Plan plan, Map<String, Object> parameters, Function<PlanValidators, JsonSchema> selector) {
+		if (plan == null || plan.getId() == null || plan.getSchemas() == null) {
+			return;
+		}
+		JsonSchema schema = selector.apply(getValidators(plan));
+		if (schema == null) {
+			return;
+		}
+		long start = System.nanoTime();
+		List<String> errors = schema.validate((parameters != null) ? parameters : Collections.emptyMap());
+		this.validationTimeNanos.addAndGet(System.nanoTime() - start);
+		this.validationCount.incrementAndGet();
+		if (!errors.isEmpty()) {
+			this.rejectionCount.incrementAndGet();
+			throw new ServiceBrokerInvalidParametersException(String.join(", ", errors));
+		}
+	}
+
+	private PlanValidators getValidators(Plan plan) {
+		PlanValidators planValidators = this.validators.get(plan.getId());
+		if (planValidators == null || planValidators.schemas != plan.getSchemas()) {
+			planValidators = new PlanValidators(plan);
+			this.validators.put(plan.getId(), planValidators);
+			this.compilationCount.incrementAndGet();
+		}
+		return planValidators;
+	}
+
+	private static final class PlanValidators {
+
+		private final Schemas schemas;
+
+		private final JsonSchema createServiceInstance;
+
+		private final JsonSchema updateServiceInstance;
+
+		private final JsonSchema createServiceInstanceBinding;
+
+		private PlanValidators(Plan plan) {
+			this.schemas = plan.getSchemas();
+			if (this.schemas.getServiceInstanceSchema() != null) {
+				this.createServiceInstance = compile(plan,
+						this.schemas.getServiceInstanceSchema().getCreateMethodSchema());
+				this.updateServiceInstance = compile(plan,
+						this.schemas.getServiceInstanceSchema().getUpdateMethodSchema());
+			}
+			else {
+				this.createServiceInstance = null;
+				this.updateServiceInstance = null;
+			}
+			this.createServiceInstanceBinding = (this.schemas.getServiceBindingSchema() != null) ?
+					compile(plan, this.schemas.getServiceBindingSchema().getCreateMethodSchema()) : null;
+		}
+
+		private JsonSchema getCreateServiceInstance() {
+			return this.createServiceInstance;
+		}
+
+		private JsonSchema getUpdateServiceInstance() {
+			return this.updateServiceInstance;
+		}
+
+		private JsonSchema getCreateServiceInstanceBinding() {
+			return this.createServiceInstanceBinding;
+		}
+
+		private static JsonSchema compile(Plan plan, MethodSchema methodSchema) {
+			if (methodSchema == null || methodSchema.getParameters() == null
+					|| methodSchema.getParameters().isEmpty()) {
+				return null;
+			}
+			try {
+				return JsonSchema.compile(methodSchema.getParameters());
+			}
+			catch (IllegalArgumentException e) {
+				LOG.warn("Parameter schema of plan " + plan.getId() + " is not enforced. error=" + e.getMessage());
+				return null;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * The serialized JSON representation of a catalog, along with the strong entity tag that identifies it.
+ *
+ * <p>
+ * A serialized catalog may also hold the representation pre-compressed with one or more
+ * {@link CatalogContentEncoding content codings}, so that compressed responses do not need to be encoded per request. Each encoded variant has its own entity tag.
+ *
+ * <p>
+ * Objects of this type are immutable and are shared between requests. The content must not be modified.
+ *
+ * @author agent
+ * @see CatalogResponseCache
+ */
+public class SerializedCatalog {
+
+	private static final String WEAK_ETAG_PREFIX = "W/";
+
+	private static final String ANY_ETAG = "*";
+
+	private final String version;
+
+	private final Map<CatalogContentEncoding, byte[]> contents;
+
+	private final Map<CatalogContentEncoding, String> eTags;
+
+	/**
+	 * Construct a new {@link SerializedCatalog} that holds only the uncompressed representation
+	 *
+	 * @param version the catalog version reported by the catalog service, or null if not versioned
+	 * @param content the serialized catalog
+	 */
+	public SerializedCatalog(String version, byte[] content) {
+		this(version, Collections.singletonMap(CatalogContentEncoding.IDENTITY, content));
+	}
+
+	/**
+	 * Construct a new {@link SerializedCatalog} that holds the uncompressed representation along with variants
+	 * pre-compressed with the provided content codings
+	 *
+	 * @param version the catalog version reported by the catalog service, or null if not versioned
+	 * @param content the serialized catalog
+	 * @param encodings the content codings to pre-compress the serialized catalog with
+	 * @throws IOException if the serialized catalog cannot be compressed
+	 */
+	public SerializedCatalog(String version, byte[] content, Set<CatalogContentEncoding> encodings)
+			throws IOException {
+		this(version, encode(content, encodings));
+	}
+
+	private SerializedCatalog(String version, Map<CatalogContentEncoding, byte[]> contents) {
+		String identityETag = generateETag(contents.get(CatalogContentEncoding.IDENTITY));
+		Map<CatalogContentEncoding, String> variantETags = new EnumMap<>(CatalogContentEncoding.class);
+		for (CatalogContentEncoding encoding : contents.keySet()) {
+			variantETags.put(encoding, encoding == CatalogContentEncoding.IDENTITY ? identityETag :
+					identityETag.substring(0, identityETag.length() - 1) + '-' + encoding.getValue() + '"');
+		}
+		this.version = version;
+		this.contents = contents;
+		this.eTags = Collections.unmodifiableMap(variantETags);
+	}
+
+	private static Map<CatalogContentEncoding, byte[]> encode(byte[] content, Set<CatalogContentEncoding> encodings)
+			throws IOException {
+		Map<CatalogContentEncoding, byte[]> encoded = new EnumMap<>(CatalogContentEncoding.class);
+		encoded.put(CatalogContentEncoding.IDENTITY, content);
+		for (CatalogContentEncoding encoding : encodings) {
+			encoded.put(encoding, encoding.encode(content));
+		}
+		return Collections.unmodifiableMap(encoded);
+	}
+
+	/**
+	 * Get the catalog version this representation was built from
+	 *
+	 * @return the catalog version, or null if not versioned
+	 */
+	public String getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Get the serialized catalog. The returned array is shared and must not be modified.
+	 *
+	 * @return the serialized catalog
+	 */
+	public byte[] getContent() {
+		return getContent(CatalogContentEncoding.IDENTITY);
+	}
+
+	/**
+	 * Get the serialized catalog encoded with a content coding. The returned array is shared and must not be
+	 * modified.
+	 *
+	 * @param encoding the content coding
+	 * @return the encoded serialized catalog, or null if this catalog does not hold the encoding
+	 */
+	public byte[] getContent(CatalogContentEncoding encoding) {
+		return this.contents.get(encoding);
+	}
+
+	/**
+	 * Get the content codings this catalog holds, which always include {@link CatalogContentEncoding#IDENTITY}
+	 *
+	 * @return the content codings
+	 */
+	public Set<CatalogContentEncoding> getEncodings() {
+		return this.contents.keySet();
+	}
+
+	/**
+	 * Select the content coding to respond with based on the value of an {@literal Accept-Encoding} request header
+	 *
+	 * @param acceptEncoding the value of the {@literal Accept-Encoding} header, may be null
+	 * @return the selected content coding
+	 */
+	public CatalogContentEncoding selectEncoding(String acceptEncoding) {
+		if (this.contents.size() == 1) {
+			return CatalogContentEncoding.IDENTITY;
+		}
+		return CatalogContentEncoding.select(acceptEncoding, getEncodings());
+	}
+
+	/**
+	 * Get the strong entity tag computed from the serialized catalog
+	 *
+	 * @return the quoted entity tag
+	 */
+	public String getETag() {
+		return getETag(CatalogContentEncoding.IDENTITY);
+	}
+
+	/**
+	 * Get the strong entity tag of the serialized catalog encoded with a content coding. Each encoded variant has a
+	 * distinct entity tag, as required for strong validators.
+	 *
+	 * @param encoding the content coding
+	 * @return the quoted entity tag
+	 */
+	public String getETag(CatalogContentEncoding encoding) {
+		return this.eTags.get(encoding);
+	}
+
+	/**
+	 * Determine whether the value of an {@literal If-None-Match} request header matches this representation, using
+	 * the weak comparison required for conditional {@literal GET} requests.
+	 *
+	 * @param ifNoneMatch the value of the {@literal If-None-Match} header, may be null
+	 * @return true if the platform already has this representation
+	 */
+	public boolean matches(String ifNoneMatch) {
+		return matches(ifNoneMatch, CatalogContentEncoding.IDENTITY);
+	}
+
+	/**
+	 * Determine whether the value of an {@literal If-None-Match} request header matches the variant of this
+	 * representation encoded with a content coding.
+	 *
+	 * @param ifNoneMatch the value of the {@literal If-None-Match} header, may be null
+	 * @param encoding the content coding of the variant
+	 * @return true if the platform already has the variant
+	 */
+	public boolean matches(String ifNoneMatch, CatalogContentEncoding encoding) {
+		if (!StringUtils.hasText(ifNoneMatch)) {
+			return false;
+		}
+		for (String candidate : StringUtils.commaDelimitedListToStringArray(ifNoneMatch)) {
+			String tag = candidate.trim();
+			if (ANY_ETAG.equals(tag)) {
+				return true;
+			}
+			if (tag.startsWith(WEAK_ETAG_PREFIX)) {
+				tag = tag.substring(WEAK_ETAG_PREFIX.length());
+			}
+			if (tag.equals(getETag(encoding))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String generateETag(byte[] content) {
+		StringBuilder builder = new StringBuilder(37);
+		builder.append("\"0");
+		DigestUtils.appendMd5DigestAsHex(content, builder);
+		builder.append('"');
+		return builder.toString();
+	}
+
+}
@@ -73,6 +73,8 @@ public class ServiceInstanceBindingController extends BaseController {
 
 	private final ServiceInstanceBindingService service;
 
+	private final ParameterSchemaValidator parameterSchemaValidator;
+
 	/**
 	 * Construct a new {@link ServiceInstanceBindingController}
 	 *
@@ -81,8 +83,36 @@ public class ServiceInstanceBindingController extends BaseController {
 	 */
 	public ServiceInstanceBindingController(CatalogService catalogService,
 			ServiceInstanceBindingService serviceInstanceBindingService) {
-		super(catalogService);
+		this(catalogService, serviceInstanceBindingService, new OriginatingIdentityParser());
+	}
+
+	/**
+	 * Construct a new {@link ServiceInstanceBindingController}
+	 *
+	 * @param catalogService the catalog service
+	 * @param serviceInstanceBindingService the service instance binding service
+	 * @param originatingIdentityParser the parser for the originating identity header
+	 */
+	public ServiceInstanceBindingController(CatalogService catalogService,
+			ServiceInstanceBindingService serviceInstanceBindingService,
+			OriginatingIdentityParser originatingIdentityParser) {
+		this(catalogService, serviceInstanceBindingService, originatingIdentityParser, null);
+	}
+
+	/**
+	 * Construct a new {@link ServiceInstanceBindingController}
+	 *
+	 * @param catalogService the catalog service
+	 * @param serviceInstanceBindingService the service instance binding service
+	 * @param originatingIdentityParser the parser for the originating identity header
+	 * @param parameterSchemaValidator the validator for request parameters, or null to skip validation
+	 */
+	public ServiceInstanceBindingController(CatalogService catalogService,
+			ServiceInstanceBindingService serviceInstanceBindingService,
+			OriginatingIdentityParser originatingIdentityParser, ParameterSchemaValidator parameterSchemaValidator) {
+		super(catalogService, originatingIdentityParser);
 		this.service = serviceInstanceBindingService;
+		this.parameterSchemaValidator = parameterSchemaValidator;
 	}
 
 	/**
@@ -108,8 +138,10 @@ public class ServiceInstanceBindingController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER, required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER, required = false) String requestIdentity,
 			@Valid @RequestBody CreateServiceInstanceBindingRequest request) {
-		return getRequiredServiceDefinition(request.getServiceDefinitionId())
-				.flatMap(serviceDefinition -> getRequiredServiceDefinitionPlan(serviceDefinition, request.getPlanId())
+		String platformInstanceId = pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE);
+		return getRequiredServiceDefinition(platformInstanceId, request.getServiceDefinitionId())
+				.flatMap(serviceDefinition -> getRequiredServiceDefinitionPlan(platformInstanceId, serviceDefinition,
+						request.getPlanId())
 						.map(plan -> {
 							request.setPlan(plan);
 							return request;
@@ -125,6 +157,7 @@ public class ServiceInstanceBindingController extends BaseController {
 						pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE),
 						apiInfoLocation, originatingIdentityString, requestIdentity, acceptsIncomplete))
 				.cast(CreateServiceInstanceBindingRequest.class)
+				.map(this::validateParameters)
 				.flatMap(req -> service.createServiceInstanceBinding(req)
 						.doOnRequest(v -> {
 							LOG.info("Creating a service instance binding");
@@ -141,6 +174,14 @@ public class ServiceInstanceBindingController extends BaseController {
 				.switchIfEmpty(Mono.just(new ResponseEntity<>(HttpStatus.CREATED)));
 	}
 
+	private CreateServiceInstanceBindingRequest validateParameters(CreateServiceInstanceBindingRequest request) {
+		if (this.parameterSchemaValidator != null) {
+			this.parameterSchemaValidator.validateCreateServiceInstanceBinding(request.getPlan(),
+					request.getParameters());
+		}
+		return request;
+	}
+
 	private HttpStatus getCreateResponseCode(CreateServiceInstanceBindingResponse response) {
 		HttpStatus status = HttpStatus.CREATED;
 		if (response != null) {
@@ -175,16 +216,15 @@ public class ServiceInstanceBindingController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.API_INFO_LOCATION_HEADER, required = false) String apiInfoLocation,
 			@RequestHeader(value = ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER, required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER, required = false) String requestIdentity) {
-		return Mono.just(GetServiceInstanceBindingRequest.builder()
+		return Mono.just(configureOriginatingIdentity(GetServiceInstanceBindingRequest.builder()
 				.serviceInstanceId(serviceInstanceId)
 				.bindingId(bindingId)
 				.serviceDefinitionId(serviceDefinitionId)
 				.planId(planId)
 				.platformInstanceId(pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 				.apiInfoLocation(apiInfoLocation)
-				.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 				.requestIdentity(requestIdentity)
-				.build())
+				.build(), originatingIdentityString))
 				.flatMap(req -> service.getServiceInstanceBinding(req)
 						.doOnRequest(v -> {
 							LOG.info("Getting a service instance binding");
@@ -234,7 +274,7 @@ public class ServiceInstanceBindingController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.API_INFO_LOCATION_HEADER, required = false) String apiInfoLocation,
 			@RequestHeader(value = ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER, required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER, required = false) String requestIdentity) {
-		return Mono.just(GetLastServiceBindingOperationRequest.builder()
+		return Mono.just(configureOriginatingIdentity(GetLastServiceBindingOperationRequest.builder()
 				.serviceDefinitionId(serviceDefinitionId)
 				.serviceInstanceId(serviceInstanceId)
 				.bindingId(bindingId)
@@ -242,9 +282,8 @@ public class ServiceInstanceBindingController extends BaseController {
 				.operation(operation)
 				.platformInstanceId(pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 				.apiInfoLocation(apiInfoLocation)
-				.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 				.requestIdentity(requestIdentity)
-				.build())
+				.build(), originatingIdentityString))
 				.flatMap(request -> service.getLastOperation(request)
 						.doOnRequest(v -> {
 							LOG.info("Getting service instance binding last operation");
@@ -259,8 +298,9 @@ public class ServiceInstanceBindingController extends BaseController {
 				.flatMap(response -> Mono
 						.just(response.getState().equals(OperationState.SUCCEEDED) && response.isDeleteOperation())
 						.flatMap(isSuccessfulDelete ->
-								Mono.just(new ResponseEntity<>(response,
-										isSuccessfulDelete ? HttpStatus.GONE : HttpStatus.OK))));
+								Mono.just(lastOperationResponse(response,
+										isSuccessfulDelete ? HttpStatus.GONE : HttpStatus.OK,
+										response.getRetryAfter()))));
 	}
 
 	/**
@@ -288,12 +328,14 @@ public class ServiceInstanceBindingController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.API_INFO_LOCATION_HEADER, required = false) String apiInfoLocation,
 			@RequestHeader(value = ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER, required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER, required = false) String requestIdentity) {
-		return getRequiredServiceDefinition(serviceDefinitionId)
+		String platformInstanceId = pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE);
+		return getRequiredServiceDefinition(platformInstanceId, serviceDefinitionId)
 				.switchIfEmpty(Mono.just(ServiceDefinition.builder().build()))
-				.flatMap(serviceDefinition -> getRequiredServiceDefinitionPlan(serviceDefinition, planId)
+				.flatMap(serviceDefinition -> getRequiredServiceDefinitionPlan(platformInstanceId, serviceDefinition,
+						planId)
 						.map(DeleteServiceInstanceBindingRequest.builder()::plan)
 						.switchIfEmpty(Mono.just(DeleteServiceInstanceBindingRequest.builder()))
-						.map(builder -> builder
+						.map(builder -> configureOriginatingIdentity(builder
 								.serviceInstanceId(serviceInstanceId)
 								.bindingId(bindingId)
 								.serviceDefinitionId(serviceDefinitionId)
@@ -303,9 +345,8 @@ public class ServiceInstanceBindingController extends BaseController {
 								.platformInstanceId(
 										pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 								.apiInfoLocation(apiInfoLocation)
-								.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 								.requestIdentity(requestIdentity)
-								.build()))
+								.build(), originatingIdentityString)))
 				.flatMap(req -> service.deleteServiceInstanceBinding(req)
 						.doOnRequest(v -> {
 							LOG.info("Deleting a service instance binding");
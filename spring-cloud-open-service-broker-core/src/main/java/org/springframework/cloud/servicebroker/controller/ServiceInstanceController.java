@@ -76,6 +76,8 @@ public class ServiceInstanceController extends BaseController {
 
 	private final ServiceInstanceService service;
 
+	private final ParameterSchemaValidator parameterSchemaValidator;
+
 	/**
 	 * Construct a new {@link ServiceInstanceController}
 	 *
@@ -83,8 +85,34 @@ public class ServiceInstanceController extends BaseController {
 	 * @param serviceInstanceService the service instance service
 	 */
 	public ServiceInstanceController(CatalogService catalogService, ServiceInstanceService serviceInstanceService) {
-		super(catalogService);
+		this(catalogService, serviceInstanceService, new OriginatingIdentityParser());
+	}
+
+	/**
+	 * Construct a new {@link ServiceInstanceController}
+	 *
+	 * @param catalogService the catalog service
+	 * @param serviceInstanceService the service instance service
+	 * @param originatingIdentityParser the parser for the originating identity header
+	 */
+	public ServiceInstanceController(CatalogService catalogService, ServiceInstanceService serviceInstanceService,
+			OriginatingIdentityParser originatingIdentityParser) {
+		this(catalogService, serviceInstanceService, originatingIdentityParser, null);
+	}
+
+	/**
+	 * Construct a new {@link ServiceInstanceController}
+	 *
+	 * @param catalogService the catalog service
+	 * @param serviceInstanceService the service instance service
+	 * @param originatingIdentityParser the parser for the originating identity header
+	 * @param parameterSchemaValidator the validator for request parameters, or null to skip validation
+	 */
+	public ServiceInstanceController(CatalogService catalogService, ServiceInstanceService serviceInstanceService,
+			OriginatingIdentityParser originatingIdentityParser, ParameterSchemaValidator parameterSchemaValidator) {
+		super(catalogService, originatingIdentityParser);
 		this.service = serviceInstanceService;
+		this.parameterSchemaValidator = parameterSchemaValidator;
 	}
 
 	/**
@@ -108,8 +136,10 @@ public class ServiceInstanceController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER, required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER, required = false) String requestIdentity,
 			@Valid @RequestBody CreateServiceInstanceRequest request) {
-		return getRequiredServiceDefinition(request.getServiceDefinitionId())
-				.flatMap(serviceDefinition -> getRequiredServiceDefinitionPlan(serviceDefinition, request.getPlanId())
+		String platformInstanceId = pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE);
+		return getRequiredServiceDefinition(platformInstanceId, request.getServiceDefinitionId())
+				.flatMap(serviceDefinition -> getRequiredServiceDefinitionPlan(platformInstanceId, serviceDefinition,
+						request.getPlanId())
 						.map(plan -> {
 							request.setPlan(plan);
 							return request;
@@ -123,6 +153,7 @@ public class ServiceInstanceController extends BaseController {
 						pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE), apiInfoLocation,
 						originatingIdentityString, requestIdentity, acceptsIncomplete))
 				.cast(CreateServiceInstanceRequest.class)
+				.map(this::validateParameters)
 				.flatMap(req -> service.createServiceInstance(req)
 						.doOnRequest(v -> {
 							LOG.info("Creating a service instance");
@@ -137,6 +168,13 @@ public class ServiceInstanceController extends BaseController {
 				.switchIfEmpty(Mono.just(new ResponseEntity<>(HttpStatus.CREATED)));
 	}
 
+	private CreateServiceInstanceRequest validateParameters(CreateServiceInstanceRequest request) {
+		if (this.parameterSchemaValidator != null) {
+			this.parameterSchemaValidator.validateCreateServiceInstance(request.getPlan(), request.getParameters());
+		}
+		return request;
+	}
+
 	private HttpStatus getCreateResponseCode(CreateServiceInstanceResponse response) {
 		HttpStatus status = HttpStatus.CREATED;
 		if (response != null) {
@@ -169,15 +207,14 @@ public class ServiceInstanceController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.API_INFO_LOCATION_HEADER, required = false) String apiInfoLocation,
 			@RequestHeader(value = ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER, required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER, required = false) String requestIdentity) {
-		return Mono.just(GetServiceInstanceRequest.builder()
+		return Mono.just(configureOriginatingIdentity(GetServiceInstanceRequest.builder()
 				.serviceInstanceId(serviceInstanceId)
 				.serviceDefinitionId(serviceDefinitionId)
 				.planId(planId)
 				.platformInstanceId(pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 				.apiInfoLocation(apiInfoLocation)
-				.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 				.requestIdentity(requestIdentity)
-				.build())
+				.build(), originatingIdentityString))
 				.flatMap(request -> service.getServiceInstance(request)
 						.doOnRequest(v -> {
 							LOG.info("Getting service instance");
@@ -223,16 +260,15 @@ public class ServiceInstanceController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.API_INFO_LOCATION_HEADER, required = false) String apiInfoLocation,
 			@RequestHeader(value = ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER, required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER, required = false) String requestIdentity) {
-		return Mono.just(GetLastServiceOperationRequest.builder()
+		return Mono.just(configureOriginatingIdentity(GetLastServiceOperationRequest.builder()
 				.serviceDefinitionId(serviceDefinitionId)
 				.serviceInstanceId(serviceInstanceId)
 				.planId(planId)
 				.operation(operation)
 				.platformInstanceId(pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 				.apiInfoLocation(apiInfoLocation)
-				.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 				.requestIdentity(requestIdentity)
-				.build())
+				.build(), originatingIdentityString))
 				.flatMap(request -> service.getLastOperation(request)
 						.doOnRequest(v -> {
 							LOG.info("Getting service instance last operation");
@@ -247,7 +283,8 @@ public class ServiceInstanceController extends BaseController {
 				.map(response -> {
 					boolean isSuccessfulDelete = OperationState.SUCCEEDED.equals(response.getState()) && response
 							.isDeleteOperation();
-					return new ResponseEntity<>(response, isSuccessfulDelete ? HttpStatus.GONE : HttpStatus.OK);
+					return lastOperationResponse(response, isSuccessfulDelete ? HttpStatus.GONE : HttpStatus.OK,
+							response.getRetryAfter());
 				})
 				.onErrorResume(e -> {
 					if (e instanceof ServiceInstanceDoesNotExistException) {
@@ -285,10 +322,12 @@ public class ServiceInstanceController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.API_INFO_LOCATION_HEADER, required = false) String apiInfoLocation,
 			@RequestHeader(value = ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER, required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER, required = false) String requestIdentity) {
-		return getRequiredServiceDefinition(serviceDefinitionId)
-				.flatMap(serviceDefinition -> getRequiredServiceDefinitionPlan(serviceDefinition, planId)
+		String platformInstanceId = pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE);
+		return getRequiredServiceDefinition(platformInstanceId, serviceDefinitionId)
+				.flatMap(serviceDefinition -> getRequiredServiceDefinitionPlan(platformInstanceId, serviceDefinition,
+						planId)
 						.map(DeleteServiceInstanceRequest.builder()::plan)
-						.map(builder -> builder
+						.map(builder -> configureOriginatingIdentity(builder
 								.serviceInstanceId(serviceInstanceId)
 								.serviceDefinitionId(serviceDefinitionId)
 								.planId(planId)
@@ -297,9 +336,8 @@ public class ServiceInstanceController extends BaseController {
 								.platformInstanceId(
 										pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 								.apiInfoLocation(apiInfoLocation)
-								.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 								.requestIdentity(requestIdentity)
-								.build()))
+								.build(), originatingIdentityString)))
 				.flatMap(request -> service.deleteServiceInstance(request)
 						.doOnRequest(v -> {
 							LOG.info("Deleting a service instance");
@@ -343,8 +381,10 @@ public class ServiceInstanceController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER, required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER, required = false) String requestIdentity,
 			@Valid @RequestBody UpdateServiceInstanceRequest request) {
-		return getRequiredServiceDefinition(request.getServiceDefinitionId())
-				.flatMap(serviceDefinition -> getServiceDefinitionPlan(serviceDefinition, request.getPlanId())
+		String platformInstanceId = pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE);
+		return getRequiredServiceDefinition(platformInstanceId, request.getServiceDefinitionId())
+				.flatMap(serviceDefinition -> getServiceDefinitionPlan(platformInstanceId, serviceDefinition,
+						request.getPlanId())
 						.map(plan -> {
 							request.setPlan(plan);
 							return request;
@@ -359,6 +399,7 @@ public class ServiceInstanceController extends BaseController {
 						pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE), apiInfoLocation,
 						originatingIdentityString, requestIdentity, acceptsIncomplete))
 				.cast(UpdateServiceInstanceRequest.class)
+				.map(this::validateParameters)
 				.flatMap(req -> service.updateServiceInstance(req)
 						.doOnRequest(v -> {
 							LOG.info("Updating service instance");
@@ -373,4 +414,11 @@ public class ServiceInstanceController extends BaseController {
 				.switchIfEmpty(Mono.just(new ResponseEntity<>(HttpStatus.OK)));
 	}
 
+	private UpdateServiceInstanceRequest validateParameters(UpdateServiceInstanceRequest request) {
+		if (this.parameterSchemaValidator != null) {
+			this.parameterSchemaValidator.validateUpdateServiceInstance(request.getPlan(), request.getParameters());
+		}
+		return request;
+	}
+
 }
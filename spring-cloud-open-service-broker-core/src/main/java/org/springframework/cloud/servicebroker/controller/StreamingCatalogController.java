@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.annotation.ServiceBrokerRestController;
+import org.springframework.cloud.servicebroker.model.ServiceBrokerRequest;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+/**
+ * Provide an endpoint for the catalog API that writes the catalog incrementally, one service definition at a time,
+ * from {@link CatalogService#getServiceDefinitions()}. The complete catalog is never held in memory, which bounds the
+ * memory used by very large catalogs.
+ *
+ * <p>
+ * This controller replaces {@link CatalogController} and is only supported by WebFlux applications.
+ *
+ * @author agent
+ * @see <a href="https://github.com/openservicebrokerapi/servicebroker/blob/master/spec.md#catalog-management">Open
+ * 		Service Broker API specification</a>
+ */
+@ServiceBrokerRestController
+public class StreamingCatalogController extends BaseController {
+
+	private static final Logger LOG = LoggerFactory.getLogger(StreamingCatalogController.class);
+
+	private static final byte[] CATALOG_START = "{\"services\":[".getBytes(StandardCharsets.UTF_8);
+
+	private static final byte[] CATALOG_END = "]}".getBytes(StandardCharsets.UTF_8);
+
+	private static final int SEPARATOR = ',';
+
+	private final ObjectWriter serviceDefinitionWriter;
+
+	private final DataBufferFactory dataBufferFactory;
+
+	/**
+	 * Construct a new {@link StreamingCatalogController}
+	 *
+	 * @param service the catalog service
+	 * @param objectMapper the object mapper used to serialize service definitions
+	 * @param dataBufferFactory the factory used to allocate response buffers
+	 */
+	public StreamingCatalogController(CatalogService service, ObjectMapper objectMapper,
+			DataBufferFactory dataBufferFactory) {
+		super(service);
+		this.serviceDefinitionWriter = objectMapper.writerFor(ServiceDefinition.class);
+		this.dataBufferFactory = dataBufferFactory;
+	}
+
+	/**
+	 * REST controller for getting a catalog. When the catalog service is a
+	 * {@link org.springframework.cloud.servicebroker.service.PlatformCatalogService}, the view of the catalog for the
+	 * platform instance in the request path is returned.
+	 *
+	 * @param pathVariables the path variables
+	 * @return the response
+	 */
+	@GetMapping({"/v2/catalog", "{platformInstanceId}/v2/catalog"})
+	public Mono<ResponseEntity<Flux<DataBuffer>>> getCatalog(@PathVariable Map<String, String> pathVariables) {
+		CatalogService platformCatalogService = getCatalogService(
+				pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE));
+		return Mono.just(ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(writeCatalog(platformCatalogService.getServiceDefinitions())
+						.doOnSubscribe(subscription -> LOG.info("Streaming catalog"))
+						.doOnComplete(() -> LOG.info("Success streaming catalog"))
+						.doOnError(e -> LOG.error("Error streaming catalog. error=" + e.getMessage(), e))));
+	}
+
+	private Flux<DataBuffer> writeCatalog(Flux<ServiceDefinition> serviceDefinitions) {
+		return Flux.concat(
+				Mono.fromSupplier(() -> this.dataBufferFactory.wrap(CATALOG_START)),
+				serviceDefinitions
+						.index()
+						.map(indexed -> writeServiceDefinition(indexed.getT2(), indexed.getT1() > 0)),
+				Mono.fromSupplier(() -> this.dataBufferFactory.wrap(CATALOG_END)));
+	}
+
+	private DataBuffer writeServiceDefinition(ServiceDefinition serviceDefinition, boolean separated) {
+		DataBuffer buffer = this.dataBufferFactory.allocateBuffer();
+		boolean release = true;
+		try (OutputStream out = buffer.asOutputStream()) {
+			if (separated) {
+				out.write(SEPARATOR);
+			}
+			this.serviceDefinitionWriter.writeValue(out, serviceDefinition);
+			release = false;
+			return buffer;
+		}
+		catch (IOException e) {
+			throw new EncodingException("Unable to write service definition " + serviceDefinition.getId(), e);
+		}
+		finally {
+			if (release) {
+				DataBufferUtils.release(buffer);
+			}
+		}
+	}
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.cloud.servicebroker.model;
 
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
@@ -80,6 +81,9 @@ public class ServiceBrokerRequest {
 	@JsonIgnore //mapped as X-Broker-API-Originating-Identity Header
 	protected transient Context originatingIdentity;
 
+	@JsonIgnore //resolves the X-Broker-API-Originating-Identity Header on first access
+	protected transient Supplier<Context> originatingIdentitySupplier;
+
 	@JsonIgnore //mapped as X-Broker-API-Request-Identity Header
 	protected transient String requestIdentity;
 
@@ -158,10 +162,20 @@ public class ServiceBrokerRequest {
 	 * Get the identity of the user that initiated the request from the platform.
 	 * <p>
 	 * This value is set from the {@literal X-Broker-API-Originating-Identity} header in the request from the platform.
+	 * The header may be parsed when this method is first called, in which case an invalid header is reported by this
+	 * method, and by {@link #equals(Object)}, {@link #hashCode()}, and {@link #toString()}, which compare the parsed
+	 * identity. When the exception is raised while the controller is handling the request, it is returned to the
+	 * platform as a {@literal 400 Bad Request} response.
 	 *
 	 * @return the user identity, or {@literal null} if not provided
+	 * @throws org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidOriginatingIdentityException if
+	 * 		the header cannot be parsed
 	 */
 	public Context getOriginatingIdentity() {
+		Supplier<Context> supplier = this.originatingIdentitySupplier;
+		if (this.originatingIdentity == null && supplier != null) {
+			return supplier.get();
+		}
 		return this.originatingIdentity;
 	}
 
@@ -171,8 +185,24 @@ public class ServiceBrokerRequest {
 	 *
 	 * @param originatingIdentity identity of the user that initiated the request from the platform
 	 */
+	@SuppressWarnings("PMD.NullAssignment")
 	public void setOriginatingIdentity(Context originatingIdentity) {
 		this.originatingIdentity = originatingIdentity;
+		this.originatingIdentitySupplier = null;
+	}
+
+	/**
+	 * This method is intended to be used internally only. Set a supplier that resolves the identity of the user that
+	 * initiated the request from the platform when {@link #getOriginatingIdentity()} is called. The supplier is
+	 * expected to parse the header only once and to return the same identity each time it is called.
+	 *
+	 * @param originatingIdentitySupplier supplier of the identity of the user that initiated the request
+	 */
+	@JsonIgnore
+	@SuppressWarnings("PMD.NullAssignment")
+	public void setOriginatingIdentitySupplier(Supplier<Context> originatingIdentitySupplier) {
+		this.originatingIdentity = null;
+		this.originatingIdentitySupplier = originatingIdentitySupplier;
 	}
 
 	/**
@@ -207,7 +237,7 @@ public class ServiceBrokerRequest {
 		return that.canEqual(this) &&
 				Objects.equals(platformInstanceId, that.platformInstanceId) &&
 				Objects.equals(apiInfoLocation, that.apiInfoLocation) &&
-				Objects.equals(originatingIdentity, that.originatingIdentity) &&
+				Objects.equals(getOriginatingIdentity(), that.getOriginatingIdentity()) &&
 				Objects.equals(requestIdentity, that.requestIdentity);
 	}
 
@@ -223,7 +253,7 @@ public class ServiceBrokerRequest {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(platformInstanceId, apiInfoLocation, originatingIdentity, requestIdentity);
+		return Objects.hash(platformInstanceId, apiInfoLocation, getOriginatingIdentity(), requestIdentity);
 	}
 
 	@Override
@@ -231,7 +261,7 @@ public class ServiceBrokerRequest {
 		return "ServiceBrokerRequest{" +
 				"platformInstanceId='" + platformInstanceId + '\'' +
 				", apiInfoLocation='" + apiInfoLocation + '\'' +
-				", originatingIdentity=" + originatingIdentity + '\'' +
+				", originatingIdentity=" + getOriginatingIdentity() + '\'' +
 				", requestIdentity=" + requestIdentity +
 				'}';
 	}
@@ -20,11 +20,16 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 import org.springframework.cloud.servicebroker.model.AsyncServiceBrokerRequest;
 import org.springframework.cloud.servicebroker.model.Context;
 import org.springframework.cloud.servicebroker.model.util.ParameterBeanMapperUtils;
+import org.springframework.cloud.servicebroker.model.util.ParametersDeserializer;
 import org.springframework.util.CollectionUtils;
 
 /**
@@ -39,6 +44,10 @@ public abstract class AsyncParameterizedServiceInstanceRequest extends AsyncServ
 	@JsonInclude(JsonInclude.Include.NON_EMPTY)
 	protected final Map<String, Object> parameters = new HashMap<>();
 
+	@JsonIgnore //raw JSON tokens of the parameters, converted to a Map on first access
+	@SuppressWarnings("PMD.AvoidUsingVolatile")
+	private transient volatile TokenBuffer rawParameters;
+
 	private final Context context;
 
 	/**
@@ -79,9 +88,26 @@ public abstract class AsyncParameterizedServiceInstanceRequest extends AsyncServ
 	 * The platform will pass the user-supplied JSON structure to the service broker as-is. The service broker is
 	 * responsible for validating the contents of the parameters for correctness or applicability.
 	 *
+	 * <p>
+	 * Parameters that are held as raw JSON tokens are converted to the {@literal Map} once, when they are first read
+	 * from any thread.
+	 *
 	 * @return the populated {@literal Map}
 	 */
+	@SuppressWarnings("PMD.NullAssignment")
 	public Map<String, Object> getParameters() {
+		if (this.rawParameters != null) {
+			synchronized (this.parameters) {
+				TokenBuffer raw = this.rawParameters;
+				if (raw != null) {
+					Map<String, Object> parameters = ParameterBeanMapperUtils.readParameters(raw);
+					if (!CollectionUtils.isEmpty(parameters)) {
+						this.parameters.putAll(parameters);
+					}
+					this.rawParameters = null;
+				}
+			}
+		}
 		return this.parameters;
 	}
 
@@ -94,7 +120,8 @@ public abstract class AsyncParameterizedServiceInstanceRequest extends AsyncServ
 	 *
 	 * <p>
 	 * An object of the specified type will be instantiated, and value from the parameters JSON will be mapped to the
-	 * object using Java Bean mapping rules.
+	 * object using Java Bean mapping rules. Parameters that are still held as raw JSON tokens are bound to the object
+	 * directly, without being converted to a {@literal Map}.
 	 *
 	 * <p>
 	 * The platform will pass the user-supplied JSON structure to the service broker as-is. The service broker is
@@ -105,7 +132,76 @@ public abstract class AsyncParameterizedServiceInstanceRequest extends AsyncServ
 	 * @return the instantiated and populated object
 	 */
 	public <T> T getParameters(Class<T> cls) {
-		return ParameterBeanMapperUtils.mapParametersToBean(parameters, cls);
+		TokenBuffer raw = rawParametersOnly();
+		if (raw != null) {
+			return ParameterBeanMapperUtils.mapParametersToBean(raw, cls);
+		}
+		return ParameterBeanMapperUtils.mapParametersToBean(getParameters(), cls);
+	}
+
+	/**
+	 * Determine whether this request has the same parameters as another request. Parameters that are held as raw
+	 * JSON tokens are compared without being converted to a {@literal Map}, unless their tokens differ and their hash
+	 * codes are equal.
+	 *
+	 * @param other the other request
+	 * @return {@literal true} if the parameters are equal
+	 */
+	public boolean parametersEqual(AsyncParameterizedServiceInstanceRequest other) {
+		TokenBuffer raw = rawParametersOnly();
+		TokenBuffer otherRaw = other.rawParametersOnly();
+		if (raw != null && otherRaw != null && ParameterBeanMapperUtils.sameTokens(raw, otherRaw)) {
+			return true;
+		}
+		if ((raw != null || otherRaw != null) && parametersHashCode() != other.parametersHashCode()) {
+			return false;
+		}
+		return Objects.equals(getParameters(), other.getParameters());
+	}
+
+	/**
+	 * Get a hash code of the parameters that is consistent with {@link #parametersEqual}. Parameters that are held as
+	 * raw JSON tokens are hashed without being converted to a {@literal Map}.
+	 *
+	 * @return the hash code
+	 */
+	public int parametersHashCode() {
+		TokenBuffer raw = rawParametersOnly();
+		if (raw != null) {
+			return ParameterBeanMapperUtils.hashParameters(raw);
+		}
+		return ParameterBeanMapperUtils.hashParameters(getParameters());
+	}
+
+	/**
+	 * Get the raw JSON tokens of the parameters, if they hold all of the parameters
+	 */
+	private TokenBuffer rawParametersOnly() {
+		if (this.rawParameters == null) {
+			return null;
+		}
+		synchronized (this.parameters) {
+			return this.parameters.isEmpty() ? this.rawParameters : null;
+		}
+	}
+
+	/**
+	 * This method is intended to be used internally only. Set the parameters read from the request body, either as a
+	 * {@literal Map} or as raw JSON tokens.
+	 *
+	 * @param parameters the parameters
+	 * @see ParametersDeserializer
+	 */
+	@JsonSetter("parameters")
+	@JsonDeserialize(using = ParametersDeserializer.class)
+	@SuppressWarnings("unchecked")
+	public void setParameters(Object parameters) {
+		if (parameters instanceof TokenBuffer) {
+			this.rawParameters = (TokenBuffer) parameters;
+		}
+		else if (parameters instanceof Map) {
+			this.parameters.putAll((Map<String, Object>) parameters);
+		}
 	}
 
 	/**
@@ -133,7 +229,7 @@ public abstract class AsyncParameterizedServiceInstanceRequest extends AsyncServ
 		}
 		AsyncParameterizedServiceInstanceRequest that = (AsyncParameterizedServiceInstanceRequest) o;
 		return that.canEqual(this) &&
-				Objects.equals(parameters, that.parameters) &&
+				parametersEqual(that) &&
 				Objects.equals(context, that.context);
 	}
 
@@ -144,14 +240,14 @@ public abstract class AsyncParameterizedServiceInstanceRequest extends AsyncServ
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(super.hashCode(), parameters, context);
+		return Objects.hash(super.hashCode(), parametersHashCode(), context);
 	}
 
 	@Override
 	public String toString() {
 		return super.toString() +
 				"AsyncParameterizedServiceInstanceRequest{" +
-				"parameters=" + parameters +
+				"parameters=" + ((this.rawParameters == null) ? this.parameters : "<raw JSON>") +
 				", context=" + context +
 				'}';
 	}
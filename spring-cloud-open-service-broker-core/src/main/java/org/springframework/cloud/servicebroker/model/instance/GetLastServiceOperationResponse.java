@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.servicebroker.model.instance;
 
+import java.time.Duration;
 import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -44,11 +45,14 @@ public class GetLastServiceOperationResponse {
 	@JsonIgnore
 	private final boolean deleteOperation;
 
+	@JsonIgnore
+	private final Duration retryAfter;
+
 	/**
 	 * Construct a new {@link GetLastServiceOperationResponse}
 	 */
 	public GetLastServiceOperationResponse() {
-		this(null, null, false);
+		this(null, null, false, null);
 	}
 
 	/**
@@ -59,9 +63,23 @@ public class GetLastServiceOperationResponse {
 	 * @param deleteOperation is delete operation
 	 */
 	public GetLastServiceOperationResponse(OperationState state, String description, boolean deleteOperation) {
+		this(state, description, deleteOperation, null);
+	}
+
+	/**
+	 * Construct a new {@link GetLastServiceOperationResponse}
+	 *
+	 * @param state the current state
+	 * @param description the description
+	 * @param deleteOperation is delete operation
+	 * @param retryAfter how long the platform should wait before polling again
+	 */
+	public GetLastServiceOperationResponse(OperationState state, String description, boolean deleteOperation,
+			Duration retryAfter) {
 		this.state = state;
 		this.description = description;
 		this.deleteOperation = deleteOperation;
+		this.retryAfter = retryAfter;
 	}
 
 	/**
@@ -91,6 +109,15 @@ public class GetLastServiceOperationResponse {
 		return this.deleteOperation;
 	}
 
+	/**
+	 * Get how long the platform should wait before polling for the state of the operation again.
+	 *
+	 * @return the duration, or {@literal null} if not provided
+	 */
+	public Duration getRetryAfter() {
+		return this.retryAfter;
+	}
+
 	/**
 	 * Create a builder that provides a fluent API for constructing a {@literal GetLastServiceOperationResponse}.
 	 *
@@ -111,12 +138,13 @@ public class GetLastServiceOperationResponse {
 		GetLastServiceOperationResponse that = (GetLastServiceOperationResponse) o;
 		return deleteOperation == that.deleteOperation &&
 				state == that.state &&
-				Objects.equals(description, that.description);
+				Objects.equals(description, that.description) &&
+				Objects.equals(retryAfter, that.retryAfter);
 	}
 
 	@Override
 	public final int hashCode() {
-		return Objects.hash(state, description, deleteOperation);
+		return Objects.hash(state, description, deleteOperation, retryAfter);
 	}
 
 	@Override
@@ -125,6 +153,7 @@ public class GetLastServiceOperationResponse {
 				"state=" + state +
 				", description='" + description + '\'' +
 				", deleteOperation=" + deleteOperation +
+				", retryAfter=" + retryAfter +
 				'}';
 	}
 
@@ -139,6 +168,8 @@ public class GetLastServiceOperationResponse {
 
 		private boolean deleteOperation;
 
+		private Duration retryAfter;
+
 		private GetLastServiceOperationResponseBuilder() {
 		}
 
@@ -195,13 +226,28 @@ public class GetLastServiceOperationResponse {
 			return this;
 		}
 
+		/**
+		 * Set how long the platform should wait before polling for the state of the operation again. Can be
+		 * {@literal null}.
+		 *
+		 * <p>
+		 * This value will set the {@literal Retry-After} header of the response to the platform, in whole seconds.
+		 *
+		 * @param retryAfter the duration
+		 * @return the builder
+		 */
+		public GetLastServiceOperationResponseBuilder retryAfter(Duration retryAfter) {
+			this.retryAfter = retryAfter;
+			return this;
+		}
+
 		/**
 		 * Construct a {@link GetLastServiceOperationResponse} from the provided values.
 		 *
 		 * @return the newly constructed {@literal GetLastServiceOperationResponse}
 		 */
 		public GetLastServiceOperationResponse build() {
-			return new GetLastServiceOperationResponse(state, description, deleteOperation);
+			return new GetLastServiceOperationResponse(state, description, deleteOperation, retryAfter);
 		}
 
 	}
@@ -16,11 +16,20 @@
 
 package org.springframework.cloud.servicebroker.model.util;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
-import org.apache.commons.beanutils.BeanUtilsBean;
-import org.apache.commons.beanutils.SuppressPropertiesBeanIntrospector;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 /**
  * Utilities for mapping parameter maps to Java beans.
@@ -29,12 +38,19 @@ import org.apache.commons.beanutils.SuppressPropertiesBeanIntrospector;
  */
 public final class ParameterBeanMapperUtils {
 
+	private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
+
+	private static final TypeReference<Map<String, Object>> PARAMETERS_TYPE =
+			new TypeReference<Map<String, Object>>() {
+			};
+
 	private ParameterBeanMapperUtils() {
 	}
 
 	/**
 	 * Instantiates an object of the specified type and populates properties of the object from the provided
-	 * parameters.
+	 * parameters. The properties of each class are introspected once and cached, and a {@link Map} value is bound to a
+	 * property whose type is a bean by instantiating and populating that type.
 	 *
 	 * @param parameters a {@link Map} of values to populate the object from
 	 * @param cls the {@link Class} representing the type of the object to instantiate and populate
@@ -42,18 +58,185 @@ public final class ParameterBeanMapperUtils {
 	 * @return the instantiated and populated object
 	 */
 	public static <T> T mapParametersToBean(Map<String, Object> parameters, Class<T> cls) {
-		try {
-			T bean = cls.newInstance();
-
-			BeanUtilsBean beanUtils = new BeanUtilsBean();
-			beanUtils.getPropertyUtils().addBeanIntrospector(SuppressPropertiesBeanIntrospector.SUPPRESS_CLASS);
-			beanUtils.populate(bean, parameters);
+		return ParameterBinder.forClass(cls).bind(parameters);
+	}
 
-			return bean;
+	/**
+	 * Instantiates an object of the specified type and binds the properties of the object directly from parameters
+	 * kept as raw JSON tokens, without building a {@link Map}. Parameters that do not match a property of the object
+	 * are ignored.
+	 *
+	 * @param parameters the raw parameters
+	 * @param cls the {@link Class} representing the type of the object to instantiate and populate
+	 * @param <T> the type of the object to instantiate and populate
+	 * @return the instantiated and populated object
+	 */
+	public static <T> T mapParametersToBean(TokenBuffer parameters, Class<T> cls) {
+		try (JsonParser parser = parameters.asParser()) {
+			parser.nextToken();
+			return reader(codec(parser))
+					.forType(cls)
+					.without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+					.readValue(parser);
 		}
-		catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+		catch (IOException e) {
 			throw new IllegalArgumentException("Error mapping parameters to class of type " + cls.getName(), e);
 		}
 	}
 
+	/**
+	 * Reads parameters kept as raw JSON tokens into a {@link Map}.
+	 *
+	 * @param parameters the raw parameters
+	 * @return the populated {@link Map}
+	 */
+	public static Map<String, Object> readParameters(TokenBuffer parameters) {
+		try (JsonParser parser = parameters.asParser()) {
+			parser.nextToken();
+			return codec(parser).readValue(parser, PARAMETERS_TYPE);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Error reading parameters", e);
+		}
+	}
+
+	/**
+	 * Determines whether two sets of parameters kept as raw JSON tokens hold the same tokens, in the same order.
+	 * Parameters with the same tokens are read into equal {@link Map Maps}.
+	 *
+	 * @param parameters the raw parameters
+	 * @param other the other raw parameters
+	 * @return {@literal true} if the tokens are the same
+	 */
+	public static boolean sameTokens(TokenBuffer parameters, TokenBuffer other) {
+		try (JsonParser parser = parameters.asParser(); JsonParser otherParser = other.asParser()) {
+			JsonToken token = parser.nextToken();
+			while (token != null) {
+				if (token != otherParser.nextToken()) {
+					return false;
+				}
+				if ((token.isScalarValue() || token == JsonToken.FIELD_NAME) &&
+						!Objects.equals(parser.getText(), otherParser.getText())) {
+					return false;
+				}
+				token = parser.nextToken();
+			}
+			return otherParser.nextToken() == null;
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Error reading parameters", e);
+		}
+	}
+
+	/**
+	 * Computes a hash code of parameters kept as raw JSON tokens, without reading them into a {@link Map}. The hash
+	 * code is equal to the {@link #hashParameters(Map) hash code} of the {@link Map} the parameters are read into.
+	 *
+	 * @param parameters the raw parameters
+	 * @return the hash code
+	 */
+	public static int hashParameters(TokenBuffer parameters) {
+		try (JsonParser parser = parameters.asParser()) {
+			parser.nextToken();
+			return hash(parser);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Error reading parameters", e);
+		}
+	}
+
+	/**
+	 * Computes a hash code of parameters that is consistent with {@link Map#equals(Object)}, and equal to the
+	 * {@link #hashParameters(TokenBuffer) hash code} of raw JSON tokens that are read into an equal {@link Map}.
+	 * Numbers are hashed by their {@literal double} value, so that the hash code does not depend on the type a number
+	 * is read as.
+	 *
+	 * @param parameters the parameters
+	 * @return the hash code
+	 */
+	public static int hashParameters(Map<String, Object> parameters) {
+		return hash(parameters);
+	}
+
+	private static int hash(JsonParser parser) throws IOException {
+		switch (parser.currentToken()) {
+			case START_OBJECT:
+				return hashObject(parser);
+			case START_ARRAY:
+				return hashArray(parser);
+			case VALUE_NUMBER_INT:
+			case VALUE_NUMBER_FLOAT:
+				return Double.hashCode(parser.getNumberValue().doubleValue());
+			case VALUE_TRUE:
+				return Boolean.hashCode(true);
+			case VALUE_FALSE:
+				return Boolean.hashCode(false);
+			case VALUE_EMBEDDED_OBJECT:
+				return hash(parser.getEmbeddedObject());
+			case VALUE_NULL:
+				return 0;
+			default:
+				return parser.getText().hashCode();
+		}
+	}
+
+	private static int hashObject(JsonParser parser) throws IOException {
+		// a repeated field replaces the earlier value when the parameters are read into a Map
+		Map<String, Integer> fields = new HashMap<>();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.getCurrentName();
+			parser.nextToken();
+			fields.put(name, hash(parser));
+		}
+		int hash = 0;
+		for (Map.Entry<String, Integer> field : fields.entrySet()) {
+			hash += field.getKey().hashCode() ^ field.getValue();
+		}
+		return hash;
+	}
+
+	private static int hashArray(JsonParser parser) throws IOException {
+		int hash = 1;
+		while (parser.nextToken() != JsonToken.END_ARRAY) {
+			hash = 31 * hash + hash(parser);
+		}
+		return hash;
+	}
+
+	private static int hash(Object value) {
+		if (value instanceof Map) {
+			int hash = 0;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				hash += Objects.hashCode(entry.getKey()) ^ hash(entry.getValue());
+			}
+			return hash;
+		}
+		if (value instanceof List) {
+			int hash = 1;
+			for (Object element : (List<?>) value) {
+				hash = 31 * hash + hash(element);
+			}
+			return hash;
+		}
+		if (value instanceof Number) {
+			return Double.hashCode(((Number) value).doubleValue());
+		}
+		return Objects.hashCode(value);
+	}
+
+	private static ObjectReader reader(ObjectCodec codec) {
+		if (codec instanceof ObjectReader) {
+			return (ObjectReader) codec;
+		}
+		if (codec instanceof ObjectMapper) {
+			return ((ObjectMapper) codec).reader();
+		}
+		return DEFAULT_OBJECT_MAPPER.reader();
+	}
+
+	private static ObjectCodec codec(JsonParser parser) {
+		ObjectCodec codec = parser.getCodec();
+		return (codec != null) ? codec : DEFAULT_OBJECT_MAPPER;
+	}
+
 }
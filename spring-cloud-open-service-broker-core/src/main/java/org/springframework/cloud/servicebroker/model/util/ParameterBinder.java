@@ -0,0 +1,309 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.model.util;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.ConvertUtilsBean;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.beanutils.MethodUtils;
+import org.apache.commons.beanutils.SuppressPropertiesBeanIntrospector;
+
+/**
+ * Binds parameter maps to Java beans. The properties of each target class are introspected once, and the resulting
+ * binder is cached for the life of the class. Properties are written through {@link MethodHandle}s rather than
+ * reflective invocation.
+ *
+ * <p>
+ * Values are converted with the default commons-beanutils converters, so binding follows the semantics of
+ * {@link BeanUtilsBean#populate(Object, Map)}: the {@literal class} property is suppressed, unknown and read-only
+ * properties are ignored, and nested expressions such as {@literal nested.property} write to the bean returned by the
+ * nested getter. In addition, a {@link Map} value bound to a bean-typed property is bound to a new instance of that
+ * property type. Indexed and mapped expressions, and array-typed properties, are delegated to commons-beanutils.
+ *
+ * @author agent
+ */
+final class ParameterBinder {
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final BeanUtilsBean BEAN_UTILS = createBeanUtils();
+
+	private static final ClassValue<ParameterBinder> BINDERS = new ClassValue<ParameterBinder>() {
+		@Override
+		protected ParameterBinder computeValue(Class<?> type) {
+			return new ParameterBinder(type);
+		}
+	};
+
+	private final Class<?> type;
+
+	private final MethodHandle constructor;
+
+	private final Map<String, Property> properties;
+
+	private ParameterBinder(Class<?> type) {
+		this.type = type;
+		this.constructor = findConstructor(type);
+		this.properties = findProperties(type);
+	}
+
+	/**
+	 * Get the binder for a class, introspecting the class on first use
+	 *
+	 * @param type the class to bind
+	 * @return the binder
+	 */
+	static ParameterBinder forClass(Class<?> type) {
+		return BINDERS.get(type);
+	}
+
+	/**
+	 * Instantiate the target class and populate its properties from the parameters
+	 *
+	 * @param parameters the parameters
+	 * @param <T> the type of the object to instantiate and populate
+	 * @return the populated object
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T bind(Map<String, Object> parameters) {
+		T bean = (T) newInstance();
+		populate(bean, parameters);
+		return bean;
+	}
+
+	/**
+	 * Populate the properties of an existing object from the parameters
+	 *
+	 * @param bean the object to populate
+	 * @param parameters the parameters
+	 */
+	void populate(Object bean, Map<String, Object> parameters) {
+		if (parameters == null) {
+			return;
+		}
+		for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+			if (parameter.getKey() != null) {
+				setProperty(bean, parameter.getKey(), parameter.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Get the number of writable or readable properties found on the target class
+	 *
+	 * @return the number of properties
+	 */
+	int getPropertyCount() {
+		return this.properties.size();
+	}
+
+	@SuppressWarnings("PMD.AvoidCatchingThrowable")
+	private Object newInstance() {
+		if (this.constructor == null) {
+			throw bindingError(null);
+		}
+		try {
+			return this.constructor.invokeExact();
+		}
+		catch (Throwable e) {
+			throw bindingError(e);
+		}
+	}
+
+	private void setProperty(Object bean, String name, Object value) {
+		if (isIndexedOrMapped(name)) {
+			delegate(bean, name, value);
+			return;
+		}
+		int nested = name.indexOf('.');
+		if (nested >= 0) {
+			Property property = this.properties.get(name.substring(0, nested));
+			if (property == null || property.getter == null) {
+				return;
+			}
+			Object target = get(bean, property);
+			if (target != null) {
+				forClass(target.getClass()).setProperty(target, name.substring(nested + 1), value);
+			}
+			return;
+		}
+		Property property = this.properties.get(name);
+		if (property == null || property.setter == null) {
+			return;
+		}
+		if (property.type.isArray() || value instanceof String[]) {
+			delegate(bean, name, value);
+			return;
+		}
+		set(bean, property, convert(value, property.type));
+	}
+
+	@SuppressWarnings("PMD.AvoidCatchingThrowable")
+	private Object get(Object bean, Property property) {
+		try {
+			return property.get(bean);
+		}
+		catch (Throwable e) {
+			throw bindingError(e);
+		}
+	}
+
+	@SuppressWarnings("PMD.AvoidCatchingThrowable")
+	private void set(Object bean, Property property, Object value) {
+		try {
+			property.set(bean, value);
+		}
+		catch (Throwable e) {
+			throw bindingError(e);
+		}
+	}
+
+	private void delegate(Object bean, String name, Object value) {
+		try {
+			BEAN_UTILS.setProperty(bean, name, value);
+		}
+		catch (IllegalAccessException | InvocationTargetException e) {
+			throw bindingError(e);
+		}
+	}
+
+	private IllegalArgumentException bindingError(Throwable cause) {
+		return new IllegalArgumentException("Error mapping parameters to class of type " + this.type.getName(), cause);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object convert(Object value, Class<?> type) {
+		ConvertUtilsBean convertUtils = BEAN_UTILS.getConvertUtils();
+		if (value instanceof String) {
+			return convertUtils.convert((String) value, type);
+		}
+		Converter converter = convertUtils.lookup(type);
+		if (converter != null) {
+			return converter.convert(type, value);
+		}
+		if (value instanceof Map && !type.isInstance(value) && isBean(type)) {
+			return forClass(type).bind((Map<String, Object>) value);
+		}
+		return value;
+	}
+
+	private static boolean isBean(Class<?> type) {
+		return !type.isPrimitive() && !type.isInterface() && !type.isEnum()
+				&& !Modifier.isAbstract(type.getModifiers()) && forClass(type).constructor != null;
+	}
+
+	private static boolean isIndexedOrMapped(String name) {
+		return name.indexOf('[') >= 0 || name.indexOf('(') >= 0;
+	}
+
+	private static MethodHandle findConstructor(Class<?> type) {
+		if (type.isInterface() || type.isPrimitive() || type.isArray() || Modifier.isAbstract(type.getModifiers())) {
+			return null;
+		}
+		try {
+			return MethodHandles.publicLookup()
+					.findConstructor(type, MethodType.methodType(void.class))
+					.asType(CONSTRUCTOR_TYPE);
+		}
+		catch (NoSuchMethodException | IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	private static Map<String, Property> findProperties(Class<?> type) {
+		PropertyDescriptor[] descriptors;
+		try {
+			descriptors = Introspector.getBeanInfo(type).getPropertyDescriptors();
+		}
+		catch (IntrospectionException e) {
+			return Collections.emptyMap();
+		}
+		Map<String, Property> properties = new HashMap<>();
+		for (PropertyDescriptor descriptor : descriptors) {
+			if ("class".equals(descriptor.getName()) || descriptor.getPropertyType() == null) {
+				continue;
+			}
+			MethodHandle getter = unreflect(type, descriptor.getReadMethod(), GETTER_TYPE);
+			MethodHandle setter = unreflect(type, descriptor.getWriteMethod(), SETTER_TYPE);
+			if (getter != null || setter != null) {
+				properties.put(descriptor.getName(), new Property(descriptor.getPropertyType(), getter, setter));
+			}
+		}
+		return properties;
+	}
+
+	private static MethodHandle unreflect(Class<?> type, Method method, MethodType methodType) {
+		Method accessibleMethod = (method != null) ? MethodUtils.getAccessibleMethod(type, method) : null;
+		if (accessibleMethod == null) {
+			return null;
+		}
+		try {
+			return MethodHandles.publicLookup().unreflect(accessibleMethod).asType(methodType);
+		}
+		catch (IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	private static BeanUtilsBean createBeanUtils() {
+		BeanUtilsBean beanUtils = new BeanUtilsBean();
+		beanUtils.getPropertyUtils().addBeanIntrospector(SuppressPropertiesBeanIntrospector.SUPPRESS_CLASS);
+		return beanUtils;
+	}
+
+	private static final class Property {
+
+		private final Class<?> type;
+
+		private final MethodHandle getter;
+
+		private final MethodHandle setter;
+
+		private Property(Class<?> type, MethodHandle getter, MethodHandle setter) {
+			this.type = type;
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		private Object get(Object bean) throws Throwable {
+			return this.getter.invokeExact(bean);
+		}
+
+		private void set(Object bean, Object value) throws Throwable {
+			this.setter.invokeExact(bean, value);
+		}
+
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.model.util;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Deserializes the {@literal parameters} field of a request body.
+ *
+ * <p>
+ * By default the parameters are read into a {@link Map}. When raw parameters are enabled on the {@link ObjectMapper}
+ * with {@link #enableRawParameters(ObjectMapper)}, the parameters are kept as a {@link TokenBuffer} of the JSON tokens
+ * in the request, and are only converted when the service reads them.
+ *
+ * @author agent
+ */
+public class ParametersDeserializer extends JsonDeserializer<Object> {
+
+	/**
+	 * The deserialization attribute that enables raw parameters
+	 */
+	public static final String RAW_PARAMETERS_ATTRIBUTE = ParametersDeserializer.class.getName() + ".RAW_PARAMETERS";
+
+	@Override
+	public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+		if (!Boolean.TRUE.equals(ctxt.getAttribute(RAW_PARAMETERS_ATTRIBUTE))) {
+			return ctxt.readValue(p, Map.class);
+		}
+		if (!p.isExpectedStartObjectToken()) {
+			return ctxt.handleUnexpectedToken(Map.class, p);
+		}
+		TokenBuffer buffer = new TokenBuffer(p, ctxt);
+		buffer.copyCurrentStructure(p);
+		return buffer;
+	}
+
+	/**
+	 * Configure an {@link ObjectMapper} to keep request parameters as raw JSON tokens
+	 *
+	 * @param objectMapper the object mapper used to read request bodies
+	 */
+	public static void enableRawParameters(ObjectMapper objectMapper) {
+		objectMapper.setDefaultAttributes(objectMapper.getDeserializationConfig().getAttributes()
+				.withSharedAttribute(RAW_PARAMETERS_ATTRIBUTE, Boolean.TRUE));
+	}
+
+}
@@ -16,12 +16,10 @@
 
 package org.springframework.cloud.servicebroker.service;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
 import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
 
 /**
@@ -31,9 +29,9 @@ import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
  */
 public class BeanCatalogService implements CatalogService {
 
-	private final Catalog catalog;
+	private static final String CATALOG_VERSION = "1";
 
-	private final Map<String, ServiceDefinition> serviceDefs = new HashMap<>();
+	private final IndexedCatalog catalog;
 
 	/**
 	 * Construct a service with the provided {@link Catalog bean}.
@@ -41,22 +39,27 @@ public class BeanCatalogService implements CatalogService {
 	 * @param catalog the {@link Catalog} bean
 	 */
 	public BeanCatalogService(Catalog catalog) {
-		this.catalog = catalog;
-		initializeMap();
-	}
-
-	private void initializeMap() {
-		catalog.getServiceDefinitions().forEach(def -> serviceDefs.put(def.getId(), def));
+		this.catalog = new IndexedCatalog(catalog);
 	}
 
 	@Override
 	public Mono<Catalog> getCatalog() {
-		return Mono.just(catalog);
+		return Mono.just(catalog.getCatalog());
 	}
 
 	@Override
 	public Mono<ServiceDefinition> getServiceDefinition(final String serviceId) {
-		return Mono.justOrEmpty(serviceDefs.get(serviceId));
+		return Mono.justOrEmpty(catalog.getServiceDefinition(serviceId));
+	}
+
+	@Override
+	public Mono<Plan> getServiceDefinitionPlan(String serviceId, String planId) {
+		return Mono.justOrEmpty(catalog.getServiceDefinitionPlan(serviceId, planId));
+	}
+
+	@Override
+	public String getCatalogVersion() {
+		return CATALOG_VERSION;
 	}
 
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+
+/**
+ * An implementation of the {@link PlatformCatalogService} that allows a {@link Catalog} to be specified for each
+ * platform instance, along with a default {@link Catalog} for requests from other platform instances.
+ *
+ * <p>
+ * Each catalog is indexed once when the service is constructed, so selecting the catalog for a platform instance
+ * costs a single map lookup at request time.
+ *
+ * @author agent
+ */
+public class BeanPlatformCatalogService extends BeanCatalogService implements PlatformCatalogService {
+
+	private final Map<String, CatalogService> platformCatalogServices;
+
+	/**
+	 * Construct a service with the provided catalogs
+	 *
+	 * @param catalog the catalog for requests from platform instances that do not have their own catalog
+	 * @param platformCatalogs the catalog for each platform instance, keyed by platform instance ID
+	 */
+	public BeanPlatformCatalogService(Catalog catalog, Map<String, Catalog> platformCatalogs) {
+		super(catalog);
+		Map<String, CatalogService> services = new HashMap<>();
+		platformCatalogs.forEach((platformInstanceId, platformCatalog) ->
+				services.put(platformInstanceId, new BeanCatalogService(platformCatalog)));
+		this.platformCatalogServices = Collections.unmodifiableMap(services);
+	}
+
+	@Override
+	public CatalogService getCatalogService(String platformInstanceId) {
+		return this.platformCatalogServices.getOrDefault(platformInstanceId, this);
+	}
+
+}
@@ -16,9 +16,11 @@
 
 package org.springframework.cloud.servicebroker.service;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
 import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
 
 /**
@@ -35,6 +37,18 @@ public interface CatalogService {
 	 */
 	Mono<Catalog> getCatalog();
 
+	/**
+	 * Return the services provided by the service broker as a stream, so that the catalog can be written without
+	 * holding all of it in memory. The default implementation emits the service definitions of
+	 * {@link #getCatalog()}. Implementations that read service definitions from an external source should override
+	 * this method to emit them as they are read.
+	 *
+	 * @return the service definitions in the catalog
+	 */
+	default Flux<ServiceDefinition> getServiceDefinitions() {
+		return getCatalog().flatMapIterable(Catalog::getServiceDefinitions);
+	}
+
 	/**
 	 * Get a service definition from the catalog by ID.
 	 *
@@ -43,4 +57,31 @@ public interface CatalogService {
 	 */
 	Mono<ServiceDefinition> getServiceDefinition(String serviceId);
 
+	/**
+	 * Get a plan from the catalog by service definition ID and plan ID. The default implementation scans the plans of
+	 * the service definition returned by {@link #getServiceDefinition(String)}. Implementations that hold the catalog
+	 * in memory should override this method to look the plan up from an index.
+	 *
+	 * @param serviceId The ID of the service definition in the catalog
+	 * @param planId The ID of the plan in the service definition
+	 * @return the plan, or empty if either the service definition or the plan doesn't exist
+	 */
+	default Mono<Plan> getServiceDefinitionPlan(String serviceId, String planId) {
+		return getServiceDefinition(serviceId)
+				.flatMap(serviceDefinition -> Mono.justOrEmpty(serviceDefinition.getPlans()))
+				.flatMapMany(Flux::fromIterable)
+				.filter(plan -> plan.getId().equals(planId))
+				.next();
+	}
+
+	/**
+	 * Get an identifier for the current version of the catalog. A change in the returned value signals that the
+	 * catalog has changed and that any cached representation of it must be discarded.
+	 *
+	 * @return the catalog version, or null if the catalog is not versioned and must not be cached
+	 */
+	default String getCatalogVersion() {
+		return null;
+	}
+
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+
+/**
+ * An immutable view of a {@link Catalog} with service definitions indexed by ID and plans indexed by service
+ * definition ID and plan ID, so that lookups do not scan the catalog.
+ *
+ * @author agent
+ */
+public final class IndexedCatalog {
+
+	private final Catalog catalog;
+
+	private final Map<String, ServiceDefinition> serviceDefinitions;
+
+	private final Map<String, Map<String, Plan>> plans;
+
+	/**
+	 * Construct a new {@link IndexedCatalog}
+	 *
+	 * @param catalog the catalog to index
+	 */
+	public IndexedCatalog(Catalog catalog) {
+		this.catalog = catalog;
+		Map<String, ServiceDefinition> serviceDefinitionIndex = new HashMap<>();
+		Map<String, Map<String, Plan>> planIndex = new HashMap<>();
+		for (ServiceDefinition serviceDefinition : catalog.getServiceDefinitions()) {
+			serviceDefinitionIndex.put(serviceDefinition.getId(), serviceDefinition);
+			planIndex.put(serviceDefinition.getId(), indexPlans(serviceDefinition.getPlans()));
+		}
+		this.serviceDefinitions = Collections.unmodifiableMap(serviceDefinitionIndex);
+		this.plans = Collections.unmodifiableMap(planIndex);
+	}
+
+	private static Map<String, Plan> indexPlans(List<Plan> plans) {
+		if (plans == null || plans.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		Map<String, Plan> planIndex = new HashMap<>();
+		for (Plan plan : plans) {
+			planIndex.put(plan.getId(), plan);
+		}
+		return Collections.unmodifiableMap(planIndex);
+	}
+
+	/**
+	 * Get the indexed catalog
+	 *
+	 * @return the catalog
+	 */
+	public Catalog getCatalog() {
+		return this.catalog;
+	}
+
+	/**
+	 * Get a service definition by ID
+	 *
+	 * @param serviceId the service definition ID
+	 * @return the service definition, or null if it doesn't exist
+	 */
+	public ServiceDefinition getServiceDefinition(String serviceId) {
+		return this.serviceDefinitions.get(serviceId);
+	}
+
+	/**
+	 * Get a plan by service definition ID and plan ID
+	 *
+	 * @param serviceId the service definition ID
+	 * @param planId the plan ID
+	 * @return the plan, or null if it doesn't exist
+	 */
+	public Plan getServiceDefinitionPlan(String serviceId, String planId) {
+		Map<String, Plan> servicePlans = this.plans.get(serviceId);
+		if (servicePlans == null) {
+			return null;
+		}
+		return servicePlans.get(planId);
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+/**
+ * A {@link CatalogService} that presents a different view of the catalog to each platform instance. The view for a
+ * platform instance is used to serve requests made to paths that include its platform instance ID, such as
+ * {@literal /{platformInstanceId}/v2/catalog}.
+ *
+ * <p>
+ * Views are expected to be built ahead of time and returned as the same instance for every request, since cached
+ * representations of the catalog are held for each view.
+ *
+ * @author agent
+ */
+public interface PlatformCatalogService extends CatalogService {
+
+	/**
+	 * Get the view of the catalog for a platform instance
+	 *
+	 * @param platformInstanceId the platform instance ID
+	 * @return the catalog service for the platform instance, or this catalog service if the platform instance does
+	 * 		not have its own view
+	 */
+	CatalogService getCatalogService(String platformInstanceId);
+
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+
+/**
+ * An implementation of the {@link CatalogService} that loads the {@link Catalog} from a JSON file or a directory of
+ * JSON files, and reloads it when the source changes.
+ *
+ * <p>
+ * When the location is a directory, every {@literal .json} file in it is read as a catalog and the service definitions
+ * of all files are combined in file name order.
+ *
+ * <p>
+ * Each load builds a new immutable {@link IndexedCatalog} that is published through a single volatile reference, so
+ * requests never lock and never observe a partially loaded catalog. A reload that fails leaves the previous catalog in
+ * place and is counted in {@link #getReloadFailureCount()}, whether the catalog cannot be read or is malformed.
+ *
+ * <p>
+ * Changes are detected with a {@link WatchService} once {@link #start()} has been called. Call {@link #close()} to stop
+ * watching.
+ *
+ * @author agent
+ */
+public class ReloadableCatalogService implements CatalogService, Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ReloadableCatalogService.class);
+
+	private static final String CATALOG_FILE_EXTENSION = ".json";
+
+	private static final long QUIET_PERIOD_MILLIS = 100;
+
+	private final Path location;
+
+	private final ObjectReader catalogReader;
+
+	private final AtomicLong reloadCount = new AtomicLong();
+
+	private final AtomicLong reloadFailureCount = new AtomicLong();
+
+	private final Object reloadMonitor = new Object();
+
+	private final Object watchMonitor = new Object();
+
+	@SuppressWarnings("PMD.AvoidUsingVolatile")
+	private volatile Snapshot snapshot;
+
+	private WatchService watchService;
+
+	private Scheduler watchScheduler;
+
+	/**
+	 * Construct a new {@link ReloadableCatalogService} and load the catalog from the provided location.
+	 *
+	 * @param location a JSON catalog file, or a directory containing JSON catalog files
+	 * @param objectMapper the object mapper used to read the catalog
+	 * @throws IllegalStateException if the catalog cannot be loaded
+	 */
+	public ReloadableCatalogService(Path location, ObjectMapper objectMapper) {
+		this.location = location;
+		this.catalogReader = objectMapper.readerFor(Catalog.class);
+		try {
+			this.snapshot = new Snapshot(new IndexedCatalog(readCatalog()), 1L);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Unable to load the catalog from " + location, e);
+		}
+	}
+
+	@Override
+	public Mono<Catalog> getCatalog() {
+		return Mono.just(this.snapshot.catalog.getCatalog());
+	}
+
+	@Override
+	public Mono<ServiceDefinition> getServiceDefinition(String serviceId) {
+		return Mono.justOrEmpty(this.snapshot.catalog.getServiceDefinition(serviceId));
+	}
+
+	@Override
+	public Mono<Plan> getServiceDefinitionPlan(String serviceId, String planId) {
+		return Mono.justOrEmpty(this.snapshot.catalog.getServiceDefinitionPlan(serviceId, planId));
+	}
+
+	@Override
+	public String getCatalogVersion() {
+		return this.snapshot.version;
+	}
+
+	/**
+	 * Get the location the catalog is loaded from
+	 *
+	 * @return the catalog file or directory
+	 */
+	public Path getLocation() {
+		return this.location;
+	}
+
+	/**
+	 * Get the number of successful reloads since the service was created
+	 *
+	 * @return the reload count
+	 */
+	public long getReloadCount() {
+		return this.reloadCount.get();
+	}
+
+	/**
+	 * Get the number of reloads that failed and left the previous catalog in place
+	 *
+	 * @return the reload failure count
+	 */
+	public long getReloadFailureCount() {
+		return this.reloadFailureCount.get();
+	}
+
+	/**
+	 * Load the catalog from the source location and replace the current catalog with it. If the catalog cannot be
+	 * loaded, the current catalog is kept.
+	 *
+	 * @return true if the catalog was replaced
+	 */
+	@SuppressWarnings("PMD.AvoidCatchingGenericException")
+	public boolean reload() {
+		synchronized (this.reloadMonitor) {
+			try {
+				Catalog catalog = readCatalog();
+				this.snapshot = new Snapshot(new IndexedCatalog(catalog), this.snapshot.generation + 1);
+				this.reloadCount.incrementAndGet();
+				LOG.info("Reloaded the catalog from {}", this.location);
+				return true;
+			}
+			catch (IOException | RuntimeException e) {
+				this.reloadFailureCount.incrementAndGet();
+				LOG.warn("Unable to reload the catalog from " + this.location + ", keeping the previous catalog", e);
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Start watching the source location for changes
+	 *
+	 * @throws IOException if the location cannot be watched
+	 */
+	public void start() throws IOException {
+		synchronized (this.watchMonitor) {
+			if (this.watchService != null) {
+				return;
+			}
+			Path directory = isDirectorySource() ? this.location : this.location.toAbsolutePath().getParent();
+			this.watchService = directory.getFileSystem().newWatchService();
+			directory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+			this.watchScheduler = Schedulers.newBoundedElastic(1, 1, "catalog-watcher", 60, true);
+			WatchService service = this.watchService;
+			this.watchScheduler.schedule(() -> watch(service));
+		}
+	}
+
+	/**
+	 * Stop watching the source location for changes
+	 *
+	 * @throws IOException if the watch service cannot be closed
+	 */
+	@Override
+	@SuppressWarnings("PMD.NullAssignment")
+	public void close() throws IOException {
+		synchronized (this.watchMonitor) {
+			if (this.watchService == null) {
+				return;
+			}
+			this.watchService.close();
+			this.watchScheduler.dispose();
+			this.watchService = null;
+			this.watchScheduler = null;
+		}
+	}
+
+	@SuppressWarnings("PMD.AvoidCatchingGenericException")
+	private void watch(WatchService service) {
+		while (true) {
+			try {
+				watchChanges(service);
+			}
+			catch (ClosedWatchServiceException e) {
+				LOG.debug("Stopped watching the catalog at {}", this.location);
+				return;
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (RuntimeException e) {
+				this.reloadFailureCount.incrementAndGet();
+				LOG.warn("Unable to reload the catalog from " + this.location + ", continuing to watch", e);
+			}
+		}
+	}
+
+	private void watchChanges(WatchService service) throws InterruptedException {
+		boolean changed = pollChanges(service.take());
+		WatchKey key = service.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+		while (key != null) {
+			changed |= pollChanges(key);
+			key = service.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		if (changed) {
+			reload();
+		}
+	}
+
+	private boolean pollChanges(WatchKey key) {
+		boolean changed = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW || isCatalogSource((Path) event.context())) {
+				changed = true;
+			}
+		}
+		key.reset();
+		return changed;
+	}
+
+	private boolean isCatalogSource(Path changed) {
+		if (isDirectorySource()) {
+			return changed.toString().endsWith(CATALOG_FILE_EXTENSION);
+		}
+		return changed.equals(this.location.getFileName());
+	}
+
+	private boolean isDirectorySource() {
+		return Files.isDirectory(this.location);
+	}
+
+	private Catalog readCatalog() throws IOException {
+		if (!isDirectorySource()) {
+			return this.catalogReader.readValue(this.location.toFile());
+		}
+		List<Path> files;
+		try (Stream<Path> paths = Files.list(this.location)) {
+			files = paths
+					.filter(path -> path.toString().endsWith(CATALOG_FILE_EXTENSION))
+					.filter(Files::isRegularFile)
+					.sorted()
+					.collect(Collectors.toList());
+		}
+		List<ServiceDefinition> serviceDefinitions = new ArrayList<>();
+		for (Path file : files) {
+			Catalog catalog = this.catalogReader.readValue(file.toFile());
+			serviceDefinitions.addAll(catalog.getServiceDefinitions());
+		}
+		return new Catalog(serviceDefinitions);
+	}
+
+	private static final class Snapshot {
+
+		private final IndexedCatalog catalog;
+
+		private final long generation;
+
+		private final String version;
+
+		private Snapshot(IndexedCatalog catalog, long generation) {
+			this.catalog = catalog;
+			this.generation = generation;
+			this.version = String.valueOf(generation);
+		}
+
+	}
+
+}
@@ -54,12 +54,8 @@ public class ServiceInstanceBindingEventService implements ServiceInstanceBindin
 	@Override
 	public Mono<CreateServiceInstanceBindingResponse> createServiceInstanceBinding(
 			CreateServiceInstanceBindingRequest request) {
-		return flows.getCreateInstanceBindingRegistry().getInitializationFlows(request)
-				.then(service.createServiceInstanceBinding(request))
-				.onErrorResume(e -> flows.getCreateInstanceBindingRegistry().getErrorFlows(request, e)
-						.then(Mono.error(e)))
-				.flatMap(response -> flows.getCreateInstanceBindingRegistry().getCompletionFlows(request, response)
-						.then(Mono.just(response)));
+		return flows.getCreateInstanceBindingRegistry()
+				.attachFlows(request, service.createServiceInstanceBinding(request));
 	}
 
 	@Override
@@ -70,23 +66,13 @@ public class ServiceInstanceBindingEventService implements ServiceInstanceBindin
 	@Override
 	public Mono<GetLastServiceBindingOperationResponse> getLastOperation(
 			GetLastServiceBindingOperationRequest request) {
-		return flows.getAsyncOperationBindingRegistry().getInitializationFlows(request)
-				.then(service.getLastOperation(request))
-				.onErrorResume(e -> flows.getAsyncOperationBindingRegistry().getErrorFlows(request, e)
-						.then(Mono.error(e)))
-				.flatMap(response -> flows.getAsyncOperationBindingRegistry().getCompletionFlows(request, response)
-						.then(Mono.just(response)));
+		return flows.getAsyncOperationBindingRegistry().attachFlows(request, service.getLastOperation(request));
 	}
 
 	@Override
 	public Mono<DeleteServiceInstanceBindingResponse> deleteServiceInstanceBinding(
 			DeleteServiceInstanceBindingRequest request) {
-		return flows.getDeleteInstanceBindingRegistry().getInitializationFlows(request)
-				.then(service.deleteServiceInstanceBinding(request))
-				.onErrorResume(e -> flows.getDeleteInstanceBindingRegistry().getErrorFlows(request, e)
-						.then(Mono.error(e)))
-				.flatMap(response -> flows.getDeleteInstanceBindingRegistry().getCompletionFlows(request, response)
-						.then(Mono.just(response)));
+		return flows.getDeleteInstanceBindingRegistry().attachFlows(request, service.deleteServiceInstanceBinding(request));
 	}
 
 }
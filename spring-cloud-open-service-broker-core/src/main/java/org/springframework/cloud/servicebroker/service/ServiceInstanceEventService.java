@@ -56,12 +56,7 @@ public class ServiceInstanceEventService implements ServiceInstanceService {
 
 	@Override
 	public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
-		return flows.getCreateInstanceRegistry().getInitializationFlows(request)
-				.then(service.createServiceInstance(request))
-				.onErrorResume(e -> flows.getCreateInstanceRegistry().getErrorFlows(request, e)
-						.then(Mono.error(e)))
-				.flatMap(response -> flows.getCreateInstanceRegistry().getCompletionFlows(request, response)
-						.then(Mono.just(response)));
+		return flows.getCreateInstanceRegistry().attachFlows(request, service.createServiceInstance(request));
 	}
 
 	@Override
@@ -71,32 +66,17 @@ public class ServiceInstanceEventService implements ServiceInstanceService {
 
 	@Override
 	public Mono<GetLastServiceOperationResponse> getLastOperation(GetLastServiceOperationRequest request) {
-		return flows.getAsyncOperationRegistry().getInitializationFlows(request)
-				.then(service.getLastOperation(request))
-				.onErrorResume(e -> flows.getAsyncOperationRegistry().getErrorFlows(request, e)
-						.then(Mono.error(e)))
-				.flatMap(response -> flows.getAsyncOperationRegistry().getCompletionFlows(request, response)
-						.then(Mono.just(response)));
+		return flows.getAsyncOperationRegistry().attachFlows(request, service.getLastOperation(request));
 	}
 
 	@Override
 	public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
-		return flows.getDeleteInstanceRegistry().getInitializationFlows(request)
-				.then(service.deleteServiceInstance(request))
-				.onErrorResume(e -> flows.getDeleteInstanceRegistry().getErrorFlows(request, e)
-						.then(Mono.error(e)))
-				.flatMap(response -> flows.getDeleteInstanceRegistry().getCompletionFlows(request, response)
-						.then(Mono.just(response)));
+		return flows.getDeleteInstanceRegistry().attachFlows(request, service.deleteServiceInstance(request));
 	}
 
 	@Override
 	public Mono<UpdateServiceInstanceResponse> updateServiceInstance(UpdateServiceInstanceRequest request) {
-		return flows.getUpdateInstanceRegistry().getInitializationFlows(request)
-				.then(service.updateServiceInstance(request))
-				.onErrorResume(e -> flows.getUpdateInstanceRegistry().getErrorFlows(request, e)
-						.then(Mono.error(e)))
-				.flatMap(response -> flows.getUpdateInstanceRegistry().getCompletionFlows(request, response)
-						.then(Mono.just(response)));
+		return flows.getUpdateInstanceRegistry().attachFlows(request, service.updateServiceInstance(request));
 	}
 
 }
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.async;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.servicebroker.model.AsyncServiceBrokerResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.service.operation.AsyncOperationTracker;
+import org.springframework.cloud.servicebroker.service.operation.OperationKey;
+import org.springframework.cloud.servicebroker.service.operation.TrackedOperation;
+import org.springframework.util.Assert;
+
+/**
+ * Converts slow operations into asynchronous operations. When the platform accepts an asynchronous response and an
+ * operation of the service has not completed within the deadline, the operation is detached: the platform is answered
+ * with an asynchronous response with a generated operation token, the operation keeps running on a bounded
+ * {@link Scheduler}, and its outcome is recorded in the {@link AsyncOperationTracker} that the last operation requests
+ * of the platform are answered from. A detached operation is held by the tracker while it runs, so it is not evicted
+ * when it takes longer than the time to live of the tracker.
+ *
+ * <p>
+ * When a detached operation turns out to be asynchronous itself, the operation stops being tracked, and the last
+ * operation requests with the generated token are passed to the service with the operation token of the service,
+ * until the service reports the operation complete or another operation is executed on the same service instance or
+ * binding.
+ *
+ * @author agent
+ */
+public class AutoAsyncExecutor implements Closeable {
+
+	private final AsyncOperationTracker tracker;
+
+	private final Duration deadline;
+
+	private final Scheduler scheduler;
+
+	private final ConcurrentMap<OperationKey, DelegatedOperation> delegatedOperations = new ConcurrentHashMap<>();
+
+	/**
+	 * Construct a new {@link AutoAsyncExecutor} that runs the operations on a bounded scheduler of its own
+	 *
+	 * @param tracker the tracker the outcomes of detached operations are recorded in
+	 * @param deadline the time an operation may take before it is detached
+	 * @param threads the maximum number of threads the operations run on
+	 * @param queuedTasks the maximum number of operations waiting for a thread
+	 */
+	public AutoAsyncExecutor(AsyncOperationTracker tracker, Duration deadline, int threads, int queuedTasks) {
+		this(tracker, deadline, Schedulers.newBoundedElastic(threads, queuedTasks, "auto-async"));
+	}
+
+	/**
+	 * Construct a new {@link AutoAsyncExecutor}
+	 *
+	 * @param tracker the tracker the outcomes of detached operations are recorded in
+	 * @param deadline the time an operation may take before it is detached
+	 * @param scheduler the scheduler the operations run on, disposed when the executor is closed
+	 */
+	public AutoAsyncExecutor(AsyncOperationTracker tracker, Duration deadline, Scheduler scheduler) {
+		Assert.notNull(tracker, "tracker must not be null");
+		Assert.isTrue(deadline != null && !deadline.isNegative() && !deadline.isZero(), "deadline must be positive");
+		Assert.notNull(scheduler, "scheduler must not be null");
+		this.tracker = tracker;
+		this.deadline = deadline;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Execute an operation of the service, detaching it when the platform accepts an asynchronous response and the
+	 * operation does not complete within the deadline
+	 *
+	 * @param asyncAccepted whether the platform accepts an asynchronous response
+	 * @param operation the service instance or binding the operation is performed on, and the catalog identifiers of
+	 * 		the operation
+	 * @param execution the operation of the service
+	 * @param acceptedResponse creates the asynchronous response for a detached operation from the generated operation
+	 * 		token
+	 * @param detachedResponse receives the generated operation token and the response of the service when a detached
+	 * 		operation completes synchronously, before its outcome is recorded, or {@literal null}
+	 * @param <T> the type of the response
+	 * @return the response of the service, or the asynchronous response if the operation was detached
+	 */
+	public <T extends AsyncServiceBrokerResponse> Mono<T> execute(boolean asyncAccepted, TrackedOperation operation,
+			Mono<T> execution, Function<String, T> acceptedResponse, BiConsumer<String, T> detachedResponse) {
+		return Mono.defer(() -> {
+			this.delegatedOperations.remove(operation.getKey());
+			if (!asyncAccepted) {
+				return execution;
+			}
+			Sinks.One<T> result = Sinks.one();
+			AtomicBoolean detached = new AtomicBoolean();
+			Disposable running = execution
+					.subscribeOn(this.scheduler)
+					.subscribe(result::tryEmitValue, result::tryEmitError, result::tryEmitEmpty);
+			return result.asMono()
+					.timeout(this.deadline, Mono.defer(() -> {
+						detached.set(true);
+						return detach(operation, result.asMono(), acceptedResponse, detachedResponse);
+					}))
+					.doOnCancel(() -> {
+						if (!detached.get()) {
+							running.dispose();
+						}
+					});
+		});
+	}
+
+	/**
+	 * Get the operation token the service knows an operation by
+	 *
+	 * @param key the service instance or binding the operation is performed on
+	 * @param operation the operation token in the last operation request, or {@literal null}
+	 * @return the operation token of the service if the operation is a detached operation that turned out to be
+	 * 		asynchronous itself, otherwise the operation token in the request
+	 */
+	public String getServiceOperation(OperationKey key, String operation) {
+		DelegatedOperation delegated = this.delegatedOperations.get(key);
+		if (delegated == null || operation == null || !operation.equals(delegated.token)) {
+			return operation;
+		}
+		return delegated.operation;
+	}
+
+	/**
+	 * Stop passing the last operation requests with the generated token of a detached operation that turned out to be
+	 * asynchronous itself to the service, once the service reported the operation complete
+	 *
+	 * @param key the service instance or binding the operation is performed on
+	 * @param operation the generated operation token
+	 */
+	public void release(OperationKey key, String operation) {
+		DelegatedOperation delegated = this.delegatedOperations.get(key);
+		if (delegated != null && delegated.token.equals(operation)) {
+			this.delegatedOperations.remove(key, delegated);
+		}
+	}
+
+	/**
+	 * Get the tracker the outcomes of detached operations are recorded in
+	 *
+	 * @return the tracker
+	 */
+	public AsyncOperationTracker getTracker() {
+		return this.tracker;
+	}
+
+	/**
+	 * Dispose the scheduler the operations run on
+	 */
+	@Override
+	public void close() {
+		this.scheduler.dispose();
+	}
+
+	private <T extends AsyncServiceBrokerResponse> Mono<T> detach(TrackedOperation operation, Mono<T> result,
+			Function<String, T> acceptedResponse, BiConsumer<String, T> detachedResponse) {
+		String token = UUID.randomUUID().toString();
+		this.tracker.hold(TrackedOperation.builder()
+				.key(operation.getKey())
+				.operation(token)
+				.serviceDefinitionId(operation.getServiceDefinitionId())
+				.planId(operation.getPlanId())
+				.deleteOperation(operation.isDeleteOperation())
+				.build());
+		// the outcome is recorded once the asynchronous response has been passed on, so that it is not overwritten
+		// when the operation is tracked from the response
+		return Mono.fromSupplier(() -> acceptedResponse.apply(token))
+				.doFinally(signal -> result
+						.doOnSuccess(response -> completed(operation.getKey(), token, response, detachedResponse))
+						.doOnError(e -> this.tracker.update(operation.getKey(), token, OperationState.FAILED,
+								e.getMessage()))
+						.onErrorResume(e -> Mono.empty())
+						.doFinally(outcome -> this.tracker.release(operation.getKey(), token))
+						.subscribe());
+	}
+
+	private <T extends AsyncServiceBrokerResponse> void completed(OperationKey key, String token, T response,
+			BiConsumer<String, T> detachedResponse) {
+		if (response != null && response.isAsync()) {
+			this.delegatedOperations.put(key, new DelegatedOperation(token, response.getOperation()));
+			if (this.tracker.get(key, token) != null) {
+				this.tracker.remove(key);
+			}
+			return;
+		}
+		if (response != null && detachedResponse != null) {
+			detachedResponse.accept(token, response);
+		}
+		this.tracker.update(key, token, OperationState.SUCCEEDED, null);
+	}
+
+	private static final class DelegatedOperation {
+
+		private final String token;
+
+		private final String operation;
+
+		private DelegatedOperation(String token, String operation) {
+			this.token = token;
+			this.operation = operation;
+		}
+
+	}
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.async;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.exception.ServiceInstanceBindingDoesNotExistException;
+import org.springframework.cloud.servicebroker.exception.ServiceInstanceDoesNotExistException;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceAppBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceRouteBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceAppBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceRouteBindingResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.operation.OperationKey;
+import org.springframework.cloud.servicebroker.service.operation.TrackedOperation;
+
+/**
+ * Internal implementation of {@link ServiceInstanceBindingService} that executes the create and delete operations of
+ * a service with an {@link AutoAsyncExecutor}, so that an operation that does not complete within the deadline is
+ * answered with an asynchronous response when the platform accepts one.
+ *
+ * <p>
+ * The platform retrieves a service instance binding that was created asynchronously once the operation succeeded. The
+ * binding returned by a detached create operation is held while the operation is tracked, and retrieval requests are
+ * answered with it, so that the credentials of the binding are available even when the service does not support
+ * retrieving bindings.
+ *
+ * @author agent
+ */
+public class AutoAsyncServiceInstanceBindingService implements ServiceInstanceBindingService {
+
+	private final ServiceInstanceBindingService service;
+
+	private final AutoAsyncExecutor executor;
+
+	private final ConcurrentMap<OperationKey, DetachedBinding> detachedBindings = new ConcurrentHashMap<>();
+
+	/**
+	 * Construct a new {@link AutoAsyncServiceInstanceBindingService}
+	 *
+	 * @param service the service instance binding service
+	 * @param executor the executor of the operations
+	 */
+	public AutoAsyncServiceInstanceBindingService(ServiceInstanceBindingService service, AutoAsyncExecutor executor) {
+		this.service = service;
+		this.executor = executor;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceBindingResponse> createServiceInstanceBinding(
+			CreateServiceInstanceBindingRequest request) {
+		OperationKey key = OperationKey.forServiceInstanceBinding(request.getServiceInstanceId(),
+				request.getBindingId());
+		return this.executor.execute(request.isAsyncAccepted(),
+				operation(key, request.getServiceDefinitionId(), request.getPlanId(), false),
+				this.service.createServiceInstanceBinding(request),
+				token -> CreateServiceInstanceAppBindingResponse.builder()
+						.async(true)
+						.operation(token)
+						.build(),
+				(token, response) -> detached(key, token, response, request.getParameters()));
+	}
+
+	@Override
+	public Mono<GetServiceInstanceBindingResponse> getServiceInstanceBinding(
+			GetServiceInstanceBindingRequest request) {
+		return Mono.defer(() -> {
+			OperationKey key = OperationKey.forServiceInstanceBinding(request.getServiceInstanceId(),
+					request.getBindingId());
+			DetachedBinding detached = this.detachedBindings.get(key);
+			if (detached != null) {
+				if (isTracked(key, detached)) {
+					return Mono.just(detached.binding);
+				}
+				this.detachedBindings.remove(key, detached);
+			}
+			return this.service.getServiceInstanceBinding(request);
+		});
+	}
+
+	@Override
+	public Mono<GetLastServiceBindingOperationResponse> getLastOperation(
+			GetLastServiceBindingOperationRequest request) {
+		OperationKey key = OperationKey.forServiceInstanceBinding(request.getServiceInstanceId(),
+				request.getBindingId());
+		String operation = this.executor.getServiceOperation(key, request.getOperation());
+		if (operation == null || operation.equals(request.getOperation())) {
+			return this.service.getLastOperation(request);
+		}
+		return this.service.getLastOperation(GetLastServiceBindingOperationRequest.builder()
+				.serviceInstanceId(request.getServiceInstanceId())
+				.bindingId(request.getBindingId())
+				.serviceDefinitionId(request.getServiceDefinitionId())
+				.planId(request.getPlanId())
+				.operation(operation)
+				.platformInstanceId(request.getPlatformInstanceId())
+				.apiInfoLocation(request.getApiInfoLocation())
+				.originatingIdentity(request.getOriginatingIdentity())
+				.requestIdentity(request.getRequestIdentity())
+				.build())
+				.doOnSuccess(response -> {
+					if (response != null && response.getState() != OperationState.IN_PROGRESS) {
+						this.executor.release(key, request.getOperation());
+					}
+				})
+				.doOnError(e -> e instanceof ServiceInstanceBindingDoesNotExistException
+						|| e instanceof ServiceInstanceDoesNotExistException,
+						e -> this.executor.release(key, request.getOperation()));
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceBindingResponse> deleteServiceInstanceBinding(
+			DeleteServiceInstanceBindingRequest request) {
+		OperationKey key = OperationKey.forServiceInstanceBinding(request.getServiceInstanceId(),
+				request.getBindingId());
+		return this.executor.execute(request.isAsyncAccepted(),
+				operation(key, request.getServiceDefinitionId(), request.getPlanId(), true),
+				this.service.deleteServiceInstanceBinding(request)
+						.doOnSubscribe(subscription -> this.detachedBindings.remove(key)),
+				token -> DeleteServiceInstanceBindingResponse.builder()
+						.async(true)
+						.operation(token)
+						.build(),
+				null);
+	}
+
+	private void detached(OperationKey key, String token, CreateServiceInstanceBindingResponse response,
+			Map<String, Object> parameters) {
+		this.detachedBindings.entrySet().removeIf(entry -> !isTracked(entry.getKey(), entry.getValue()));
+		GetServiceInstanceBindingResponse binding = toBinding(response, parameters);
+		if (binding != null) {
+			this.detachedBindings.put(key, new DetachedBinding(token, binding));
+		}
+	}
+
+	private boolean isTracked(OperationKey key, DetachedBinding detached) {
+		return this.executor.getTracker().get(key, detached.token) != null;
+	}
+
+	private static GetServiceInstanceBindingResponse toBinding(CreateServiceInstanceBindingResponse response,
+			Map<String, Object> parameters) {
+		if (response instanceof CreateServiceInstanceAppBindingResponse) {
+			CreateServiceInstanceAppBindingResponse appBinding = (CreateServiceInstanceAppBindingResponse) response;
+			GetServiceInstanceAppBindingResponse.GetServiceInstanceAppBindingResponseBuilder builder =
+					GetServiceInstanceAppBindingResponse.builder()
+							.syslogDrainUrl(appBinding.getSyslogDrainUrl());
+			if (appBinding.getCredentials() != null) {
+				builder.credentials(appBinding.getCredentials());
+			}
+			if (appBinding.getVolumeMounts() != null) {
+				builder.volumeMounts(appBinding.getVolumeMounts());
+			}
+			if (appBinding.getEndpoints() != null) {
+				builder.endpoints(appBinding.getEndpoints());
+			}
+			if (parameters != null) {
+				builder.parameters(parameters);
+			}
+			return builder.build();
+		}
+		if (response instanceof CreateServiceInstanceRouteBindingResponse) {
+			CreateServiceInstanceRouteBindingResponse routeBinding =
+					(CreateServiceInstanceRouteBindingResponse) response;
+			GetServiceInstanceRouteBindingResponse.GetServiceInstanceRouteBindingResponseBuilder builder =
+					GetServiceInstanceRouteBindingResponse.builder()
+							.routeServiceUrl(routeBinding.getRouteServiceUrl());
+			if (parameters != null) {
+				builder.parameters(parameters);
+			}
+			return builder.build();
+		}
+		return null;
+	}
+
+	private static TrackedOperation operation(OperationKey key, String serviceDefinitionId, String planId,
+			boolean deleteOperation) {
+		return TrackedOperation.builder()
+				.key(key)
+				.serviceDefinitionId(serviceDefinitionId)
+				.planId(planId)
+				.deleteOperation(deleteOperation)
+				.build();
+	}
+
+	private static final class DetachedBinding {
+
+		private final String token;
+
+		private final GetServiceInstanceBindingResponse binding;
+
+		private DetachedBinding(String token, GetServiceInstanceBindingResponse binding) {
+			this.token = token;
+			this.binding = binding;
+		}
+
+	}
+
+}
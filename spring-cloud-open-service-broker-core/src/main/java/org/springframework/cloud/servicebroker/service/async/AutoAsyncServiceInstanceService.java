@@ -0,0 +1,138 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.async;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.exception.ServiceInstanceDoesNotExistException;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.operation.OperationKey;
+import org.springframework.cloud.servicebroker.service.operation.TrackedOperation;
+
+/**
+ * Internal implementation of {@link ServiceInstanceService} that executes the create, update, and delete operations
+ * of a service with an {@link AutoAsyncExecutor}, so that an operation that does not complete within the deadline is
+ * answered with an asynchronous response when the platform accepts one.
+ *
+ * @author agent
+ */
+public class AutoAsyncServiceInstanceService implements ServiceInstanceService {
+
+	private final ServiceInstanceService service;
+
+	private final AutoAsyncExecutor executor;
+
+	/**
+	 * Construct a new {@link AutoAsyncServiceInstanceService}
+	 *
+	 * @param service the service instance service
+	 * @param executor the executor of the operations
+	 */
+	public AutoAsyncServiceInstanceService(ServiceInstanceService service, AutoAsyncExecutor executor) {
+		this.service = service;
+		this.executor = executor;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
+		return this.executor.execute(request.isAsyncAccepted(),
+				operation(request.getServiceInstanceId(), request.getServiceDefinitionId(), request.getPlanId(), false),
+				this.service.createServiceInstance(request),
+				token -> CreateServiceInstanceResponse.builder()
+						.async(true)
+						.operation(token)
+						.build(),
+				null);
+	}
+
+	@Override
+	public Mono<GetServiceInstanceResponse> getServiceInstance(GetServiceInstanceRequest request) {
+		return this.service.getServiceInstance(request);
+	}
+
+	@Override
+	public Mono<GetLastServiceOperationResponse> getLastOperation(GetLastServiceOperationRequest request) {
+		OperationKey key = OperationKey.forServiceInstance(request.getServiceInstanceId());
+		String operation = this.executor.getServiceOperation(key, request.getOperation());
+		if (operation == null || operation.equals(request.getOperation())) {
+			return this.service.getLastOperation(request);
+		}
+		return this.service.getLastOperation(GetLastServiceOperationRequest.builder()
+				.serviceInstanceId(request.getServiceInstanceId())
+				.serviceDefinitionId(request.getServiceDefinitionId())
+				.planId(request.getPlanId())
+				.operation(operation)
+				.platformInstanceId(request.getPlatformInstanceId())
+				.apiInfoLocation(request.getApiInfoLocation())
+				.originatingIdentity(request.getOriginatingIdentity())
+				.requestIdentity(request.getRequestIdentity())
+				.build())
+				.doOnSuccess(response -> {
+					if (response != null && response.getState() != OperationState.IN_PROGRESS) {
+						this.executor.release(key, request.getOperation());
+					}
+				})
+				.doOnError(ServiceInstanceDoesNotExistException.class,
+						e -> this.executor.release(key, request.getOperation()));
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
+		return this.executor.execute(request.isAsyncAccepted(),
+				operation(request.getServiceInstanceId(), request.getServiceDefinitionId(), request.getPlanId(), true),
+				this.service.deleteServiceInstance(request),
+				token -> DeleteServiceInstanceResponse.builder()
+						.async(true)
+						.operation(token)
+						.build(),
+				null);
+	}
+
+	@Override
+	public Mono<UpdateServiceInstanceResponse> updateServiceInstance(UpdateServiceInstanceRequest request) {
+		return this.executor.execute(request.isAsyncAccepted(),
+				operation(request.getServiceInstanceId(), request.getServiceDefinitionId(), request.getPlanId(), false),
+				this.service.updateServiceInstance(request),
+				token -> UpdateServiceInstanceResponse.builder()
+						.async(true)
+						.operation(token)
+						.build(),
+				null);
+	}
+
+	private static TrackedOperation operation(String serviceInstanceId, String serviceDefinitionId, String planId,
+			boolean deleteOperation) {
+		return TrackedOperation.builder()
+				.key(OperationKey.forServiceInstance(serviceInstanceId))
+				.serviceDefinitionId(serviceDefinitionId)
+				.planId(planId)
+				.deleteOperation(deleteOperation)
+				.build();
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.coalescing;
+
+import java.util.Arrays;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+
+/**
+ * Internal implementation of {@link ServiceInstanceBindingService} that coalesces concurrent identical service
+ * instance binding reads in a {@link RequestCoalescer}. Reads of a service instance binding are identical when they
+ * have the same service instance and binding IDs, and reads of the last operation of a service instance binding are
+ * identical when they also have the same operation token.
+ *
+ * @author agent
+ */
+public class CoalescingServiceInstanceBindingService implements ServiceInstanceBindingService {
+
+	private static final String SERVICE_INSTANCE_BINDING = "service-instance-binding";
+
+	private static final String LAST_OPERATION = "service-instance-binding-last-operation";
+
+	private final ServiceInstanceBindingService service;
+
+	private final RequestCoalescer coalescer;
+
+	/**
+	 * Construct a new {@link CoalescingServiceInstanceBindingService}
+	 *
+	 * @param service the service instance binding service
+	 * @param coalescer the coalescer of the reads
+	 */
+	public CoalescingServiceInstanceBindingService(ServiceInstanceBindingService service,
+			RequestCoalescer coalescer) {
+		this.service = service;
+		this.coalescer = coalescer;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceBindingResponse> createServiceInstanceBinding(
+			CreateServiceInstanceBindingRequest request) {
+		return this.service.createServiceInstanceBinding(request);
+	}
+
+	@Override
+	public Mono<GetServiceInstanceBindingResponse> getServiceInstanceBinding(
+			GetServiceInstanceBindingRequest request) {
+		return this.coalescer.coalesce(
+				Arrays.asList(SERVICE_INSTANCE_BINDING, request.getServiceInstanceId(), request.getBindingId()),
+				() -> this.service.getServiceInstanceBinding(request));
+	}
+
+	@Override
+	public Mono<GetLastServiceBindingOperationResponse> getLastOperation(
+			GetLastServiceBindingOperationRequest request) {
+		return this.coalescer.coalesce(Arrays.asList(LAST_OPERATION, request.getServiceInstanceId(),
+				request.getBindingId(), request.getOperation()),
+				() -> this.service.getLastOperation(request));
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceBindingResponse> deleteServiceInstanceBinding(
+			DeleteServiceInstanceBindingRequest request) {
+		return this.service.deleteServiceInstanceBinding(request);
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.coalescing;
+
+import java.util.Arrays;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+
+/**
+ * Internal implementation of {@link ServiceInstanceService} that coalesces concurrent identical service instance
+ * reads in a {@link RequestCoalescer}. Reads of a service instance are identical when they have the same service
+ * instance ID, and reads of the last operation of a service instance are identical when they also have the same
+ * operation token.
+ *
+ * @author agent
+ */
+public class CoalescingServiceInstanceService implements ServiceInstanceService {
+
+	private static final String SERVICE_INSTANCE = "service-instance";
+
+	private static final String LAST_OPERATION = "service-instance-last-operation";
+
+	private final ServiceInstanceService service;
+
+	private final RequestCoalescer coalescer;
+
+	/**
+	 * Construct a new {@link CoalescingServiceInstanceService}
+	 *
+	 * @param service the service instance service
+	 * @param coalescer the coalescer of the reads
+	 */
+	public CoalescingServiceInstanceService(ServiceInstanceService service, RequestCoalescer coalescer) {
+		this.service = service;
+		this.coalescer = coalescer;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
+		return this.service.createServiceInstance(request);
+	}
+
+	@Override
+	public Mono<GetServiceInstanceResponse> getServiceInstance(GetServiceInstanceRequest request) {
+		return this.coalescer.coalesce(Arrays.asList(SERVICE_INSTANCE, request.getServiceInstanceId()),
+				() -> this.service.getServiceInstance(request));
+	}
+
+	@Override
+	public Mono<GetLastServiceOperationResponse> getLastOperation(GetLastServiceOperationRequest request) {
+		return this.coalescer.coalesce(
+				Arrays.asList(LAST_OPERATION, request.getServiceInstanceId(), request.getOperation()),
+				() -> this.service.getLastOperation(request));
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
+		return this.service.deleteServiceInstance(request);
+	}
+
+	@Override
+	public Mono<UpdateServiceInstanceResponse> updateServiceInstance(UpdateServiceInstanceRequest request) {
+		return this.service.updateServiceInstance(request);
+	}
+
+}
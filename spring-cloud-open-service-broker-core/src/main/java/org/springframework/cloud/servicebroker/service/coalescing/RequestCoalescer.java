@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.coalescing;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.util.Assert;
+
+/**
+ * Coalesces concurrent identical reads into a single flight. The first read of a key is executed and shared, as a
+ * cached {@link Mono}, with every read of the same key that arrives until the shared read completes. When a result
+ * time to live is set, a successful result is also shared with the reads of the key that arrive within the time to
+ * live after the read completed. Errors are never shared beyond the reads that were in flight.
+ *
+ * @author agent
+ */
+public class RequestCoalescer {
+
+	private final ConcurrentMap<Object, Mono<?>> reads = new ConcurrentHashMap<>();
+
+	private final Duration resultTimeToLive;
+
+	private final LongAdder requestCount = new LongAdder();
+
+	private final LongAdder executionCount = new LongAdder();
+
+	/**
+	 * Construct a new {@link RequestCoalescer} that shares reads only while they are in flight
+	 */
+	public RequestCoalescer() {
+		this(Duration.ZERO);
+	}
+
+	/**
+	 * Construct a new {@link RequestCoalescer}
+	 *
+	 * @param resultTimeToLive the time a successful result is shared after the read completed, or
+	 * 		{@link Duration#ZERO} to share reads only while they are in flight
+	 */
+	public RequestCoalescer(Duration resultTimeToLive) {
+		Assert.isTrue(!resultTimeToLive.isNegative(), "resultTimeToLive must not be negative");
+		this.resultTimeToLive = resultTimeToLive;
+	}
+
+	/**
+	 * Coalesce a read with the identical reads in flight
+	 *
+	 * @param key identifies identical reads
+	 * @param read supplies the read, called only when no identical read is in flight
+	 * @param <T> the type of the result
+	 * @return the shared read
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Mono<T> coalesce(Object key, Supplier<Mono<T>> read) {
+		return Mono.defer(() -> {
+			this.requestCount.increment();
+			return (Mono<T>) this.reads.computeIfAbsent(key, k -> share(k, read));
+		});
+	}
+
+	/**
+	 * Get the number of reads requested
+	 *
+	 * @return the number of reads
+	 */
+	public long getRequestCount() {
+		return this.requestCount.sum();
+	}
+
+	/**
+	 * Get the number of reads executed
+	 *
+	 * @return the number of reads
+	 */
+	public long getExecutionCount() {
+		return this.executionCount.sum();
+	}
+
+	/**
+	 * Get the fraction of the requested reads that were answered by a shared read instead of being executed
+	 *
+	 * @return the coalescing ratio, between 0 and 1
+	 */
+	public double getCoalescingRatio() {
+		long requests = getRequestCount();
+		if (requests == 0) {
+			return 0;
+		}
+		return Math.max(0, requests - getExecutionCount()) / (double) requests;
+	}
+
+	/**
+	 * Get the number of reads in flight or holding a result
+	 *
+	 * @return the number of reads
+	 */
+	public int size() {
+		return this.reads.size();
+	}
+
+	private <T> Mono<T> share(Object key, Supplier<Mono<T>> read) {
+		AtomicReference<Mono<T>> shared = new AtomicReference<>();
+		Mono<T> execution = Mono.defer(() -> {
+			this.executionCount.increment();
+			return read.get();
+		});
+		shared.set(execution
+				.doOnSuccess(result -> completed(key, shared.get()))
+				.doOnError(e -> this.reads.remove(key, shared.get()))
+				.doOnCancel(() -> this.reads.remove(key, shared.get()))
+				.cache());
+		return shared.get();
+	}
+
+	private void completed(Object key, Mono<?> shared) {
+		if (!this.resultTimeToLive.isZero()) {
+			Mono.delay(this.resultTimeToLive)
+					.subscribe(tick -> this.reads.remove(key, shared));
+		}
+		else {
+			this.reads.remove(key, shared);
+		}
+	}
+
+}
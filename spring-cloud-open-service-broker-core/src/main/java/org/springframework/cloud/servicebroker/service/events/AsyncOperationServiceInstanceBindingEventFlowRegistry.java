@@ -56,24 +56,42 @@ public class AsyncOperationServiceInstanceBindingEventFlowRegistry
 		super(initializationFlows, completionFlows, errorFlows);
 	}
 
+	/**
+	 * Construct a new {@link AsyncOperationServiceInstanceBindingEventFlowRegistry}
+	 *
+	 * @param initializationFlows the initialization flows
+	 * @param completionFlows the completion flows
+	 * @param errorFlows the error flows
+	 * @param executionPolicy the policy the flows are run with
+	 */
+	public AsyncOperationServiceInstanceBindingEventFlowRegistry(
+			final List<AsyncOperationServiceInstanceBindingInitializationFlow> initializationFlows,
+			final List<AsyncOperationServiceInstanceBindingCompletionFlow> completionFlows,
+			final List<AsyncOperationServiceInstanceBindingErrorFlow> errorFlows,
+			final EventFlowExecutionPolicy executionPolicy) {
+		super(initializationFlows, completionFlows, errorFlows, executionPolicy);
+	}
+
 	@Override
 	public Flux<Void> getInitializationFlows(GetLastServiceBindingOperationRequest request) {
-		return getInitializationFlowsInternal()
-				.flatMap(flow -> flow.initialize(request));
+		return dispatch(getInitializationFlowsInternal(), flow -> flow.initialize(request));
 	}
 
 	@Override
 	public Flux<Void> getCompletionFlows(
 			GetLastServiceBindingOperationRequest request, GetLastServiceBindingOperationResponse response) {
 
-		return getCompletionFlowsInternal()
-				.flatMap(flow -> flow.complete(request, response));
+		return dispatch(getCompletionFlowsInternal(), flow -> flow.complete(request, response));
 	}
 
 	@Override
 	public Flux<Void> getErrorFlows(GetLastServiceBindingOperationRequest request, Throwable t) {
-		return getErrorFlowsInternal()
-				.flatMap(flow -> flow.error(request, t));
+		return dispatch(getErrorFlowsInternal(), flow -> flow.error(request, t));
+	}
+
+	@Override
+	boolean dispatchesRegisteredFlows() {
+		return getClass() == AsyncOperationServiceInstanceBindingEventFlowRegistry.class;
 	}
 
 }
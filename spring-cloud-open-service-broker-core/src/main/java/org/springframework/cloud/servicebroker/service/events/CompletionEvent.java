@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+/**
+ * A service broker response whose completion flows are run detached from the request, by a
+ * {@link DetachedCompletionQueue}
+ *
+ * @author agent
+ */
+public final class CompletionEvent {
+
+	private final String registry;
+
+	private final Object request;
+
+	private final Object response;
+
+	private final long timestamp;
+
+	/**
+	 * Construct a new {@link CompletionEvent}
+	 *
+	 * @param registry the class name of the event flow registry the completion flows are registered with
+	 * @param request the service broker request
+	 * @param response the service broker response
+	 * @param timestamp the time the response was received, in milliseconds since the epoch
+	 */
+	public CompletionEvent(String registry, Object request, Object response, long timestamp) {
+		this.registry = registry;
+		this.request = request;
+		this.response = response;
+		this.timestamp = timestamp;
+	}
+
+	public String getRegistry() {
+		return this.registry;
+	}
+
+	public Object getRequest() {
+		return this.request;
+	}
+
+	public Object getResponse() {
+		return this.response;
+	}
+
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return "CompletionEvent{" +
+				"registry='" + registry + '\'' +
+				", request=" + request +
+				", response=" + response +
+				", timestamp=" + timestamp +
+				'}';
+	}
+
+}
@@ -0,0 +1,544 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.util.Assert;
+
+/**
+ * An append-only journal of completion events, written to memory-mapped segment files in a directory. It is the
+ * outbox of a {@link DetachedCompletionQueue}: a response is returned only after its event is durable in the journal,
+ * and the events that were not delivered before a crash are replayed when the journal is opened again.
+ *
+ * <p>
+ * Each record is a length, a CRC32 checksum and the payload. Appending copies the record into the mapped segment and
+ * registers the caller to be notified when it is durable. A single commit thread forces all appends waiting for it to
+ * disk at once, so concurrent requests share one fsync. While other requests are appending, it first waits up to the
+ * commit interval for their appends; a lone append is forced at once. Appends are not held up while the commit thread
+ * forces the segments, and the commit thread maps the next segment ahead of time, so that an append never creates a
+ * segment file itself. Segments that are full are released once they have been forced, and are unmapped when they are
+ * garbage collected.
+ *
+ * <p>
+ * Appended records stay pending until they are {@link #acknowledge(long) acknowledged}. The {@link #checkpoint()}
+ * records the position of the first pending record, and the segments before it are deleted. Records after the
+ * checkpoint are replayed on the next start, so delivery is at least once.
+ *
+ * @author agent
+ */
+public class CompletionEventJournal implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CompletionEventJournal.class);
+
+	private static final int HEADER_SIZE = 8;
+
+	private static final String SEGMENT_PREFIX = "completion-journal-";
+
+	private static final String SEGMENT_SUFFIX = ".log";
+
+	private static final String CHECKPOINT = "checkpoint";
+
+	private final Path directory;
+
+	private final int segmentSize;
+
+	private final Duration commitInterval;
+
+	private final Object appendMonitor = new Object();
+
+	private final Object lifecycleMonitor = new Object();
+
+	private final NavigableSet<Long> pending = new TreeSet<>();
+
+	private final Map<Long, byte[]> recovered = new TreeMap<>();
+
+	private final BlockingQueue<Commit> commits = new LinkedBlockingQueue<>();
+
+	private final List<MappedByteBuffer> unforced = new ArrayList<>();
+
+	private final AtomicInteger appending = new AtomicInteger();
+
+	private MappedByteBuffer segment;
+
+	private MappedByteBuffer nextSegment;
+
+	private long segmentIndex;
+
+	private int writeOffset;
+
+	private long checkpointPosition;
+
+	private Scheduler commitScheduler;
+
+	private CountDownLatch committed;
+
+	private boolean open;
+
+	/**
+	 * Construct a new {@link CompletionEventJournal}
+	 *
+	 * @param directory the directory of the segment and checkpoint files
+	 * @param segmentSize the size of each segment file in bytes, which bounds the size of a record
+	 * @param commitInterval how long the commit thread waits for further appends, while other requests are appending,
+	 * before forcing them to disk
+	 */
+	public CompletionEventJournal(Path directory, int segmentSize, Duration commitInterval) {
+		Assert.notNull(directory, "directory must not be null");
+		Assert.isTrue(segmentSize > HEADER_SIZE, "segmentSize must be greater than " + HEADER_SIZE);
+		Assert.isTrue(commitInterval != null && !commitInterval.isNegative(), "commitInterval must not be negative");
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.commitInterval = commitInterval;
+	}
+
+	/**
+	 * Open the journal, recovering the records after the checkpoint, and start the commit thread
+	 *
+	 * @throws IOException if the journal cannot be read or created
+	 */
+	public void open() throws IOException {
+		synchronized (this.lifecycleMonitor) {
+			if (this.open) {
+				return;
+			}
+			Files.createDirectories(this.directory);
+			recover();
+			this.open = true;
+			CountDownLatch latch = new CountDownLatch(1);
+			this.committed = latch;
+			this.commitScheduler = Schedulers.newBoundedElastic(1, 1, "completion-journal", 60, true);
+			this.commitScheduler.schedule(() -> {
+				try {
+					commit();
+				}
+				finally {
+					latch.countDown();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Append a record, completing when the record is durable
+	 *
+	 * @param payload the payload of the record
+	 * @return a Mono that emits the position of the record once it has been forced to disk
+	 */
+	public Mono<Long> append(byte[] payload) {
+		return Mono.create(sink -> {
+			this.appending.incrementAndGet();
+			try {
+				long position;
+				synchronized (this.appendMonitor) {
+					Assert.state(this.segment != null, "The journal is not open");
+					position = write(payload);
+					this.pending.add(position);
+				}
+				this.commits.add(new Commit(position, sink));
+			}
+			finally {
+				this.appending.decrementAndGet();
+			}
+		});
+	}
+
+	/**
+	 * Replay the records recovered when the journal was opened, in the order they were appended. Recovered records
+	 * are pending until they are acknowledged.
+	 *
+	 * @param consumer receives the position and the payload of each record
+	 */
+	public void replay(BiConsumer<Long, byte[]> consumer) {
+		Map<Long, byte[]> records;
+		synchronized (this.appendMonitor) {
+			records = new TreeMap<>(this.recovered);
+			this.recovered.clear();
+		}
+		records.forEach(consumer);
+	}
+
+	/**
+	 * Mark a record as delivered
+	 *
+	 * @param position the position of the record
+	 */
+	public void acknowledge(long position) {
+		synchronized (this.appendMonitor) {
+			this.pending.remove(position);
+		}
+	}
+
+	/**
+	 * Record the position of the first pending record, and delete the segments that only hold delivered records
+	 *
+	 * @throws IOException if the checkpoint cannot be written
+	 */
+	public void checkpoint() throws IOException {
+		long position;
+		long currentSegment;
+		synchronized (this.appendMonitor) {
+			if (this.segment == null) {
+				return;
+			}
+			position = this.pending.isEmpty() ? position(this.segmentIndex, this.writeOffset) : this.pending.first();
+			currentSegment = this.segmentIndex;
+		}
+		if (position == this.checkpointPosition) {
+			return;
+		}
+		Path temporary = this.directory.resolve(CHECKPOINT + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, position);
+			channel.write(buffer);
+			channel.force(true);
+		}
+		Files.move(temporary, this.directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		this.checkpointPosition = position;
+		long firstLiveSegment = Math.min(position / this.segmentSize, currentSegment);
+		for (long index : segmentIndexes()) {
+			if (index < firstLiveSegment) {
+				Files.deleteIfExists(segmentFile(index));
+			}
+		}
+	}
+
+	/**
+	 * Get the number of records that have not been acknowledged
+	 *
+	 * @return the number of pending records
+	 */
+	public int getPendingCount() {
+		synchronized (this.appendMonitor) {
+			return this.pending.size();
+		}
+	}
+
+	/**
+	 * Stop the commit thread, after forcing the records appended so far to disk
+	 */
+	@Override
+	@SuppressWarnings("PMD.NullAssignment")
+	public void close() {
+		synchronized (this.lifecycleMonitor) {
+			if (!this.open) {
+				return;
+			}
+			this.open = false;
+			this.commits.add(Commit.CLOSE);
+			try {
+				this.committed.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.commitScheduler.dispose();
+			this.commitScheduler = null;
+			this.committed = null;
+			synchronized (this.appendMonitor) {
+				force(new ArrayList<>(this.unforced), this.segment);
+				this.unforced.clear();
+				if (this.nextSegment != null) {
+					deleteSegment(this.segmentIndex + 1);
+				}
+				this.segment = null;
+				this.nextSegment = null;
+			}
+		}
+	}
+
+	private long write(byte[] payload) {
+		int size = HEADER_SIZE + payload.length;
+		Assert.isTrue(size <= this.segmentSize, "A record of " + payload.length + " bytes does not fit in a segment");
+		if (this.writeOffset + size > this.segmentSize) {
+			this.unforced.add(this.segment);
+			if (this.nextSegment != null) {
+				this.segment = this.nextSegment;
+				this.nextSegment = null;
+			}
+			else {
+				// the commit thread has not mapped the next segment yet
+				try {
+					this.segment = map(this.segmentIndex + 1);
+				}
+				catch (IOException e) {
+					throw new IllegalStateException("Unable to create journal segment " + (this.segmentIndex + 1), e);
+				}
+			}
+			this.segmentIndex++;
+			this.writeOffset = 0;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(payload, 0, payload.length);
+		ByteBuffer buffer = this.segment.duplicate();
+		buffer.position(this.writeOffset + 4);
+		buffer.putInt((int) crc.getValue());
+		buffer.put(payload);
+		// the length is written last, so that a record is never visible before its payload
+		this.segment.putInt(this.writeOffset, payload.length);
+		long position = position(this.segmentIndex, this.writeOffset);
+		this.writeOffset += size;
+		return position;
+	}
+
+	private void commit() {
+		List<Commit> batch = new ArrayList<>();
+		boolean running = true;
+		while (running) {
+			preallocate();
+			try {
+				batch.add(this.commits.take());
+				this.commits.drainTo(batch);
+				if (!this.commitInterval.isZero() && (batch.size() > 1 || this.appending.get() > 0)) {
+					// other requests are appending, wait for further appends so that they share the fsync
+					TimeUnit.NANOSECONDS.sleep(this.commitInterval.toNanos());
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				running = false;
+			}
+			this.commits.drainTo(batch);
+			if (batch.remove(Commit.CLOSE)) {
+				running = false;
+			}
+			complete(batch);
+			batch.clear();
+		}
+	}
+
+	@SuppressWarnings("PMD.AvoidCatchingGenericException")
+	private void complete(List<Commit> batch) {
+		// every commit in the batch was written before it was queued, so it is in one of the segments taken here
+		List<MappedByteBuffer> full;
+		MappedByteBuffer current;
+		synchronized (this.appendMonitor) {
+			full = new ArrayList<>(this.unforced);
+			this.unforced.clear();
+			current = this.segment;
+		}
+		try {
+			force(full, current);
+		}
+		catch (RuntimeException e) {
+			LOG.error("Unable to force completion journal to disk. error=" + e.getMessage(), e);
+			synchronized (this.appendMonitor) {
+				this.unforced.addAll(0, full);
+			}
+			batch.forEach(commit -> commit.error(e));
+			return;
+		}
+		batch.forEach(Commit::success);
+	}
+
+	private void preallocate() {
+		long index;
+		synchronized (this.appendMonitor) {
+			if (this.nextSegment != null || this.segment == null) {
+				return;
+			}
+			index = this.segmentIndex + 1;
+		}
+		MappedByteBuffer mapped;
+		try {
+			mapped = map(index);
+		}
+		catch (IOException e) {
+			LOG.warn("Unable to create journal segment " + index + " ahead of time. error=" + e.getMessage());
+			return;
+		}
+		synchronized (this.appendMonitor) {
+			// unless an append filled the current segment and mapped the next segment itself in the meantime
+			if (this.nextSegment == null && this.segmentIndex + 1 == index) {
+				this.nextSegment = mapped;
+			}
+		}
+	}
+
+	private static void force(List<MappedByteBuffer> full, MappedByteBuffer current) {
+		full.forEach(MappedByteBuffer::force);
+		if (current != null) {
+			current.force();
+		}
+	}
+
+	private void recover() throws IOException {
+		Path checkpointFile = this.directory.resolve(CHECKPOINT);
+		List<Long> indexes = segmentIndexes();
+		long checkpoint = 0;
+		if (Files.exists(checkpointFile)) {
+			checkpoint = ByteBuffer.wrap(Files.readAllBytes(checkpointFile)).getLong();
+		}
+		else if (!indexes.isEmpty()) {
+			checkpoint = position(indexes.get(0), 0);
+		}
+		this.checkpointPosition = checkpoint;
+		long lastIndex = checkpoint / this.segmentSize;
+		if (!indexes.isEmpty()) {
+			lastIndex = Math.max(lastIndex, indexes.get(indexes.size() - 1));
+		}
+		synchronized (this.appendMonitor) {
+			for (long index : indexes) {
+				if (index < checkpoint / this.segmentSize) {
+					continue;
+				}
+				MappedByteBuffer mapped = map(index);
+				int offset = (index == checkpoint / this.segmentSize) ? (int) (checkpoint % this.segmentSize) : 0;
+				offset = readRecords(index, mapped, offset);
+				if (index == lastIndex) {
+					this.segment = mapped;
+					this.segmentIndex = index;
+					this.writeOffset = offset;
+				}
+				else {
+					mapped.force();
+				}
+			}
+			if (this.segment == null) {
+				this.segment = map(lastIndex);
+				this.segmentIndex = lastIndex;
+				this.writeOffset = (int) (checkpoint % this.segmentSize);
+			}
+		}
+		if (!this.recovered.isEmpty()) {
+			LOG.info("Recovered " + this.recovered.size() + " undelivered completion events from " + this.directory);
+		}
+	}
+
+	private int readRecords(long index, MappedByteBuffer mapped, int start) {
+		int offset = start;
+		CRC32 crc = new CRC32();
+		while (offset + HEADER_SIZE <= this.segmentSize) {
+			int length = mapped.getInt(offset);
+			if (length <= 0 || offset + HEADER_SIZE + length > this.segmentSize) {
+				break;
+			}
+			byte[] payload = new byte[length];
+			ByteBuffer buffer = mapped.duplicate();
+			buffer.position(offset + HEADER_SIZE);
+			buffer.get(payload);
+			crc.reset();
+			crc.update(payload, 0, length);
+			if ((int) crc.getValue() != mapped.getInt(offset + 4)) {
+				break;
+			}
+			long position = position(index, offset);
+			this.recovered.put(position, payload);
+			this.pending.add(position);
+			offset += HEADER_SIZE + length;
+		}
+		// clear a partially written record, so that records appended after it are read back
+		for (int i = offset; i < Math.min(offset + HEADER_SIZE, this.segmentSize); i++) {
+			mapped.put(i, (byte) 0);
+		}
+		return offset;
+	}
+
+	private MappedByteBuffer map(long index) throws IOException {
+		try (FileChannel channel = FileChannel.open(segmentFile(index), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentSize);
+		}
+	}
+
+	private void deleteSegment(long index) {
+		try {
+			Files.deleteIfExists(segmentFile(index));
+		}
+		catch (IOException e) {
+			LOG.warn("Unable to delete unused journal segment " + index + ". error=" + e.getMessage());
+		}
+	}
+
+	private List<Long> segmentIndexes() throws IOException {
+		List<Long> indexes = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory,
+				SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				indexes.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+						name.length() - SEGMENT_SUFFIX.length())));
+			}
+		}
+		indexes.sort(null);
+		return indexes;
+	}
+
+	private Path segmentFile(long index) {
+		return this.directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+	}
+
+	private long position(long index, int offset) {
+		return index * this.segmentSize + offset;
+	}
+
+	private static final class Commit {
+
+		private static final Commit CLOSE = new Commit(0, null);
+
+		private final long position;
+
+		private final MonoSink<Long> sink;
+
+		private Commit(long position, MonoSink<Long> sink) {
+			this.position = position;
+			this.sink = sink;
+		}
+
+		private void success() {
+			this.sink.success(this.position);
+		}
+
+		private void error(Throwable e) {
+			this.sink.error(e);
+		}
+
+	}
+
+}
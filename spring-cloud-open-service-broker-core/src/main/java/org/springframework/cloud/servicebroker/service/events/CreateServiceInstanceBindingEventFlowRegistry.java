@@ -58,23 +58,41 @@ public class CreateServiceInstanceBindingEventFlowRegistry
 		super(initializationFlows, completionFlows, errorFlows);
 	}
 
+	/**
+	 * Construct a new {@link CreateServiceInstanceBindingEventFlowRegistry}
+	 *
+	 * @param initializationFlows the initialization flows
+	 * @param completionFlows the completion flows
+	 * @param errorFlows the error flows
+	 * @param executionPolicy the policy the flows are run with
+	 */
+	public CreateServiceInstanceBindingEventFlowRegistry(
+			final List<CreateServiceInstanceBindingInitializationFlow> initializationFlows,
+			final List<CreateServiceInstanceBindingCompletionFlow> completionFlows,
+			final List<CreateServiceInstanceBindingErrorFlow> errorFlows,
+			final EventFlowExecutionPolicy executionPolicy) {
+		super(initializationFlows, completionFlows, errorFlows, executionPolicy);
+	}
+
 	@Override
 	public Flux<Void> getInitializationFlows(CreateServiceInstanceBindingRequest request) {
-		return getInitializationFlowsInternal()
-				.flatMap(flow -> flow.initialize(request));
+		return dispatch(getInitializationFlowsInternal(), flow -> flow.initialize(request));
 	}
 
 	@Override
 	public Flux<Void> getCompletionFlows(CreateServiceInstanceBindingRequest request,
 			CreateServiceInstanceBindingResponse response) {
-		return getCompletionFlowsInternal()
-				.flatMap(flow -> flow.complete(request, response));
+		return dispatch(getCompletionFlowsInternal(), flow -> flow.complete(request, response));
 	}
 
 	@Override
 	public Flux<Void> getErrorFlows(CreateServiceInstanceBindingRequest request, Throwable t) {
-		return getErrorFlowsInternal()
-				.flatMap(flow -> flow.error(request, t));
+		return dispatch(getErrorFlowsInternal(), flow -> flow.error(request, t));
+	}
+
+	@Override
+	boolean dispatchesRegisteredFlows() {
+		return getClass() == CreateServiceInstanceBindingEventFlowRegistry.class;
 	}
 
 }
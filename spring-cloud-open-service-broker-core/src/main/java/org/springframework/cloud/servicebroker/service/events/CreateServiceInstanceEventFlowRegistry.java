@@ -57,22 +57,40 @@ public class CreateServiceInstanceEventFlowRegistry extends EventFlowRegistry<Cr
 		super(initializationFlows, completionFlows, errorFlows);
 	}
 
+	/**
+	 * Construct a new {@link CreateServiceInstanceEventFlowRegistry}
+	 *
+	 * @param initializationFlows the initialization flows
+	 * @param completionFlows the completion flows
+	 * @param errorFlows the error flows
+	 * @param executionPolicy the policy the flows are run with
+	 */
+	public CreateServiceInstanceEventFlowRegistry(
+			final List<CreateServiceInstanceInitializationFlow> initializationFlows,
+			final List<CreateServiceInstanceCompletionFlow> completionFlows,
+			final List<CreateServiceInstanceErrorFlow> errorFlows,
+			final EventFlowExecutionPolicy executionPolicy) {
+		super(initializationFlows, completionFlows, errorFlows, executionPolicy);
+	}
+
 	@Override
 	public Flux<Void> getInitializationFlows(CreateServiceInstanceRequest request) {
-		return getInitializationFlowsInternal()
-				.flatMap(flow -> flow.initialize(request));
+		return dispatch(getInitializationFlowsInternal(), flow -> flow.initialize(request));
 	}
 
 	@Override
 	public Flux<Void> getCompletionFlows(CreateServiceInstanceRequest request, CreateServiceInstanceResponse response) {
-		return getCompletionFlowsInternal()
-				.flatMap(flow -> flow.complete(request, response));
+		return dispatch(getCompletionFlowsInternal(), flow -> flow.complete(request, response));
 	}
 
 	@Override
 	public Flux<Void> getErrorFlows(CreateServiceInstanceRequest request, Throwable t) {
-		return getErrorFlowsInternal()
-				.flatMap(flow -> flow.error(request, t));
+		return dispatch(getErrorFlowsInternal(), flow -> flow.error(request, t));
+	}
+
+	@Override
+	boolean dispatchesRegisteredFlows() {
+		return getClass() == CreateServiceInstanceEventFlowRegistry.class;
 	}
 
 }
@@ -58,23 +58,41 @@ public class DeleteServiceInstanceBindingEventFlowRegistry
 		super(initializationFlows, completionFlows, errorFlows);
 	}
 
+	/**
+	 * Construct a new {@link DeleteServiceInstanceBindingEventFlowRegistry}
+	 *
+	 * @param initializationFlows the initialization flows
+	 * @param completionFlows the completion flows
+	 * @param errorFlows the error flows
+	 * @param executionPolicy the policy the flows are run with
+	 */
+	public DeleteServiceInstanceBindingEventFlowRegistry(
+			final List<DeleteServiceInstanceBindingInitializationFlow> initializationFlows,
+			final List<DeleteServiceInstanceBindingCompletionFlow> completionFlows,
+			final List<DeleteServiceInstanceBindingErrorFlow> errorFlows,
+			final EventFlowExecutionPolicy executionPolicy) {
+		super(initializationFlows, completionFlows, errorFlows, executionPolicy);
+	}
+
 	@Override
 	public Flux<Void> getInitializationFlows(DeleteServiceInstanceBindingRequest request) {
-		return getInitializationFlowsInternal()
-				.flatMap(flow -> flow.initialize(request));
+		return dispatch(getInitializationFlowsInternal(), flow -> flow.initialize(request));
 	}
 
 	@Override
 	public Flux<Void> getCompletionFlows(DeleteServiceInstanceBindingRequest request,
 			DeleteServiceInstanceBindingResponse response) {
-		return getCompletionFlowsInternal()
-				.flatMap(flow -> flow.complete(request, response));
+		return dispatch(getCompletionFlowsInternal(), flow -> flow.complete(request, response));
 	}
 
 	@Override
 	public Flux<Void> getErrorFlows(DeleteServiceInstanceBindingRequest request, Throwable t) {
-		return getErrorFlowsInternal()
-				.flatMap(flow -> flow.error(request, t));
+		return dispatch(getErrorFlowsInternal(), flow -> flow.error(request, t));
+	}
+
+	@Override
+	boolean dispatchesRegisteredFlows() {
+		return getClass() == DeleteServiceInstanceBindingEventFlowRegistry.class;
 	}
 
 }
@@ -0,0 +1,808 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedField;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.servicebroker.service.events.flows.BatchCompletionFlow;
+import org.springframework.util.Assert;
+
+/**
+ * Runs completion flows detached from the requests they complete. The response of a request is returned to the client
+ * as soon as it is received, and a {@link CompletionEvent} is put on a bounded in-memory queue. A single thread of a
+ * dedicated scheduler drains the queue in batches: it runs the completion flows of each event with the execution
+ * policy of its registry, in the order the events were queued, and then passes the whole batch to each
+ * {@link BatchCompletionFlow}.
+ *
+ * <p>
+ * The {@link OverflowPolicy} decides what happens to an event when the queue is full. Submitted events that wait for
+ * room in the queue or are spilled are handled on the bounded elastic scheduler, so the thread that completes the
+ * request, typically an event loop thread, is never blocked by the overflow policy. Spilled events are appended to
+ * a file and replayed when the queue is idle, and also when the queue is started again after a restart. Spilled
+ * events are written with all fields of the request and the response, including those that are not part of the JSON
+ * representation on the wire, and may be replayed out of order relative to the events that were queued in memory.
+ *
+ * <p>
+ * With a {@link CompletionEventJournal}, the queue is a durable outbox: each event is appended to the journal before
+ * the response is returned, and acknowledged in the journal once its batch has been delivered. The events that were
+ * not delivered before a crash are replayed when the queue is started again. Events that are dropped because the
+ * queue is full are acknowledged in the journal like delivered events, so that they do not hold back its checkpoint.
+ *
+ * <p>
+ * Registries are registered with the queue when they are constructed with an {@link EventFlowExecutionPolicy} that
+ * refers to the queue. Call {@link #start()} once the registries have been constructed, and {@link #close()} to
+ * drain the queue and stop.
+ *
+ * @author agent
+ */
+public class DetachedCompletionQueue implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DetachedCompletionQueue.class);
+
+	private static final long POLL_INTERVAL_MILLIS = 100;
+
+	private static final String REPLAY_SUFFIX = ".replay";
+
+	private final BlockingQueue<CompletionEvent> queue;
+
+	private final int capacity;
+
+	private final int batchSize;
+
+	private final OverflowPolicy overflowPolicy;
+
+	private final Duration blockTimeout;
+
+	private final Duration closeTimeout;
+
+	private final Path spillFile;
+
+	private final ObjectMapper spillMapper;
+
+	private final List<BatchCompletionFlow> batchFlows;
+
+	private final CompletionEventJournal journal;
+
+	private final Map<CompletionEvent, Long> journalPositions = new ConcurrentHashMap<>();
+
+	private final Map<String, EventFlowRegistry<?, ?, ?, ?, ?>> registries = new ConcurrentHashMap<>();
+
+	private final Object spillLock = new Object();
+
+	private final AtomicLong spillDepth = new AtomicLong();
+
+	private final AtomicLong enqueuedCount = new AtomicLong();
+
+	private final AtomicLong completedCount = new AtomicLong();
+
+	private final AtomicLong failedCount = new AtomicLong();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private final AtomicLong spilledCount = new AtomicLong();
+
+	private final Object lifecycleMonitor = new Object();
+
+	@SuppressWarnings("PMD.AvoidUsingVolatile")
+	private volatile boolean running;
+
+	private Scheduler drainScheduler;
+
+	private CountDownLatch drained;
+
+	private DetachedCompletionQueue(int capacity, int batchSize, OverflowPolicy overflowPolicy, Duration blockTimeout,
+			Duration closeTimeout, Path spillFile, ObjectMapper objectMapper, List<BatchCompletionFlow> batchFlows,
+			CompletionEventJournal journal) {
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.overflowPolicy = overflowPolicy;
+		this.blockTimeout = blockTimeout;
+		this.closeTimeout = closeTimeout;
+		this.spillFile = spillFile;
+		this.spillMapper = spillMapper(objectMapper);
+		this.batchFlows = batchFlows;
+		this.journal = journal;
+	}
+
+	/**
+	 * Create a builder that provides a fluent API for constructing a {@literal DetachedCompletionQueue}.
+	 *
+	 * @return the builder
+	 */
+	public static DetachedCompletionQueueBuilder builder() {
+		return new DetachedCompletionQueueBuilder();
+	}
+
+	/**
+	 * Register a registry whose completion flows are run by this queue. Events are matched to registries by the class
+	 * name of the registry.
+	 *
+	 * @param registry the registry
+	 */
+	public void register(EventFlowRegistry<?, ?, ?, ?, ?> registry) {
+		this.registries.put(registry.getClass().getName(), registry);
+	}
+
+	/**
+	 * Submit a completion event. With a journal, the event is appended to the journal before it is queued, and the
+	 * returned Mono completes once the event is durable. If the event cannot be journaled, it is only queued. When the
+	 * queue is full, the overflow policy is applied on the bounded elastic scheduler and the returned Mono completes
+	 * once the event has been queued, spilled, or dropped.
+	 *
+	 * @param event the completion event
+	 * @return an empty Mono that completes when the event has been accepted
+	 */
+	public Mono<Void> submit(CompletionEvent event) {
+		if (this.journal == null) {
+			return accept(event);
+		}
+		return Mono.fromCallable(() -> this.spillMapper.writeValueAsBytes(toNode(event)))
+				.flatMap(this.journal::append)
+				.doOnNext(position -> this.journalPositions.put(event, position))
+				.then()
+				.onErrorResume(e -> {
+					LOG.error("Unable to append completion event to the journal. error=" + e.getMessage(), e);
+					return Mono.empty();
+				})
+				.then(accept(event));
+	}
+
+	/**
+	 * Queue a completion event, applying the overflow policy if the queue is full. The overflow policy is applied on
+	 * the calling thread, which may block for up to the block timeout, or while the event is spilled.
+	 *
+	 * @param event the completion event
+	 * @return {@literal true} if the event was queued or spilled, {@literal false} if it was dropped
+	 */
+	public boolean enqueue(CompletionEvent event) {
+		return offerNow(event) || overflow(event);
+	}
+
+	boolean hasBatchFlows() {
+		return !this.batchFlows.isEmpty();
+	}
+
+	private Mono<Void> accept(CompletionEvent event) {
+		return Mono.defer(() -> {
+			if (offerNow(event)) {
+				return Mono.empty();
+			}
+			if (this.overflowPolicy == OverflowPolicy.DROP) {
+				drop(event);
+				return Mono.empty();
+			}
+			return Mono.fromRunnable(() -> overflow(event))
+					.subscribeOn(Schedulers.boundedElastic())
+					.onErrorResume(e -> {
+						drop(event);
+						return Mono.empty();
+					})
+					.then();
+		});
+	}
+
+	private boolean offerNow(CompletionEvent event) {
+		if (this.queue.offer(event)) {
+			this.enqueuedCount.incrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	private boolean overflow(CompletionEvent event) {
+		if (this.overflowPolicy == OverflowPolicy.BLOCK && offer(event)) {
+			this.enqueuedCount.incrementAndGet();
+			return true;
+		}
+		if (this.overflowPolicy == OverflowPolicy.SPILL && spill(event)) {
+			return true;
+		}
+		drop(event);
+		return false;
+	}
+
+	private void drop(CompletionEvent event) {
+		release(event);
+		this.droppedCount.incrementAndGet();
+		LOG.warn("Completion event queue is full, dropped completion event for " + event.getRegistry());
+	}
+
+	private void release(CompletionEvent event) {
+		Long position = this.journalPositions.remove(event);
+		if (position != null) {
+			this.journal.acknowledge(position);
+		}
+	}
+
+	/**
+	 * Start draining the queue on a dedicated thread. Events journaled but not delivered, and events spilled, by a
+	 * previous run are replayed.
+	 *
+	 * @throws IOException if the journal or the spill file cannot be read
+	 */
+	public void start() throws IOException {
+		synchronized (this.lifecycleMonitor) {
+			if (this.running) {
+				return;
+			}
+			if (this.journal != null) {
+				this.journal.open();
+			}
+			if (this.spillFile != null) {
+				this.spillDepth.set(countLines(this.spillFile) + countLines(replayFile()));
+			}
+			this.running = true;
+			CountDownLatch latch = new CountDownLatch(1);
+			this.drained = latch;
+			this.drainScheduler = Schedulers.newBoundedElastic(1, 1, "detached-completion-flows", 60, true);
+			this.drainScheduler.schedule(() -> {
+				try {
+					drain();
+				}
+				finally {
+					latch.countDown();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Stop draining the queue. Events already in memory are drained for up to the close timeout; spilled events are
+	 * kept in the spill file.
+	 */
+	@Override
+	@SuppressWarnings("PMD.NullAssignment")
+	public void close() {
+		synchronized (this.lifecycleMonitor) {
+			if (!this.running) {
+				return;
+			}
+			this.running = false;
+			try {
+				if (!this.drained.await(this.closeTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+					LOG.warn("Completion event queue was not drained within " + this.closeTimeout + ", " +
+							this.queue.size() + " events were discarded");
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.drainScheduler.dispose();
+			this.drainScheduler = null;
+			this.drained = null;
+			if (this.journal != null) {
+				this.journal.close();
+			}
+		}
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Get the number of events waiting in memory
+	 *
+	 * @return the queue depth
+	 */
+	public int getQueueDepth() {
+		return this.queue.size();
+	}
+
+	/**
+	 * Get the number of events waiting in the spill file
+	 *
+	 * @return the spill depth
+	 */
+	public long getSpillDepth() {
+		return this.spillDepth.get();
+	}
+
+	/**
+	 * Get the number of journaled events that have not been delivered
+	 *
+	 * @return the journal depth, or 0 without a journal
+	 */
+	public long getJournalDepth() {
+		return (this.journal != null) ? this.journal.getPendingCount() : 0;
+	}
+
+	public long getEnqueuedCount() {
+		return this.enqueuedCount.get();
+	}
+
+	public long getCompletedCount() {
+		return this.completedCount.get();
+	}
+
+	public long getFailedCount() {
+		return this.failedCount.get();
+	}
+
+	public long getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
+	public long getSpilledCount() {
+		return this.spilledCount.get();
+	}
+
+	private boolean offer(CompletionEvent event) {
+		try {
+			return this.queue.offer(event, this.blockTimeout.toNanos(), TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void drain() {
+		List<CompletionEvent> batch = new ArrayList<>(this.batchSize);
+		replayJournal();
+		replaySpilled();
+		while (this.running || !this.queue.isEmpty()) {
+			CompletionEvent event;
+			try {
+				event = this.queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if (event == null) {
+				replaySpilled();
+				continue;
+			}
+			batch.add(event);
+			this.queue.drainTo(batch, this.batchSize - 1);
+			process(batch);
+			batch.clear();
+		}
+	}
+
+	private void process(List<CompletionEvent> events) {
+		List<CompletionEvent> batch = Collections.unmodifiableList(new ArrayList<>(events));
+		Flux.fromIterable(batch)
+				.concatMap(this::complete)
+				.thenMany(Flux.fromIterable(this.batchFlows)
+						.concatMap(flow -> Mono.defer(() -> flow.complete(batch))
+								.onErrorResume(e -> {
+									LOG.error("Error running batch completion flow. error=" + e.getMessage(), e);
+									return Mono.empty();
+								})))
+				.blockLast();
+		if (this.journal != null) {
+			acknowledge(batch);
+		}
+	}
+
+	private void acknowledge(List<CompletionEvent> batch) {
+		batch.forEach(this::release);
+		try {
+			this.journal.checkpoint();
+		}
+		catch (IOException e) {
+			LOG.error("Unable to checkpoint the completion journal. error=" + e.getMessage(), e);
+		}
+	}
+
+	private void replayJournal() {
+		if (this.journal == null) {
+			return;
+		}
+		List<CompletionEvent> batch = new ArrayList<>(this.batchSize);
+		this.journal.replay((position, payload) -> {
+			CompletionEvent event = fromNode(new String(payload, StandardCharsets.UTF_8));
+			if (event == null) {
+				this.journal.acknowledge(position);
+				return;
+			}
+			this.journalPositions.put(event, position);
+			batch.add(event);
+			if (batch.size() == this.batchSize) {
+				process(batch);
+				batch.clear();
+			}
+		});
+		if (!batch.isEmpty()) {
+			process(batch);
+		}
+	}
+
+	private Mono<Void> complete(CompletionEvent event) {
+		EventFlowRegistry<?, ?, ?, ?, ?> registry = this.registries.get(event.getRegistry());
+		if (registry == null) {
+			this.failedCount.incrementAndGet();
+			LOG.error("No event flow registry " + event.getRegistry() + " is registered, dropped completion event");
+			return Mono.empty();
+		}
+		return Mono.defer(() -> registry.completeDetached(event.getRequest(), event.getResponse()).then())
+				.doOnSuccess(v -> this.completedCount.incrementAndGet())
+				.onErrorResume(e -> {
+					this.failedCount.incrementAndGet();
+					LOG.error("Error running detached completion flows. error=" + e.getMessage(), e);
+					return Mono.empty();
+				});
+	}
+
+	private boolean spill(CompletionEvent event) {
+		if (this.spillFile == null) {
+			return false;
+		}
+		String line;
+		try {
+			line = this.spillMapper.writeValueAsString(toNode(event));
+		}
+		catch (IOException e) {
+			LOG.error("Unable to serialize completion event. error=" + e.getMessage(), e);
+			return false;
+		}
+		synchronized (this.spillLock) {
+			try (Writer writer = Files.newBufferedWriter(this.spillFile, StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+				writer.write(line);
+				writer.write('\n');
+			}
+			catch (IOException e) {
+				LOG.error("Unable to write completion event to the spill file. error=" + e.getMessage(), e);
+				return false;
+			}
+			this.spillDepth.incrementAndGet();
+		}
+		this.spilledCount.incrementAndGet();
+		return true;
+	}
+
+	private void replaySpilled() {
+		if (this.spillFile == null || this.spillDepth.get() == 0) {
+			return;
+		}
+		Path replay = replayFile();
+		try {
+			synchronized (this.spillLock) {
+				if (!Files.exists(replay) && Files.exists(this.spillFile)) {
+					Files.move(this.spillFile, replay, StandardCopyOption.ATOMIC_MOVE);
+				}
+			}
+			if (Files.exists(replay)) {
+				replay(replay);
+				Files.delete(replay);
+			}
+		}
+		catch (IOException e) {
+			LOG.error("Unable to replay spilled completion events. error=" + e.getMessage(), e);
+		}
+	}
+
+	private void replay(Path replay) throws IOException {
+		List<CompletionEvent> batch = new ArrayList<>(this.batchSize);
+		try (BufferedReader reader = Files.newBufferedReader(replay, StandardCharsets.UTF_8)) {
+			String line = reader.readLine();
+			while (line != null) {
+				this.spillDepth.decrementAndGet();
+				CompletionEvent event = fromNode(line);
+				if (event != null) {
+					batch.add(event);
+				}
+				if (batch.size() == this.batchSize) {
+					process(batch);
+					batch.clear();
+				}
+				line = reader.readLine();
+			}
+		}
+		if (!batch.isEmpty()) {
+			process(batch);
+		}
+	}
+
+	private ObjectNode toNode(CompletionEvent event) {
+		ObjectNode node = this.spillMapper.createObjectNode();
+		node.put("registry", event.getRegistry());
+		node.put("timestamp", event.getTimestamp());
+		node.put("requestType", event.getRequest().getClass().getName());
+		node.set("request", this.spillMapper.valueToTree(event.getRequest()));
+		node.put("responseType", event.getResponse().getClass().getName());
+		node.set("response", this.spillMapper.valueToTree(event.getResponse()));
+		return node;
+	}
+
+	@SuppressWarnings("PMD.AvoidCatchingGenericException")
+	private CompletionEvent fromNode(String line) {
+		try {
+			JsonNode node = this.spillMapper.readTree(line);
+			ClassLoader classLoader = getClass().getClassLoader();
+			Object request = this.spillMapper.treeToValue(node.get("request"),
+					Class.forName(node.get("requestType").asText(), false, classLoader));
+			Object response = this.spillMapper.treeToValue(node.get("response"),
+					Class.forName(node.get("responseType").asText(), false, classLoader));
+			return new CompletionEvent(node.get("registry").asText(), request, response,
+					node.get("timestamp").asLong());
+		}
+		catch (IOException | ClassNotFoundException | RuntimeException e) {
+			this.failedCount.incrementAndGet();
+			LOG.error("Unable to read spilled completion event. error=" + e.getMessage(), e);
+			return null;
+		}
+	}
+
+	private Path replayFile() {
+		return this.spillFile.resolveSibling(this.spillFile.getFileName() + REPLAY_SUFFIX);
+	}
+
+	private static long countLines(Path file) throws IOException {
+		if (!Files.exists(file)) {
+			return 0;
+		}
+		try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+			return lines.count();
+		}
+	}
+
+	private static ObjectMapper spillMapper(ObjectMapper objectMapper) {
+		ObjectMapper mapper = objectMapper.copy();
+		mapper.setAnnotationIntrospector(new SpillAnnotationIntrospector());
+		mapper.setVisibility(PropertyAccessor.ALL, Visibility.NONE);
+		mapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+		mapper.setVisibility(PropertyAccessor.CREATOR, Visibility.ANY);
+		mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+		return mapper;
+	}
+
+	/**
+	 * What happens to a completion event when the queue is full
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Drop the event and log a warning
+		 */
+		DROP,
+
+		/**
+		 * Hold the request until there is room in the queue, for up to the block timeout, and then drop the event. The
+		 * wait runs on the bounded elastic scheduler rather than on the thread that completes the request.
+		 */
+		BLOCK,
+
+		/**
+		 * Append the event to the spill file, to be replayed when the queue is idle
+		 */
+		SPILL
+
+	}
+
+	/**
+	 * Serializes every field of the request and response models, including those ignored on the wire, so that spilled
+	 * events are replayed with the identifiers and headers of the original request.
+	 */
+	private static final class SpillAnnotationIntrospector extends JacksonAnnotationIntrospector {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean hasIgnoreMarker(AnnotatedMember member) {
+			return Supplier.class.isAssignableFrom(member.getRawType());
+		}
+
+		@Override
+		public PropertyName findNameForSerialization(Annotated annotated) {
+			return fieldName(annotated, super.findNameForSerialization(annotated));
+		}
+
+		@Override
+		public PropertyName findNameForDeserialization(Annotated annotated) {
+			return fieldName(annotated, super.findNameForDeserialization(annotated));
+		}
+
+		private static PropertyName fieldName(Annotated annotated, PropertyName name) {
+			return (name == null && annotated instanceof AnnotatedField) ? PropertyName.USE_DEFAULT : name;
+		}
+
+	}
+
+	/**
+	 * Provides a fluent API for constructing a {@link DetachedCompletionQueue}.
+	 */
+	public static final class DetachedCompletionQueueBuilder {
+
+		private int capacity = 10000;
+
+		private int batchSize = 100;
+
+		private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+		private Duration blockTimeout = Duration.ofSeconds(1);
+
+		private Duration closeTimeout = Duration.ofSeconds(10);
+
+		private Path spillFile;
+
+		private ObjectMapper objectMapper;
+
+		private final List<BatchCompletionFlow> batchFlows = new ArrayList<>();
+
+		private CompletionEventJournal journal;
+
+		private DetachedCompletionQueueBuilder() {
+		}
+
+		/**
+		 * Set the maximum number of events held in memory. Defaults to 10000.
+		 *
+		 * @param capacity the capacity
+		 * @return the builder
+		 */
+		public DetachedCompletionQueueBuilder capacity(int capacity) {
+			this.capacity = capacity;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of events drained and passed to the batch completion flows at once. Defaults to 100.
+		 *
+		 * @param batchSize the batch size
+		 * @return the builder
+		 */
+		public DetachedCompletionQueueBuilder batchSize(int batchSize) {
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Set what happens to an event when the queue is full. Defaults to {@link OverflowPolicy#DROP}.
+		 *
+		 * @param overflowPolicy the overflow policy
+		 * @return the builder
+		 */
+		public DetachedCompletionQueueBuilder overflowPolicy(OverflowPolicy overflowPolicy) {
+			this.overflowPolicy = overflowPolicy;
+			return this;
+		}
+
+		/**
+		 * Set how long {@link OverflowPolicy#BLOCK} waits for room in the queue. Defaults to 1 second.
+		 *
+		 * @param blockTimeout the block timeout
+		 * @return the builder
+		 */
+		public DetachedCompletionQueueBuilder blockTimeout(Duration blockTimeout) {
+			this.blockTimeout = blockTimeout;
+			return this;
+		}
+
+		/**
+		 * Set how long the queue is drained for when it is closed. Defaults to 10 seconds.
+		 *
+		 * @param closeTimeout the close timeout
+		 * @return the builder
+		 */
+		public DetachedCompletionQueueBuilder closeTimeout(Duration closeTimeout) {
+			this.closeTimeout = closeTimeout;
+			return this;
+		}
+
+		/**
+		 * Set the file events are spilled to by {@link OverflowPolicy#SPILL}
+		 *
+		 * @param spillFile the spill file
+		 * @return the builder
+		 */
+		public DetachedCompletionQueueBuilder spillFile(Path spillFile) {
+			this.spillFile = spillFile;
+			return this;
+		}
+
+		/**
+		 * Set the object mapper spilled events are written with. A new {@link ObjectMapper} is used by default.
+		 *
+		 * @param objectMapper the object mapper
+		 * @return the builder
+		 */
+		public DetachedCompletionQueueBuilder objectMapper(ObjectMapper objectMapper) {
+			this.objectMapper = objectMapper;
+			return this;
+		}
+
+		/**
+		 * Add flows that receive the events in batches
+		 *
+		 * @param batchFlows the batch completion flows
+		 * @return the builder
+		 */
+		public DetachedCompletionQueueBuilder batchFlows(List<BatchCompletionFlow> batchFlows) {
+			if (batchFlows != null) {
+				this.batchFlows.addAll(batchFlows);
+			}
+			return this;
+		}
+
+		/**
+		 * Set the journal that makes the queue a durable outbox. Events are not journaled by default.
+		 *
+		 * @param journal the journal
+		 * @return the builder
+		 */
+		public DetachedCompletionQueueBuilder journal(CompletionEventJournal journal) {
+			this.journal = journal;
+			return this;
+		}
+
+		/**
+		 * Construct a {@link DetachedCompletionQueue} from the provided values.
+		 *
+		 * @return the newly constructed {@literal DetachedCompletionQueue}
+		 */
+		public DetachedCompletionQueue build() {
+			Assert.isTrue(this.capacity > 0, "capacity must be greater than 0");
+			Assert.isTrue(this.batchSize > 0, "batchSize must be greater than 0");
+			Assert.notNull(this.overflowPolicy, "overflowPolicy must not be null");
+			Assert.notNull(this.blockTimeout, "blockTimeout must not be null");
+			Assert.notNull(this.closeTimeout, "closeTimeout must not be null");
+			Assert.isTrue(this.overflowPolicy != OverflowPolicy.SPILL || this.spillFile != null,
+					"spillFile must be set when the overflow policy is SPILL");
+			Assert.isTrue(this.overflowPolicy != OverflowPolicy.SPILL || this.journal == null,
+					"the overflow policy must not be SPILL when a journal is set");
+			return new DetachedCompletionQueue(this.capacity, this.batchSize, this.overflowPolicy, this.blockTimeout,
+					this.closeTimeout, this.spillFile, (this.objectMapper != null) ? this.objectMapper :
+					new ObjectMapper(), Collections.unmodifiableList(new ArrayList<>(this.batchFlows)), this.journal);
+		}
+
+	}
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.util.Assert;
+
+/**
+ * Defines how the flows of an {@link EventFlowRegistry} are run: how many flows run at once, how long each flow may
+ * run, and on which scheduler the flows run.
+ *
+ * <p>
+ * The {@link #DEFAULT default policy} runs all flows in parallel on the thread that dispatches them, with no timeout.
+ * With a {@link DetachedCompletionQueue completion queue}, the completion flows are run by the queue after the response
+ * has been returned, rather than before.
+ *
+ * @author agent
+ */
+public final class EventFlowExecutionPolicy {
+
+	/**
+	 * Runs all flows in parallel on the dispatching thread, with no timeout
+	 */
+	public static final EventFlowExecutionPolicy DEFAULT = builder().build();
+
+	private static final Logger LOG = LoggerFactory.getLogger(EventFlowExecutionPolicy.class);
+
+	private final Dispatch dispatch;
+
+	private final int concurrency;
+
+	private final Duration timeout;
+
+	private final TimeoutAction timeoutAction;
+
+	private final Scheduler scheduler;
+
+	private final DetachedCompletionQueue completionQueue;
+
+	private EventFlowExecutionPolicy(Dispatch dispatch, int concurrency, Duration timeout, TimeoutAction timeoutAction,
+			Scheduler scheduler, DetachedCompletionQueue completionQueue) {
+		this.dispatch = dispatch;
+		this.concurrency = concurrency;
+		this.timeout = timeout;
+		this.timeoutAction = timeoutAction;
+		this.scheduler = scheduler;
+		this.completionQueue = completionQueue;
+	}
+
+	/**
+	 * Create a builder that provides a fluent API for constructing an {@literal EventFlowExecutionPolicy}.
+	 *
+	 * @return the builder
+	 */
+	public static EventFlowExecutionPolicyBuilder builder() {
+		return new EventFlowExecutionPolicyBuilder();
+	}
+
+	/**
+	 * Get how flows are run relative to each other
+	 *
+	 * @return the dispatch
+	 */
+	public Dispatch getDispatch() {
+		return this.dispatch;
+	}
+
+	/**
+	 * Get the maximum number of flows run at once by {@link Dispatch#CONCURRENT} dispatch
+	 *
+	 * @return the concurrency
+	 */
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	/**
+	 * Get the time each flow may run
+	 *
+	 * @return the timeout, or {@literal null} if flows may run indefinitely
+	 */
+	public Duration getTimeout() {
+		return this.timeout;
+	}
+
+	/**
+	 * Get what happens when a flow does not complete within the timeout
+	 *
+	 * @return the timeout action
+	 */
+	public TimeoutAction getTimeoutAction() {
+		return this.timeoutAction;
+	}
+
+	/**
+	 * Get the scheduler flows are subscribed on
+	 *
+	 * @return the scheduler, or {@literal null} if flows run on the thread that dispatches them
+	 */
+	public Scheduler getScheduler() {
+		return this.scheduler;
+	}
+
+	/**
+	 * Get the queue that runs the completion flows detached from the request
+	 *
+	 * @return the completion queue, or {@literal null} if the completion flows run before the response is returned
+	 */
+	public DetachedCompletionQueue getCompletionQueue() {
+		return this.completionQueue;
+	}
+
+	/**
+	 * Run flows according to this policy
+	 *
+	 * @param flows the flows
+	 * @param invoker invokes a flow
+	 * @param <F> the type of flow
+	 * @return a Flux that completes when all flows have completed
+	 */
+	public <F> Flux<Void> run(Flux<F> flows, Function<? super F, ? extends Mono<Void>> invoker) {
+		Function<F, Mono<Void>> run = flow -> apply(Mono.defer(() -> invoker.apply(flow)), flow);
+		if (this.dispatch == Dispatch.SEQUENTIAL) {
+			return flows.concatMap(run);
+		}
+		if (this.dispatch == Dispatch.CONCURRENT) {
+			return flows.flatMap(run, this.concurrency);
+		}
+		return flows.flatMap(run);
+	}
+
+	private Mono<Void> apply(Mono<Void> flow, Object source) {
+		Mono<Void> result = flow;
+		if (this.scheduler != null) {
+			result = result.subscribeOn(this.scheduler);
+		}
+		if (this.timeout != null) {
+			result = result.timeout(this.timeout,
+					(this.scheduler != null) ? this.scheduler : Schedulers.parallel());
+			if (this.timeoutAction == TimeoutAction.SKIP) {
+				result = result.onErrorResume(TimeoutException.class, e -> {
+					LOG.warn("Event flow " + source.getClass().getName() + " did not complete within " + this.timeout +
+							" and was skipped");
+					return Mono.empty();
+				});
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * How the flows of a registry are run relative to each other
+	 */
+	public enum Dispatch {
+
+		/**
+		 * Run one flow at a time, in the order the flows were registered
+		 */
+		SEQUENTIAL,
+
+		/**
+		 * Run up to the configured concurrency of flows at once
+		 */
+		CONCURRENT,
+
+		/**
+		 * Run all flows at once
+		 */
+		PARALLEL
+
+	}
+
+	/**
+	 * What happens when a flow does not complete within the timeout
+	 */
+	public enum TimeoutAction {
+
+		/**
+		 * Fail the request with a {@link TimeoutException}
+		 */
+		FAIL,
+
+		/**
+		 * Log a warning and continue as if the flow had completed
+		 */
+		SKIP
+
+	}
+
+	/**
+	 * Provides a fluent API for constructing an {@link EventFlowExecutionPolicy}.
+	 */
+	public static final class EventFlowExecutionPolicyBuilder {
+
+		private Dispatch dispatch = Dispatch.PARALLEL;
+
+		private int concurrency = 1;
+
+		private Duration timeout;
+
+		private TimeoutAction timeoutAction = TimeoutAction.FAIL;
+
+		private Scheduler scheduler;
+
+		private DetachedCompletionQueue completionQueue;
+
+		private EventFlowExecutionPolicyBuilder() {
+		}
+
+		/**
+		 * Set how flows are run relative to each other. Defaults to {@link Dispatch#PARALLEL}.
+		 *
+		 * @param dispatch the dispatch
+		 * @return the builder
+		 */
+		public EventFlowExecutionPolicyBuilder dispatch(Dispatch dispatch) {
+			this.dispatch = dispatch;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of flows run at once by {@link Dispatch#CONCURRENT} dispatch. Defaults to 1.
+		 *
+		 * @param concurrency the concurrency
+		 * @return the builder
+		 */
+		public EventFlowExecutionPolicyBuilder concurrency(int concurrency) {
+			this.concurrency = concurrency;
+			return this;
+		}
+
+		/**
+		 * Set the time each flow may run. A {@literal null} value, the default, means flows may run indefinitely.
+		 *
+		 * @param timeout the timeout
+		 * @return the builder
+		 */
+		public EventFlowExecutionPolicyBuilder timeout(Duration timeout) {
+			this.timeout = timeout;
+			return this;
+		}
+
+		/**
+		 * Set what happens when a flow does not complete within the timeout. Defaults to {@link TimeoutAction#FAIL}.
+		 *
+		 * @param timeoutAction the timeout action
+		 * @return the builder
+		 */
+		public EventFlowExecutionPolicyBuilder timeoutAction(TimeoutAction timeoutAction) {
+			this.timeoutAction = timeoutAction;
+			return this;
+		}
+
+		/**
+		 * Set the scheduler flows are subscribed on. A {@literal null} value, the default, runs flows on the thread
+		 * that dispatches them.
+		 *
+		 * @param scheduler the scheduler
+		 * @return the builder
+		 */
+		public EventFlowExecutionPolicyBuilder scheduler(Scheduler scheduler) {
+			this.scheduler = scheduler;
+			return this;
+		}
+
+		/**
+		 * Set the queue that runs the completion flows detached from the request. A {@literal null} value, the
+		 * default, runs the completion flows before the response is returned.
+		 *
+		 * @param completionQueue the completion queue
+		 * @return the builder
+		 */
+		public EventFlowExecutionPolicyBuilder completionQueue(DetachedCompletionQueue completionQueue) {
+			this.completionQueue = completionQueue;
+			return this;
+		}
+
+		/**
+		 * Construct an {@link EventFlowExecutionPolicy} from the provided values.
+		 *
+		 * @return the newly constructed {@literal EventFlowExecutionPolicy}
+		 */
+		public EventFlowExecutionPolicy build() {
+			Assert.notNull(this.dispatch, "dispatch must not be null");
+			Assert.notNull(this.timeoutAction, "timeoutAction must not be null");
+			Assert.isTrue(this.concurrency > 0, "concurrency must be greater than 0");
+			Assert.isTrue(this.timeout == null || !this.timeout.isNegative() && !this.timeout.isZero(),
+					"timeout must be positive");
+			return new EventFlowExecutionPolicy(this.dispatch, this.concurrency, this.timeout, this.timeoutAction,
+					this.scheduler, this.completionQueue);
+		}
+
+	}
+
+}
@@ -16,8 +16,10 @@
 
 package org.springframework.cloud.servicebroker.service.events;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import org.apache.commons.collections.CollectionUtils;
 import reactor.core.publisher.Flux;
@@ -26,6 +28,14 @@ import reactor.core.publisher.Mono;
 /**
  * Abstract class for defining an event flow registry
  *
+ * <p>
+ * The flows of each kind are held in an immutable array snapshot, which is replaced when a flow is added. Adding
+ * flows is thread-safe, and dispatching a request never copies or locks the registered flows.
+ *
+ * <p>
+ * When the execution policy has a {@link DetachedCompletionQueue completion queue}, the registry registers itself with
+ * the queue, and the response is returned without waiting for the completion flows.
+ *
  * @author Roy Clarkson
  * @param <I> type of initialization flow
  * @param <C> type of completion flow
@@ -35,18 +45,22 @@ import reactor.core.publisher.Mono;
  */
 public abstract class EventFlowRegistry<I, C, E, R, S> {
 
-	private final List<Mono<I>> initializationFlows = new ArrayList<>();
+	private static final Object[] NO_FLOWS = new Object[0];
+
+	private final AtomicReference<Object[]> initializationFlows;
+
+	private final AtomicReference<Object[]> completionFlows;
 
-	private final List<Mono<C>> completionFlows = new ArrayList<>();
+	private final AtomicReference<Object[]> errorFlows;
 
-	private final List<Mono<E>> errorFlows = new ArrayList<>();
+	private final EventFlowExecutionPolicy executionPolicy;
 
 	/**
 	 * Construct a new {@link EventFlowRegistry}
 	 */
 	@Deprecated
 	public EventFlowRegistry() {
-		// This constructor is intentionally empty to indicate it is deprecated
+		this(null, null, null);
 	}
 
 	/**
@@ -57,17 +71,37 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	 * @param errorFlows the error flows
 	 */
 	protected EventFlowRegistry(List<I> initializationFlows, List<C> completionFlows, List<E> errorFlows) {
-		if (CollectionUtils.isNotEmpty(initializationFlows)) {
-			initializationFlows.forEach(flow -> this.initializationFlows.add(Mono.just(flow)));
-		}
-		if (CollectionUtils.isNotEmpty(completionFlows)) {
-			completionFlows.forEach(flow -> this.completionFlows.add(Mono.just(flow)));
-		}
-		if (CollectionUtils.isNotEmpty(errorFlows)) {
-			errorFlows.forEach(flow -> this.errorFlows.add(Mono.just(flow)));
+		this(initializationFlows, completionFlows, errorFlows, EventFlowExecutionPolicy.DEFAULT);
+	}
+
+	/**
+	 * Construct a new {@link EventFlowRegistry}
+	 *
+	 * @param initializationFlows the initialization flows
+	 * @param completionFlows the completion flows
+	 * @param errorFlows the error flows
+	 * @param executionPolicy the policy the flows are run with
+	 */
+	protected EventFlowRegistry(List<I> initializationFlows, List<C> completionFlows, List<E> errorFlows,
+			EventFlowExecutionPolicy executionPolicy) {
+		this.initializationFlows = new AtomicReference<>(snapshot(initializationFlows));
+		this.completionFlows = new AtomicReference<>(snapshot(completionFlows));
+		this.errorFlows = new AtomicReference<>(snapshot(errorFlows));
+		this.executionPolicy = (executionPolicy != null) ? executionPolicy : EventFlowExecutionPolicy.DEFAULT;
+		if (this.executionPolicy.getCompletionQueue() != null) {
+			this.executionPolicy.getCompletionQueue().register(this);
 		}
 	}
 
+	/**
+	 * Get the policy the flows are run with
+	 *
+	 * @return the execution policy
+	 */
+	public EventFlowExecutionPolicy getExecutionPolicy() {
+		return this.executionPolicy;
+	}
+
 	/**
 	 * Add an initialization flow
 	 *
@@ -76,7 +110,7 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	 */
 	public Mono<Void> addInitializationFlow(I object) {
 		return Mono.justOrEmpty(object)
-				.map(flow -> this.initializationFlows.add(Mono.just(flow)))
+				.doOnNext(flow -> add(this.initializationFlows, flow))
 				.then();
 	}
 
@@ -94,7 +128,7 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	 * @return a Flux of initialization flows
 	 */
 	protected Flux<I> getInitializationFlowsInternal() {
-		return Flux.merge(this.initializationFlows);
+		return toFlux(this.initializationFlows.get());
 	}
 
 	/**
@@ -105,7 +139,7 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	 */
 	public Mono<Void> addCompletionFlow(C object) {
 		return Mono.justOrEmpty(object)
-				.map(flow -> this.completionFlows.add(Mono.just(flow)))
+				.doOnNext(flow -> add(this.completionFlows, flow))
 				.then();
 	}
 
@@ -124,7 +158,7 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	 * @return a Flux of completion flows
 	 */
 	protected Flux<C> getCompletionFlowsInternal() {
-		return Flux.merge(this.completionFlows);
+		return toFlux(this.completionFlows.get());
 	}
 
 	/**
@@ -135,7 +169,7 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	 */
 	public Mono<Void> addErrorFlow(E object) {
 		return Mono.justOrEmpty(object)
-				.map(flow -> this.errorFlows.add(Mono.just(flow)))
+				.doOnNext(flow -> add(this.errorFlows, flow))
 				.then();
 	}
 
@@ -154,7 +188,96 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	 * @return a Flux of error flows
 	 */
 	protected Flux<E> getErrorFlowsInternal() {
-		return Flux.merge(this.errorFlows);
+		return toFlux(this.errorFlows.get());
+	}
+
+	/**
+	 * Run flows according to the execution policy of this registry
+	 *
+	 * @param flows the flows
+	 * @param invoker invokes a flow
+	 * @param <F> the type of flow
+	 * @return a Flux that completes when all flows have completed
+	 */
+	protected <F> Flux<Void> dispatch(Flux<F> flows, Function<? super F, ? extends Mono<Void>> invoker) {
+		return this.executionPolicy.run(flows, invoker);
+	}
+
+	/**
+	 * Attach the registered flows to the response of a service broker request. The initialization flows run before
+	 * the response is subscribed to, the error flows run if the response fails, and the completion flows run when the
+	 * response is received, or are queued on the completion queue of the execution policy. The flows are retrieved
+	 * with {@link #getInitializationFlows}, {@link #getErrorFlows}, and {@link #getCompletionFlows}. A built-in
+	 * registry that is not subclassed assembles only the stages with registered flows, so the response is returned as
+	 * is when no flows are registered, and no completion event is queued unless the completion queue has batch
+	 * completion flows.
+	 *
+	 * @param request the service broker request
+	 * @param response the response to the service broker request
+	 * @return the response with the flows attached
+	 */
+	public Mono<S> attachFlows(R request, Mono<S> response) {
+		Mono<S> result = response;
+		if (mayHaveFlows(this.initializationFlows)) {
+			result = getInitializationFlows(request).then(result);
+		}
+		if (mayHaveFlows(this.errorFlows)) {
+			result = result.onErrorResume(e -> getErrorFlows(request, e).then(Mono.error(e)));
+		}
+		DetachedCompletionQueue completionQueue = this.executionPolicy.getCompletionQueue();
+		if (completionQueue == null) {
+			if (mayHaveFlows(this.completionFlows)) {
+				result = result.flatMap(s -> getCompletionFlows(request, s).then(Mono.just(s)));
+			}
+		}
+		else if (mayHaveFlows(this.completionFlows) || completionQueue.hasBatchFlows()) {
+			String registry = getClass().getName();
+			result = result.flatMap(s -> completionQueue.submit(
+					new CompletionEvent(registry, request, s, System.currentTimeMillis())).thenReturn(s));
+		}
+		return result;
+	}
+
+	/**
+	 * Whether the getters of this registry run exactly the registered flows. The built-in registries do, unless they
+	 * are subclassed, since a subclass may override the getters to run other flows.
+	 *
+	 * @return true if the getters run only the registered flows
+	 */
+	boolean dispatchesRegisteredFlows() {
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	Flux<Void> completeDetached(Object request, Object response) {
+		return getCompletionFlows((R) request, (S) response);
+	}
+
+	private boolean mayHaveFlows(AtomicReference<Object[]> flows) {
+		return !dispatchesRegisteredFlows() || flows.get().length > 0;
+	}
+
+	private static Object[] snapshot(List<?> flows) {
+		return CollectionUtils.isEmpty(flows) ? NO_FLOWS : flows.toArray();
+	}
+
+	private static void add(AtomicReference<Object[]> flows, Object flow) {
+		flows.updateAndGet(current -> {
+			Object[] updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = flow;
+			return updated;
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Flux<T> toFlux(Object[] flows) {
+		if (flows.length == 0) {
+			return Flux.empty();
+		}
+		if (flows.length == 1) {
+			return Flux.just((T) flows[0]);
+		}
+		return Flux.fromArray((T[]) flows);
 	}
 
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.flows;
+
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.service.events.CompletionEvent;
+
+/**
+ * Completion flow that receives the responses of all registries with detached completion flows in batches, for sinks
+ * that write many events at once more efficiently than one at a time
+ *
+ * @author agent
+ * @see org.springframework.cloud.servicebroker.service.events.DetachedCompletionQueue
+ */
+public interface BatchCompletionFlow {
+
+	/**
+	 * Performs the operation on a batch of completion events
+	 *
+	 * @param events the completion events, in the order they were received
+	 * @return an empty Mono
+	 */
+	default Mono<Void> complete(List<CompletionEvent> events) {
+		return Mono.empty();
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.idempotency;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.util.Assert;
+
+/**
+ * Holds the recent outcomes of requests that create a resource, so that a retried request is answered without
+ * executing it again. The outcome of a request is held with the fingerprint of the request, as a cached {@link Mono},
+ * from the time the request is executed until the time to live has elapsed after it completed successfully. A request
+ * for the same resource with the same fingerprint is answered with the held outcome, and a request for the same
+ * resource with a different fingerprint is rejected. Errors are never held beyond the requests that were in flight.
+ *
+ * @author agent
+ */
+public class IdempotencyCache {
+
+	/**
+	 * The default time the outcome of a request is held after it completed
+	 */
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+	private final ConcurrentMap<Object, Outcome> outcomes = new ConcurrentHashMap<>();
+
+	private final Duration timeToLive;
+
+	private final LongAdder requestCount = new LongAdder();
+
+	private final LongAdder replayCount = new LongAdder();
+
+	private final LongAdder conflictCount = new LongAdder();
+
+	/**
+	 * Construct a new {@link IdempotencyCache} with the default time to live
+	 */
+	public IdempotencyCache() {
+		this(DEFAULT_TIME_TO_LIVE);
+	}
+
+	/**
+	 * Construct a new {@link IdempotencyCache}
+	 *
+	 * @param timeToLive the time the outcome of a request is held after it completed successfully
+	 */
+	public IdempotencyCache(Duration timeToLive) {
+		Assert.isTrue(timeToLive != null && !timeToLive.isNegative() && !timeToLive.isZero(),
+				"timeToLive must be positive");
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Execute a request, or answer it with the outcome of an identical request
+	 *
+	 * @param key identifies the resource the request creates
+	 * @param fingerprint identifies identical requests for the resource
+	 * @param execution supplies the request, called only when no outcome is held for the resource
+	 * @param replay converts the held outcome into the response to an identical request
+	 * @param conflict supplies the error a request with a different fingerprint is rejected with
+	 * @param <T> the type of the response
+	 * @return the outcome of the request
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Mono<T> execute(Object key, Object fingerprint, Supplier<Mono<T>> execution, UnaryOperator<T> replay,
+			Supplier<? extends RuntimeException> conflict) {
+		return Mono.defer(() -> {
+			this.requestCount.increment();
+			Outcome[] executed = new Outcome[1];
+			Outcome outcome = this.outcomes.computeIfAbsent(key, k -> {
+				executed[0] = new Outcome(fingerprint);
+				executed[0].result = share(k, executed[0], execution);
+				return executed[0];
+			});
+			if (outcome == executed[0]) {
+				return (Mono<T>) outcome.result;
+			}
+			if (!Objects.equals(outcome.fingerprint, fingerprint)) {
+				this.conflictCount.increment();
+				return Mono.error(conflict.get());
+			}
+			this.replayCount.increment();
+			return ((Mono<T>) outcome.result).map(replay);
+		});
+	}
+
+	/**
+	 * Discard the outcome held for a resource, so that the next request for the resource is executed
+	 *
+	 * @param key identifies the resource
+	 */
+	public void invalidate(Object key) {
+		this.outcomes.remove(key);
+	}
+
+	/**
+	 * Get the number of requests received
+	 *
+	 * @return the number of requests
+	 */
+	public long getRequestCount() {
+		return this.requestCount.sum();
+	}
+
+	/**
+	 * Get the number of identical requests answered with a held outcome
+	 *
+	 * @return the number of requests
+	 */
+	public long getReplayCount() {
+		return this.replayCount.sum();
+	}
+
+	/**
+	 * Get the number of requests rejected because they differ from the request of a held outcome
+	 *
+	 * @return the number of requests
+	 */
+	public long getConflictCount() {
+		return this.conflictCount.sum();
+	}
+
+	/**
+	 * Get the number of outcomes in flight or held
+	 *
+	 * @return the number of outcomes
+	 */
+	public int size() {
+		return this.outcomes.size();
+	}
+
+	private <T> Mono<T> share(Object key, Outcome outcome, Supplier<Mono<T>> execution) {
+		return Mono.defer(execution)
+				.doOnSuccess(result -> completed(key, outcome, result))
+				.doOnError(e -> this.outcomes.remove(key, outcome))
+				.doOnCancel(() -> this.outcomes.remove(key, outcome))
+				.cache();
+	}
+
+	private void completed(Object key, Outcome outcome, Object result) {
+		if (result == null) {
+			this.outcomes.remove(key, outcome);
+		}
+		else {
+			Mono.delay(this.timeToLive)
+					.subscribe(tick -> this.outcomes.remove(key, outcome));
+		}
+	}
+
+	private static final class Outcome {
+
+		private final Object fingerprint;
+
+		private Mono<?> result;
+
+		private Outcome(Object fingerprint) {
+			this.fingerprint = fingerprint;
+		}
+
+	}
+
+}
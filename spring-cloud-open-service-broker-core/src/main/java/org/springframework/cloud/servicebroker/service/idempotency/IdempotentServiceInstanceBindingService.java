@@ -0,0 +1,133 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.idempotency;
+
+import java.util.Arrays;
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.exception.ServiceInstanceBindingExistsException;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceAppBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceRouteBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+
+/**
+ * Internal implementation of {@link ServiceInstanceBindingService} that answers retried create requests from an
+ * {@link IdempotencyCache}. Create requests are identical when they have the same service instance and binding IDs,
+ * service definition ID, plan ID, bind resource, parameters, and context. An identical request is answered with the
+ * outcome of the request it repeats, marked as an existing binding, and a different request for the same binding is
+ * rejected with a {@link ServiceInstanceBindingExistsException}. The outcome is discarded when the binding is deleted.
+ *
+ * @author agent
+ */
+public class IdempotentServiceInstanceBindingService implements ServiceInstanceBindingService {
+
+	private static final String SERVICE_INSTANCE_BINDING = "service-instance-binding";
+
+	private final ServiceInstanceBindingService service;
+
+	private final IdempotencyCache cache;
+
+	/**
+	 * Construct a new {@link IdempotentServiceInstanceBindingService}
+	 *
+	 * @param service the service instance binding service
+	 * @param cache the cache of the outcomes of create requests
+	 */
+	public IdempotentServiceInstanceBindingService(ServiceInstanceBindingService service, IdempotencyCache cache) {
+		this.service = service;
+		this.cache = cache;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceBindingResponse> createServiceInstanceBinding(
+			CreateServiceInstanceBindingRequest request) {
+		return this.cache.execute(key(request.getServiceInstanceId(), request.getBindingId()),
+				Arrays.asList(request.getServiceDefinitionId(), request.getPlanId(), request.getBindResource(),
+						new ParametersFingerprint(request), request.getContext()),
+				() -> this.service.createServiceInstanceBinding(request),
+				IdempotentServiceInstanceBindingService::existing,
+				() -> new ServiceInstanceBindingExistsException(request.getServiceInstanceId(),
+						request.getBindingId()));
+	}
+
+	@Override
+	public Mono<GetServiceInstanceBindingResponse> getServiceInstanceBinding(
+			GetServiceInstanceBindingRequest request) {
+		return this.service.getServiceInstanceBinding(request);
+	}
+
+	@Override
+	public Mono<GetLastServiceBindingOperationResponse> getLastOperation(
+			GetLastServiceBindingOperationRequest request) {
+		return this.service.getLastOperation(request);
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceBindingResponse> deleteServiceInstanceBinding(
+			DeleteServiceInstanceBindingRequest request) {
+		List<Object> key = key(request.getServiceInstanceId(), request.getBindingId());
+		return this.service.deleteServiceInstanceBinding(request)
+				.doOnSubscribe(subscription -> this.cache.invalidate(key))
+				.doOnSuccess(response -> this.cache.invalidate(key));
+	}
+
+	private static List<Object> key(String serviceInstanceId, String bindingId) {
+		return Arrays.asList(SERVICE_INSTANCE_BINDING, serviceInstanceId, bindingId);
+	}
+
+	private static CreateServiceInstanceBindingResponse existing(CreateServiceInstanceBindingResponse response) {
+		if (response instanceof CreateServiceInstanceRouteBindingResponse) {
+			return CreateServiceInstanceRouteBindingResponse.builder()
+					.routeServiceUrl(((CreateServiceInstanceRouteBindingResponse) response).getRouteServiceUrl())
+					.async(response.isAsync())
+					.operation(response.getOperation())
+					.bindingExisted(true)
+					.build();
+		}
+		// the base response has no builder of its own, so other responses are answered as app bindings
+		CreateServiceInstanceAppBindingResponse.CreateServiceInstanceAppBindingResponseBuilder builder =
+				CreateServiceInstanceAppBindingResponse.builder()
+						.async(response.isAsync())
+						.operation(response.getOperation())
+						.bindingExisted(true);
+		if (response instanceof CreateServiceInstanceAppBindingResponse) {
+			CreateServiceInstanceAppBindingResponse appBinding = (CreateServiceInstanceAppBindingResponse) response;
+			builder.syslogDrainUrl(appBinding.getSyslogDrainUrl());
+			if (appBinding.getCredentials() != null) {
+				builder.credentials(appBinding.getCredentials());
+			}
+			if (appBinding.getVolumeMounts() != null) {
+				builder.volumeMounts(appBinding.getVolumeMounts());
+			}
+			if (appBinding.getEndpoints() != null) {
+				builder.endpoints(appBinding.getEndpoints());
+			}
+		}
+		return builder.build();
+	}
+
+}
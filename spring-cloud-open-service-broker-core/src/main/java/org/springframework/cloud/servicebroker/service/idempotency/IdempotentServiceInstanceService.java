@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.idempotency;
+
+import java.util.Arrays;
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.exception.ServiceInstanceExistsException;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+
+/**
+ * Internal implementation of {@link ServiceInstanceService} that answers retried create requests from an
+ * {@link IdempotencyCache}. Create requests are identical when they have the same service instance ID, service
+ * definition ID, plan ID, parameters, and context. An identical request is answered with the outcome of the request it
+ * repeats, marked as an existing service instance, and a different request for the same service instance is rejected
+ * with a {@link ServiceInstanceExistsException}. The outcome is discarded when the service instance is deleted.
+ *
+ * @author agent
+ */
+public class IdempotentServiceInstanceService implements ServiceInstanceService {
+
+	private static final String SERVICE_INSTANCE = "service-instance";
+
+	private final ServiceInstanceService service;
+
+	private final IdempotencyCache cache;
+
+	/**
+	 * Construct a new {@link IdempotentServiceInstanceService}
+	 *
+	 * @param service the service instance service
+	 * @param cache the cache of the outcomes of create requests
+	 */
+	public IdempotentServiceInstanceService(ServiceInstanceService service, IdempotencyCache cache) {
+		this.service = service;
+		this.cache = cache;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
+		return this.cache.execute(key(request.getServiceInstanceId()),
+				Arrays.asList(request.getServiceDefinitionId(), request.getPlanId(), new ParametersFingerprint(request),
+						request.getContext()),
+				() -> this.service.createServiceInstance(request),
+				IdempotentServiceInstanceService::existing,
+				() -> new ServiceInstanceExistsException(request.getServiceInstanceId(),
+						request.getServiceDefinitionId()));
+	}
+
+	@Override
+	public Mono<GetServiceInstanceResponse> getServiceInstance(GetServiceInstanceRequest request) {
+		return this.service.getServiceInstance(request);
+	}
+
+	@Override
+	public Mono<GetLastServiceOperationResponse> getLastOperation(GetLastServiceOperationRequest request) {
+		return this.service.getLastOperation(request);
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
+		List<Object> key = key(request.getServiceInstanceId());
+		return this.service.deleteServiceInstance(request)
+				.doOnSubscribe(subscription -> this.cache.invalidate(key))
+				.doOnSuccess(response -> this.cache.invalidate(key));
+	}
+
+	@Override
+	public Mono<UpdateServiceInstanceResponse> updateServiceInstance(UpdateServiceInstanceRequest request) {
+		return this.service.updateServiceInstance(request);
+	}
+
+	private static List<Object> key(String serviceInstanceId) {
+		return Arrays.asList(SERVICE_INSTANCE, serviceInstanceId);
+	}
+
+	private static CreateServiceInstanceResponse existing(CreateServiceInstanceResponse response) {
+		return CreateServiceInstanceResponse.builder()
+				.dashboardUrl(response.getDashboardUrl())
+				.metadata(response.getMetadata())
+				.async(response.isAsync())
+				.operation(response.getOperation())
+				.instanceExisted(true)
+				.build();
+	}
+
+}
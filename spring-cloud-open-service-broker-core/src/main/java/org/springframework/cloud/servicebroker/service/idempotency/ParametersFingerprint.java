@@ -0,0 +1,51 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.idempotency;
+
+import org.springframework.cloud.servicebroker.model.instance.AsyncParameterizedServiceInstanceRequest;
+
+/**
+ * The parameters of a create request, as part of the fingerprint of the request. Parameters that are held as raw JSON
+ * tokens are compared and hashed without being converted to a {@literal Map}.
+ *
+ * @author agent
+ */
+final class ParametersFingerprint {
+
+	private final AsyncParameterizedServiceInstanceRequest request;
+
+	ParametersFingerprint(AsyncParameterizedServiceInstanceRequest request) {
+		this.request = request;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof ParametersFingerprint)) {
+			return false;
+		}
+		return this.request.parametersEqual(((ParametersFingerprint) o).request);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.request.parametersHashCode();
+	}
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.util.Assert;
+
+/**
+ * Derives how long the platform should wait before polling for the state of an operation in progress again, from the
+ * time the operation has taken and a histogram of the durations of completed operations on the same plan.
+ *
+ * <p>
+ * While an operation has taken less than the typical (median) duration of its plan, the platform is asked to poll
+ * again half way to the typical duration, and then half way to the slow (90th percentile) duration. Operations that
+ * take longer, and operations on plans without recorded durations, are polled with an interval of a quarter of the
+ * time they have taken. The interval is bounded by the minimum and maximum intervals, and does not extend past the
+ * {@link Plan#getMaximumPollingDuration() maximum polling duration} of the plan.
+ *
+ * @author agent
+ */
+public class AdaptivePollingIntervals {
+
+	/**
+	 * The default shortest interval
+	 */
+	public static final Duration DEFAULT_MINIMUM_INTERVAL = Duration.ofSeconds(1);
+
+	/**
+	 * The default longest interval
+	 */
+	public static final Duration DEFAULT_MAXIMUM_INTERVAL = Duration.ofMinutes(1);
+
+	private final CatalogService catalogService;
+
+	private final long minimumInterval;
+
+	private final long maximumInterval;
+
+	private final ConcurrentMap<String, DurationHistogram> histograms = new ConcurrentHashMap<>();
+
+	/**
+	 * Construct a new {@link AdaptivePollingIntervals} with the default minimum and maximum intervals
+	 *
+	 * @param catalogService the catalog service the maximum polling durations of the plans are read from, or
+	 * 		{@literal null} to ignore them
+	 */
+	public AdaptivePollingIntervals(CatalogService catalogService) {
+		this(catalogService, DEFAULT_MINIMUM_INTERVAL, DEFAULT_MAXIMUM_INTERVAL);
+	}
+
+	/**
+	 * Construct a new {@link AdaptivePollingIntervals}
+	 *
+	 * @param catalogService the catalog service the maximum polling durations of the plans are read from, or
+	 * 		{@literal null} to ignore them
+	 * @param minimumInterval the shortest interval
+	 * @param maximumInterval the longest interval
+	 */
+	public AdaptivePollingIntervals(CatalogService catalogService, Duration minimumInterval,
+			Duration maximumInterval) {
+		Assert.isTrue(!minimumInterval.isNegative() && minimumInterval.compareTo(maximumInterval) <= 0,
+				"minimumInterval must not be negative or longer than maximumInterval");
+		this.catalogService = catalogService;
+		this.minimumInterval = minimumInterval.toMillis();
+		this.maximumInterval = maximumInterval.toMillis();
+	}
+
+	/**
+	 * Record the duration of a completed operation
+	 *
+	 * @param planId the plan ID of the service instance, ignored if {@literal null}
+	 * @param duration the duration in milliseconds
+	 */
+	public void recordDuration(String planId, long duration) {
+		if (planId != null && duration >= 0) {
+			this.histograms.computeIfAbsent(planId, id -> new DurationHistogram()).record(duration);
+		}
+	}
+
+	/**
+	 * Get how long the platform should wait before polling for the state of an operation in progress again
+	 *
+	 * @param operation the operation
+	 * @param elapsed the time the operation has taken, in milliseconds
+	 * @return the interval
+	 */
+	public Mono<Duration> getRetryAfter(TrackedOperation operation, long elapsed) {
+		long interval = getInterval(operation.getPlanId(), elapsed);
+		if (this.catalogService == null || operation.getServiceDefinitionId() == null
+				|| operation.getPlanId() == null) {
+			return Mono.just(Duration.ofMillis(interval));
+		}
+		return this.catalogService.getServiceDefinitionPlan(operation.getServiceDefinitionId(), operation.getPlanId())
+				.filter(plan -> plan.getMaximumPollingDuration() != null)
+				.map(plan -> Math.min(interval,
+						Math.max(plan.getMaximumPollingDuration() * 1000L - elapsed, this.minimumInterval)))
+				.onErrorResume(e -> Mono.empty())
+				.defaultIfEmpty(interval)
+				.map(Duration::ofMillis);
+	}
+
+	long getInterval(String planId, long elapsed) {
+		DurationHistogram histogram = planId == null ? null : this.histograms.get(planId);
+		long interval = elapsed / 4;
+		if (histogram != null) {
+			long typical = histogram.percentile(0.5);
+			long slow = histogram.percentile(0.9);
+			if (elapsed < typical) {
+				interval = (typical - elapsed) / 2;
+			}
+			else if (elapsed < slow) {
+				interval = (slow - elapsed) / 2;
+			}
+		}
+		return Math.max(this.minimumInterval, Math.min(this.maximumInterval, interval));
+	}
+
+	/**
+	 * A histogram of durations in logarithmic buckets, two per power of two. The counts are halved when the histogram
+	 * holds {@link #DECAY_THRESHOLD} durations, so that the histogram follows changes in the durations.
+	 */
+	private static final class DurationHistogram {
+
+		private static final int BUCKETS = 64;
+
+		private static final long DECAY_THRESHOLD = 1024;
+
+		private final Object monitor = new Object();
+
+		private final long[] counts = new long[BUCKETS];
+
+		private long total;
+
+		void record(long duration) {
+			int bucket = bucket(duration);
+			synchronized (this.monitor) {
+				this.counts[bucket]++;
+				this.total++;
+				if (this.total >= DECAY_THRESHOLD) {
+					this.total = 0;
+					for (int i = 0; i < BUCKETS; i++) {
+						this.counts[i] /= 2;
+						this.total += this.counts[i];
+					}
+				}
+			}
+		}
+
+		long percentile(double percentile) {
+			synchronized (this.monitor) {
+				long target = (long) Math.ceil(this.total * percentile);
+				long cumulative = 0;
+				for (int i = 0; i < BUCKETS; i++) {
+					cumulative += this.counts[i];
+					if (cumulative >= target && cumulative > 0) {
+						return upperBound(i);
+					}
+				}
+				return 0;
+			}
+		}
+
+		private static int bucket(long duration) {
+			if (duration < 1) {
+				return 0;
+			}
+			int log2 = 63 - Long.numberOfLeadingZeros(duration);
+			int bucket = 2 * log2 + (duration >= Math.sqrt(2) * (1L << log2) ? 1 : 0);
+			return Math.min(BUCKETS - 1, bucket);
+		}
+
+		private static long upperBound(int bucket) {
+			return (long) Math.pow(2, (bucket + 1) / 2.0);
+		}
+
+	}
+
+}
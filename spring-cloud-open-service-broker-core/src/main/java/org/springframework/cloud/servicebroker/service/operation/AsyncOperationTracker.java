@@ -0,0 +1,375 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.util.Assert;
+
+/**
+ * Holds the state of the asynchronous operations on service instances and service instance bindings in memory, so
+ * that the last operation requests the platform polls with are answered without calling the service.
+ *
+ * <p>
+ * An operation is tracked when a create, update, or delete request returns an asynchronous response, and when the
+ * service answers a last operation request that was not answered from the tracker. Services push the transitions of
+ * the operations they run with {@link #update(OperationKey, String, OperationState, String)}. An operation that is not
+ * updated within the time to live is evicted, and the next last operation request is passed to the service again, so
+ * the time to live bounds how long the state of an operation whose service does not push its transitions is stale.
+ * An operation that runs in the service broker itself is tracked with {@link #hold(TrackedOperation)} instead, and is
+ * not evicted while it is in progress, however long it takes, until it is released.
+ *
+ * <p>
+ * When {@link AdaptivePollingIntervals} are provided, the durations of completed operations are recorded for their
+ * plans, and the platform is asked to poll an operation in progress again after an interval derived from the time the
+ * operation has taken and the typical duration of operations on the same plan.
+ *
+ * <p>
+ * The state of the operations is held in an {@link OperationStateStore}, in memory by default. With a
+ * {@link FileOperationStateStore}, the operations survive a restart of the service broker, as long as the time to live
+ * is longer than the restart.
+ *
+ * <p>
+ * Last operation requests can wait for the state of an operation to change with
+ * {@link #awaitChange(TrackedOperation, Duration)}. Every change to an operation signals a sink that is shared by the
+ * requests waiting on the operation, so the waiting requests do not hold a thread.
+ *
+ * @author agent
+ */
+public class AsyncOperationTracker {
+
+	/**
+	 * The default time an operation is held after its state was last recorded
+	 */
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+	private final OperationStateStore operations;
+
+	private final ConcurrentMap<OperationKey, Sinks.One<TrackedOperation>> changes = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<OperationKey, String> heldOperations = new ConcurrentHashMap<>();
+
+	private final long timeToLive;
+
+	private final Clock clock;
+
+	private final AdaptivePollingIntervals pollingIntervals;
+
+	private final AtomicLong nextEviction;
+
+	/**
+	 * Construct a new {@link AsyncOperationTracker} with the default time to live
+	 */
+	public AsyncOperationTracker() {
+		this(DEFAULT_TIME_TO_LIVE);
+	}
+
+	/**
+	 * Construct a new {@link AsyncOperationTracker}
+	 *
+	 * @param timeToLive the time an operation is held after its state was last recorded
+	 */
+	public AsyncOperationTracker(Duration timeToLive) {
+		this(timeToLive, Clock.systemUTC(), null);
+	}
+
+	/**
+	 * Construct a new {@link AsyncOperationTracker}
+	 *
+	 * @param timeToLive the time an operation is held after its state was last recorded
+	 * @param clock the clock the times of the operations are read from
+	 */
+	public AsyncOperationTracker(Duration timeToLive, Clock clock) {
+		this(timeToLive, clock, null);
+	}
+
+	/**
+	 * Construct a new {@link AsyncOperationTracker}
+	 *
+	 * @param timeToLive the time an operation is held after its state was last recorded
+	 * @param clock the clock the times of the operations are read from
+	 * @param pollingIntervals the adaptive polling intervals, or {@literal null} to let the platform poll at its own
+	 * 		interval
+	 */
+	public AsyncOperationTracker(Duration timeToLive, Clock clock, AdaptivePollingIntervals pollingIntervals) {
+		this(timeToLive, clock, pollingIntervals, new InMemoryOperationStateStore());
+	}
+
+	/**
+	 * Construct a new {@link AsyncOperationTracker}
+	 *
+	 * @param timeToLive the time an operation is held after its state was last recorded
+	 * @param clock the clock the times of the operations are read from
+	 * @param pollingIntervals the adaptive polling intervals, or {@literal null} to let the platform poll at its own
+	 * 		interval
+	 * @param store the store the state of the operations is held in
+	 */
+	public AsyncOperationTracker(Duration timeToLive, Clock clock, AdaptivePollingIntervals pollingIntervals,
+			OperationStateStore store) {
+		Assert.isTrue(!timeToLive.isNegative() && !timeToLive.isZero(), "timeToLive must be positive");
+		Assert.notNull(store, "store must not be null");
+		this.operations = store;
+		this.timeToLive = timeToLive.toMillis();
+		this.clock = clock;
+		this.pollingIntervals = pollingIntervals;
+		this.nextEviction = new AtomicLong(clock.millis() + this.timeToLive);
+	}
+
+	/**
+	 * Track an operation that was accepted by the service and is in progress
+	 *
+	 * @param operation the operation
+	 * @return the tracked operation
+	 */
+	public TrackedOperation start(TrackedOperation operation) {
+		long now = this.clock.millis();
+		TrackedOperation started = operation.mutate()
+				.state(OperationState.IN_PROGRESS)
+				.times(now, now)
+				.build();
+		this.operations.put(started);
+		changed(started.getKey(), started);
+		evictExpired(now);
+		return started;
+	}
+
+	/**
+	 * Track an operation that runs in the service broker and is in progress. The operation is not evicted while it is
+	 * in progress until it is released with {@link #release(OperationKey, String)}, so its state does not expire
+	 * while nothing but the operation itself can update it.
+	 *
+	 * @param operation the operation
+	 * @return the tracked operation
+	 */
+	public TrackedOperation hold(TrackedOperation operation) {
+		this.heldOperations.put(operation.getKey(), operation.getOperation());
+		return start(operation);
+	}
+
+	/**
+	 * Release an operation tracked with {@link #hold(TrackedOperation)} once it completed, so that it is evicted when
+	 * it is not updated within the time to live
+	 *
+	 * @param key the service instance or binding the operation is performed on
+	 * @param operation the operation token
+	 */
+	public void release(OperationKey key, String operation) {
+		this.heldOperations.remove(key, operation);
+	}
+
+	/**
+	 * Record the state of an operation reported by the service, tracking the operation if it is not tracked yet
+	 *
+	 * @param operation the operation
+	 * @return the tracked operation
+	 */
+	public TrackedOperation record(TrackedOperation operation) {
+		long now = this.clock.millis();
+		TrackedOperation[] previous = new TrackedOperation[1];
+		TrackedOperation recorded = this.operations.compute(operation.getKey(), current -> {
+			previous[0] = current;
+			boolean same = current != null && Objects.equals(current.getOperation(), operation.getOperation());
+			return operation.mutate()
+					.times(same ? current.getStartTime() : now, now)
+					.build();
+		});
+		completed(previous[0], recorded);
+		changed(recorded.getKey(), recorded);
+		evictExpired(now);
+		return recorded;
+	}
+
+	/**
+	 * Push a transition of the state of an operation. The transition is ignored if another operation on the service
+	 * instance or binding is tracked.
+	 *
+	 * @param key the service instance or binding the operation is performed on
+	 * @param operation the operation token, or {@literal null} to update the tracked operation regardless of its token
+	 * @param state the new state of the operation
+	 * @param description the description of the state, or {@literal null}
+	 * @return true if the transition was recorded
+	 */
+	public boolean update(OperationKey key, String operation, OperationState state, String description) {
+		long now = this.clock.millis();
+		TrackedOperation[] previous = new TrackedOperation[1];
+		TrackedOperation updated = this.operations.compute(key, current -> {
+			previous[0] = current;
+			if (current == null) {
+				return TrackedOperation.builder()
+						.key(key)
+						.operation(operation)
+						.state(state)
+						.description(description)
+						.times(now, now)
+						.build();
+			}
+			if (!current.matches(operation) && current.getOperation() != null) {
+				return current;
+			}
+			return current.mutate()
+					.operation(current.getOperation() == null ? operation : current.getOperation())
+					.state(state)
+					.description(description)
+					.times(current.getStartTime(), now)
+					.build();
+		});
+		completed(previous[0], updated);
+		boolean recorded = updated != previous[0];
+		if (recorded) {
+			changed(key, updated);
+		}
+		evictExpired(now);
+		return recorded;
+	}
+
+	/**
+	 * Get the tracked state of an operation
+	 *
+	 * @param key the service instance or binding the operation is performed on
+	 * @param operation the operation token in the last operation request, or {@literal null}
+	 * @return the state of the operation, or {@literal null} if no matching operation is tracked
+	 */
+	public TrackedOperation get(OperationKey key, String operation) {
+		TrackedOperation tracked = this.operations.get(key);
+		if (tracked == null) {
+			return null;
+		}
+		if (isExpired(tracked, this.clock.millis())) {
+			if (this.operations.remove(tracked)) {
+				changed(key, null);
+			}
+			return null;
+		}
+		return tracked.matches(operation) ? tracked : null;
+	}
+
+	/**
+	 * Wait for the state of a tracked operation to change. The returned {@link Mono} completes when the operation is
+	 * updated, replaced by another operation, or no longer tracked, or when the maximum wait has elapsed.
+	 *
+	 * @param tracked the tracked operation, as returned by {@link #get(OperationKey, String)}
+	 * @param maximumWait the longest time to wait for a change
+	 * @return the changed operation, or an empty {@link Mono} if the operation is no longer tracked or did not change
+	 * 		within the maximum wait
+	 */
+	public Mono<TrackedOperation> awaitChange(TrackedOperation tracked, Duration maximumWait) {
+		return Mono.defer(() -> {
+			Sinks.One<TrackedOperation> sink = this.changes.computeIfAbsent(tracked.getKey(), key -> Sinks.one());
+			TrackedOperation current = this.operations.get(tracked.getKey());
+			if (current != tracked) {
+				return Mono.justOrEmpty(current);
+			}
+			return sink.asMono()
+					.timeout(maximumWait, Mono.empty());
+		});
+	}
+
+	/**
+	 * Get how long the platform should wait before polling for the state of an operation again. The interval
+	 * supplied by the service is used when available. Otherwise an interval is derived from the adaptive polling
+	 * intervals for an operation that is in progress.
+	 *
+	 * @param tracked the tracked operation
+	 * @return the interval, or an empty {@link Mono} to let the platform poll at its own interval
+	 */
+	public Mono<Duration> getRetryAfter(TrackedOperation tracked) {
+		if (tracked.getRetryAfter() != null) {
+			return Mono.just(tracked.getRetryAfter());
+		}
+		if (this.pollingIntervals == null || tracked.getState() != OperationState.IN_PROGRESS) {
+			return Mono.empty();
+		}
+		return this.pollingIntervals.getRetryAfter(tracked, this.clock.millis() - tracked.getStartTime());
+	}
+
+	/**
+	 * Stop tracking the operations on a service instance or binding
+	 *
+	 * @param key the service instance or binding
+	 */
+	public void remove(OperationKey key) {
+		if (this.operations.remove(key) != null) {
+			changed(key, null);
+		}
+	}
+
+	/**
+	 * Get the number of tracked operations, including expired operations that are not evicted yet
+	 *
+	 * @return the number of operations
+	 */
+	public int size() {
+		return this.operations.size();
+	}
+
+	private void completed(TrackedOperation previous, TrackedOperation current) {
+		if (this.pollingIntervals != null && previous != null && previous != current
+				&& previous.getState() == OperationState.IN_PROGRESS
+				&& current.getState() != OperationState.IN_PROGRESS
+				&& current.getStartTime() == previous.getStartTime()) {
+			this.pollingIntervals.recordDuration(current.getPlanId(), current.getUpdateTime() - current.getStartTime());
+		}
+	}
+
+	private void changed(OperationKey key, TrackedOperation current) {
+		Sinks.One<TrackedOperation> sink = this.changes.remove(key);
+		if (sink != null) {
+			if (current == null) {
+				sink.tryEmitEmpty();
+			}
+			else {
+				sink.tryEmitValue(current);
+			}
+		}
+	}
+
+	private boolean isExpired(TrackedOperation tracked, long now) {
+		return now - tracked.getUpdateTime() >= this.timeToLive && !isHeld(tracked);
+	}
+
+	private boolean isHeld(TrackedOperation tracked) {
+		return tracked.getState() == OperationState.IN_PROGRESS && tracked.getOperation() != null
+				&& tracked.getOperation().equals(this.heldOperations.get(tracked.getKey()));
+	}
+
+	private void evictExpired(long now) {
+		long next = this.nextEviction.get();
+		if (now < next || !this.nextEviction.compareAndSet(next, now + this.timeToLive)) {
+			return;
+		}
+		this.operations.forEach(tracked -> {
+			if (isExpired(tracked, now) && this.operations.remove(tracked)) {
+				changed(tracked.getKey(), null);
+			}
+		});
+		for (OperationKey key : this.changes.keySet()) {
+			if (this.operations.get(key) == null) {
+				changed(key, null);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,598 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link OperationStateStore} that holds the operations in memory and in an append-only log file in a directory,
+ * so that the operations survive a restart of the service broker without a database.
+ *
+ * <p>
+ * Every change to an operation appends a record with the complete state of the operation, or a removal, to the log.
+ * The records are written by a single writer thread, which waits up to the commit interval for further changes and
+ * then writes and forces all of them to disk at once, so concurrent changes share one fsync. Changes are visible in
+ * memory immediately, and the changes made within the last commit interval can be lost on a crash. If a batch cannot
+ * be written, the log is cut back to the end of the last batch that was written, so that a partially written record
+ * never hides the records written after it, and the batch is written again together with the next changes.
+ *
+ * <p>
+ * When the log holds more than the compaction threshold of records and more than twice as many records as there are
+ * operations, the writer thread rewrites the log with one record for each operation and atomically replaces the old
+ * log. The rewritten log is built from the records the writer thread has written, not from the operations in memory,
+ * so it holds exactly the state of the log it replaces, and the changes that are still queued are written after it.
+ * The log is read back into memory when the store is {@link #open() opened}, and a partially written record at the
+ * end of the log is discarded.
+ *
+ * @author agent
+ */
+public class FileOperationStateStore implements OperationStateStore, Closeable {
+
+	/**
+	 * The default time the writer thread waits for further changes before forcing them to disk
+	 */
+	public static final Duration DEFAULT_COMMIT_INTERVAL = Duration.ofMillis(5);
+
+	/**
+	 * The default number of records the log holds before it is compacted
+	 */
+	public static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+
+	private static final Logger LOG = LoggerFactory.getLogger(FileOperationStateStore.class);
+
+	private static final int HEADER_SIZE = 8;
+
+	private static final String LOG_FILE = "operations.log";
+
+	private static final String COMPACTION_FILE = LOG_FILE + ".tmp";
+
+	private static final int PUT = 1;
+
+	private static final int REMOVE = 2;
+
+	private static final long RETRY_INTERVAL_MILLIS = 1000;
+
+	private final ConcurrentMap<OperationKey, TrackedOperation> operations = new ConcurrentHashMap<>();
+
+	private final BlockingQueue<Record> records = new LinkedBlockingQueue<>();
+
+	/**
+	 * The operations as recorded in the log, only accessed by the writer thread once the store is open
+	 */
+	private final Map<OperationKey, TrackedOperation> logged = new HashMap<>();
+
+	private final Object lifecycleMonitor = new Object();
+
+	private final Path directory;
+
+	private final Duration commitInterval;
+
+	private final int compactionThreshold;
+
+	private FileChannel log;
+
+	/**
+	 * The length of the complete records in the log, only accessed by the writer thread once the store is open
+	 */
+	private long logLength;
+
+	private int unwrittenCount;
+
+	@SuppressWarnings("PMD.AvoidUsingVolatile")
+	private volatile long logRecordCount;
+
+	@SuppressWarnings("PMD.AvoidUsingVolatile")
+	private volatile boolean open;
+
+	private Scheduler writerScheduler;
+
+	private CountDownLatch written;
+
+	/**
+	 * Construct a new {@link FileOperationStateStore} with the default commit interval and compaction threshold
+	 *
+	 * @param directory the directory of the log file
+	 */
+	public FileOperationStateStore(Path directory) {
+		this(directory, DEFAULT_COMMIT_INTERVAL, DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	/**
+	 * Construct a new {@link FileOperationStateStore}
+	 *
+	 * @param directory the directory of the log file
+	 * @param commitInterval how long the writer thread waits for further changes before forcing them to disk
+	 * @param compactionThreshold the number of records the log holds before it is compacted
+	 */
+	public FileOperationStateStore(Path directory, Duration commitInterval, int compactionThreshold) {
+		Assert.notNull(directory, "directory must not be null");
+		Assert.isTrue(commitInterval != null && !commitInterval.isNegative(), "commitInterval must not be negative");
+		Assert.isTrue(compactionThreshold > 0, "compactionThreshold must be positive");
+		this.directory = directory;
+		this.commitInterval = commitInterval;
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	/**
+	 * Open the store, reading the operations back from the log, and start the writer thread
+	 *
+	 * @throws IOException if the log cannot be read or created
+	 */
+	public void open() throws IOException {
+		synchronized (this.lifecycleMonitor) {
+			if (this.open) {
+				return;
+			}
+			Files.createDirectories(this.directory);
+			Files.deleteIfExists(this.directory.resolve(COMPACTION_FILE));
+			long length = recover();
+			this.log = FileChannel.open(this.directory.resolve(LOG_FILE), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE);
+			this.log.truncate(length);
+			this.log.position(length);
+			this.logLength = length;
+			if (isCompactionDue()) {
+				compact();
+			}
+			this.open = true;
+			CountDownLatch latch = new CountDownLatch(1);
+			this.written = latch;
+			this.writerScheduler = Schedulers.newBoundedElastic(1, 1, "operation-state-store", 60, true);
+			this.writerScheduler.schedule(() -> {
+				try {
+					write();
+				}
+				finally {
+					latch.countDown();
+				}
+			});
+		}
+	}
+
+	@Override
+	public TrackedOperation get(OperationKey key) {
+		return this.operations.get(key);
+	}
+
+	@Override
+	public void put(TrackedOperation operation) {
+		this.operations.compute(operation.getKey(), (key, current) -> {
+			append(key, operation);
+			return operation;
+		});
+	}
+
+	@Override
+	public TrackedOperation compute(OperationKey key, UnaryOperator<TrackedOperation> remapping) {
+		return this.operations.compute(key, (k, current) -> {
+			TrackedOperation updated = remapping.apply(current);
+			if (updated != current) {
+				append(k, updated);
+			}
+			return updated;
+		});
+	}
+
+	@Override
+	public TrackedOperation remove(OperationKey key) {
+		TrackedOperation[] removed = new TrackedOperation[1];
+		this.operations.computeIfPresent(key, (k, current) -> {
+			removed[0] = current;
+			append(k, null);
+			return null;
+		});
+		return removed[0];
+	}
+
+	@Override
+	public boolean remove(TrackedOperation operation) {
+		boolean[] removed = new boolean[1];
+		this.operations.computeIfPresent(operation.getKey(), (key, current) -> {
+			if (current != operation) {
+				return current;
+			}
+			removed[0] = true;
+			append(key, null);
+			return null;
+		});
+		return removed[0];
+	}
+
+	@Override
+	public void forEach(Consumer<TrackedOperation> action) {
+		this.operations.values().forEach(action);
+	}
+
+	@Override
+	public int size() {
+		return this.operations.size();
+	}
+
+	/**
+	 * Get the number of records in the log, including the records written since the log was last compacted
+	 *
+	 * @return the number of records
+	 */
+	public long getLogRecordCount() {
+		return this.logRecordCount;
+	}
+
+	/**
+	 * Stop the writer thread, after writing the changes made so far and forcing them to disk
+	 *
+	 * @throws IOException if the log cannot be closed, or the changes made so far cannot be written
+	 */
+	@Override
+	@SuppressWarnings("PMD.NullAssignment")
+	public void close() throws IOException {
+		synchronized (this.lifecycleMonitor) {
+			if (!this.open) {
+				return;
+			}
+			this.open = false;
+			this.records.add(Record.CLOSE);
+			try {
+				this.written.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.writerScheduler.dispose();
+			this.writerScheduler = null;
+			this.written = null;
+			this.log.close();
+			this.log = null;
+			if (this.unwrittenCount > 0) {
+				throw new IOException("Unable to write " + this.unwrittenCount + " changes to the operation state log");
+			}
+		}
+	}
+
+	private void append(OperationKey key, TrackedOperation operation) {
+		Assert.state(this.open, "The operation state store is not open");
+		this.records.add(new Record(key, operation));
+	}
+
+	private void write() {
+		List<Record> batch = new ArrayList<>();
+		boolean running = true;
+		while (running) {
+			try {
+				// a batch that could not be written is retried with the next changes, or after the retry interval
+				Record record = batch.isEmpty() ? this.records.take()
+						: this.records.poll(RETRY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+				if (record != null) {
+					batch.add(record);
+				}
+				if (!this.commitInterval.isZero()) {
+					TimeUnit.NANOSECONDS.sleep(this.commitInterval.toNanos());
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				running = false;
+			}
+			this.records.drainTo(batch);
+			if (batch.remove(Record.CLOSE)) {
+				running = false;
+			}
+			if (writeBatch(batch)) {
+				batch.clear();
+			}
+		}
+		this.unwrittenCount = batch.size();
+		if (!batch.isEmpty()) {
+			LOG.error("Discarding " + batch.size() + " changes that could not be written to the operation state log");
+		}
+	}
+
+	private boolean writeBatch(List<Record> batch) {
+		if (batch.isEmpty()) {
+			return true;
+		}
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			for (Record record : batch) {
+				bytes.write(encode(record.key, record.operation));
+			}
+			if (this.log.size() > this.logLength) {
+				// a previous batch was written in part and the log could not be cut back then
+				this.log.truncate(this.logLength);
+			}
+			this.log.position(this.logLength);
+			writeFully(this.log, ByteBuffer.wrap(bytes.toByteArray()));
+			this.log.force(false);
+			this.logLength += bytes.size();
+			this.logRecordCount += batch.size();
+		}
+		catch (IOException e) {
+			LOG.error("Unable to write " + batch.size() + " changes to the operation state log, they are written " +
+					"again with the next changes. error=" + e.getMessage(), e);
+			discardPartialBatch();
+			return false;
+		}
+		for (Record record : batch) {
+			logged(record.key, record.operation);
+		}
+		if (isCompactionDue()) {
+			try {
+				compact();
+			}
+			catch (IOException e) {
+				LOG.error("Unable to compact operation state log. error=" + e.getMessage(), e);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Cut the log back to the end of the last batch that was written, reopening it if it cannot be truncated, since the
+	 * records appended after a partially written record would not be read back.
+	 */
+	private void discardPartialBatch() {
+		try {
+			this.log.truncate(this.logLength);
+			return;
+		}
+		catch (IOException e) {
+			LOG.warn("Unable to truncate operation state log, reopening it. error=" + e.getMessage());
+		}
+		try {
+			this.log.close();
+		}
+		catch (IOException e) {
+			LOG.debug("Unable to close operation state log. error=" + e.getMessage());
+		}
+		try {
+			this.log = FileChannel.open(this.directory.resolve(LOG_FILE), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE);
+			this.log.truncate(this.logLength);
+		}
+		catch (IOException e) {
+			LOG.error("Unable to reopen operation state log. error=" + e.getMessage(), e);
+		}
+	}
+
+	private boolean isCompactionDue() {
+		return this.logRecordCount >= this.compactionThreshold && this.logRecordCount > 2L * this.logged.size();
+	}
+
+	private void logged(OperationKey key, TrackedOperation operation) {
+		if (operation == null) {
+			this.logged.remove(key);
+		}
+		else {
+			this.logged.put(key, operation);
+		}
+	}
+
+	/**
+	 * Rewrite the log with one record for each operation recorded in it. The operations in memory are not used, since
+	 * a change is queued for the writer thread before it is visible in memory, and a change made while the log is
+	 * rewritten is written after the rewritten records.
+	 */
+	private void compact() throws IOException {
+		Path compacted = this.directory.resolve(COMPACTION_FILE);
+		long count = 0;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (TrackedOperation operation : this.logged.values()) {
+				bytes.write(encode(operation.getKey(), operation));
+				count++;
+			}
+			writeFully(channel, ByteBuffer.wrap(bytes.toByteArray()));
+			channel.force(true);
+		}
+		this.log.close();
+		try {
+			Files.move(compacted, this.directory.resolve(LOG_FILE), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			this.logLength = bytes.size();
+		}
+		finally {
+			this.log = FileChannel.open(this.directory.resolve(LOG_FILE), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE);
+			this.log.position(this.log.size());
+		}
+		this.logRecordCount = count;
+	}
+
+	private long recover() throws IOException {
+		Path file = this.directory.resolve(LOG_FILE);
+		this.logged.clear();
+		if (!Files.exists(file)) {
+			return 0;
+		}
+		long size = Files.size(file);
+		long length = 0;
+		long count = 0;
+		CRC32 crc = new CRC32();
+		try (InputStream stream = new BufferedInputStream(Files.newInputStream(file));
+				DataInputStream in = new DataInputStream(stream)) {
+			while (length + HEADER_SIZE <= size) {
+				int recordLength = in.readInt();
+				int checksum = in.readInt();
+				if (recordLength <= 0 || length + HEADER_SIZE + recordLength > size) {
+					break;
+				}
+				byte[] payload = new byte[recordLength];
+				in.readFully(payload);
+				crc.reset();
+				crc.update(payload, 0, recordLength);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+				apply(payload);
+				length += HEADER_SIZE + recordLength;
+				count++;
+			}
+		}
+		if (length < size) {
+			LOG.warn("Discarding " + (size - length) + " bytes after the last valid record of " + file);
+		}
+		this.logRecordCount = count;
+		if (!this.operations.isEmpty()) {
+			LOG.info("Recovered " + this.operations.size() + " tracked operations from " + this.directory);
+		}
+		return length;
+	}
+
+	private void apply(byte[] payload) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+			int type = in.readByte();
+			OperationKey key = readKey(in);
+			if (type == REMOVE) {
+				this.operations.remove(key);
+				logged(key, null);
+				return;
+			}
+			TrackedOperation.TrackedOperationBuilder builder = TrackedOperation.builder()
+					.key(key)
+					.operation(readString(in))
+					.serviceDefinitionId(readString(in))
+					.planId(readString(in))
+					.state(OperationState.valueOf(readString(in)))
+					.description(readString(in))
+					.deleteOperation(in.readBoolean());
+			if (in.readBoolean()) {
+				builder.retryAfter(Duration.ofMillis(in.readLong()));
+			}
+			TrackedOperation operation = builder
+					.times(in.readLong(), in.readLong())
+					.build();
+			this.operations.put(key, operation);
+			logged(key, operation);
+		}
+	}
+
+	private static byte[] encode(OperationKey key, TrackedOperation operation) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(operation == null ? REMOVE : PUT);
+			writeString(out, key.getServiceInstanceId());
+			writeString(out, key.getBindingId());
+			if (operation != null) {
+				writeString(out, operation.getOperation());
+				writeString(out, operation.getServiceDefinitionId());
+				writeString(out, operation.getPlanId());
+				writeString(out, operation.getState().name());
+				writeString(out, operation.getDescription());
+				out.writeBoolean(operation.isDeleteOperation());
+				out.writeBoolean(operation.getRetryAfter() != null);
+				if (operation.getRetryAfter() != null) {
+					out.writeLong(operation.getRetryAfter().toMillis());
+				}
+				out.writeLong(operation.getStartTime());
+				out.writeLong(operation.getUpdateTime());
+			}
+		}
+		byte[] payload = bytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(payload, 0, payload.length);
+		return ByteBuffer.allocate(HEADER_SIZE + payload.length)
+				.putInt(payload.length)
+				.putInt((int) crc.getValue())
+				.put(payload)
+				.array();
+	}
+
+	private static OperationKey readKey(DataInputStream in) throws IOException {
+		String serviceInstanceId = readString(in);
+		String bindingId = readString(in);
+		return bindingId == null ? OperationKey.forServiceInstance(serviceInstanceId)
+				: OperationKey.forServiceInstanceBinding(serviceInstanceId, bindingId);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static final class Record {
+
+		private static final Record CLOSE = new Record(null, null);
+
+		private final OperationKey key;
+
+		private final TrackedOperation operation;
+
+		private Record(OperationKey key, TrackedOperation operation) {
+			this.key = key;
+			this.operation = operation;
+		}
+
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * An {@link OperationStateStore} that holds the operations in memory. The operations are lost when the service broker
+ * stops.
+ *
+ * <p>
+ * The operations are held in a {@link ConcurrentHashMap}, which locks each bin of the map separately, so updates of
+ * different service instances and bindings rarely contend and reads never lock.
+ *
+ * @author agent
+ */
+public class InMemoryOperationStateStore implements OperationStateStore {
+
+	private final ConcurrentMap<OperationKey, TrackedOperation> operations = new ConcurrentHashMap<>();
+
+	@Override
+	public TrackedOperation get(OperationKey key) {
+		return this.operations.get(key);
+	}
+
+	@Override
+	public void put(TrackedOperation operation) {
+		this.operations.put(operation.getKey(), operation);
+	}
+
+	@Override
+	public TrackedOperation compute(OperationKey key, UnaryOperator<TrackedOperation> remapping) {
+		return this.operations.compute(key, (k, current) -> remapping.apply(current));
+	}
+
+	@Override
+	public TrackedOperation remove(OperationKey key) {
+		return this.operations.remove(key);
+	}
+
+	@Override
+	public boolean remove(TrackedOperation operation) {
+		return this.operations.remove(operation.getKey(), operation);
+	}
+
+	@Override
+	public void forEach(Consumer<TrackedOperation> action) {
+		this.operations.values().forEach(action);
+	}
+
+	@Override
+	public int size() {
+		return this.operations.size();
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.util.Objects;
+
+/**
+ * Identifies the service instance or service instance binding an asynchronous operation is performed on
+ *
+ * @author agent
+ */
+public final class OperationKey {
+
+	private final String serviceInstanceId;
+
+	private final String bindingId;
+
+	private OperationKey(String serviceInstanceId, String bindingId) {
+		this.serviceInstanceId = serviceInstanceId;
+		this.bindingId = bindingId;
+	}
+
+	/**
+	 * Create the key of the operations on a service instance
+	 *
+	 * @param serviceInstanceId the service instance ID
+	 * @return the key
+	 */
+	public static OperationKey forServiceInstance(String serviceInstanceId) {
+		return new OperationKey(serviceInstanceId, null);
+	}
+
+	/**
+	 * Create the key of the operations on a service instance binding
+	 *
+	 * @param serviceInstanceId the service instance ID
+	 * @param bindingId the service instance binding ID
+	 * @return the key
+	 */
+	public static OperationKey forServiceInstanceBinding(String serviceInstanceId, String bindingId) {
+		return new OperationKey(serviceInstanceId, bindingId);
+	}
+
+	public String getServiceInstanceId() {
+		return this.serviceInstanceId;
+	}
+
+	/**
+	 * Get the service instance binding ID
+	 *
+	 * @return the binding ID, or {@literal null} if the key identifies a service instance
+	 */
+	public String getBindingId() {
+		return this.bindingId;
+	}
+
+	/**
+	 * Whether the key identifies a service instance binding
+	 *
+	 * @return true if the key identifies a service instance binding
+	 */
+	public boolean isBinding() {
+		return this.bindingId != null;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof OperationKey)) {
+			return false;
+		}
+		OperationKey that = (OperationKey) o;
+		return Objects.equals(serviceInstanceId, that.serviceInstanceId) &&
+				Objects.equals(bindingId, that.bindingId);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(serviceInstanceId, bindingId);
+	}
+
+	@Override
+	public String toString() {
+		return "OperationKey{" +
+				"serviceInstanceId='" + serviceInstanceId + '\'' +
+				", bindingId='" + bindingId + '\'' +
+				'}';
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the state of the asynchronous operations tracked by an {@link AsyncOperationTracker}. Implementations decide
+ * where the state lives, for example in memory or in storage that survives a restart of the service broker.
+ *
+ * <p>
+ * Implementations must be thread-safe, and must apply {@link #compute(OperationKey, UnaryOperator)} atomically for a
+ * key. Operations are compared by identity, so implementations must return the instances they were given while those
+ * instances are held.
+ *
+ * @author agent
+ * @see InMemoryOperationStateStore
+ * @see FileOperationStateStore
+ */
+public interface OperationStateStore {
+
+	/**
+	 * Get the operation on a service instance or binding
+	 *
+	 * @param key the service instance or binding
+	 * @return the operation, or {@literal null} if none is held
+	 */
+	TrackedOperation get(OperationKey key);
+
+	/**
+	 * Hold an operation, replacing the operation held for the same service instance or binding
+	 *
+	 * @param operation the operation
+	 */
+	void put(TrackedOperation operation);
+
+	/**
+	 * Atomically replace the operation on a service instance or binding
+	 *
+	 * @param key the service instance or binding
+	 * @param remapping computes the new operation from the operation held, or {@literal null} if none is held, and
+	 * 		returns {@literal null} to remove the operation
+	 * @return the new operation, or {@literal null} if none is held
+	 */
+	TrackedOperation compute(OperationKey key, UnaryOperator<TrackedOperation> remapping);
+
+	/**
+	 * Remove the operation on a service instance or binding
+	 *
+	 * @param key the service instance or binding
+	 * @return the removed operation, or {@literal null} if none was held
+	 */
+	TrackedOperation remove(OperationKey key);
+
+	/**
+	 * Remove an operation if it is still the operation held for its service instance or binding
+	 *
+	 * @param operation the operation
+	 * @return true if the operation was removed
+	 */
+	boolean remove(TrackedOperation operation);
+
+	/**
+	 * Perform an action for each operation held. The operations changed during the iteration may or may not be seen.
+	 *
+	 * @param action the action
+	 */
+	void forEach(Consumer<TrackedOperation> action);
+
+	/**
+	 * Get the number of operations held
+	 *
+	 * @return the number of operations
+	 */
+	int size();
+
+}
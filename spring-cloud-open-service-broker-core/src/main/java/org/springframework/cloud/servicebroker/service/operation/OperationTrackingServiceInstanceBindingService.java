@@ -0,0 +1,174 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.time.Duration;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.AsyncServiceBrokerResponse;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+
+/**
+ * Internal implementation of {@link ServiceInstanceBindingService} that tracks the asynchronous operations of a
+ * service in an {@link AsyncOperationTracker}, and answers last operation requests from the tracker when it holds the
+ * operation.
+ *
+ * <p>
+ * When a long poll timeout is set, a last operation request for a tracked operation in progress is held until the
+ * state of the operation changes or the timeout elapses, and is then answered with the state of the operation at
+ * that time.
+ *
+ * @author agent
+ */
+public class OperationTrackingServiceInstanceBindingService implements ServiceInstanceBindingService {
+
+	private final ServiceInstanceBindingService service;
+
+	private final AsyncOperationTracker tracker;
+
+	private final Duration longPollTimeout;
+
+	/**
+	 * Construct a new {@link OperationTrackingServiceInstanceBindingService}
+	 *
+	 * @param service the service instance binding service
+	 * @param tracker the tracker of the asynchronous operations
+	 */
+	public OperationTrackingServiceInstanceBindingService(ServiceInstanceBindingService service,
+			AsyncOperationTracker tracker) {
+		this(service, tracker, null);
+	}
+
+	/**
+	 * Construct a new {@link OperationTrackingServiceInstanceBindingService}
+	 *
+	 * @param service the service instance binding service
+	 * @param tracker the tracker of the asynchronous operations
+	 * @param longPollTimeout the longest time a last operation request for a tracked operation in progress waits for
+	 * 		the state of the operation to change, or {@literal null} to answer immediately
+	 */
+	public OperationTrackingServiceInstanceBindingService(ServiceInstanceBindingService service,
+			AsyncOperationTracker tracker, Duration longPollTimeout) {
+		this.service = service;
+		this.tracker = tracker;
+		this.longPollTimeout = longPollTimeout;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceBindingResponse> createServiceInstanceBinding(
+			CreateServiceInstanceBindingRequest request) {
+		return this.service.createServiceInstanceBinding(request)
+				.doOnNext(response -> track(OperationKey.forServiceInstanceBinding(request.getServiceInstanceId(),
+						request.getBindingId()), request.getServiceDefinitionId(), request.getPlanId(), response,
+						false));
+	}
+
+	@Override
+	public Mono<GetServiceInstanceBindingResponse> getServiceInstanceBinding(
+			GetServiceInstanceBindingRequest request) {
+		return this.service.getServiceInstanceBinding(request);
+	}
+
+	@Override
+	public Mono<GetLastServiceBindingOperationResponse> getLastOperation(
+			GetLastServiceBindingOperationRequest request) {
+		return getLastOperation(request, this.longPollTimeout);
+	}
+
+	private Mono<GetLastServiceBindingOperationResponse> getLastOperation(
+			GetLastServiceBindingOperationRequest request, Duration maximumWait) {
+		return Mono.defer(() -> {
+			OperationKey key = OperationKey.forServiceInstanceBinding(request.getServiceInstanceId(),
+					request.getBindingId());
+			TrackedOperation tracked = this.tracker.get(key, request.getOperation());
+			if (tracked != null) {
+				if (maximumWait != null && tracked.getState() == OperationState.IN_PROGRESS) {
+					return this.tracker.awaitChange(tracked, maximumWait)
+							.then(getLastOperation(request, null));
+				}
+				return toResponse(tracked);
+			}
+			return this.service.getLastOperation(request)
+					.flatMap(response -> {
+						if (response.getState() == null) {
+							return Mono.just(response);
+						}
+						return toResponse(this.tracker.record(TrackedOperation.builder()
+								.key(key)
+								.operation(request.getOperation())
+								.serviceDefinitionId(request.getServiceDefinitionId())
+								.planId(request.getPlanId())
+								.state(response.getState())
+								.description(response.getDescription())
+								.deleteOperation(response.isDeleteOperation())
+								.retryAfter(response.getRetryAfter())
+								.build()));
+					});
+		});
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceBindingResponse> deleteServiceInstanceBinding(
+			DeleteServiceInstanceBindingRequest request) {
+		return this.service.deleteServiceInstanceBinding(request)
+				.doOnNext(response -> track(OperationKey.forServiceInstanceBinding(request.getServiceInstanceId(),
+						request.getBindingId()), request.getServiceDefinitionId(), request.getPlanId(), response,
+						true));
+	}
+
+	private void track(OperationKey key, String serviceDefinitionId, String planId,
+			AsyncServiceBrokerResponse response, boolean deleteOperation) {
+		if (response.isAsync()) {
+			this.tracker.start(TrackedOperation.builder()
+					.key(key)
+					.operation(response.getOperation())
+					.serviceDefinitionId(serviceDefinitionId)
+					.planId(planId)
+					.deleteOperation(deleteOperation)
+					.build());
+		}
+		else {
+			this.tracker.remove(key);
+		}
+	}
+
+	private Mono<GetLastServiceBindingOperationResponse> toResponse(TrackedOperation tracked) {
+		return this.tracker.getRetryAfter(tracked)
+				.map(retryAfter -> toResponse(tracked, retryAfter))
+				.switchIfEmpty(Mono.fromSupplier(() -> toResponse(tracked, null)));
+	}
+
+	private static GetLastServiceBindingOperationResponse toResponse(TrackedOperation tracked, Duration retryAfter) {
+		return GetLastServiceBindingOperationResponse.builder()
+				.operationState(tracked.getState())
+				.description(tracked.getDescription())
+				.deleteOperation(tracked.isDeleteOperation())
+				.retryAfter(retryAfter)
+				.build();
+	}
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.time.Duration;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.AsyncServiceBrokerResponse;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+
+/**
+ * Internal implementation of {@link ServiceInstanceService} that tracks the asynchronous operations of a service in an
+ * {@link AsyncOperationTracker}, and answers last operation requests from the tracker when it holds the operation.
+ *
+ * <p>
+ * When a long poll timeout is set, a last operation request for a tracked operation in progress is held until the
+ * state of the operation changes or the timeout elapses, and is then answered with the state of the operation at
+ * that time.
+ *
+ * @author agent
+ */
+public class OperationTrackingServiceInstanceService implements ServiceInstanceService {
+
+	private final ServiceInstanceService service;
+
+	private final AsyncOperationTracker tracker;
+
+	private final Duration longPollTimeout;
+
+	/**
+	 * Construct a new {@link OperationTrackingServiceInstanceService}
+	 *
+	 * @param service the service instance service
+	 * @param tracker the tracker of the asynchronous operations
+	 */
+	public OperationTrackingServiceInstanceService(ServiceInstanceService service, AsyncOperationTracker tracker) {
+		this(service, tracker, null);
+	}
+
+	/**
+	 * Construct a new {@link OperationTrackingServiceInstanceService}
+	 *
+	 * @param service the service instance service
+	 * @param tracker the tracker of the asynchronous operations
+	 * @param longPollTimeout the longest time a last operation request for a tracked operation in progress waits for
+	 * 		the state of the operation to change, or {@literal null} to answer immediately
+	 */
+	public OperationTrackingServiceInstanceService(ServiceInstanceService service, AsyncOperationTracker tracker,
+			Duration longPollTimeout) {
+		this.service = service;
+		this.tracker = tracker;
+		this.longPollTimeout = longPollTimeout;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
+		return this.service.createServiceInstance(request)
+				.doOnNext(response -> track(request.getServiceInstanceId(), request.getServiceDefinitionId(),
+						request.getPlanId(), response, false));
+	}
+
+	@Override
+	public Mono<GetServiceInstanceResponse> getServiceInstance(GetServiceInstanceRequest request) {
+		return this.service.getServiceInstance(request);
+	}
+
+	@Override
+	public Mono<GetLastServiceOperationResponse> getLastOperation(GetLastServiceOperationRequest request) {
+		return getLastOperation(request, this.longPollTimeout);
+	}
+
+	private Mono<GetLastServiceOperationResponse> getLastOperation(GetLastServiceOperationRequest request,
+			Duration maximumWait) {
+		return Mono.defer(() -> {
+			OperationKey key = OperationKey.forServiceInstance(request.getServiceInstanceId());
+			TrackedOperation tracked = this.tracker.get(key, request.getOperation());
+			if (tracked != null) {
+				if (maximumWait != null && tracked.getState() == OperationState.IN_PROGRESS) {
+					return this.tracker.awaitChange(tracked, maximumWait)
+							.then(getLastOperation(request, null));
+				}
+				return toResponse(tracked);
+			}
+			return this.service.getLastOperation(request)
+					.flatMap(response -> {
+						if (response.getState() == null) {
+							return Mono.just(response);
+						}
+						return toResponse(this.tracker.record(TrackedOperation.builder()
+								.key(key)
+								.operation(request.getOperation())
+								.serviceDefinitionId(request.getServiceDefinitionId())
+								.planId(request.getPlanId())
+								.state(response.getState())
+								.description(response.getDescription())
+								.deleteOperation(response.isDeleteOperation())
+								.retryAfter(response.getRetryAfter())
+								.build()));
+					});
+		});
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
+		return this.service.deleteServiceInstance(request)
+				.doOnNext(response -> track(request.getServiceInstanceId(), request.getServiceDefinitionId(),
+						request.getPlanId(), response, true));
+	}
+
+	@Override
+	public Mono<UpdateServiceInstanceResponse> updateServiceInstance(UpdateServiceInstanceRequest request) {
+		return this.service.updateServiceInstance(request)
+				.doOnNext(response -> track(request.getServiceInstanceId(), request.getServiceDefinitionId(),
+						request.getPlanId(), response, false));
+	}
+
+	private void track(String serviceInstanceId, String serviceDefinitionId, String planId,
+			AsyncServiceBrokerResponse response, boolean deleteOperation) {
+		OperationKey key = OperationKey.forServiceInstance(serviceInstanceId);
+		if (response.isAsync()) {
+			this.tracker.start(TrackedOperation.builder()
+					.key(key)
+					.operation(response.getOperation())
+					.serviceDefinitionId(serviceDefinitionId)
+					.planId(planId)
+					.deleteOperation(deleteOperation)
+					.build());
+		}
+		else {
+			this.tracker.remove(key);
+		}
+	}
+
+	private Mono<GetLastServiceOperationResponse> toResponse(TrackedOperation tracked) {
+		return this.tracker.getRetryAfter(tracked)
+				.map(retryAfter -> toResponse(tracked, retryAfter))
+				.switchIfEmpty(Mono.fromSupplier(() -> toResponse(tracked, null)));
+	}
+
+	private static GetLastServiceOperationResponse toResponse(TrackedOperation tracked, Duration retryAfter) {
+		return GetLastServiceOperationResponse.builder()
+				.operationState(tracked.getState())
+				.description(tracked.getDescription())
+				.deleteOperation(tracked.isDeleteOperation())
+				.retryAfter(retryAfter)
+				.build();
+	}
+
+}
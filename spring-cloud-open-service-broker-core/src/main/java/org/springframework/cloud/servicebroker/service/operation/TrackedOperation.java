@@ -0,0 +1,313 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.time.Duration;
+
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.util.Assert;
+
+/**
+ * The state of an asynchronous operation held by an {@link AsyncOperationTracker}
+ *
+ * @author agent
+ */
+public final class TrackedOperation {
+
+	private final OperationKey key;
+
+	private final String operation;
+
+	private final String serviceDefinitionId;
+
+	private final String planId;
+
+	private final OperationState state;
+
+	private final String description;
+
+	private final boolean deleteOperation;
+
+	private final Duration retryAfter;
+
+	private final long startTime;
+
+	private final long updateTime;
+
+	private TrackedOperation(TrackedOperationBuilder builder) {
+		this.key = builder.key;
+		this.operation = builder.operation;
+		this.serviceDefinitionId = builder.serviceDefinitionId;
+		this.planId = builder.planId;
+		this.state = builder.state;
+		this.description = builder.description;
+		this.deleteOperation = builder.deleteOperation;
+		this.retryAfter = builder.retryAfter;
+		this.startTime = builder.startTime;
+		this.updateTime = builder.updateTime;
+	}
+
+	public OperationKey getKey() {
+		return this.key;
+	}
+
+	public String getOperation() {
+		return this.operation;
+	}
+
+	public String getServiceDefinitionId() {
+		return this.serviceDefinitionId;
+	}
+
+	public String getPlanId() {
+		return this.planId;
+	}
+
+	public OperationState getState() {
+		return this.state;
+	}
+
+	public String getDescription() {
+		return this.description;
+	}
+
+	public boolean isDeleteOperation() {
+		return this.deleteOperation;
+	}
+
+	/**
+	 * Get how long the platform should wait before polling again, as supplied by the service
+	 *
+	 * @return the duration, or {@literal null} if not supplied
+	 */
+	public Duration getRetryAfter() {
+		return this.retryAfter;
+	}
+
+	/**
+	 * Get the time the operation started
+	 *
+	 * @return the time in milliseconds since the epoch
+	 */
+	public long getStartTime() {
+		return this.startTime;
+	}
+
+	/**
+	 * Get the time the state of the operation was recorded
+	 *
+	 * @return the time in milliseconds since the epoch
+	 */
+	public long getUpdateTime() {
+		return this.updateTime;
+	}
+
+	/**
+	 * Whether the operation matches the operation token in a last operation request. A request without an operation
+	 * token matches any operation.
+	 *
+	 * @param operation the operation token in the request, or {@literal null}
+	 * @return true if the operation matches
+	 */
+	public boolean matches(String operation) {
+		return operation == null || operation.equals(this.operation);
+	}
+
+	/**
+	 * Create a builder that provides a fluent API for constructing a {@literal TrackedOperation}. The start and update
+	 * times are set by the {@link AsyncOperationTracker} the operation is recorded with.
+	 *
+	 * @return the builder
+	 */
+	public static TrackedOperationBuilder builder() {
+		return new TrackedOperationBuilder();
+	}
+
+	TrackedOperationBuilder mutate() {
+		return builder()
+				.key(this.key)
+				.operation(this.operation)
+				.serviceDefinitionId(this.serviceDefinitionId)
+				.planId(this.planId)
+				.state(this.state)
+				.description(this.description)
+				.deleteOperation(this.deleteOperation)
+				.retryAfter(this.retryAfter)
+				.times(this.startTime, this.updateTime);
+	}
+
+	@Override
+	public String toString() {
+		return "TrackedOperation{" +
+				"key=" + key +
+				", operation='" + operation + '\'' +
+				", serviceDefinitionId='" + serviceDefinitionId + '\'' +
+				", planId='" + planId + '\'' +
+				", state=" + state +
+				", description='" + description + '\'' +
+				", deleteOperation=" + deleteOperation +
+				", retryAfter=" + retryAfter +
+				", startTime=" + startTime +
+				", updateTime=" + updateTime +
+				'}';
+	}
+
+	/**
+	 * Provides a fluent API for constructing a {@link TrackedOperation}.
+	 */
+	public static final class TrackedOperationBuilder {
+
+		private OperationKey key;
+
+		private String operation;
+
+		private String serviceDefinitionId;
+
+		private String planId;
+
+		private OperationState state = OperationState.IN_PROGRESS;
+
+		private String description;
+
+		private boolean deleteOperation;
+
+		private Duration retryAfter;
+
+		private long startTime;
+
+		private long updateTime;
+
+		private TrackedOperationBuilder() {
+		}
+
+		/**
+		 * Set the service instance or binding the operation is performed on
+		 *
+		 * @param key the key
+		 * @return the builder
+		 */
+		public TrackedOperationBuilder key(OperationKey key) {
+			this.key = key;
+			return this;
+		}
+
+		/**
+		 * Set the operation token returned to the platform. Can be {@literal null}.
+		 *
+		 * @param operation the operation token
+		 * @return the builder
+		 */
+		public TrackedOperationBuilder operation(String operation) {
+			this.operation = operation;
+			return this;
+		}
+
+		/**
+		 * Set the ID of the service definition of the service instance. Can be {@literal null}.
+		 *
+		 * @param serviceDefinitionId the service definition ID
+		 * @return the builder
+		 */
+		public TrackedOperationBuilder serviceDefinitionId(String serviceDefinitionId) {
+			this.serviceDefinitionId = serviceDefinitionId;
+			return this;
+		}
+
+		/**
+		 * Set the ID of the plan of the service instance. Can be {@literal null}.
+		 *
+		 * @param planId the plan ID
+		 * @return the builder
+		 */
+		public TrackedOperationBuilder planId(String planId) {
+			this.planId = planId;
+			return this;
+		}
+
+		/**
+		 * Set the state of the operation. Defaults to {@link OperationState#IN_PROGRESS}.
+		 *
+		 * @param state the state
+		 * @return the builder
+		 */
+		public TrackedOperationBuilder state(OperationState state) {
+			this.state = state;
+			return this;
+		}
+
+		/**
+		 * Set the description of the state. Can be {@literal null}.
+		 *
+		 * @param description the description
+		 * @return the builder
+		 */
+		public TrackedOperationBuilder description(String description) {
+			this.description = description;
+			return this;
+		}
+
+		/**
+		 * Set whether the operation is a delete operation
+		 *
+		 * @param deleteOperation whether the operation is a delete operation
+		 * @return the builder
+		 */
+		public TrackedOperationBuilder deleteOperation(boolean deleteOperation) {
+			this.deleteOperation = deleteOperation;
+			return this;
+		}
+
+		/**
+		 * Set how long the platform should wait before polling again. Can be {@literal null}.
+		 *
+		 * @param retryAfter the duration
+		 * @return the builder
+		 */
+		public TrackedOperationBuilder retryAfter(Duration retryAfter) {
+			this.retryAfter = retryAfter;
+			return this;
+		}
+
+		/**
+		 * Set the times the operation was started and its state was last recorded. The times are set by the
+		 * {@link AsyncOperationTracker}, and by {@link OperationStateStore} implementations that read operations back
+		 * from storage.
+		 *
+		 * @param startTime the time the operation was started, in milliseconds since the epoch
+		 * @param updateTime the time the state of the operation was last recorded, in milliseconds since the epoch
+		 * @return the builder
+		 */
+		public TrackedOperationBuilder times(long startTime, long updateTime) {
+			this.startTime = startTime;
+			this.updateTime = updateTime;
+			return this;
+		}
+
+		/**
+		 * Construct a {@link TrackedOperation} from the provided values.
+		 *
+		 * @return the newly constructed {@literal TrackedOperation}
+		 */
+		public TrackedOperation build() {
+			Assert.notNull(this.key, "key must not be null");
+			Assert.notNull(this.state, "state must not be null");
+			return new TrackedOperation(this);
+		}
+
+	}
+
+}
@@ -24,6 +24,7 @@ import org.springframework.cloud.servicebroker.model.Context;
 import org.springframework.cloud.servicebroker.model.KubernetesContext;
 import org.springframework.cloud.servicebroker.model.PlatformContext;
 import org.springframework.cloud.servicebroker.model.ServiceBrokerRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.util.Base64Utils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -85,6 +86,56 @@ class BaseControllerTest {
 		assertThat(context.getProperty("key2")).isEqualTo("value2");
 	}
 
+	@Test
+	void originatingIdentityIsParsedWhenFirstRead() {
+		ServiceBrokerRequest request = controller.configureOriginatingIdentity("platform some-properties");
+
+		assertThrows(ServiceBrokerInvalidOriginatingIdentityException.class, request::getOriginatingIdentity);
+	}
+
+	@Test
+	void originatingIdentityIsParsedOnceWhenRead() {
+		ServiceBrokerRequest request = controller.configureOriginatingIdentity("cloudfoundry " + encode(JSON_STRING));
+
+		Context context = request.getOriginatingIdentity();
+
+		assertThat(context).isInstanceOf(CloudFoundryContext.class);
+		assertThat(request.getOriginatingIdentity()).isSameAs(context);
+	}
+
+	@Test
+	void requestsAreComparedByParsedOriginatingIdentity() {
+		String originatingIdentity = "cloudfoundry " + encode(JSON_STRING);
+		ServiceBrokerRequest request = controller.configureOriginatingIdentity(originatingIdentity);
+		ServiceBrokerRequest sameRequest = new ServiceBrokerRequest() {
+		};
+		sameRequest.setOriginatingIdentity(controller.validateOriginatingIdentity(originatingIdentity));
+		ServiceBrokerRequest otherRequest = controller
+				.configureOriginatingIdentity("kubernetes " + encode(JSON_STRING));
+
+		assertThat(request).isEqualTo(sameRequest).isNotEqualTo(otherRequest);
+		assertThat(request.hashCode()).isEqualTo(sameRequest.hashCode());
+		assertThat(request.toString()).isEqualTo(sameRequest.toString());
+	}
+
+	@Test
+	void invalidOriginatingIdentityIsReportedWhenRequestsAreCompared() {
+		ServiceBrokerRequest request = controller.configureOriginatingIdentity("platform some-properties");
+		ServiceBrokerRequest otherRequest = controller.configureOriginatingIdentity("platform some-properties");
+
+		assertThrows(ServiceBrokerInvalidOriginatingIdentityException.class, () -> request.equals(otherRequest));
+		assertThrows(ServiceBrokerInvalidOriginatingIdentityException.class, request::hashCode);
+	}
+
+	@Test
+	void originatingIdentityIsValidatedWhenReceivedByStrictParser() {
+		TestBaseController strictController = new TestBaseController(
+				new OriginatingIdentityParser(Jackson2ObjectMapperBuilder.json().build(), 0, true));
+
+		assertThrows(ServiceBrokerInvalidOriginatingIdentityException.class, () ->
+				strictController.configureOriginatingIdentity("platform some-properties"));
+	}
+
 	private String encode(String json) {
 		return Base64Utils.encodeToString(json.getBytes());
 	}
@@ -95,6 +146,15 @@ class BaseControllerTest {
 			super(null);
 		}
 
+		TestBaseController(OriginatingIdentityParser originatingIdentityParser) {
+			super(null, originatingIdentityParser);
+		}
+
+		ServiceBrokerRequest configureOriginatingIdentity(String originatingIdentityString) {
+			return configureOriginatingIdentity(new ServiceBrokerRequest() {
+			}, originatingIdentityString);
+		}
+
 		Context validateOriginatingIdentity(String originatingIdentityString) {
 			ServiceBrokerRequest request = new ServiceBrokerRequest() {
 			};
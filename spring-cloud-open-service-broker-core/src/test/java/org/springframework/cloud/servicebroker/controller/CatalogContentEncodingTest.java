@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogContentEncodingTest {
+
+	private static final Set<CatalogContentEncoding> ALL = EnumSet.allOf(CatalogContentEncoding.class);
+
+	@Test
+	void identityIsSelectedWithoutAcceptEncoding() {
+		assertThat(CatalogContentEncoding.select(null, ALL)).isEqualTo(CatalogContentEncoding.IDENTITY);
+		assertThat(CatalogContentEncoding.select("", ALL)).isEqualTo(CatalogContentEncoding.IDENTITY);
+	}
+
+	@Test
+	void gzipIsPreferredWhenQualitiesAreEqual() {
+		assertThat(CatalogContentEncoding.select("deflate, gzip", ALL)).isEqualTo(CatalogContentEncoding.GZIP);
+		assertThat(CatalogContentEncoding.select("*", ALL)).isEqualTo(CatalogContentEncoding.GZIP);
+	}
+
+	@Test
+	void highestQualityIsSelected() {
+		assertThat(CatalogContentEncoding.select("gzip;q=0.2, deflate;q=0.8", ALL))
+				.isEqualTo(CatalogContentEncoding.DEFLATE);
+		assertThat(CatalogContentEncoding.select("gzip;q=0, identity", ALL))
+				.isEqualTo(CatalogContentEncoding.IDENTITY);
+		assertThat(CatalogContentEncoding.select("X-GZIP", ALL)).isEqualTo(CatalogContentEncoding.GZIP);
+	}
+
+	@Test
+	void unavailableEncodingIsNotSelected() {
+		assertThat(CatalogContentEncoding.select("gzip", EnumSet.of(CatalogContentEncoding.IDENTITY)))
+				.isEqualTo(CatalogContentEncoding.IDENTITY);
+		assertThat(CatalogContentEncoding.select("br", ALL)).isEqualTo(CatalogContentEncoding.IDENTITY);
+	}
+
+	@Test
+	void deflateProducesZlibContent() throws IOException {
+		byte[] content = "{\"services\":[]}".getBytes(StandardCharsets.UTF_8);
+
+		byte[] encoded = CatalogContentEncoding.DEFLATE.encode(content);
+
+		try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(encoded))) {
+			assertThat(in).hasSameContentAs(new ByteArrayInputStream(content));
+		}
+	}
+
+}
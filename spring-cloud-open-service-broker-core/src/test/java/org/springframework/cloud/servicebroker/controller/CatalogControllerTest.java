@@ -16,6 +16,14 @@
 
 package org.springframework.cloud.servicebroker.controller;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,7 +32,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.service.BeanPlatformCatalogService;
 import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
@@ -50,4 +64,128 @@ class CatalogControllerTest {
 		assertThat(actualCatalog).isEqualTo(expectedCatalog);
 	}
 
+	@Test
+	void catalogResponseIsReturnedWithoutCache() {
+		Catalog expectedCatalog = Catalog.builder().build();
+		given(catalogService.getCatalog()).willReturn(Mono.just(expectedCatalog));
+		CatalogController controller = new CatalogController(catalogService);
+		ResponseEntity<Object> response = controller.getCatalogResponse(Collections.emptyMap(), null, null).block();
+		assertThat(response).isNotNull();
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isEqualTo(expectedCatalog);
+		assertThat(response.getHeaders().getETag()).isNull();
+	}
+
+	@Test
+	void cachedCatalogResponseIsReturnedWithETag() {
+		given(catalogService.getCatalogVersion()).willReturn("1");
+		given(catalogService.getCatalog()).willReturn(Mono.just(catalog()));
+		CatalogController controller = new CatalogController(catalogService, catalogResponseCache());
+
+		ResponseEntity<Object> response = controller.getCatalogResponse(Collections.emptyMap(), null, null).block();
+		assertThat(response).isNotNull();
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getETag()).isNotNull();
+		assertThat(new String((byte[]) response.getBody())).contains("\"id\":\"service-one-id\"");
+	}
+
+	@Test
+	void cachedCatalogResponseIsNotModified() {
+		given(catalogService.getCatalogVersion()).willReturn("1");
+		given(catalogService.getCatalog()).willReturn(Mono.just(catalog()));
+		CatalogController controller = new CatalogController(catalogService, catalogResponseCache());
+
+		ResponseEntity<Object> first = controller.getCatalogResponse(Collections.emptyMap(), null, null).block();
+		assertThat(first).isNotNull();
+		ResponseEntity<Object> second = controller.getCatalogResponse(Collections.emptyMap(), first.getHeaders().getETag(), null).block();
+		assertThat(second).isNotNull();
+		assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+		assertThat(second.getBody()).isNull();
+	}
+
+	@Test
+	void compressedCatalogResponseIsReturnedForAcceptedEncoding() throws IOException {
+		given(catalogService.getCatalogVersion()).willReturn("1");
+		given(catalogService.getCatalog()).willReturn(Mono.just(catalog()));
+		CatalogController controller = new CatalogController(catalogService, compressingCatalogResponseCache());
+
+		ResponseEntity<Object> identity = controller.getCatalogResponse(Collections.emptyMap(), null, null).block();
+		ResponseEntity<Object> gzip = controller.getCatalogResponse(Collections.emptyMap(), null, "deflate;q=0.5, gzip").block();
+
+		assertThat(identity).isNotNull();
+		assertThat(identity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(identity.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+		assertThat(gzip).isNotNull();
+		assertThat(gzip.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(gzip.getHeaders().getETag()).isNotEqualTo(identity.getHeaders().getETag());
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream((byte[]) gzip.getBody()))) {
+			assertThat(in).hasSameContentAs(new ByteArrayInputStream((byte[]) identity.getBody()));
+		}
+	}
+
+	@Test
+	void compressedCatalogResponseIsNotModified() {
+		given(catalogService.getCatalogVersion()).willReturn("1");
+		given(catalogService.getCatalog()).willReturn(Mono.just(catalog()));
+		CatalogController controller = new CatalogController(catalogService, compressingCatalogResponseCache());
+
+		ResponseEntity<Object> first = controller.getCatalogResponse(Collections.emptyMap(), null, "deflate").block();
+		assertThat(first).isNotNull();
+		ResponseEntity<Object> second = controller.getCatalogResponse(Collections.emptyMap(), first.getHeaders().getETag(), "deflate").block();
+		ResponseEntity<Object> third = controller.getCatalogResponse(Collections.emptyMap(), first.getHeaders().getETag(), null).block();
+
+		assertThat(second).isNotNull();
+		assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(third).isNotNull();
+		assertThat(third.getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void platformCatalogResponseIsReturnedForPlatformInstance() {
+		Map<String, Catalog> platformCatalogs = new HashMap<>();
+		platformCatalogs.put("platform-one-id", catalog("service-two-id"));
+		CatalogController controller = new CatalogController(
+				new BeanPlatformCatalogService(catalog(), platformCatalogs), catalogResponseCache());
+
+		ResponseEntity<Object> platform = controller.getCatalogResponse(
+				Collections.singletonMap("platformInstanceId", "platform-one-id"), null, null).block();
+		ResponseEntity<Object> other = controller.getCatalogResponse(
+				Collections.singletonMap("platformInstanceId", "platform-two-id"), null, null).block();
+		ResponseEntity<Object> unscoped = controller.getCatalogResponse(Collections.emptyMap(), null, null).block();
+
+		assertThat(platform).isNotNull();
+		assertThat(new String((byte[]) platform.getBody())).contains("\"id\":\"service-two-id\"")
+				.doesNotContain("service-one-id");
+		assertThat(other).isNotNull();
+		assertThat(new String((byte[]) other.getBody())).contains("\"id\":\"service-one-id\"");
+		assertThat(unscoped).isNotNull();
+		assertThat(unscoped.getHeaders().getETag()).isEqualTo(other.getHeaders().getETag())
+				.isNotEqualTo(platform.getHeaders().getETag());
+	}
+
+	private static Catalog catalog() {
+		return catalog("service-one-id");
+	}
+
+	private static Catalog catalog(String serviceDefinitionId) {
+		return Catalog.builder()
+				.serviceDefinitions(ServiceDefinition.builder()
+						.id(serviceDefinitionId)
+						.name("Service One")
+						.description("Description for Service One")
+						.build())
+				.build();
+	}
+
+	private static CatalogResponseCache catalogResponseCache() {
+		return new CatalogResponseCache(Jackson2ObjectMapperBuilder.json().build());
+	}
+
+	private static CatalogResponseCache compressingCatalogResponseCache() {
+		return new CatalogResponseCache(Jackson2ObjectMapperBuilder.json().build(), null,
+				EnumSet.of(CatalogContentEncoding.GZIP, CatalogContentEncoding.DEFLATE));
+	}
+
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogResponseCacheTest {
+
+	@Mock
+	private CatalogService catalogService;
+
+	private CatalogResponseCache cache;
+
+	@BeforeEach
+	void setUp() {
+		this.cache = new CatalogResponseCache(Jackson2ObjectMapperBuilder.json().build());
+	}
+
+	@Test
+	void serializedCatalogIsCachedForSameVersion() {
+		given(catalogService.getCatalogVersion()).willReturn("1");
+		given(catalogService.getCatalog()).willReturn(Mono.just(catalog("service-one-id")));
+
+		SerializedCatalog first = cache.getSerializedCatalog(catalogService).block();
+		SerializedCatalog second = cache.getSerializedCatalog(catalogService).block();
+
+		assertThat(second).isSameAs(first);
+		then(catalogService).should(times(1)).getCatalog();
+	}
+
+	@Test
+	void serializedCatalogIsRebuiltForNewVersion() {
+		given(catalogService.getCatalogVersion()).willReturn("1", "2");
+		given(catalogService.getCatalog())
+				.willReturn(Mono.just(catalog("service-one-id")), Mono.just(catalog("service-two-id")));
+
+		SerializedCatalog first = cache.getSerializedCatalog(catalogService).block();
+		SerializedCatalog second = cache.getSerializedCatalog(catalogService).block();
+
+		assertThat(first).isNotNull();
+		assertThat(second).isNotNull();
+		assertThat(second.getVersion()).isEqualTo("2");
+		assertThat(second.getETag()).isNotEqualTo(first.getETag());
+	}
+
+	@Test
+	void serializedCatalogIsNotCachedWithoutVersion() {
+		given(catalogService.getCatalog()).willReturn(Mono.just(catalog("service-one-id")));
+
+		cache.getSerializedCatalog(catalogService).block();
+		cache.getSerializedCatalog(catalogService).block();
+
+		then(catalogService).should(times(2)).getCatalog();
+	}
+
+	@Test
+	void serializedCatalogIsRebuiltAfterInvalidation() {
+		given(catalogService.getCatalogVersion()).willReturn("1");
+		given(catalogService.getCatalog()).willReturn(Mono.just(catalog("service-one-id")));
+
+		cache.getSerializedCatalog(catalogService).block();
+		cache.invalidate();
+		cache.getSerializedCatalog(catalogService).block();
+
+		then(catalogService).should(times(2)).getCatalog();
+	}
+
+	@Test
+	void eTagMatchesIfNoneMatchHeader() {
+		SerializedCatalog serializedCatalog = new SerializedCatalog("1", "{}".getBytes());
+		String eTag = serializedCatalog.getETag();
+
+		assertThat(eTag).startsWith("\"").endsWith("\"");
+		assertThat(serializedCatalog.matches(eTag)).isTrue();
+		assertThat(serializedCatalog.matches("W/" + eTag)).isTrue();
+		assertThat(serializedCatalog.matches("\"other\", " + eTag)).isTrue();
+		assertThat(serializedCatalog.matches("*")).isTrue();
+		assertThat(serializedCatalog.matches("\"other\"")).isFalse();
+		assertThat(serializedCatalog.matches(null)).isFalse();
+	}
+
+	@Test
+	void responseBodyIsByteArray() {
+		SerializedCatalog serializedCatalog = new SerializedCatalog("1", "{}".getBytes());
+
+		assertThat(cache.createResponseBody(serializedCatalog)).isSameAs(serializedCatalog.getContent());
+	}
+
+	@Test
+	void responseBodyIsDataBuffer() {
+		CatalogResponseCache dataBufferCache = new CatalogResponseCache(Jackson2ObjectMapperBuilder.json().build(),
+				DefaultDataBufferFactory.sharedInstance);
+		SerializedCatalog serializedCatalog = new SerializedCatalog("1", "{}".getBytes());
+
+		Object body = dataBufferCache.createResponseBody(serializedCatalog);
+
+		assertThat(body).isInstanceOf(DataBuffer.class);
+		assertThat(((DataBuffer) body).readableByteCount()).isEqualTo(2);
+	}
+
+	private static Catalog catalog(String serviceDefinitionId) {
+		return Catalog.builder()
+				.serviceDefinitions(ServiceDefinition.builder()
+						.id(serviceDefinitionId)
+						.name("Service")
+						.description("Description")
+						.build())
+				.build();
+	}
+
+}
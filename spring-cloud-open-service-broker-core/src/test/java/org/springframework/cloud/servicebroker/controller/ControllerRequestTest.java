@@ -22,6 +22,7 @@ import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
@@ -40,7 +41,7 @@ import static org.mockito.MockitoAnnotations.openMocks;
 @ExtendWith(MockitoExtension.class)
 public abstract class ControllerRequestTest {
 
-	@Mock
+	@Mock(answer = Answers.CALLS_REAL_METHODS)
 	protected CatalogService catalogService;
 
 	protected ServiceDefinition serviceDefinition;
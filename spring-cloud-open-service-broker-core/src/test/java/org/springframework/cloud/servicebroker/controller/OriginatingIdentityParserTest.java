@@ -0,0 +1,130 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidOriginatingIdentityException;
+import org.springframework.cloud.servicebroker.model.CloudFoundryContext;
+import org.springframework.cloud.servicebroker.model.Context;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.Base64Utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OriginatingIdentityParserTest {
+
+	private static final String HEADER_ONE = "cloudfoundry " + encode("{\"user_id\":\"user-one\"}");
+
+	private static final String HEADER_TWO = "cloudfoundry " + encode("{\"user_id\":\"user-two\"}");
+
+	private static final String HEADER_THREE = "cloudfoundry " + encode("{\"user_id\":\"user-three\"}");
+
+	@Test
+	void nullHeaderIsNotParsed() {
+		OriginatingIdentityParser parser = new OriginatingIdentityParser();
+
+		assertThat(parser.parse(null)).isNull();
+		assertThat(parser.getCacheMissCount()).isZero();
+	}
+
+	@Test
+	void repeatedHeaderIsParsedFromCache() {
+		OriginatingIdentityParser parser = new OriginatingIdentityParser();
+
+		Context context = parser.parse(HEADER_ONE);
+
+		assertThat(context).isInstanceOf(CloudFoundryContext.class);
+		assertThat(context.getProperty("user_id")).isEqualTo("user-one");
+		assertThat(parser.parse(HEADER_ONE)).isNotSameAs(context).isEqualTo(context);
+		assertThat(parser.getCacheHitCount()).isEqualTo(1);
+		assertThat(parser.getCacheMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	void leastRecentlyUsedHeaderIsEvicted() {
+		OriginatingIdentityParser parser = new OriginatingIdentityParser(Jackson2ObjectMapperBuilder.json().build(), 2);
+
+		parser.parse(HEADER_ONE);
+		parser.parse(HEADER_TWO);
+		parser.parse(HEADER_ONE);
+		parser.parse(HEADER_THREE);
+
+		assertThat(parser.getCacheSize()).isEqualTo(2);
+		long misses = parser.getCacheMissCount();
+		parser.parse(HEADER_ONE);
+		assertThat(parser.getCacheMissCount()).isEqualTo(misses);
+		parser.parse(HEADER_TWO);
+		assertThat(parser.getCacheMissCount()).isEqualTo(misses + 1);
+		assertThat(parser.getCacheHitCount()).isEqualTo(2);
+		assertThat(parser.getCacheMissCount()).isEqualTo(4);
+	}
+
+	@Test
+	void cachedContextIsNotSharedBetweenRequests() {
+		OriginatingIdentityParser parser = new OriginatingIdentityParser();
+		String header = "cloudfoundry " + encode("{\"user_id\":\"user-one\",\"groups\":[\"group-one\"]}");
+
+		Context first = parser.parse(header);
+		first.getProperties().put("user_id", "user-two");
+
+		Context second = parser.parse(header);
+		assertThat(second.getProperty("user_id")).isEqualTo("user-one");
+		assertThatThrownBy(() -> ((List<?>) second.getProperty("groups")).clear())
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	void cacheCanBeDisabled() {
+		OriginatingIdentityParser parser = new OriginatingIdentityParser(Jackson2ObjectMapperBuilder.json().build(), 0);
+
+		Context context = parser.parse(HEADER_ONE);
+
+		assertThat(parser.parse(HEADER_ONE)).isNotSameAs(context).isEqualTo(context);
+		assertThat(parser.getCacheSize()).isZero();
+		assertThat(parser.getCacheHitCount()).isZero();
+	}
+
+	@Test
+	void invalidHeaderIsNotCached() {
+		OriginatingIdentityParser parser = new OriginatingIdentityParser();
+		String header = "cloudfoundry " + encode("some-properties");
+
+		assertThrows(ServiceBrokerInvalidOriginatingIdentityException.class, () -> parser.parse(header));
+		assertThrows(ServiceBrokerInvalidOriginatingIdentityException.class, () -> parser.parse(header));
+		assertThat(parser.getCacheSize()).isZero();
+		assertThat(parser.getCacheMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	void nullPropertiesAreInvalid() {
+		OriginatingIdentityParser parser = new OriginatingIdentityParser();
+		String header = "cloudfoundry " + encode("null");
+
+		assertThrows(ServiceBrokerInvalidOriginatingIdentityException.class, () -> parser.parse(header));
+		assertThat(parser.getCacheSize()).isZero();
+	}
+
+	private static String encode(String json) {
+		return Base64Utils.encodeToString(json.getBytes());
+	}
+
+}
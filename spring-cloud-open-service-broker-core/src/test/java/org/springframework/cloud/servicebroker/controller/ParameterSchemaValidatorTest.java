@@ -0,0 +1,195 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidParametersException;
+import org.springframework.cloud.servicebroker.model.catalog.MethodSchema;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.Schemas;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceBindingSchema;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceInstanceSchema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ParameterSchemaValidatorTest {
+
+	private final ParameterSchemaValidator validator = new ParameterSchemaValidator();
+
+	@Test
+	void validParametersAreAccepted() {
+		Plan plan = plan(schemas(instanceSchema()));
+
+		validator.validateCreateServiceInstance(plan, parameters("size", 3, "region", "eu"));
+
+		assertThat(validator.getValidationCount()).isEqualTo(1);
+		assertThat(validator.getRejectionCount()).isZero();
+		assertThat(validator.getValidationTimeNanos()).isPositive();
+	}
+
+	@Test
+	void invalidParametersAreRejected() {
+		Plan plan = plan(schemas(instanceSchema()));
+
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+				.isThrownBy(() -> validator.validateCreateServiceInstance(plan,
+						parameters("size", 12, "region", "us", "extra", true)))
+				.withMessageContaining("$.size: must be at most 10")
+				.withMessageContaining("$.region: must be one of [eu, ap]")
+				.withMessageContaining("$.extra: is not allowed");
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+				.isThrownBy(() -> validator.validateCreateServiceInstance(plan, null))
+				.withMessageContaining("$: must have the property size");
+		assertThat(validator.getRejectionCount()).isEqualTo(2);
+	}
+
+	@Test
+	void typesAreValidated() {
+		Plan plan = plan(schemas(instanceSchema()));
+
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+				.isThrownBy(() -> validator.validateCreateServiceInstance(plan, parameters("size", "3")))
+				.withMessageContaining("$.size: must be of type integer");
+		validator.validateCreateServiceInstance(plan, parameters("size", 3.0));
+	}
+
+	@Test
+	void schemaOfRequestedOperationIsUsed() {
+		Plan plan = plan(schemas(instanceSchema()));
+
+		validator.validateUpdateServiceInstance(plan, parameters("anything", "goes"));
+		validator.validateCreateServiceInstanceBinding(plan, parameters("anything", "goes"));
+
+		assertThat(validator.getValidationCount()).isZero();
+	}
+
+	@Test
+	void bindingParametersAreValidated() {
+		Map<String, Object> schema = new HashMap<>();
+		schema.put("type", "object");
+		schema.put("properties", Collections.singletonMap("roles",
+				parameters("type", "array", "items", parameters("type", "string", "pattern", "^[a-z]+$"),
+						"uniqueItems", true)));
+		Plan plan = plan(Schemas.builder()
+				.serviceBindingSchema(ServiceBindingSchema.builder()
+						.createMethodSchema(MethodSchema.builder().parameters(schema).build())
+						.build())
+				.build());
+
+		validator.validateCreateServiceInstanceBinding(plan, parameters("roles", Arrays.asList("read", "write")));
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+				.isThrownBy(() -> validator.validateCreateServiceInstanceBinding(plan,
+						parameters("roles", Arrays.asList("read", "Admin", "read"))))
+				.withMessageContaining("$.roles[1]: must match the pattern ^[a-z]+$")
+				.withMessageContaining("$.roles: must contain unique items");
+	}
+
+	@Test
+	void schemasAreCompiledOncePerCatalogVersion() {
+		Plan plan = plan(schemas(instanceSchema()));
+
+		validator.validateCreateServiceInstance(plan, parameters("size", 1));
+		validator.validateCreateServiceInstance(plan, parameters("size", 2));
+		assertThat(validator.getCompilationCount()).isEqualTo(1);
+
+		validator.validateCreateServiceInstance(plan(schemas(instanceSchema())), parameters("size", 3));
+		assertThat(validator.getCompilationCount()).isEqualTo(2);
+	}
+
+	@Test
+	void malformedSchemaIsNotEnforced() {
+		Plan plan = plan(schemas(parameters("type", "object", "pattern", "[")));
+
+		validator.validateCreateServiceInstance(plan, parameters("size", 3));
+
+		assertThat(validator.getValidationCount()).isZero();
+	}
+
+	@Test
+	void schemaWithReferencesIsNotEnforced() {
+		Map<String, Object> definitions = new HashMap<>();
+		definitions.put("small", parameters("type", "object", "properties",
+				Collections.singletonMap("size", parameters("maximum", 5))));
+		definitions.put("large", parameters("type", "object", "properties",
+				Collections.singletonMap("size", parameters("minimum", 6))));
+		Plan plan = plan(schemas(parameters("definitions", definitions,
+				"oneOf", Arrays.asList(parameters("$ref", "#/definitions/small"),
+						parameters("$ref", "#/definitions/large")),
+				"not", parameters("$ref", "#/definitions/large"))));
+
+		validator.validateCreateServiceInstance(plan, parameters("size", 3));
+		validator.validateCreateServiceInstance(plan, parameters("size", 3));
+
+		assertThat(validator.getValidationCount()).isZero();
+		assertThat(validator.getCompilationCount()).isEqualTo(1);
+	}
+
+	@Test
+	void schemaWithConditionalsIsNotEnforced() {
+		Plan plan = plan(schemas(parameters("type", "object",
+				"properties", Collections.singletonMap("tier",
+						parameters("if", parameters("const", "gold"), "then", parameters("type", "string"))))));
+
+		validator.validateCreateServiceInstance(plan, parameters("tier", "gold"));
+
+		assertThat(validator.getValidationCount()).isZero();
+	}
+
+	private static Plan plan(Schemas schemas) {
+		return Plan.builder()
+				.id("plan-id")
+				.name("plan")
+				.description("plan")
+				.schemas(schemas)
+				.build();
+	}
+
+	private static Schemas schemas(Map<String, Object> createSchema) {
+		return Schemas.builder()
+				.serviceInstanceSchema(ServiceInstanceSchema.builder()
+						.createMethodSchema(MethodSchema.builder().parameters(createSchema).build())
+						.build())
+				.build();
+	}
+
+	private static Map<String, Object> instanceSchema() {
+		Map<String, Object> properties = new HashMap<>();
+		properties.put("size", parameters("type", "integer", "minimum", 1, "maximum", 10));
+		properties.put("region", parameters("type", "string", "enum", Arrays.asList("eu", "ap")));
+		return parameters("$schema", "http://json-schema.org/draft-04/schema#",
+				"type", "object",
+				"required", Collections.singletonList("size"),
+				"properties", properties,
+				"additionalProperties", false);
+	}
+
+	private static Map<String, Object> parameters(Object... keysAndValues) {
+		Map<String, Object> parameters = new HashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			parameters.put((String) keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return parameters;
+	}
+
+}
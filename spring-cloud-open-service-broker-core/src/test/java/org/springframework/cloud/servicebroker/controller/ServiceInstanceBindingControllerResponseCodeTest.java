@@ -23,6 +23,7 @@ import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.exception.ServiceInstanceBindingDoesNotExistException;
@@ -50,7 +51,7 @@ import static org.mockito.Mockito.mock;
 
 class ServiceInstanceBindingControllerResponseCodeTest {
 
-	private final CatalogService catalogService = mock(CatalogService.class);
+	private final CatalogService catalogService = mock(CatalogService.class, Answers.CALLS_REAL_METHODS);
 
 	private final ServiceInstanceBindingService bindingService = mock(ServiceInstanceBindingService.class);
 
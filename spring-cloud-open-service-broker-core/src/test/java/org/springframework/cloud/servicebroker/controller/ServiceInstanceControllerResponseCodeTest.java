@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.servicebroker.controller;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -23,6 +24,7 @@ import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.exception.ServiceInstanceDoesNotExistException;
@@ -41,6 +43,7 @@ import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInsta
 import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
 import org.springframework.cloud.servicebroker.service.CatalogService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -52,7 +55,7 @@ import static org.mockito.Mockito.mock;
 
 class ServiceInstanceControllerResponseCodeTest {
 
-	private final CatalogService catalogService = mock(CatalogService.class);
+	private final CatalogService catalogService = mock(CatalogService.class, Answers.CALLS_REAL_METHODS);
 
 	private final ServiceInstanceService serviceInstanceService = mock(ServiceInstanceService.class);
 
@@ -313,6 +316,40 @@ class ServiceInstanceControllerResponseCodeTest {
 				.build(), HttpStatus.GONE);
 	}
 
+	@Test
+	void getLastOperationWithRetryAfterGivesRetryAfterHeader() {
+		given(serviceInstanceService.getLastOperation(any(GetLastServiceOperationRequest.class)))
+				.willReturn(Mono.just(GetLastServiceOperationResponse.builder()
+						.operationState(OperationState.IN_PROGRESS)
+						.retryAfter(Duration.ofMillis(1500))
+						.build()));
+
+		ResponseEntity<GetLastServiceOperationResponse> responseEntity = controller
+				.getServiceInstanceLastOperation(pathVariables, null, null, null, null,
+						null, null, null)
+				.block();
+
+		assertThat(responseEntity).isNotNull();
+		assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+	}
+
+	@Test
+	void getLastOperationWithoutRetryAfterGivesNoRetryAfterHeader() {
+		given(serviceInstanceService.getLastOperation(any(GetLastServiceOperationRequest.class)))
+				.willReturn(Mono.just(GetLastServiceOperationResponse.builder()
+						.operationState(OperationState.IN_PROGRESS)
+						.build()));
+
+		ResponseEntity<GetLastServiceOperationResponse> responseEntity = controller
+				.getServiceInstanceLastOperation(pathVariables, null, null, null, null,
+						null, null, null)
+				.block();
+
+		assertThat(responseEntity).isNotNull();
+		assertThat(responseEntity.getHeaders()).doesNotContainKey(HttpHeaders.RETRY_AFTER);
+	}
+
 	@Test
 	void getLastOperationWithUnknownInstanceBadRequest() {
 		given(serviceInstanceService.getLastOperation(any(GetLastServiceOperationRequest.class)))
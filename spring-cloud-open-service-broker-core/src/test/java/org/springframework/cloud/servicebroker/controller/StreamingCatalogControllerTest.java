@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingCatalogControllerTest {
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	@Mock
+	private CatalogService catalogService;
+
+	@Test
+	void catalogIsWrittenOneServiceDefinitionAtATime() throws IOException {
+		ServiceDefinition serviceOne = serviceDefinition("service-one-id");
+		ServiceDefinition serviceTwo = serviceDefinition("service-two-id");
+		given(catalogService.getServiceDefinitions()).willReturn(Flux.just(serviceOne, serviceTwo));
+
+		ResponseEntity<Flux<DataBuffer>> response = controller().getCatalog(Collections.emptyMap()).block();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(response.getBody()).isNotNull();
+		assertThat(response.getBody().collectList().block()).hasSize(4);
+		Catalog catalog = objectMapper.readValue(content(response.getBody()), Catalog.class);
+		assertThat(catalog.getServiceDefinitions()).extracting(ServiceDefinition::getId)
+				.containsExactly("service-one-id", "service-two-id");
+	}
+
+	@Test
+	void emptyCatalogIsWritten() {
+		given(catalogService.getServiceDefinitions()).willReturn(Flux.empty());
+
+		ResponseEntity<Flux<DataBuffer>> response = controller().getCatalog(Collections.emptyMap()).block();
+
+		assertThat(response).isNotNull();
+		assertThat(content(response.getBody())).isEqualTo("{\"services\":[]}");
+	}
+
+	private StreamingCatalogController controller() {
+		return new StreamingCatalogController(catalogService, objectMapper, DefaultDataBufferFactory.sharedInstance);
+	}
+
+	private static String content(Flux<DataBuffer> body) {
+		return DataBufferUtils.join(body)
+				.map(buffer -> {
+					String content = buffer.toString(StandardCharsets.UTF_8);
+					DataBufferUtils.release(buffer);
+					return content;
+				})
+				.block();
+	}
+
+	private static ServiceDefinition serviceDefinition(String id) {
+		return ServiceDefinition.builder()
+				.id(id)
+				.name(id)
+				.description("Description")
+				.plans(Plan.builder()
+						.id(id + "-plan")
+						.name("Plan")
+						.description("Description")
+						.build())
+				.build();
+	}
+
+}
@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.servicebroker.model;
 
+import java.util.function.Supplier;
+
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
 import org.junit.jupiter.api.Test;
@@ -34,6 +36,8 @@ class AsyncServiceBrokerRequestTest {
 				.withRedefinedSubclass(AsyncParameterizedServiceInstanceRequest.class)
 				.withRedefinedSubclass(CreateServiceInstanceBindingRequest.class)
 				.withRedefinedSubclass(DeleteServiceInstanceBindingRequest.class)
+				.withPrefabValues(Supplier.class, () -> PlatformContext.builder().platform("red").build(),
+						() -> PlatformContext.builder().platform("blue").build())
 				.suppress(Warning.NONFINAL_FIELDS)
 				.suppress(Warning.TRANSIENT_FIELDS)
 				.verify();
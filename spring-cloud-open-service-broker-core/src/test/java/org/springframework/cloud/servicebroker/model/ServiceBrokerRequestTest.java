@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.servicebroker.model;
 
+import java.util.function.Supplier;
+
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
 import org.junit.jupiter.api.Test;
@@ -28,6 +30,8 @@ class ServiceBrokerRequestTest {
 				.forClass(ServiceBrokerRequest.class)
 				.withRedefinedSuperclass()
 				.withRedefinedSubclass(AsyncServiceBrokerRequest.class)
+				.withPrefabValues(Supplier.class, () -> PlatformContext.builder().platform("red").build(),
+						() -> PlatformContext.builder().platform("blue").build())
 				.suppress(Warning.NONFINAL_FIELDS)
 				.suppress(Warning.TRANSIENT_FIELDS)
 				.verify();
@@ -16,9 +16,12 @@
 
 package org.springframework.cloud.servicebroker.model.binding;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.jayway.jsonpath.DocumentContext;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
@@ -245,6 +248,10 @@ class CreateServiceInstanceBindingRequestTest {
 		EqualsVerifier
 				.forClass(CreateServiceInstanceBindingRequest.class)
 				.withRedefinedSuperclass()
+				.withPrefabValues(Supplier.class, () -> PlatformContext.builder().platform("red").build(),
+						() -> PlatformContext.builder().platform("blue").build())
+				.withPrefabValues(TokenBuffer.class, emptyParameters(), emptyParameters())
+				.withIgnoredFields("rawParameters")
 				.suppress(Warning.NONFINAL_FIELDS)
 				.suppress(Warning.TRANSIENT_FIELDS)
 				.verify();
@@ -284,4 +291,16 @@ class CreateServiceInstanceBindingRequestTest {
 
 	}
 
+	private static TokenBuffer emptyParameters() {
+		TokenBuffer parameters = new TokenBuffer(null, false);
+		try {
+			parameters.writeStartObject();
+			parameters.writeEndObject();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return parameters;
+	}
+
 }
@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.servicebroker.model.binding;
 
+import java.util.function.Supplier;
+
 import com.jayway.jsonpath.DocumentContext;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
@@ -117,6 +119,8 @@ class DeleteServiceInstanceBindingRequestTest {
 		EqualsVerifier
 				.forClass(DeleteServiceInstanceBindingRequest.class)
 				.withRedefinedSuperclass()
+				.withPrefabValues(Supplier.class, () -> PlatformContext.builder().platform("red").build(),
+						() -> PlatformContext.builder().platform("blue").build())
 				.suppress(Warning.NONFINAL_FIELDS)
 				.suppress(Warning.TRANSIENT_FIELDS)
 				.verify();
@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.servicebroker.model.binding;
 
+import java.util.function.Supplier;
+
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
 import org.junit.jupiter.api.Test;
@@ -79,6 +81,8 @@ class GetLastServiceBindingOperationRequestTest {
 		EqualsVerifier
 				.forClass(GetLastServiceOperationRequest.class)
 				.withRedefinedSuperclass()
+				.withPrefabValues(Supplier.class, () -> PlatformContext.builder().platform("red").build(),
+						() -> PlatformContext.builder().platform("blue").build())
 				.suppress(Warning.NONFINAL_FIELDS)
 				.suppress(Warning.TRANSIENT_FIELDS)
 				.verify();
@@ -16,8 +16,19 @@
 
 package org.springframework.cloud.servicebroker.model.instance;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.jayway.jsonpath.DocumentContext;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
@@ -27,8 +38,12 @@ import org.springframework.cloud.servicebroker.JsonPathAssert;
 import org.springframework.cloud.servicebroker.JsonUtils;
 import org.springframework.cloud.servicebroker.model.CloudFoundryContext;
 import org.springframework.cloud.servicebroker.model.KubernetesContext;
+import org.springframework.cloud.servicebroker.model.PlatformContext;
+import org.springframework.cloud.servicebroker.model.util.ParametersDeserializer;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.springframework.cloud.servicebroker.model.CloudFoundryContext.CLOUD_FOUNDRY_PLATFORM;
 import static org.springframework.cloud.servicebroker.model.KubernetesContext.KUBERNETES_PLATFORM;
 
@@ -95,6 +110,101 @@ class AsyncParameterizedServiceInstanceRequestTest {
 		JsonPathAssert.assertThat(json).hasNoPath("$.parameters");
 	}
 
+	@Test
+	void rawParametersAreReadWhenFirstAccessed() throws IOException {
+		AsyncParameterizedServiceInstanceRequest request = readWithRawParameters(
+				"{\"parameters\":{\"parameter1\":1,\"parameter2\":\"param-a\",\"parameter3\":{\"nested\":true}}}");
+
+		Map<String, Object> parameters = request.getParameters();
+		assertThat(parameters).hasSize(3);
+		assertThat(parameters.get("parameter1")).isEqualTo(1);
+		assertThat(parameters.get("parameter2")).isEqualTo("param-a");
+		assertThat(parameters.get("parameter3")).isEqualTo(Collections.singletonMap("nested", true));
+		assertThat(request.getParameters()).isSameAs(parameters);
+	}
+
+	@Test
+	void rawParametersAreBoundToType() throws IOException {
+		AsyncParameterizedServiceInstanceRequest request = readWithRawParameters(
+				"{\"parameters\":{\"parameter1\":1,\"parameter2\":\"param-a\",\"unknown\":true}}");
+
+		TestParameters parameters = request.getParameters(TestParameters.class);
+
+		assertThat(parameters.getParameter1()).isEqualTo(1);
+		assertThat(parameters.getParameter2()).isEqualTo("param-a");
+		assertThat(ReflectionTestUtils.getField(request, "rawParameters")).isNotNull();
+	}
+
+	@Test
+	void rawParametersAreBoundLikeParsedParameters() throws IOException {
+		String json = "{\"parameters\":{\"parameter1\":\"1\",\"parameter2\":2,\"unknown\":true}}";
+
+		TestParameters raw = readWithRawParameters(json).getParameters(TestParameters.class);
+		TestParameters parsed = new ObjectMapper().readValue(json, CreateServiceInstanceRequest.class)
+				.getParameters(TestParameters.class);
+
+		assertThat(raw.getParameter1()).isEqualTo(parsed.getParameter1()).isEqualTo(1);
+		assertThat(raw.getParameter2()).isEqualTo(parsed.getParameter2()).isEqualTo("2");
+	}
+
+	@Test
+	void rawParametersAreReadOnceByConcurrentReaders() throws Exception {
+		AsyncParameterizedServiceInstanceRequest request = readWithRawParameters(
+				"{\"parameters\":{\"parameter1\":1,\"parameter2\":\"param-a\",\"parameter3\":{\"nested\":true}}}");
+		Callable<Map<String, Object>> read = request::getParameters;
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Map<String, Object>>> results = executor.invokeAll(Collections.nCopies(8, read));
+			for (Future<Map<String, Object>> result : results) {
+				assertThat(result.get()).isSameAs(request.getParameters()).hasSize(3);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void rawParametersAreEqualToParsedParameters() throws IOException {
+		String json = "{\"parameters\":{\"parameter1\":1}}";
+		ObjectMapper objectMapper = new ObjectMapper();
+
+		assertThat(readWithRawParameters(json))
+				.isEqualTo(objectMapper.readValue(json, CreateServiceInstanceRequest.class));
+	}
+
+	@Test
+	void rawParametersAreComparedWithoutReadingThem() throws IOException {
+		String json = "{\"parameters\":{\"parameter1\":1,\"parameter2\":[\"a\",\"b\"]}}";
+		AsyncParameterizedServiceInstanceRequest request = readWithRawParameters(json);
+		AsyncParameterizedServiceInstanceRequest other = readWithRawParameters(json);
+
+		assertThat(request).isEqualTo(other).hasSameHashCodeAs(other);
+		assertThat(request.toString()).contains("parameters=<raw JSON>");
+		assertThat(ReflectionTestUtils.getField(request, "rawParameters")).isNotNull();
+		assertThat(ReflectionTestUtils.getField(other, "rawParameters")).isNotNull();
+		assertThat(request).isNotEqualTo(readWithRawParameters("{\"parameters\":{\"parameter1\":2}}"));
+		assertThat(ReflectionTestUtils.getField(request, "rawParameters")).isNotNull();
+	}
+
+	@Test
+	void rawParametersAreHashedLikeParsedParameters() throws IOException {
+		String json = "{\"parameters\":{\"number\":1,\"decimal\":1.5,\"flag\":true,\"none\":null," +
+				"\"list\":[1,\"a\"],\"nested\":{\"key\":\"value\"}}}";
+		String reordered = "{\"parameters\":{\"nested\":{\"key\":\"value\"},\"list\":[1,\"a\"]," +
+				"\"none\":null,\"flag\":true,\"decimal\":1.5,\"number\":1}}";
+		CreateServiceInstanceRequest parsed = new ObjectMapper().readValue(json, CreateServiceInstanceRequest.class);
+
+		assertThat(readWithRawParameters(json)).hasSameHashCodeAs(parsed);
+		assertThat(readWithRawParameters(reordered)).isEqualTo(readWithRawParameters(json))
+				.hasSameHashCodeAs(parsed);
+	}
+
+	@Test
+	void rawParametersMustBeAnObject() {
+		assertThrows(JsonMappingException.class, () -> readWithRawParameters("{\"parameters\":[1]}"));
+	}
+
 	@Test
 	void equalsAndHashCode() {
 		EqualsVerifier
@@ -102,9 +212,55 @@ class AsyncParameterizedServiceInstanceRequestTest {
 				.withRedefinedSuperclass()
 				.withRedefinedSubclass(CreateServiceInstanceRequest.class)
 				.withRedefinedSubclass(UpdateServiceInstanceRequest.class)
+				.withPrefabValues(Supplier.class, () -> PlatformContext.builder().platform("red").build(),
+						() -> PlatformContext.builder().platform("blue").build())
+				.withPrefabValues(TokenBuffer.class, emptyParameters(), emptyParameters())
+				.withIgnoredFields("rawParameters")
 				.suppress(Warning.NONFINAL_FIELDS)
 				.suppress(Warning.TRANSIENT_FIELDS)
 				.verify();
 	}
 
+	private static TokenBuffer emptyParameters() {
+		TokenBuffer parameters = new TokenBuffer(null, false);
+		try {
+			parameters.writeStartObject();
+			parameters.writeEndObject();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return parameters;
+	}
+
+	private static AsyncParameterizedServiceInstanceRequest readWithRawParameters(String json) throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		ParametersDeserializer.enableRawParameters(objectMapper);
+		return objectMapper.readValue(json, CreateServiceInstanceRequest.class);
+	}
+
+	public static final class TestParameters {
+
+		private int parameter1;
+
+		private String parameter2;
+
+		public int getParameter1() {
+			return this.parameter1;
+		}
+
+		public void setParameter1(int parameter1) {
+			this.parameter1 = parameter1;
+		}
+
+		public String getParameter2() {
+			return this.parameter2;
+		}
+
+		public void setParameter2(String parameter2) {
+			this.parameter2 = parameter2;
+		}
+
+	}
+
 }
@@ -16,9 +16,12 @@
 
 package org.springframework.cloud.servicebroker.model.instance;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.jayway.jsonpath.DocumentContext;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
@@ -202,9 +205,25 @@ class CreateServiceInstanceRequestTest {
 		EqualsVerifier
 				.forClass(CreateServiceInstanceRequest.class)
 				.withRedefinedSuperclass()
+				.withPrefabValues(Supplier.class, () -> PlatformContext.builder().platform("red").build(),
+						() -> PlatformContext.builder().platform("blue").build())
+				.withPrefabValues(TokenBuffer.class, emptyParameters(), emptyParameters())
+				.withIgnoredFields("rawParameters")
 				.suppress(Warning.NONFINAL_FIELDS)
 				.suppress(Warning.TRANSIENT_FIELDS)
 				.verify();
 	}
 
+	private static TokenBuffer emptyParameters() {
+		TokenBuffer parameters = new TokenBuffer(null, false);
+		try {
+			parameters.writeStartObject();
+			parameters.writeEndObject();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return parameters;
+	}
+
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.model.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ParameterBinderTest {
+
+	@Test
+	void binderIsCachedPerClass() {
+		assertThat(ParameterBinder.forClass(TestBean.class)).isSameAs(ParameterBinder.forClass(TestBean.class));
+	}
+
+	@Test
+	void classPropertyIsSuppressed() {
+		assertThat(ParameterBinder.forClass(TestBean.class).getPropertyCount()).isEqualTo(5);
+	}
+
+	@Test
+	void valuesAreConverted() {
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("intProperty", "42");
+		parameters.put("longProperty", 7);
+		parameters.put("stringProperty", 12);
+		parameters.put("class", "java.lang.String");
+
+		TestBean testBean = ParameterBinder.forClass(TestBean.class).bind(parameters);
+
+		assertThat(testBean.getIntProperty()).isEqualTo(42);
+		assertThat(testBean.getLongProperty()).isEqualTo(7L);
+		assertThat(testBean.getStringProperty()).isEqualTo("12");
+	}
+
+	@Test
+	void nestedMapIsBoundToNewInstance() {
+		Map<String, Object> nested = new HashMap<>();
+		nested.put("booleanProperty", "true");
+		nested.put("extraProperty", "extra");
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("nestedBean", nested);
+
+		TestBean testBean = ParameterBinder.forClass(TestBean.class).bind(parameters);
+
+		assertThat(testBean.getNestedBean()).isNotNull();
+		assertThat(testBean.getNestedBean().isBooleanProperty()).isTrue();
+	}
+
+	@Test
+	void nestedExpressionWritesToExistingInstance() {
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("readOnlyBean.booleanProperty", true);
+		parameters.put("nestedBean.booleanProperty", true);
+
+		TestBean testBean = ParameterBinder.forClass(TestBean.class).bind(parameters);
+
+		assertThat(testBean.getReadOnlyBean().isBooleanProperty()).isTrue();
+		assertThat(testBean.getNestedBean()).isNull();
+	}
+
+	@Test
+	void classWithoutDefaultConstructorIsRejected() {
+		Map<String, Object> parameters = new HashMap<>();
+
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> ParameterBinder.forClass(NoDefaultConstructorBean.class).bind(parameters))
+				.withMessageContaining(NoDefaultConstructorBean.class.getName());
+	}
+
+	public static final class TestBean {
+
+		private int intProperty;
+
+		private long longProperty;
+
+		private String stringProperty;
+
+		private NestedBean nestedBean;
+
+		private final NestedBean readOnlyBean = new NestedBean();
+
+		public int getIntProperty() {
+			return intProperty;
+		}
+
+		public void setIntProperty(int intProperty) {
+			this.intProperty = intProperty;
+		}
+
+		public long getLongProperty() {
+			return longProperty;
+		}
+
+		public void setLongProperty(long longProperty) {
+			this.longProperty = longProperty;
+		}
+
+		public String getStringProperty() {
+			return stringProperty;
+		}
+
+		public void setStringProperty(String stringProperty) {
+			this.stringProperty = stringProperty;
+		}
+
+		public NestedBean getNestedBean() {
+			return nestedBean;
+		}
+
+		public void setNestedBean(NestedBean nestedBean) {
+			this.nestedBean = nestedBean;
+		}
+
+		public NestedBean getReadOnlyBean() {
+			return readOnlyBean;
+		}
+
+	}
+
+	public static final class NestedBean {
+
+		private boolean booleanProperty;
+
+		public boolean isBooleanProperty() {
+			return booleanProperty;
+		}
+
+		public void setBooleanProperty(boolean booleanProperty) {
+			this.booleanProperty = booleanProperty;
+		}
+
+	}
+
+	public static final class NoDefaultConstructorBean {
+
+		private final String value;
+
+		public NoDefaultConstructorBean(String value) {
+			this.value = value;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+	}
+
+}
@@ -20,6 +20,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
 import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -28,19 +29,30 @@ class BeanCatalogServiceTest {
 
 	private static final String SVC_DEF_ID = "svc-def-id";
 
+	private static final String PLAN_ID = "plan-id";
+
 	private BeanCatalogService service;
 
 	private Catalog catalog;
 
 	private ServiceDefinition serviceDefinition;
 
+	private Plan plan;
+
 	@BeforeEach
 	void setUp() {
+		plan = Plan.builder()
+				.id(PLAN_ID)
+				.name("Plan")
+				.description("Description")
+				.build();
+
 		serviceDefinition = ServiceDefinition.builder()
 				.id(SVC_DEF_ID)
 				.name("Name")
 				.description("Description")
 				.bindable(true)
+				.plans(plan)
 				.build();
 
 		catalog = Catalog.builder()
@@ -65,4 +77,25 @@ class BeanCatalogServiceTest {
 		assertThat(service.getServiceDefinition("NOT_THERE").block()).isNull();
 	}
 
+	@Test
+	public void serviceDefinitionPlanIsFound() {
+		assertThat(service.getServiceDefinitionPlan(SVC_DEF_ID, PLAN_ID).block()).isEqualTo(plan);
+	}
+
+	@Test
+	public void serviceDefinitionPlanIsNotFound() {
+		assertThat(service.getServiceDefinitionPlan(SVC_DEF_ID, "NOT_THERE").block()).isNull();
+	}
+
+	@Test
+	public void serviceDefinitionPlanIsNotFoundForUnknownServiceDefinition() {
+		assertThat(service.getServiceDefinitionPlan("NOT_THERE", PLAN_ID).block()).isNull();
+	}
+
+	@Test
+	public void catalogVersionIsStable() {
+		assertThat(service.getCatalogVersion()).isNotNull();
+		assertThat(service.getCatalogVersion()).isEqualTo(service.getCatalogVersion());
+	}
+
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeanPlatformCatalogServiceTest {
+
+	private static final String PLATFORM_ID = "platform-id";
+
+	private BeanPlatformCatalogService service;
+
+	@BeforeEach
+	void setUp() {
+		Catalog catalog = Catalog.builder()
+				.serviceDefinitions(serviceDefinition("plan-one-id", "plan-two-id"))
+				.build();
+		Catalog platformCatalog = Catalog.builder()
+				.serviceDefinitions(serviceDefinition("plan-one-id"))
+				.build();
+
+		service = new BeanPlatformCatalogService(catalog, Collections.singletonMap(PLATFORM_ID, platformCatalog));
+	}
+
+	@Test
+	void platformCatalogServiceIsReturnedForPlatformInstance() {
+		CatalogService platformService = service.getCatalogService(PLATFORM_ID);
+
+		assertThat(platformService).isNotSameAs(service);
+		assertThat(platformService).isSameAs(service.getCatalogService(PLATFORM_ID));
+		assertThat(platformService.getServiceDefinitionPlan("svc-def-id", "plan-one-id").block()).isNotNull();
+		assertThat(platformService.getServiceDefinitionPlan("svc-def-id", "plan-two-id").block()).isNull();
+	}
+
+	@Test
+	void defaultCatalogServiceIsReturnedForOtherPlatformInstance() {
+		CatalogService otherService = service.getCatalogService("other-platform-id");
+
+		assertThat(otherService).isSameAs(service);
+		assertThat(otherService.getServiceDefinitionPlan("svc-def-id", "plan-two-id").block()).isNotNull();
+	}
+
+	private static ServiceDefinition serviceDefinition(String... planIds) {
+		ServiceDefinition.ServiceDefinitionBuilder builder = ServiceDefinition.builder()
+				.id("svc-def-id")
+				.name("Name")
+				.description("Description");
+		for (String planId : planIds) {
+			builder.plans(Plan.builder()
+					.id(planId)
+					.name(planId)
+					.description("Description")
+					.build());
+		}
+		return builder.build();
+	}
+
+}
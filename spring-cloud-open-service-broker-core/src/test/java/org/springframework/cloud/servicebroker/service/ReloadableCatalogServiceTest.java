@@ -0,0 +1,174 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReloadableCatalogServiceTest {
+
+	private static final String SERVICE_ONE = "{\"services\":[{\"id\":\"service-one-id\",\"name\":\"service-one\"," +
+			"\"description\":\"Service One\",\"plans\":[{\"id\":\"plan-one-id\",\"name\":\"plan-one\"," +
+			"\"description\":\"Plan One\"}]}]}";
+
+	private static final String SERVICE_TWO = "{\"services\":[{\"id\":\"service-two-id\",\"name\":\"service-two\"," +
+			"\"description\":\"Service Two\",\"plans\":[{\"id\":\"plan-two-id\",\"name\":\"plan-two\"," +
+			"\"description\":\"Plan Two\"}]}]}";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void catalogIsLoadedFromFile() throws IOException {
+		Path file = write("catalog.json", SERVICE_ONE);
+
+		ReloadableCatalogService service = new ReloadableCatalogService(file, objectMapper);
+
+		Catalog catalog = service.getCatalog().block();
+		assertThat(catalog).isNotNull();
+		assertThat(catalog.getServiceDefinitions()).extracting(ServiceDefinition::getId)
+				.containsExactly("service-one-id");
+		assertThat(service.getServiceDefinition("service-one-id").block()).isNotNull();
+		assertThat(service.getServiceDefinitionPlan("service-one-id", "plan-one-id").block()).isNotNull();
+		assertThat(service.getCatalogVersion()).isEqualTo("1");
+	}
+
+	@Test
+	void catalogIsLoadedFromDirectory() throws IOException {
+		write("b.json", SERVICE_TWO);
+		write("a.json", SERVICE_ONE);
+		write("ignored.txt", "not a catalog");
+
+		ReloadableCatalogService service = new ReloadableCatalogService(tempDir, objectMapper);
+
+		Catalog catalog = service.getCatalog().block();
+		assertThat(catalog).isNotNull();
+		assertThat(catalog.getServiceDefinitions()).extracting(ServiceDefinition::getId)
+				.containsExactly("service-one-id", "service-two-id");
+	}
+
+	@Test
+	void invalidCatalogFailsConstruction() throws IOException {
+		Path file = write("catalog.json", "{");
+
+		assertThatThrownBy(() -> new ReloadableCatalogService(file, objectMapper))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void reloadReplacesCatalog() throws IOException {
+		Path file = write("catalog.json", SERVICE_ONE);
+		ReloadableCatalogService service = new ReloadableCatalogService(file, objectMapper);
+
+		write("catalog.json", SERVICE_TWO);
+
+		assertThat(service.reload()).isTrue();
+		assertThat(service.getServiceDefinition("service-one-id").block()).isNull();
+		assertThat(service.getServiceDefinition("service-two-id").block()).isNotNull();
+		assertThat(service.getCatalogVersion()).isEqualTo("2");
+		assertThat(service.getReloadCount()).isEqualTo(1);
+		assertThat(service.getReloadFailureCount()).isZero();
+	}
+
+	@Test
+	void failedReloadKeepsPreviousCatalog() throws IOException {
+		Path file = write("catalog.json", SERVICE_ONE);
+		ReloadableCatalogService service = new ReloadableCatalogService(file, objectMapper);
+
+		write("catalog.json", "{");
+
+		assertThat(service.reload()).isFalse();
+		assertThat(service.getServiceDefinition("service-one-id").block()).isNotNull();
+		assertThat(service.getCatalogVersion()).isEqualTo("1");
+		assertThat(service.getReloadCount()).isZero();
+		assertThat(service.getReloadFailureCount()).isEqualTo(1);
+	}
+
+	@Test
+	void malformedReloadKeepsPreviousCatalog() throws IOException {
+		Path file = write("catalog.json", SERVICE_ONE);
+		ReloadableCatalogService service = new ReloadableCatalogService(file, objectMapper);
+
+		write("catalog.json", "{\"services\":[null]}");
+
+		assertThat(service.reload()).isFalse();
+		assertThat(service.getServiceDefinition("service-one-id").block()).isNotNull();
+		assertThat(service.getReloadFailureCount()).isEqualTo(1);
+	}
+
+	@Test
+	void changedFileIsReloaded() throws IOException, InterruptedException {
+		Path file = write("catalog.json", SERVICE_ONE);
+		ReloadableCatalogService service = new ReloadableCatalogService(file, objectMapper);
+		service.start();
+		try {
+			write("catalog.json", SERVICE_TWO);
+
+			for (int i = 0; i < 100 && service.getReloadCount() == 0; i++) {
+				Thread.sleep(100);
+			}
+
+			assertThat(service.getServiceDefinition("service-two-id").block()).isNotNull();
+		}
+		finally {
+			service.close();
+		}
+	}
+
+	@Test
+	void watchingContinuesAfterMalformedCatalog() throws IOException, InterruptedException {
+		Path file = write("catalog.json", SERVICE_ONE);
+		ReloadableCatalogService service = new ReloadableCatalogService(file, objectMapper);
+		service.start();
+		try {
+			write("catalog.json", "null");
+			for (int i = 0; i < 100 && service.getReloadFailureCount() == 0; i++) {
+				Thread.sleep(100);
+			}
+
+			write("catalog.json", SERVICE_TWO);
+			for (int i = 0; i < 100 && service.getReloadCount() == 0; i++) {
+				Thread.sleep(100);
+			}
+
+			assertThat(service.getReloadFailureCount()).isPositive();
+			assertThat(service.getServiceDefinition("service-two-id").block()).isNotNull();
+		}
+		finally {
+			service.close();
+		}
+	}
+
+	private Path write(String fileName, String content) throws IOException {
+		return Files.write(tempDir.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.async;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.exception.ServiceInstanceBindingDoesNotExistException;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceAppBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceAppBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.operation.AsyncOperationTracker;
+import org.springframework.cloud.servicebroker.service.operation.OperationKey;
+import org.springframework.cloud.servicebroker.service.operation.TrackedOperation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class AutoAsyncServiceInstanceBindingServiceTest {
+
+	private static final OperationKey BINDING = OperationKey.forServiceInstanceBinding("service-instance-id",
+			"binding-id");
+
+	private final AsyncOperationTracker tracker = new AsyncOperationTracker();
+
+	private final AutoAsyncExecutor executor = new AutoAsyncExecutor(tracker, Duration.ofSeconds(10),
+			Schedulers.immediate());
+
+	@Mock
+	private ServiceInstanceBindingService serviceInstanceBindingService;
+
+	@Test
+	void bindingCompletingWithinDeadlineIsAnsweredFromService() {
+		CreateServiceInstanceBindingResponse created = CreateServiceInstanceAppBindingResponse.builder()
+				.credentials("password", "secret")
+				.build();
+		given(serviceInstanceBindingService.createServiceInstanceBinding(any())).willReturn(Mono.just(created));
+		ServiceInstanceBindingService service = new AutoAsyncServiceInstanceBindingService(
+				serviceInstanceBindingService, executor);
+
+		StepVerifier.create(service.createServiceInstanceBinding(createRequest()))
+				.expectNext(created)
+				.verifyComplete();
+
+		assertThat(tracker.size()).isZero();
+	}
+
+	@Test
+	void bindingOfDetachedOperationIsRetrieved() {
+		Sinks.One<CreateServiceInstanceBindingResponse> created = Sinks.one();
+		given(serviceInstanceBindingService.createServiceInstanceBinding(any())).willReturn(created.asMono());
+		ServiceInstanceBindingService service = new AutoAsyncServiceInstanceBindingService(
+				serviceInstanceBindingService, executor);
+
+		String token = detach(service);
+		created.tryEmitValue(CreateServiceInstanceAppBindingResponse.builder()
+				.credentials("password", "secret")
+				.build());
+
+		TrackedOperation tracked = tracker.get(BINDING, token);
+		assertThat(tracked.getState()).isEqualTo(OperationState.SUCCEEDED);
+		assertThat(tracked.getPlanId()).isEqualTo("plan-id");
+		StepVerifier.create(service.getServiceInstanceBinding(getRequest()))
+				.assertNext(binding -> assertThat(((GetServiceInstanceAppBindingResponse) binding).getCredentials())
+						.containsEntry("password", "secret"))
+				.verifyComplete();
+		then(serviceInstanceBindingService).should(never()).getServiceInstanceBinding(any());
+	}
+
+	@Test
+	void bindingOfDetachedOperationIsNotRetrievedAfterDelete() {
+		Sinks.One<CreateServiceInstanceBindingResponse> created = Sinks.one();
+		given(serviceInstanceBindingService.createServiceInstanceBinding(any())).willReturn(created.asMono());
+		given(serviceInstanceBindingService.deleteServiceInstanceBinding(any()))
+				.willReturn(Mono.just(DeleteServiceInstanceBindingResponse.builder().build()));
+		given(serviceInstanceBindingService.getServiceInstanceBinding(any()))
+				.willReturn(Mono.error(new ServiceInstanceBindingDoesNotExistException("binding-id")));
+		ServiceInstanceBindingService service = new AutoAsyncServiceInstanceBindingService(
+				serviceInstanceBindingService, executor);
+
+		detach(service);
+		created.tryEmitValue(CreateServiceInstanceAppBindingResponse.builder()
+				.credentials("password", "secret")
+				.build());
+		StepVerifier.create(service.deleteServiceInstanceBinding(DeleteServiceInstanceBindingRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.bindingId("binding-id")
+				.asyncAccepted(true)
+				.build()))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		StepVerifier.create(service.getServiceInstanceBinding(getRequest()))
+				.verifyError(ServiceInstanceBindingDoesNotExistException.class);
+	}
+
+	@Test
+	void failureOfDetachedOperationIsRecorded() {
+		Sinks.One<CreateServiceInstanceBindingResponse> created = Sinks.one();
+		given(serviceInstanceBindingService.createServiceInstanceBinding(any())).willReturn(created.asMono());
+		ServiceInstanceBindingService service = new AutoAsyncServiceInstanceBindingService(
+				serviceInstanceBindingService, executor);
+
+		String token = detach(service);
+		created.tryEmitError(new IllegalStateException("quota exceeded"));
+
+		TrackedOperation tracked = tracker.get(BINDING, token);
+		assertThat(tracked.getState()).isEqualTo(OperationState.FAILED);
+		assertThat(tracked.getDescription()).isEqualTo("quota exceeded");
+	}
+
+	@Test
+	void lastOperationOfDetachedAsynchronousOperationIsPassedToServiceUntilComplete() {
+		Sinks.One<CreateServiceInstanceBindingResponse> created = Sinks.one();
+		given(serviceInstanceBindingService.createServiceInstanceBinding(any())).willReturn(created.asMono());
+		given(serviceInstanceBindingService.getLastOperation(any())).willReturn(
+				Mono.just(GetLastServiceBindingOperationResponse.builder()
+						.operationState(OperationState.IN_PROGRESS)
+						.build()),
+				Mono.just(GetLastServiceBindingOperationResponse.builder()
+						.operationState(OperationState.SUCCEEDED)
+						.build()));
+		ServiceInstanceBindingService service = new AutoAsyncServiceInstanceBindingService(
+				serviceInstanceBindingService, executor);
+
+		String token = detach(service);
+		created.tryEmitValue(CreateServiceInstanceAppBindingResponse.builder()
+				.async(true)
+				.operation("service-task-id")
+				.build());
+
+		assertThat(tracker.get(BINDING, token)).isNull();
+		StepVerifier.create(service.getLastOperation(lastOperationRequest(token)))
+				.assertNext(response -> assertThat(response.getState()).isEqualTo(OperationState.IN_PROGRESS))
+				.verifyComplete();
+		assertThat(executor.getServiceOperation(BINDING, token)).isEqualTo("service-task-id");
+		StepVerifier.create(service.getLastOperation(lastOperationRequest(token)))
+				.assertNext(response -> assertThat(response.getState()).isEqualTo(OperationState.SUCCEEDED))
+				.verifyComplete();
+
+		then(serviceInstanceBindingService).should(times(2))
+				.getLastOperation(argThat(request -> "service-task-id".equals(request.getOperation())));
+		assertThat(executor.getServiceOperation(BINDING, token)).isEqualTo(token);
+	}
+
+	@Test
+	void lastOperationOfDeletedBindingIsNotTranslated() {
+		Sinks.One<CreateServiceInstanceBindingResponse> created = Sinks.one();
+		given(serviceInstanceBindingService.createServiceInstanceBinding(any())).willReturn(created.asMono());
+		given(serviceInstanceBindingService.getLastOperation(any()))
+				.willReturn(Mono.error(new ServiceInstanceBindingDoesNotExistException("binding-id")));
+		ServiceInstanceBindingService service = new AutoAsyncServiceInstanceBindingService(
+				serviceInstanceBindingService, executor);
+
+		String token = detach(service);
+		created.tryEmitValue(CreateServiceInstanceAppBindingResponse.builder()
+				.async(true)
+				.operation("service-task-id")
+				.build());
+
+		StepVerifier.create(service.getLastOperation(lastOperationRequest(token)))
+				.verifyError(ServiceInstanceBindingDoesNotExistException.class);
+		assertThat(executor.getServiceOperation(BINDING, token)).isEqualTo(token);
+	}
+
+	private static String detach(ServiceInstanceBindingService service) {
+		AtomicReference<String> token = new AtomicReference<>();
+		StepVerifier.withVirtualTime(() -> service.createServiceInstanceBinding(createRequest()))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofSeconds(9))
+				.thenAwait(Duration.ofSeconds(1))
+				.assertNext(response -> {
+					assertThat(response.isAsync()).isTrue();
+					token.set(response.getOperation());
+				})
+				.verifyComplete();
+		return token.get();
+	}
+
+	private static CreateServiceInstanceBindingRequest createRequest() {
+		return CreateServiceInstanceBindingRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.bindingId("binding-id")
+				.serviceDefinitionId("service-definition-id")
+				.planId("plan-id")
+				.asyncAccepted(true)
+				.build();
+	}
+
+	private static GetServiceInstanceBindingRequest getRequest() {
+		return GetServiceInstanceBindingRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.bindingId("binding-id")
+				.build();
+	}
+
+	private static GetLastServiceBindingOperationRequest lastOperationRequest(String operation) {
+		return GetLastServiceBindingOperationRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.bindingId("binding-id")
+				.operation(operation)
+				.build();
+	}
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.async;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.operation.AsyncOperationTracker;
+import org.springframework.cloud.servicebroker.service.operation.OperationKey;
+import org.springframework.cloud.servicebroker.service.operation.TrackedOperation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class AutoAsyncServiceInstanceServiceTest {
+
+	private static final OperationKey INSTANCE = OperationKey.forServiceInstance("service-instance-id");
+
+	private final AsyncOperationTracker tracker = new AsyncOperationTracker();
+
+	private final AutoAsyncExecutor executor = new AutoAsyncExecutor(tracker, Duration.ofSeconds(10),
+			Schedulers.immediate());
+
+	@Mock
+	private ServiceInstanceService serviceInstanceService;
+
+	@Mock
+	private Clock clock;
+
+	@Test
+	void operationCompletingWithinDeadlineIsAnsweredFromService() {
+		CreateServiceInstanceResponse created = CreateServiceInstanceResponse.builder()
+				.dashboardUrl("https://dashboard.example.com")
+				.build();
+		given(serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(created));
+		ServiceInstanceService service = new AutoAsyncServiceInstanceService(serviceInstanceService, executor);
+
+		StepVerifier.create(service.createServiceInstance(createRequest(true)))
+				.expectNext(created)
+				.verifyComplete();
+
+		assertThat(tracker.size()).isZero();
+	}
+
+	@Test
+	void operationExceedingDeadlineIsDetached() {
+		Sinks.One<CreateServiceInstanceResponse> created = Sinks.one();
+		given(serviceInstanceService.createServiceInstance(any())).willReturn(created.asMono());
+		ServiceInstanceService service = new AutoAsyncServiceInstanceService(serviceInstanceService, executor);
+		AtomicReference<String> token = new AtomicReference<>();
+
+		StepVerifier.withVirtualTime(() -> service.createServiceInstance(createRequest(true)))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofSeconds(9))
+				.thenAwait(Duration.ofSeconds(1))
+				.assertNext(response -> {
+					assertThat(response.isAsync()).isTrue();
+					assertThat(response.getOperation()).isNotNull();
+					token.set(response.getOperation());
+				})
+				.verifyComplete();
+
+		TrackedOperation tracked = tracker.get(INSTANCE, token.get());
+		assertThat(tracked.getState()).isEqualTo(OperationState.IN_PROGRESS);
+		assertThat(tracked.getPlanId()).isEqualTo("plan-id");
+
+		created.tryEmitValue(CreateServiceInstanceResponse.builder().build());
+
+		assertThat(tracker.get(INSTANCE, token.get()).getState()).isEqualTo(OperationState.SUCCEEDED);
+	}
+
+	@Test
+	void detachedOperationIsNotEvictedWhileRunning() {
+		given(clock.millis()).willReturn(0L);
+		AsyncOperationTracker expiringTracker = new AsyncOperationTracker(Duration.ofMinutes(1), clock);
+		AutoAsyncExecutor expiringExecutor = new AutoAsyncExecutor(expiringTracker, Duration.ofSeconds(10),
+				Schedulers.immediate());
+		Sinks.One<CreateServiceInstanceResponse> created = Sinks.one();
+		given(serviceInstanceService.createServiceInstance(any())).willReturn(created.asMono());
+		ServiceInstanceService service = new AutoAsyncServiceInstanceService(serviceInstanceService,
+				expiringExecutor);
+		AtomicReference<String> token = new AtomicReference<>();
+
+		StepVerifier.withVirtualTime(() -> service.createServiceInstance(createRequest(true)))
+				.thenAwait(Duration.ofSeconds(10))
+				.consumeNextWith(response -> token.set(response.getOperation()))
+				.verifyComplete();
+		given(clock.millis()).willReturn(Duration.ofMinutes(5).toMillis());
+
+		assertThat(expiringTracker.get(INSTANCE, token.get()).getState()).isEqualTo(OperationState.IN_PROGRESS);
+
+		created.tryEmitValue(CreateServiceInstanceResponse.builder().build());
+		given(clock.millis()).willReturn(Duration.ofMinutes(6).toMillis());
+
+		assertThat(expiringTracker.get(INSTANCE, token.get())).isNull();
+	}
+
+	@Test
+	void operationIsNotDetachedWhenAsyncIsNotAccepted() {
+		Sinks.One<CreateServiceInstanceResponse> created = Sinks.one();
+		given(serviceInstanceService.createServiceInstance(any())).willReturn(created.asMono());
+		ServiceInstanceService service = new AutoAsyncServiceInstanceService(serviceInstanceService, executor);
+		CreateServiceInstanceResponse response = CreateServiceInstanceResponse.builder().build();
+
+		StepVerifier.withVirtualTime(() -> service.createServiceInstance(createRequest(false)))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofSeconds(20))
+				.then(() -> created.tryEmitValue(response))
+				.expectNext(response)
+				.verifyComplete();
+
+		assertThat(tracker.size()).isZero();
+	}
+
+	@Test
+	void failureOfDetachedOperationIsRecorded() {
+		Sinks.One<CreateServiceInstanceResponse> created = Sinks.one();
+		given(serviceInstanceService.createServiceInstance(any())).willReturn(created.asMono());
+		ServiceInstanceService service = new AutoAsyncServiceInstanceService(serviceInstanceService, executor);
+		AtomicReference<String> token = new AtomicReference<>();
+
+		StepVerifier.withVirtualTime(() -> service.createServiceInstance(createRequest(true)))
+				.thenAwait(Duration.ofSeconds(10))
+				.consumeNextWith(response -> token.set(response.getOperation()))
+				.verifyComplete();
+		created.tryEmitError(new IllegalStateException("quota exceeded"));
+
+		TrackedOperation tracked = tracker.get(INSTANCE, token.get());
+		assertThat(tracked.getState()).isEqualTo(OperationState.FAILED);
+		assertThat(tracked.getDescription()).isEqualTo("quota exceeded");
+	}
+
+	@Test
+	void lastOperationOfDetachedAsynchronousOperationIsPassedToService() {
+		Sinks.One<CreateServiceInstanceResponse> created = Sinks.one();
+		given(serviceInstanceService.createServiceInstance(any())).willReturn(created.asMono());
+		given(serviceInstanceService.getLastOperation(any())).willReturn(Mono.just(GetLastServiceOperationResponse
+				.builder()
+				.operationState(OperationState.IN_PROGRESS)
+				.build()));
+		ServiceInstanceService service = new AutoAsyncServiceInstanceService(serviceInstanceService, executor);
+		AtomicReference<String> token = new AtomicReference<>();
+
+		StepVerifier.withVirtualTime(() -> service.createServiceInstance(createRequest(true)))
+				.thenAwait(Duration.ofSeconds(10))
+				.consumeNextWith(response -> token.set(response.getOperation()))
+				.verifyComplete();
+		created.tryEmitValue(CreateServiceInstanceResponse.builder()
+				.async(true)
+				.operation("service-task-id")
+				.build());
+
+		assertThat(tracker.get(INSTANCE, token.get())).isNull();
+		StepVerifier.create(service.getLastOperation(GetLastServiceOperationRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.operation(token.get())
+				.build()))
+				.expectNextCount(1)
+				.verifyComplete();
+		then(serviceInstanceService).should()
+				.getLastOperation(argThat(request -> "service-task-id".equals(request.getOperation())));
+	}
+
+	@Test
+	void lastOperationOfDetachedAsynchronousOperationIsNotTranslatedOnceComplete() {
+		Sinks.One<CreateServiceInstanceResponse> created = Sinks.one();
+		given(serviceInstanceService.createServiceInstance(any())).willReturn(created.asMono());
+		given(serviceInstanceService.getLastOperation(any())).willReturn(Mono.just(GetLastServiceOperationResponse
+				.builder()
+				.operationState(OperationState.SUCCEEDED)
+				.build()));
+		ServiceInstanceService service = new AutoAsyncServiceInstanceService(serviceInstanceService, executor);
+		AtomicReference<String> token = new AtomicReference<>();
+
+		StepVerifier.withVirtualTime(() -> service.createServiceInstance(createRequest(true)))
+				.thenAwait(Duration.ofSeconds(10))
+				.consumeNextWith(response -> token.set(response.getOperation()))
+				.verifyComplete();
+		created.tryEmitValue(CreateServiceInstanceResponse.builder()
+				.async(true)
+				.operation("service-task-id")
+				.build());
+
+		assertThat(executor.getServiceOperation(INSTANCE, token.get())).isEqualTo("service-task-id");
+		StepVerifier.create(service.getLastOperation(GetLastServiceOperationRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.operation(token.get())
+				.build()))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		assertThat(executor.getServiceOperation(INSTANCE, token.get())).isEqualTo(token.get());
+	}
+
+	private static CreateServiceInstanceRequest createRequest(boolean asyncAccepted) {
+		return CreateServiceInstanceRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.serviceDefinitionId("service-definition-id")
+				.planId("plan-id")
+				.asyncAccepted(asyncAccepted)
+				.build();
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.coalescing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceAppBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingServiceInstanceBindingServiceTest {
+
+	private final RequestCoalescer coalescer = new RequestCoalescer();
+
+	@Mock
+	private ServiceInstanceBindingService serviceInstanceBindingService;
+
+	@Test
+	void identicalBindingReadsAreCoalesced() {
+		Sinks.One<GetServiceInstanceBindingResponse> response = Sinks.one();
+		given(serviceInstanceBindingService.getServiceInstanceBinding(any())).willReturn(response.asMono());
+		ServiceInstanceBindingService service = new CoalescingServiceInstanceBindingService(
+				serviceInstanceBindingService, coalescer);
+
+		StepVerifier.create(Mono.zip(service.getServiceInstanceBinding(bindingRequest("instance-id", "binding-id")),
+				service.getServiceInstanceBinding(bindingRequest("instance-id", "binding-id"))))
+				.then(() -> response.tryEmitValue(GetServiceInstanceAppBindingResponse.builder().build()))
+				.expectNextMatches(responses -> responses.getT1() == responses.getT2())
+				.verifyComplete();
+
+		then(serviceInstanceBindingService).should(times(1)).getServiceInstanceBinding(any());
+	}
+
+	@Test
+	void bindingReadsOfDifferentBindingsAreNotCoalesced() {
+		given(serviceInstanceBindingService.getServiceInstanceBinding(any()))
+				.willReturn(Mono.just(GetServiceInstanceAppBindingResponse.builder().build()));
+		ServiceInstanceBindingService service = new CoalescingServiceInstanceBindingService(
+				serviceInstanceBindingService, coalescer);
+
+		StepVerifier.create(Mono.zip(service.getServiceInstanceBinding(bindingRequest("instance-id", "binding-id")),
+				service.getServiceInstanceBinding(bindingRequest("instance-id", "other-binding-id")),
+				service.getServiceInstanceBinding(bindingRequest("other-instance-id", "binding-id"))))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		then(serviceInstanceBindingService).should(times(3)).getServiceInstanceBinding(any());
+	}
+
+	@Test
+	void identicalLastOperationReadsAreCoalesced() {
+		Sinks.One<GetLastServiceBindingOperationResponse> response = Sinks.one();
+		given(serviceInstanceBindingService.getLastOperation(any())).willReturn(response.asMono());
+		ServiceInstanceBindingService service = new CoalescingServiceInstanceBindingService(
+				serviceInstanceBindingService, coalescer);
+
+		StepVerifier.create(Mono.zip(service.getLastOperation(lastOperationRequest("binding-id", "task-id")),
+				service.getLastOperation(lastOperationRequest("binding-id", "task-id"))))
+				.then(() -> response.tryEmitValue(GetLastServiceBindingOperationResponse.builder()
+						.operationState(OperationState.IN_PROGRESS)
+						.build()))
+				.expectNextMatches(responses -> responses.getT1() == responses.getT2())
+				.verifyComplete();
+
+		then(serviceInstanceBindingService).should(times(1)).getLastOperation(any());
+	}
+
+	@Test
+	void lastOperationReadsOfDifferentOperationsAreNotCoalesced() {
+		given(serviceInstanceBindingService.getLastOperation(any()))
+				.willReturn(Mono.just(GetLastServiceBindingOperationResponse.builder()
+						.operationState(OperationState.SUCCEEDED)
+						.build()));
+		ServiceInstanceBindingService service = new CoalescingServiceInstanceBindingService(
+				serviceInstanceBindingService, coalescer);
+
+		StepVerifier.create(Mono.zip(service.getLastOperation(lastOperationRequest("binding-id", "task-id")),
+				service.getLastOperation(lastOperationRequest("binding-id", "other-task-id")),
+				service.getLastOperation(lastOperationRequest("other-binding-id", "task-id"))))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		then(serviceInstanceBindingService).should(times(3)).getLastOperation(any());
+	}
+
+	private static GetServiceInstanceBindingRequest bindingRequest(String serviceInstanceId, String bindingId) {
+		return GetServiceInstanceBindingRequest.builder()
+				.serviceInstanceId(serviceInstanceId)
+				.bindingId(bindingId)
+				.build();
+	}
+
+	private static GetLastServiceBindingOperationRequest lastOperationRequest(String bindingId, String operation) {
+		return GetLastServiceBindingOperationRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.bindingId(bindingId)
+				.operation(operation)
+				.build();
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.coalescing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingServiceInstanceServiceTest {
+
+	private final RequestCoalescer coalescer = new RequestCoalescer();
+
+	@Mock
+	private ServiceInstanceService serviceInstanceService;
+
+	@Test
+	void identicalLastOperationReadsAreCoalesced() {
+		Sinks.One<GetLastServiceOperationResponse> response = Sinks.one();
+		given(serviceInstanceService.getLastOperation(any())).willReturn(response.asMono());
+		ServiceInstanceService service = new CoalescingServiceInstanceService(serviceInstanceService, coalescer);
+
+		StepVerifier.create(Mono.zip(service.getLastOperation(lastOperationRequest("task-id")),
+				service.getLastOperation(lastOperationRequest("task-id"))))
+				.then(() -> response.tryEmitValue(GetLastServiceOperationResponse.builder()
+						.operationState(OperationState.IN_PROGRESS)
+						.build()))
+				.expectNextMatches(responses -> responses.getT1() == responses.getT2())
+				.verifyComplete();
+
+		then(serviceInstanceService).should(times(1)).getLastOperation(any());
+	}
+
+	@Test
+	void lastOperationReadsOfDifferentOperationsAreNotCoalesced() {
+		given(serviceInstanceService.getLastOperation(any()))
+				.willReturn(Mono.just(GetLastServiceOperationResponse.builder()
+						.operationState(OperationState.SUCCEEDED)
+						.build()));
+		ServiceInstanceService service = new CoalescingServiceInstanceService(serviceInstanceService, coalescer);
+
+		StepVerifier.create(Mono.zip(service.getLastOperation(lastOperationRequest("task-id")),
+				service.getLastOperation(lastOperationRequest("other-task-id"))))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		then(serviceInstanceService).should(times(2)).getLastOperation(any());
+	}
+
+	private static GetLastServiceOperationRequest lastOperationRequest(String operation) {
+		return GetLastServiceOperationRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.operation(operation)
+				.build();
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.coalescing;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class RequestCoalescerTest {
+
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@Test
+	void concurrentReadsShareOneExecution() {
+		RequestCoalescer coalescer = new RequestCoalescer();
+		Sinks.One<String> result = Sinks.one();
+
+		Mono<String> first = coalescer.coalesce("key", () -> read(result.asMono()));
+		Mono<String> second = coalescer.coalesce("key", () -> read(result.asMono()));
+
+		StepVerifier.create(first.zipWith(second))
+				.then(() -> result.tryEmitValue("value"))
+				.assertNext(results -> {
+					assertThat(results.getT1()).isEqualTo("value");
+					assertThat(results.getT2()).isEqualTo("value");
+				})
+				.verifyComplete();
+		assertThat(executions).hasValue(1);
+		assertThat(coalescer.getRequestCount()).isEqualTo(2);
+		assertThat(coalescer.getExecutionCount()).isEqualTo(1);
+		assertThat(coalescer.getCoalescingRatio()).isEqualTo(0.5);
+		assertThat(coalescer.size()).isZero();
+	}
+
+	@Test
+	void differentKeysAreNotCoalesced() {
+		RequestCoalescer coalescer = new RequestCoalescer();
+		Sinks.One<String> result = Sinks.one();
+
+		StepVerifier.create(coalescer.coalesce("key", () -> read(result.asMono()))
+				.zipWith(coalescer.coalesce("other-key", () -> read(result.asMono()))))
+				.then(() -> result.tryEmitValue("value"))
+				.expectNextCount(1)
+				.verifyComplete();
+		assertThat(executions).hasValue(2);
+		assertThat(coalescer.getCoalescingRatio()).isZero();
+	}
+
+	@Test
+	void completedReadsAreExecutedAgain() {
+		RequestCoalescer coalescer = new RequestCoalescer();
+
+		StepVerifier.create(coalescer.coalesce("key", () -> read(Mono.just("value"))))
+				.expectNext("value")
+				.verifyComplete();
+		StepVerifier.create(coalescer.coalesce("key", () -> read(Mono.just("value"))))
+				.expectNext("value")
+				.verifyComplete();
+		assertThat(executions).hasValue(2);
+	}
+
+	@Test
+	void resultIsSharedWithinTimeToLive() {
+		StepVerifier.withVirtualTime(() -> {
+			RequestCoalescer coalescer = new RequestCoalescer(Duration.ofSeconds(2));
+			return coalescer.coalesce("key", () -> read(Mono.just("value")))
+					.then(coalescer.coalesce("key", () -> read(Mono.just("other-value"))))
+					.delayElement(Duration.ofSeconds(3))
+					.flatMap(value -> coalescer.coalesce("key", () -> read(Mono.just("other-value")))
+							.map(other -> value + "," + other));
+		})
+				.thenAwait(Duration.ofSeconds(3))
+				.expectNext("value,other-value")
+				.verifyComplete();
+		assertThat(executions).hasValue(2);
+	}
+
+	@Test
+	void errorsAreNotShared() {
+		RequestCoalescer coalescer = new RequestCoalescer(Duration.ofMinutes(1));
+
+		StepVerifier.create(coalescer.coalesce("key", () -> read(Mono.error(new IllegalStateException()))))
+				.verifyError(IllegalStateException.class);
+		StepVerifier.create(coalescer.coalesce("key", () -> read(Mono.just("value"))))
+				.expectNext("value")
+				.verifyComplete();
+		assertThat(executions).hasValue(2);
+	}
+
+	@Test
+	void resultTimeToLiveMustNotBeNegative() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new RequestCoalescer(Duration.ofSeconds(-1)));
+	}
+
+	private <T> Mono<T> read(Mono<T> result) {
+		executions.incrementAndGet();
+		return result;
+	}
+
+}
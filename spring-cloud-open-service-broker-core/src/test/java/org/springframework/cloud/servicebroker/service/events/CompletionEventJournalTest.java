@@ -0,0 +1,191 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class CompletionEventJournalTest {
+
+	private static final int SEGMENT_SIZE = 64;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void unacknowledgedRecordsAreReplayedAfterReopening() throws IOException {
+		CompletionEventJournal journal = journal();
+		journal.open();
+		long first = append(journal, "one");
+		append(journal, "two");
+		journal.acknowledge(first);
+		journal.checkpoint();
+		journal.close();
+
+		CompletionEventJournal reopened = journal();
+		reopened.open();
+		try {
+			assertThat(replay(reopened).values()).containsExactly("two");
+			assertThat(reopened.getPendingCount()).isEqualTo(1);
+		}
+		finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	void concurrentAppendsAreCommittedTogether() throws IOException {
+		CompletionEventJournal journal = new CompletionEventJournal(this.directory, 1024, Duration.ofMillis(20));
+		journal.open();
+		try {
+			List<Long> positions = Flux.range(0, 10)
+					.flatMap(i -> journal.append(("event-" + i).getBytes(StandardCharsets.UTF_8)))
+					.collectList()
+					.block(Duration.ofSeconds(5));
+
+			assertThat(positions).hasSize(10).doesNotHaveDuplicates();
+			assertThat(journal.getPendingCount()).isEqualTo(10);
+		}
+		finally {
+			journal.close();
+		}
+	}
+
+	@Test
+	void loneAppendIsNotHeldForTheCommitInterval() throws IOException {
+		CompletionEventJournal journal = new CompletionEventJournal(this.directory, 1024, Duration.ofMinutes(1));
+		journal.open();
+		try {
+			append(journal, "one");
+			append(journal, "two");
+
+			assertThat(journal.getPendingCount()).isEqualTo(2);
+		}
+		finally {
+			journal.close();
+		}
+	}
+
+	@Test
+	void segmentsAreRolledAndDeletedOnceDelivered() throws IOException {
+		CompletionEventJournal journal = journal();
+		journal.open();
+		List<Long> positions = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			positions.add(append(journal, "event-" + i));
+		}
+		assertThat(segmentCount()).isGreaterThan(1);
+
+		positions.forEach(journal::acknowledge);
+		journal.checkpoint();
+		journal.close();
+
+		assertThat(segmentCount()).isEqualTo(1);
+		CompletionEventJournal reopened = journal();
+		reopened.open();
+		try {
+			assertThat(replay(reopened)).isEmpty();
+			append(reopened, "seven");
+		}
+		finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	void recordsAreReplayedWhenNextSegmentWasCreatedAheadOfTime() throws IOException {
+		CompletionEventJournal journal = journal();
+		journal.open();
+		long last = 0;
+		for (int i = 0; i < 3; i++) {
+			last = append(journal, "event-" + i);
+		}
+		journal.close();
+		// a crash leaves the segment the commit thread mapped ahead of the appends behind
+		Files.write(this.directory.resolve(String.format("completion-journal-%020d.log", last / SEGMENT_SIZE + 1)),
+				new byte[SEGMENT_SIZE]);
+
+		CompletionEventJournal reopened = journal();
+		reopened.open();
+		try {
+			assertThat(replay(reopened).values()).containsExactly("event-0", "event-1", "event-2");
+			append(reopened, "event-3");
+		}
+		finally {
+			reopened.close();
+		}
+
+		CompletionEventJournal recovered = journal();
+		recovered.open();
+		try {
+			assertThat(replay(recovered).values()).containsExactly("event-0", "event-1", "event-2", "event-3");
+		}
+		finally {
+			recovered.close();
+		}
+	}
+
+	@Test
+	void recordLargerThanSegmentIsRejected() throws IOException {
+		CompletionEventJournal journal = journal();
+		journal.open();
+		try {
+			assertThatIllegalArgumentException().isThrownBy(() -> journal.append(new byte[SEGMENT_SIZE]).block());
+		}
+		finally {
+			journal.close();
+		}
+	}
+
+	private CompletionEventJournal journal() {
+		return new CompletionEventJournal(this.directory, SEGMENT_SIZE, Duration.ZERO);
+	}
+
+	private long segmentCount() throws IOException {
+		try (Stream<Path> files = Files.list(this.directory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".log")).count();
+		}
+	}
+
+	private static long append(CompletionEventJournal journal, String payload) {
+		Long position = journal.append(payload.getBytes(StandardCharsets.UTF_8)).block(Duration.ofSeconds(5));
+		assertThat(position).isNotNull();
+		return position;
+	}
+
+	private static Map<Long, String> replay(CompletionEventJournal journal) {
+		Map<Long, String> records = new TreeMap<>();
+		journal.replay((position, payload) -> records.put(position, new String(payload, StandardCharsets.UTF_8)));
+		return records;
+	}
+
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.events.DetachedCompletionQueue.OverflowPolicy;
+import org.springframework.cloud.servicebroker.service.events.flows.BatchCompletionFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceCompletionFlow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class DetachedCompletionQueueTest {
+
+	private final CreateServiceInstanceResponse response = CreateServiceInstanceResponse.builder()
+			.dashboardUrl("https://dashboard.example.com")
+			.build();
+
+	private final List<String> completed = new CopyOnWriteArrayList<>();
+
+	@TempDir
+	Path tempDir;
+
+	private DetachedCompletionQueue queue;
+
+	@AfterEach
+	void tearDown() {
+		if (this.queue != null) {
+			this.queue.close();
+		}
+	}
+
+	@Test
+	void responseIsReturnedBeforeCompletionFlowsRun() throws Exception {
+		Sinks.Empty<Void> release = Sinks.empty();
+		CountDownLatch latch = new CountDownLatch(1);
+		this.queue = DetachedCompletionQueue.builder().build();
+		CreateServiceInstanceEventFlowRegistry registry = registry(request -> release.asMono()
+				.then(Mono.fromRunnable(latch::countDown)));
+		this.queue.start();
+
+		StepVerifier.create(registry.attachFlows(request("instance-one"), Mono.just(this.response)))
+				.expectNext(this.response)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(latch.getCount()).isEqualTo(1);
+		release.tryEmitEmpty();
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void eventsArePassedToBatchFlowsInBatches() throws Exception {
+		List<List<String>> batches = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(3);
+		BatchCompletionFlow batchFlow = new BatchCompletionFlow() {
+			@Override
+			public Mono<Void> complete(List<CompletionEvent> events) {
+				return Mono.fromRunnable(() -> {
+					batches.add(instanceIds(events));
+					latch.countDown();
+				});
+			}
+		};
+		this.queue = DetachedCompletionQueue.builder()
+				.batchSize(2)
+				.batchFlows(Collections.singletonList(batchFlow))
+				.build();
+		CreateServiceInstanceEventFlowRegistry registry = registry(request -> Mono.empty());
+		for (String id : new String[] {"one", "two", "three", "four", "five"}) {
+			registry.attachFlows(request(id), Mono.just(this.response)).block();
+		}
+
+		this.queue.start();
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(batches).containsExactly(
+				Arrays.asList("one", "two"),
+				Arrays.asList("three", "four"),
+				Collections.singletonList("five"));
+		assertThat(this.completed).containsExactly("one", "two", "three", "four", "five");
+	}
+
+	@Test
+	void eventsAreNotQueuedWithoutCompletionFlows() {
+		this.queue = DetachedCompletionQueue.builder().build();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null, null,
+				EventFlowExecutionPolicy.builder()
+						.completionQueue(this.queue)
+						.build());
+
+		registry.attachFlows(request("one"), Mono.just(this.response)).block();
+
+		assertThat(this.queue.getEnqueuedCount()).isZero();
+	}
+
+	@Test
+	void eventsAreQueuedForBatchFlowsWithoutCompletionFlows() {
+		this.queue = DetachedCompletionQueue.builder()
+				.batchFlows(Collections.singletonList(new BatchCompletionFlow() {
+				}))
+				.build();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null, null,
+				EventFlowExecutionPolicy.builder()
+						.completionQueue(this.queue)
+						.build());
+
+		registry.attachFlows(request("one"), Mono.just(this.response)).block();
+
+		assertThat(this.queue.getEnqueuedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void eventsAreDroppedWhenQueueIsFull() {
+		this.queue = DetachedCompletionQueue.builder()
+				.capacity(1)
+				.build();
+		CreateServiceInstanceEventFlowRegistry registry = registry(request -> Mono.empty());
+
+		registry.attachFlows(request("one"), Mono.just(this.response)).block();
+		registry.attachFlows(request("two"), Mono.just(this.response)).block();
+
+		assertThat(this.queue.getQueueDepth()).isEqualTo(1);
+		assertThat(this.queue.getEnqueuedCount()).isEqualTo(1);
+		assertThat(this.queue.getDroppedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void eventsAreDroppedWhenBlockTimesOut() {
+		this.queue = DetachedCompletionQueue.builder()
+				.capacity(1)
+				.overflowPolicy(OverflowPolicy.BLOCK)
+				.blockTimeout(Duration.ofMillis(10))
+				.build();
+		registry(request -> Mono.empty());
+
+		assertThat(this.queue.enqueue(event("one"))).isTrue();
+		assertThat(this.queue.enqueue(event("two"))).isFalse();
+		assertThat(this.queue.getDroppedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void blockedEventsDoNotBlockTheSubmittingThread() {
+		this.queue = DetachedCompletionQueue.builder()
+				.capacity(1)
+				.overflowPolicy(OverflowPolicy.BLOCK)
+				.blockTimeout(Duration.ofMillis(50))
+				.build();
+		registry(request -> Mono.empty());
+
+		StepVerifier.create(Flux.just("one", "two")
+				.concatMap(id -> this.queue.submit(event(id)))
+				.subscribeOn(Schedulers.parallel()))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(this.queue.getEnqueuedCount()).isEqualTo(1);
+		assertThat(this.queue.getDroppedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void spilledEventsDoNotBlockTheSubmittingThread() {
+		Path spillFile = this.tempDir.resolve("completion-events.jsonl");
+		this.queue = DetachedCompletionQueue.builder()
+				.capacity(1)
+				.overflowPolicy(OverflowPolicy.SPILL)
+				.spillFile(spillFile)
+				.build();
+		registry(request -> Mono.empty());
+
+		StepVerifier.create(Flux.just("one", "two", "three")
+				.concatMap(id -> this.queue.submit(event(id)))
+				.subscribeOn(Schedulers.parallel()))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(this.queue.getQueueDepth()).isEqualTo(1);
+		assertThat(this.queue.getSpilledCount()).isEqualTo(2);
+		assertThat(spillFile).exists();
+	}
+
+	@Test
+	void spilledEventsAreReplayed() throws Exception {
+		Path spillFile = this.tempDir.resolve("completion-events.jsonl");
+		CountDownLatch latch = new CountDownLatch(3);
+		this.queue = DetachedCompletionQueue.builder()
+				.capacity(1)
+				.overflowPolicy(OverflowPolicy.SPILL)
+				.spillFile(spillFile)
+				.build();
+		CreateServiceInstanceEventFlowRegistry registry = registry(request -> Mono.fromRunnable(latch::countDown));
+
+		registry.attachFlows(request("one"), Mono.just(this.response)).block();
+		registry.attachFlows(request("two"), Mono.just(this.response)).block();
+		registry.attachFlows(request("three"), Mono.just(this.response)).block();
+
+		assertThat(this.queue.getQueueDepth()).isEqualTo(1);
+		assertThat(this.queue.getSpilledCount()).isEqualTo(2);
+		assertThat(this.queue.getSpillDepth()).isEqualTo(2);
+		assertThat(spillFile).exists();
+
+		this.queue.start();
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(this.completed).containsExactlyInAnyOrder("one", "two", "three");
+		assertThat(this.queue.getSpillDepth()).isZero();
+		assertThat(Files.exists(spillFile)).isFalse();
+	}
+
+	@Test
+	void journaledEventsAreReplayedAfterRestart() throws Exception {
+		Path journalDirectory = this.tempDir.resolve("journal");
+		this.queue = DetachedCompletionQueue.builder()
+				.closeTimeout(Duration.ofMillis(50))
+				.journal(new CompletionEventJournal(journalDirectory, 1024 * 1024, Duration.ofMillis(1)))
+				.build();
+		CreateServiceInstanceEventFlowRegistry registry = registry(request -> Mono.never());
+		this.queue.start();
+		registry.attachFlows(request("one"), Mono.just(this.response)).block();
+		registry.attachFlows(request("two"), Mono.just(this.response)).block();
+		this.queue.close();
+
+		CountDownLatch latch = new CountDownLatch(2);
+		this.completed.clear();
+		this.queue = DetachedCompletionQueue.builder()
+				.journal(new CompletionEventJournal(journalDirectory, 1024 * 1024, Duration.ofMillis(1)))
+				.build();
+		registry(request -> Mono.fromRunnable(latch::countDown));
+		this.queue.start();
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(this.completed).containsExactly("one", "two");
+	}
+
+	@Test
+	void droppedEventsDoNotHoldBackTheJournal() throws Exception {
+		Path journalDirectory = this.tempDir.resolve("journal");
+		Sinks.Empty<Void> release = Sinks.empty();
+		this.queue = DetachedCompletionQueue.builder()
+				.capacity(1)
+				.journal(new CompletionEventJournal(journalDirectory, 4096, Duration.ZERO))
+				.build();
+		registry(request -> release.asMono());
+		this.queue.start();
+		for (int i = 0; i < 40; i++) {
+			this.queue.submit(event("event-" + i)).block(Duration.ofSeconds(5));
+		}
+
+		assertThat(this.queue.getDroppedCount()).isPositive();
+		assertThat(segmentCount(journalDirectory)).isGreaterThan(2);
+
+		release.tryEmitEmpty();
+		this.queue.close();
+
+		assertThat(this.queue.getJournalDepth()).isZero();
+		assertThat(segmentCount(journalDirectory)).isEqualTo(1);
+	}
+
+	@Test
+	void spillRequiresSpillFile() {
+		assertThatIllegalArgumentException().isThrownBy(() -> DetachedCompletionQueue.builder()
+				.overflowPolicy(OverflowPolicy.SPILL)
+				.build());
+	}
+
+	private CreateServiceInstanceEventFlowRegistry registry(CompletionFlow flow) {
+		return new CreateServiceInstanceEventFlowRegistry(null,
+				Collections.singletonList(new CreateServiceInstanceCompletionFlow() {
+					@Override
+					public Mono<Void> complete(CreateServiceInstanceRequest request,
+							CreateServiceInstanceResponse response) {
+						return Mono.fromRunnable(() -> completed.add(request.getServiceInstanceId()))
+								.then(flow.complete(request));
+					}
+				}),
+				null,
+				EventFlowExecutionPolicy.builder()
+						.completionQueue(this.queue)
+						.build());
+	}
+
+	private CompletionEvent event(String serviceInstanceId) {
+		return new CompletionEvent(CreateServiceInstanceEventFlowRegistry.class.getName(), request(serviceInstanceId),
+				this.response, System.currentTimeMillis());
+	}
+
+	private static CreateServiceInstanceRequest request(String serviceInstanceId) {
+		return CreateServiceInstanceRequest.builder()
+				.serviceInstanceId(serviceInstanceId)
+				.serviceDefinitionId("service-definition-id")
+				.planId("plan-id")
+				.build();
+	}
+
+	private static long segmentCount(Path journalDirectory) throws IOException {
+		try (Stream<Path> files = Files.list(journalDirectory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".log")).count();
+		}
+	}
+
+	private static List<String> instanceIds(List<CompletionEvent> events) {
+		List<String> ids = new ArrayList<>();
+		for (CompletionEvent event : events) {
+			ids.add(((CreateServiceInstanceRequest) event.getRequest()).getServiceInstanceId());
+		}
+		return ids;
+	}
+
+	private interface CompletionFlow {
+
+		Mono<Void> complete(CreateServiceInstanceRequest request);
+
+	}
+
+}
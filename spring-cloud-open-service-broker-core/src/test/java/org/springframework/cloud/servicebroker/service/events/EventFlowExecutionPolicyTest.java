@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.service.events.EventFlowExecutionPolicy.Dispatch;
+import org.springframework.cloud.servicebroker.service.events.EventFlowExecutionPolicy.TimeoutAction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class EventFlowExecutionPolicyTest {
+
+	@Test
+	void sequentialDispatchRunsOneFlowAtATime() {
+		EventFlowExecutionPolicy policy = EventFlowExecutionPolicy.builder()
+				.dispatch(Dispatch.SEQUENTIAL)
+				.build();
+		List<Integer> completed = new CopyOnWriteArrayList<>();
+
+		StepVerifier.create(policy.run(Flux.just(30, 10, 20), delay -> Mono.delay(Duration.ofMillis(delay))
+				.doOnNext(tick -> completed.add(delay))
+				.then()))
+				.verifyComplete();
+
+		assertThat(completed).containsExactly(30, 10, 20);
+	}
+
+	@Test
+	void concurrentDispatchIsBounded() {
+		EventFlowExecutionPolicy policy = EventFlowExecutionPolicy.builder()
+				.dispatch(Dispatch.CONCURRENT)
+				.concurrency(2)
+				.build();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		StepVerifier.create(policy.run(Flux.range(0, 8), i -> Mono.delay(Duration.ofMillis(10))
+				.doOnSubscribe(subscription -> maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+				.doOnNext(tick -> running.decrementAndGet())
+				.then()))
+				.verifyComplete();
+
+		assertThat(maxRunning.get()).isEqualTo(2);
+	}
+
+	@Test
+	void timedOutFlowFailsByDefault() {
+		EventFlowExecutionPolicy policy = EventFlowExecutionPolicy.builder()
+				.timeout(Duration.ofMillis(10))
+				.build();
+
+		StepVerifier.create(policy.run(Flux.just(1), i -> Mono.never()))
+				.expectError(TimeoutException.class)
+				.verify();
+	}
+
+	@Test
+	void timedOutFlowIsSkipped() {
+		EventFlowExecutionPolicy policy = EventFlowExecutionPolicy.builder()
+				.timeout(Duration.ofMillis(10))
+				.timeoutAction(TimeoutAction.SKIP)
+				.build();
+		AtomicInteger completed = new AtomicInteger();
+
+		StepVerifier.create(policy.run(Flux.just(1, 2), i -> (i == 1) ? Mono.<Void>never()
+				: Mono.fromRunnable(completed::incrementAndGet)))
+				.verifyComplete();
+
+		assertThat(completed.get()).isEqualTo(1);
+	}
+
+	@Test
+	void flowsRunOnScheduler() {
+		Scheduler scheduler = Schedulers.newSingle("event-flow-test");
+		try {
+			EventFlowExecutionPolicy policy = EventFlowExecutionPolicy.builder()
+					.scheduler(scheduler)
+					.build();
+			List<String> threads = new CopyOnWriteArrayList<>();
+
+			StepVerifier.create(policy.run(Flux.just(1), i -> Mono.fromRunnable(
+					() -> threads.add(Thread.currentThread().getName()))))
+					.verifyComplete();
+
+			assertThat(threads).hasSize(1);
+			assertThat(threads.get(0)).startsWith("event-flow-test");
+		}
+		finally {
+			scheduler.dispose();
+		}
+	}
+
+	@Test
+	void invalidConcurrencyIsRejected() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> EventFlowExecutionPolicy.builder().concurrency(0).build());
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceCompletionFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceErrorFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceInitializationFlow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventFlowRegistryTest {
+
+	private final CreateServiceInstanceRequest request = CreateServiceInstanceRequest.builder()
+			.serviceInstanceId("service-instance-id")
+			.build();
+
+	private final CreateServiceInstanceResponse response = CreateServiceInstanceResponse.builder().build();
+
+	@Test
+	void responseIsReturnedAsIsWithoutFlows() {
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null, null);
+		Mono<CreateServiceInstanceResponse> response = Mono.just(this.response);
+
+		assertThat(registry.attachFlows(this.request, response)).isSameAs(response);
+	}
+
+	@Test
+	void overriddenFlowsAreAttachedWithoutRegisteredFlows() {
+		List<String> events = new CopyOnWriteArrayList<>();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null, null) {
+			@Override
+			public Flux<Void> getInitializationFlows(CreateServiceInstanceRequest request) {
+				return Flux.defer(() -> {
+					events.add("initialize");
+					return Flux.empty();
+				});
+			}
+
+			@Override
+			public Flux<Void> getCompletionFlows(CreateServiceInstanceRequest request,
+					CreateServiceInstanceResponse response) {
+				return Flux.defer(() -> {
+					events.add("complete");
+					return Flux.empty();
+				});
+			}
+
+			@Override
+			public Flux<Void> getErrorFlows(CreateServiceInstanceRequest request, Throwable t) {
+				return Flux.defer(() -> {
+					events.add("error");
+					return Flux.empty();
+				});
+			}
+		};
+
+		StepVerifier.create(registry.attachFlows(this.request, Mono.just(this.response)))
+				.expectNext(this.response)
+				.verifyComplete();
+		StepVerifier.create(registry.attachFlows(this.request, Mono.error(new IllegalStateException())))
+				.expectError(IllegalStateException.class)
+				.verify();
+
+		assertThat(events).containsExactly("initialize", "complete", "initialize", "error");
+	}
+
+	@Test
+	void flowsAreAttachedToResponse() {
+		List<String> events = new CopyOnWriteArrayList<>();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(
+				Collections.singletonList(new CreateServiceInstanceInitializationFlow() {
+					@Override
+					public Mono<Void> initialize(CreateServiceInstanceRequest request) {
+						return Mono.fromRunnable(() -> events.add("initialize"));
+					}
+				}),
+				Collections.singletonList(new CreateServiceInstanceCompletionFlow() {
+					@Override
+					public Mono<Void> complete(CreateServiceInstanceRequest request,
+							CreateServiceInstanceResponse response) {
+						return Mono.fromRunnable(() -> events.add("complete"));
+					}
+				}),
+				Collections.singletonList(new CreateServiceInstanceErrorFlow() {
+					@Override
+					public Mono<Void> error(CreateServiceInstanceRequest request, Throwable t) {
+						return Mono.fromRunnable(() -> events.add("error"));
+					}
+				}));
+
+		StepVerifier.create(registry.attachFlows(this.request, Mono.just(this.response)))
+				.expectNext(this.response)
+				.verifyComplete();
+		StepVerifier.create(registry.attachFlows(this.request, Mono.error(new IllegalStateException())))
+				.expectError(IllegalStateException.class)
+				.verify();
+
+		assertThat(events).containsExactly("initialize", "complete", "initialize", "error");
+	}
+
+	@Test
+	void flowsAreAddedConcurrently() {
+		List<String> events = new CopyOnWriteArrayList<>();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null, null);
+
+		IntStream.range(0, 100).parallel().forEach(i -> registry
+				.addInitializationFlow(new CreateServiceInstanceInitializationFlow() {
+					@Override
+					public Mono<Void> initialize(CreateServiceInstanceRequest request) {
+						return Mono.fromRunnable(() -> events.add("initialize " + i));
+					}
+				})
+				.block());
+
+		StepVerifier.create(registry.getInitializationFlows(this.request))
+				.verifyComplete();
+		assertThat(events).hasSize(100);
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.idempotency;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class IdempotencyCacheTest {
+
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@Test
+	void identicalRequestIsAnsweredWithHeldOutcome() {
+		IdempotencyCache cache = new IdempotencyCache();
+
+		StepVerifier.create(execute(cache, "fingerprint", Mono.just("value")))
+				.expectNext("value")
+				.verifyComplete();
+		StepVerifier.create(execute(cache, "fingerprint", Mono.just("other-value")))
+				.expectNext("value (replayed)")
+				.verifyComplete();
+		assertThat(executions).hasValue(1);
+		assertThat(cache.getRequestCount()).isEqualTo(2);
+		assertThat(cache.getReplayCount()).isEqualTo(1);
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	void identicalRequestInFlightSharesOneExecution() {
+		IdempotencyCache cache = new IdempotencyCache();
+		Sinks.One<String> result = Sinks.one();
+
+		StepVerifier.create(execute(cache, "fingerprint", result.asMono())
+				.zipWith(execute(cache, "fingerprint", result.asMono())))
+				.then(() -> result.tryEmitValue("value"))
+				.assertNext(results -> {
+					assertThat(results.getT1()).isEqualTo("value");
+					assertThat(results.getT2()).isEqualTo("value (replayed)");
+				})
+				.verifyComplete();
+		assertThat(executions).hasValue(1);
+	}
+
+	@Test
+	void differentRequestIsRejected() {
+		IdempotencyCache cache = new IdempotencyCache();
+
+		StepVerifier.create(execute(cache, "fingerprint", Mono.just("value")))
+				.expectNext("value")
+				.verifyComplete();
+		StepVerifier.create(execute(cache, "other-fingerprint", Mono.just("value")))
+				.verifyError(IllegalStateException.class);
+		assertThat(executions).hasValue(1);
+		assertThat(cache.getConflictCount()).isEqualTo(1);
+	}
+
+	@Test
+	void outcomeIsDiscardedAfterTimeToLive() {
+		StepVerifier.withVirtualTime(() -> {
+			IdempotencyCache cache = new IdempotencyCache(Duration.ofSeconds(2));
+			return execute(cache, "fingerprint", Mono.just("value"))
+					.delayElement(Duration.ofSeconds(3))
+					.flatMap(value -> execute(cache, "other-fingerprint", Mono.just("other-value")));
+		})
+				.thenAwait(Duration.ofSeconds(3))
+				.expectNext("other-value")
+				.verifyComplete();
+		assertThat(executions).hasValue(2);
+	}
+
+	@Test
+	void invalidatedOutcomeIsDiscarded() {
+		IdempotencyCache cache = new IdempotencyCache();
+
+		StepVerifier.create(execute(cache, "fingerprint", Mono.just("value")))
+				.expectNext("value")
+				.verifyComplete();
+		cache.invalidate("key");
+		StepVerifier.create(execute(cache, "other-fingerprint", Mono.just("other-value")))
+				.expectNext("other-value")
+				.verifyComplete();
+		assertThat(executions).hasValue(2);
+	}
+
+	@Test
+	void errorsAreNotHeld() {
+		IdempotencyCache cache = new IdempotencyCache();
+
+		StepVerifier.create(execute(cache, "fingerprint", Mono.error(new IllegalArgumentException())))
+				.verifyError(IllegalArgumentException.class);
+		StepVerifier.create(execute(cache, "fingerprint", Mono.just("value")))
+				.expectNext("value")
+				.verifyComplete();
+		assertThat(executions).hasValue(2);
+	}
+
+	@Test
+	void timeToLiveMustBePositive() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new IdempotencyCache(Duration.ZERO));
+	}
+
+	private Mono<String> execute(IdempotencyCache cache, String fingerprint, Mono<String> result) {
+		return cache.execute("key", fingerprint, () -> {
+			executions.incrementAndGet();
+			return result;
+		}, value -> value + " (replayed)", IllegalStateException::new);
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.idempotency;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.exception.ServiceInstanceBindingExistsException;
+import org.springframework.cloud.servicebroker.model.binding.BindResource;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceAppBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceRouteBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentServiceInstanceBindingServiceTest {
+
+	private final IdempotencyCache cache = new IdempotencyCache();
+
+	@Mock
+	private ServiceInstanceBindingService serviceInstanceBindingService;
+
+	@Test
+	void identicalCreateRequestIsAnsweredAsExistingBinding() {
+		given(serviceInstanceBindingService.createServiceInstanceBinding(any()))
+				.willReturn(Mono.just(CreateServiceInstanceAppBindingResponse.builder()
+						.credentials("password", "secret")
+						.syslogDrainUrl("syslog://drain.example.com")
+						.build()));
+		ServiceInstanceBindingService service = new IdempotentServiceInstanceBindingService(
+				serviceInstanceBindingService, cache);
+
+		StepVerifier.create(service.createServiceInstanceBinding(createRequest("app-guid")))
+				.assertNext(response -> assertThat(response.isBindingExisted()).isFalse())
+				.verifyComplete();
+		StepVerifier.create(service.createServiceInstanceBinding(createRequest("app-guid")))
+				.assertNext(response -> {
+					assertThat(response.isBindingExisted()).isTrue();
+					CreateServiceInstanceAppBindingResponse appBinding =
+							(CreateServiceInstanceAppBindingResponse) response;
+					assertThat(appBinding.getCredentials()).containsEntry("password", "secret");
+					assertThat(appBinding.getSyslogDrainUrl()).isEqualTo("syslog://drain.example.com");
+				})
+				.verifyComplete();
+
+		then(serviceInstanceBindingService).should(times(1)).createServiceInstanceBinding(any());
+	}
+
+	@Test
+	void identicalAsyncCreateRequestIsAnsweredWithSameOperation() {
+		given(serviceInstanceBindingService.createServiceInstanceBinding(any()))
+				.willReturn(Mono.just(CreateServiceInstanceRouteBindingResponse.builder()
+						.routeServiceUrl("https://route.example.com")
+						.async(true)
+						.operation("task-id")
+						.build()));
+		ServiceInstanceBindingService service = new IdempotentServiceInstanceBindingService(
+				serviceInstanceBindingService, cache);
+
+		StepVerifier.create(service.createServiceInstanceBinding(createRequest("app-guid")))
+				.expectNextCount(1)
+				.verifyComplete();
+		StepVerifier.create(service.createServiceInstanceBinding(createRequest("app-guid")))
+				.assertNext(response -> {
+					assertThat(response.isBindingExisted()).isTrue();
+					assertThat(response.isAsync()).isTrue();
+					assertThat(response.getOperation()).isEqualTo("task-id");
+					assertThat(((CreateServiceInstanceRouteBindingResponse) response).getRouteServiceUrl())
+							.isEqualTo("https://route.example.com");
+				})
+				.verifyComplete();
+
+		then(serviceInstanceBindingService).should(times(1)).createServiceInstanceBinding(any());
+	}
+
+	@Test
+	void conflictingCreateRequestIsRejected() {
+		given(serviceInstanceBindingService.createServiceInstanceBinding(any()))
+				.willReturn(Mono.just(CreateServiceInstanceAppBindingResponse.builder().build()));
+		ServiceInstanceBindingService service = new IdempotentServiceInstanceBindingService(
+				serviceInstanceBindingService, cache);
+
+		StepVerifier.create(service.createServiceInstanceBinding(createRequest("app-guid")))
+				.expectNextCount(1)
+				.verifyComplete();
+		StepVerifier.create(service.createServiceInstanceBinding(createRequest("other-app-guid")))
+				.verifyError(ServiceInstanceBindingExistsException.class);
+		StepVerifier.create(service.createServiceInstanceBinding(CreateServiceInstanceBindingRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.bindingId("binding-id")
+				.serviceDefinitionId("service-definition-id")
+				.planId("plan-id")
+				.bindResource(BindResource.builder()
+						.appGuid("app-guid")
+						.build())
+				.parameters(Collections.singletonMap("role", "admin"))
+				.build()))
+				.verifyError(ServiceInstanceBindingExistsException.class);
+
+		then(serviceInstanceBindingService).should(times(1)).createServiceInstanceBinding(any());
+	}
+
+	@Test
+	void createRequestIsExecutedAgainAfterDelete() {
+		given(serviceInstanceBindingService.createServiceInstanceBinding(any()))
+				.willReturn(Mono.just(CreateServiceInstanceAppBindingResponse.builder().build()));
+		given(serviceInstanceBindingService.deleteServiceInstanceBinding(any()))
+				.willReturn(Mono.just(DeleteServiceInstanceBindingResponse.builder().build()));
+		ServiceInstanceBindingService service = new IdempotentServiceInstanceBindingService(
+				serviceInstanceBindingService, cache);
+
+		StepVerifier.create(service.createServiceInstanceBinding(createRequest("app-guid")))
+				.expectNextCount(1)
+				.verifyComplete();
+		StepVerifier.create(service.deleteServiceInstanceBinding(DeleteServiceInstanceBindingRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.bindingId("binding-id")
+				.build()))
+				.expectNextCount(1)
+				.verifyComplete();
+		StepVerifier.create(service.createServiceInstanceBinding(createRequest("other-app-guid")))
+				.assertNext(response -> assertThat(response.isBindingExisted()).isFalse())
+				.verifyComplete();
+
+		then(serviceInstanceBindingService).should(times(2)).createServiceInstanceBinding(any());
+	}
+
+	private static CreateServiceInstanceBindingRequest createRequest(String appGuid) {
+		return CreateServiceInstanceBindingRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.bindingId("binding-id")
+				.serviceDefinitionId("service-definition-id")
+				.planId("plan-id")
+				.bindResource(BindResource.builder()
+						.appGuid(appGuid)
+						.build())
+				.build();
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.idempotency;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.exception.ServiceInstanceExistsException;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentServiceInstanceServiceTest {
+
+	private final IdempotencyCache cache = new IdempotencyCache();
+
+	@Mock
+	private ServiceInstanceService serviceInstanceService;
+
+	@Test
+	void identicalCreateRequestIsAnsweredAsExistingInstance() {
+		given(serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(CreateServiceInstanceResponse
+				.builder()
+				.async(true)
+				.operation("task-id")
+				.build()));
+		ServiceInstanceService service = new IdempotentServiceInstanceService(serviceInstanceService, cache);
+
+		StepVerifier.create(service.createServiceInstance(createRequest("plan-id")))
+				.assertNext(response -> assertThat(response.isInstanceExisted()).isFalse())
+				.verifyComplete();
+		StepVerifier.create(service.createServiceInstance(createRequest("plan-id")))
+				.assertNext(response -> {
+					assertThat(response.isInstanceExisted()).isTrue();
+					assertThat(response.isAsync()).isTrue();
+					assertThat(response.getOperation()).isEqualTo("task-id");
+				})
+				.verifyComplete();
+
+		then(serviceInstanceService).should(times(1)).createServiceInstance(any());
+	}
+
+	@Test
+	void conflictingCreateRequestIsRejected() {
+		given(serviceInstanceService.createServiceInstance(any()))
+				.willReturn(Mono.just(CreateServiceInstanceResponse.builder().build()));
+		ServiceInstanceService service = new IdempotentServiceInstanceService(serviceInstanceService, cache);
+
+		StepVerifier.create(service.createServiceInstance(createRequest("plan-id")))
+				.expectNextCount(1)
+				.verifyComplete();
+		StepVerifier.create(service.createServiceInstance(createRequest("other-plan-id")))
+				.verifyError(ServiceInstanceExistsException.class);
+
+		then(serviceInstanceService).should(times(1)).createServiceInstance(any());
+	}
+
+	@Test
+	void createRequestIsExecutedAgainAfterDelete() {
+		given(serviceInstanceService.createServiceInstance(any()))
+				.willReturn(Mono.just(CreateServiceInstanceResponse.builder().build()));
+		given(serviceInstanceService.deleteServiceInstance(any()))
+				.willReturn(Mono.just(DeleteServiceInstanceResponse.builder().build()));
+		ServiceInstanceService service = new IdempotentServiceInstanceService(serviceInstanceService, cache);
+
+		StepVerifier.create(service.createServiceInstance(createRequest("plan-id")))
+				.expectNextCount(1)
+				.verifyComplete();
+		StepVerifier.create(service.deleteServiceInstance(DeleteServiceInstanceRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.build()))
+				.expectNextCount(1)
+				.verifyComplete();
+		StepVerifier.create(service.createServiceInstance(createRequest("other-plan-id")))
+				.assertNext(response -> assertThat(response.isInstanceExisted()).isFalse())
+				.verifyComplete();
+
+		then(serviceInstanceService).should(times(2)).createServiceInstance(any());
+	}
+
+	private static CreateServiceInstanceRequest createRequest(String planId) {
+		return CreateServiceInstanceRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.serviceDefinitionId("service-definition-id")
+				.planId(planId)
+				.parameters(Collections.singletonMap("size", "large"))
+				.build();
+	}
+
+}
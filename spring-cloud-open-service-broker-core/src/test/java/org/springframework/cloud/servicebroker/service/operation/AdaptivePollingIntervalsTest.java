@@ -0,0 +1,88 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.service.CatalogService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class AdaptivePollingIntervalsTest {
+
+	@Mock
+	private CatalogService catalogService;
+
+	@Test
+	void intervalBacksOffWithoutDurations() {
+		AdaptivePollingIntervals intervals = new AdaptivePollingIntervals(null);
+
+		assertThat(intervals.getInterval("plan-id", 1000)).isEqualTo(1000);
+		assertThat(intervals.getInterval("plan-id", 40_000)).isEqualTo(10_000);
+		assertThat(intervals.getInterval("plan-id", 3_600_000)).isEqualTo(60_000);
+	}
+
+	@Test
+	void intervalApproachesTypicalDuration() {
+		AdaptivePollingIntervals intervals = new AdaptivePollingIntervals(null);
+		for (int i = 0; i < 10; i++) {
+			intervals.recordDuration("plan-id", 60_000);
+		}
+
+		long early = intervals.getInterval("plan-id", 5_000);
+		long late = intervals.getInterval("plan-id", 50_000);
+
+		assertThat(early).isGreaterThan(late);
+		assertThat(early).isBetween(20_000L, 40_000L);
+		assertThat(intervals.getInterval("other-plan-id", 5_000)).isEqualTo(1250);
+	}
+
+	@Test
+	void intervalIsBoundedByMaximumPollingDuration() {
+		given(catalogService.getServiceDefinitionPlan("service-definition-id", "plan-id"))
+				.willReturn(Mono.just(Plan.builder()
+						.id("plan-id")
+						.maximumPollingDuration(30)
+						.build()));
+		AdaptivePollingIntervals intervals = new AdaptivePollingIntervals(catalogService);
+		TrackedOperation operation = TrackedOperation.builder()
+				.key(OperationKey.forServiceInstance("service-instance-id"))
+				.serviceDefinitionId("service-definition-id")
+				.planId("plan-id")
+				.build();
+
+		assertThat(intervals.getRetryAfter(operation, 28_000).block()).isEqualTo(Duration.ofSeconds(2));
+		assertThat(intervals.getRetryAfter(operation, 40_000).block()).isEqualTo(Duration.ofSeconds(1));
+	}
+
+	@Test
+	void minimumIntervalMustNotExceedMaximumInterval() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new AdaptivePollingIntervals(null,
+				Duration.ofMinutes(2), Duration.ofMinutes(1)));
+	}
+
+}
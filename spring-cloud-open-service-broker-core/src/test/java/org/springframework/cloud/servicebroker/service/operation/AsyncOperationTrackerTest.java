@@ -0,0 +1,236 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class AsyncOperationTrackerTest {
+
+	private static final OperationKey KEY = OperationKey.forServiceInstance("service-instance-id");
+
+	private final TestClock clock = new TestClock();
+
+	private final AsyncOperationTracker tracker = new AsyncOperationTracker(Duration.ofSeconds(10), clock);
+
+	@Test
+	void startedOperationIsInProgress() {
+		tracker.start(operation(KEY, "task-id", true));
+
+		TrackedOperation tracked = tracker.get(KEY, "task-id");
+		assertThat(tracked).isNotNull();
+		assertThat(tracked.getState()).isEqualTo(OperationState.IN_PROGRESS);
+		assertThat(tracked.isDeleteOperation()).isTrue();
+		assertThat(tracker.get(KEY, null)).isSameAs(tracked);
+		assertThat(tracker.get(KEY, "other-task-id")).isNull();
+		assertThat(tracker.get(OperationKey.forServiceInstanceBinding("service-instance-id", "binding-id"), null))
+				.isNull();
+	}
+
+	@Test
+	void transitionsArePushed() {
+		tracker.start(operation(KEY, "task-id", false));
+		clock.advance(Duration.ofSeconds(5));
+
+		assertThat(tracker.update(KEY, "task-id", OperationState.SUCCEEDED, "done")).isTrue();
+		assertThat(tracker.update(KEY, "other-task-id", OperationState.FAILED, "failed")).isFalse();
+
+		TrackedOperation tracked = tracker.get(KEY, "task-id");
+		assertThat(tracked.getState()).isEqualTo(OperationState.SUCCEEDED);
+		assertThat(tracked.getDescription()).isEqualTo("done");
+		assertThat(tracked.getUpdateTime() - tracked.getStartTime()).isEqualTo(5000);
+	}
+
+	@Test
+	void operationsExpireAfterTheirLastUpdate() {
+		tracker.start(operation(KEY, "task-id", false));
+		clock.advance(Duration.ofSeconds(8));
+		tracker.update(KEY, null, OperationState.IN_PROGRESS, "half way");
+		clock.advance(Duration.ofSeconds(8));
+
+		assertThat(tracker.get(KEY, "task-id")).isNotNull();
+
+		clock.advance(Duration.ofSeconds(2));
+
+		assertThat(tracker.get(KEY, "task-id")).isNull();
+		assertThat(tracker.size()).isZero();
+	}
+
+	@Test
+	void expiredOperationsAreEvicted() {
+		tracker.start(operation(KEY, "task-id", false));
+		clock.advance(Duration.ofSeconds(11));
+
+		tracker.start(operation(OperationKey.forServiceInstance("other-service-instance-id"), null, false));
+
+		assertThat(tracker.size()).isEqualTo(1);
+	}
+
+	@Test
+	void heldOperationsDoNotExpireUntilReleased() {
+		tracker.hold(operation(KEY, "task-id", false));
+		clock.advance(Duration.ofMinutes(5));
+		tracker.start(operation(OperationKey.forServiceInstance("other-service-instance-id"), null, false));
+
+		assertThat(tracker.get(KEY, "task-id")).isNotNull();
+
+		tracker.update(KEY, "task-id", OperationState.SUCCEEDED, null);
+		tracker.release(KEY, "task-id");
+		clock.advance(Duration.ofSeconds(9));
+
+		assertThat(tracker.get(KEY, "task-id").getState()).isEqualTo(OperationState.SUCCEEDED);
+
+		clock.advance(Duration.ofSeconds(1));
+
+		assertThat(tracker.get(KEY, "task-id")).isNull();
+	}
+
+	@Test
+	void heldOperationReplacedByAnotherOperationExpires() {
+		tracker.hold(operation(KEY, "task-id", false));
+		tracker.record(operation(KEY, "other-task-id", false));
+		clock.advance(Duration.ofSeconds(10));
+
+		assertThat(tracker.get(KEY, null)).isNull();
+	}
+
+	@Test
+	void retryAfterIsDerivedFromDurationsOfPlan() {
+		AsyncOperationTracker adaptiveTracker = new AsyncOperationTracker(Duration.ofMinutes(1), clock,
+				new AdaptivePollingIntervals(null));
+		adaptiveTracker.start(operation(KEY, "task-id", false));
+		clock.advance(Duration.ofSeconds(20));
+		adaptiveTracker.update(KEY, "task-id", OperationState.SUCCEEDED, null);
+
+		OperationKey otherKey = OperationKey.forServiceInstance("other-service-instance-id");
+		TrackedOperation tracked = adaptiveTracker.start(operation(otherKey, "task-id", false));
+		clock.advance(Duration.ofSeconds(2));
+
+		Duration retryAfter = adaptiveTracker.getRetryAfter(tracked).block();
+		assertThat(retryAfter).isBetween(Duration.ofSeconds(9), Duration.ofSeconds(11));
+		assertThat(adaptiveTracker.getRetryAfter(adaptiveTracker.get(KEY, null)).blockOptional()).isEmpty();
+	}
+
+	@Test
+	void retryAfterSuppliedByServiceIsKept() {
+		TrackedOperation tracked = tracker.record(TrackedOperation.builder()
+				.key(KEY)
+				.operation("task-id")
+				.retryAfter(Duration.ofSeconds(30))
+				.build());
+		tracker.update(KEY, "task-id", OperationState.IN_PROGRESS, "half way");
+
+		assertThat(tracker.getRetryAfter(tracked).block()).isEqualTo(Duration.ofSeconds(30));
+		assertThat(tracker.get(KEY, "task-id").getRetryAfter()).isEqualTo(Duration.ofSeconds(30));
+		assertThat(tracker.getRetryAfter(tracker.get(KEY, "task-id")).block()).isEqualTo(Duration.ofSeconds(30));
+	}
+
+	@Test
+	void awaitChangeCompletesWhenOperationIsUpdated() {
+		TrackedOperation tracked = tracker.start(operation(KEY, "task-id", false));
+
+		StepVerifier.create(tracker.awaitChange(tracked, Duration.ofMinutes(1)))
+				.then(() -> tracker.update(KEY, "task-id", OperationState.SUCCEEDED, "done"))
+				.assertNext(changed -> {
+					assertThat(changed.getState()).isEqualTo(OperationState.SUCCEEDED);
+					assertThat(changed.getDescription()).isEqualTo("done");
+				})
+				.verifyComplete();
+	}
+
+	@Test
+	void awaitChangeCompletesImmediatelyWhenOperationAlreadyChanged() {
+		TrackedOperation tracked = tracker.start(operation(KEY, "task-id", false));
+		tracker.update(KEY, "task-id", OperationState.FAILED, "failed");
+
+		StepVerifier.create(tracker.awaitChange(tracked, Duration.ofMinutes(1)))
+				.assertNext(changed -> assertThat(changed.getState()).isEqualTo(OperationState.FAILED))
+				.verifyComplete();
+	}
+
+	@Test
+	void awaitChangeCompletesEmptyWhenOperationIsRemoved() {
+		TrackedOperation tracked = tracker.start(operation(KEY, "task-id", false));
+
+		StepVerifier.create(tracker.awaitChange(tracked, Duration.ofMinutes(1)))
+				.then(() -> tracker.remove(KEY))
+				.verifyComplete();
+	}
+
+	@Test
+	void awaitChangeCompletesEmptyAfterMaximumWait() {
+		TrackedOperation tracked = tracker.start(operation(KEY, "task-id", false));
+
+		StepVerifier.withVirtualTime(() -> tracker.awaitChange(tracked, Duration.ofSeconds(30)))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofSeconds(29))
+				.thenAwait(Duration.ofSeconds(1))
+				.verifyComplete();
+		assertThat(tracker.get(KEY, "task-id")).isSameAs(tracked);
+	}
+
+	@Test
+	void timeToLiveMustBePositive() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new AsyncOperationTracker(Duration.ZERO));
+	}
+
+	private static TrackedOperation operation(OperationKey key, String operation, boolean deleteOperation) {
+		return TrackedOperation.builder()
+				.key(key)
+				.operation(operation)
+				.planId("plan-id")
+				.deleteOperation(deleteOperation)
+				.build();
+	}
+
+	private static final class TestClock extends Clock {
+
+		private Instant instant = Instant.ofEpochMilli(1_000_000L);
+
+		void advance(Duration duration) {
+			this.instant = this.instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return this.instant;
+		}
+
+	}
+
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class FileOperationStateStoreTest {
+
+	private static final OperationKey INSTANCE = OperationKey.forServiceInstance("service-instance-id");
+
+	private static final OperationKey BINDING = OperationKey.forServiceInstanceBinding("service-instance-id",
+			"binding-id");
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void operationsSurviveReopening() throws IOException {
+		FileOperationStateStore store = store(100);
+		store.open();
+		store.put(operation(INSTANCE, OperationState.IN_PROGRESS));
+		store.put(operation(BINDING, OperationState.IN_PROGRESS));
+		store.compute(INSTANCE, current -> current.mutate()
+				.state(OperationState.SUCCEEDED)
+				.description("created")
+				.build());
+		store.close();
+
+		FileOperationStateStore reopened = store(100);
+		reopened.open();
+		try {
+			assertThat(reopened.size()).isEqualTo(2);
+			TrackedOperation instance = reopened.get(INSTANCE);
+			assertThat(instance.getOperation()).isEqualTo("task-id");
+			assertThat(instance.getPlanId()).isEqualTo("plan-id");
+			assertThat(instance.getState()).isEqualTo(OperationState.SUCCEEDED);
+			assertThat(instance.getDescription()).isEqualTo("created");
+			assertThat(instance.getRetryAfter()).isEqualTo(Duration.ofSeconds(5));
+			assertThat(instance.getStartTime()).isEqualTo(1000L);
+			assertThat(instance.getUpdateTime()).isEqualTo(2000L);
+			assertThat(reopened.get(BINDING).getKey()).isEqualTo(BINDING);
+		}
+		finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	void removalsSurviveReopening() throws IOException {
+		FileOperationStateStore store = store(100);
+		store.open();
+		TrackedOperation instance = operation(INSTANCE, OperationState.IN_PROGRESS);
+		store.put(instance);
+		store.put(operation(BINDING, OperationState.IN_PROGRESS));
+		assertThat(store.remove(operation(INSTANCE, OperationState.IN_PROGRESS))).isFalse();
+		assertThat(store.remove(instance)).isTrue();
+		assertThat(store.remove(BINDING)).isNotNull();
+		store.close();
+
+		FileOperationStateStore reopened = store(100);
+		reopened.open();
+		try {
+			assertThat(reopened.size()).isZero();
+		}
+		finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	void logIsCompacted() throws IOException {
+		FileOperationStateStore store = store(4);
+		store.open();
+		for (int i = 0; i < 20; i++) {
+			store.put(operation(INSTANCE, OperationState.IN_PROGRESS).mutate()
+					.description("step " + i)
+					.build());
+		}
+		store.close();
+
+		assertThat(store.getLogRecordCount()).isLessThan(4);
+		FileOperationStateStore reopened = store(4);
+		reopened.open();
+		try {
+			assertThat(reopened.get(INSTANCE).getDescription()).isEqualTo("step 19");
+		}
+		finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	void compactionKeepsConcurrentChanges() throws Exception {
+		FileOperationStateStore store = store(8);
+		store.open();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> changes = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				String prefix = "instance-" + t + "-";
+				changes.add(executor.submit(() -> {
+					for (int i = 0; i < 300; i++) {
+						OperationKey key = OperationKey.forServiceInstance(prefix + (i % 10));
+						if (i % 3 == 2) {
+							store.remove(key);
+						}
+						else {
+							store.put(operation(key, OperationState.IN_PROGRESS).mutate()
+									.description("step " + i)
+									.build());
+						}
+					}
+				}));
+			}
+			for (Future<?> change : changes) {
+				change.get(10, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		Map<OperationKey, String> expected = descriptions(store);
+		store.close();
+
+		FileOperationStateStore reopened = store(8);
+		reopened.open();
+		try {
+			assertThat(descriptions(reopened)).isEqualTo(expected);
+		}
+		finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	void partiallyWrittenRecordIsDiscarded() throws IOException {
+		FileOperationStateStore store = store(100);
+		store.open();
+		store.put(operation(INSTANCE, OperationState.IN_PROGRESS));
+		store.close();
+		Files.write(this.directory.resolve("operations.log"), new byte[] {0, 0, 0, 42, 1},
+				StandardOpenOption.APPEND);
+
+		FileOperationStateStore reopened = store(100);
+		reopened.open();
+		reopened.put(operation(BINDING, OperationState.IN_PROGRESS));
+		reopened.close();
+
+		FileOperationStateStore recovered = store(100);
+		recovered.open();
+		try {
+			assertThat(recovered.get(INSTANCE)).isNotNull();
+			assertThat(recovered.get(BINDING)).isNotNull();
+		}
+		finally {
+			recovered.close();
+		}
+	}
+
+	@Test
+	void recordsWrittenAfterTornRecordAreRecovered() throws Exception {
+		FileOperationStateStore store = store(100);
+		store.open();
+		store.put(operation(INSTANCE, OperationState.IN_PROGRESS));
+		awaitLogRecordCount(store, 1);
+		// a write that failed part way leaves a torn record at the end of the log
+		FileChannel log = (FileChannel) ReflectionTestUtils.getField(store, "log");
+		log.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 42, 1}));
+		store.put(operation(BINDING, OperationState.IN_PROGRESS));
+		store.compute(INSTANCE, current -> current.mutate()
+				.state(OperationState.SUCCEEDED)
+				.build());
+		store.close();
+
+		FileOperationStateStore recovered = store(100);
+		recovered.open();
+		try {
+			assertThat(recovered.get(INSTANCE).getState()).isEqualTo(OperationState.SUCCEEDED);
+			assertThat(recovered.get(BINDING)).isNotNull();
+		}
+		finally {
+			recovered.close();
+		}
+	}
+
+	@Test
+	void changesAreWrittenAgainWhenLogCannotBeWritten() throws Exception {
+		FileOperationStateStore store = store(100);
+		store.open();
+		store.put(operation(INSTANCE, OperationState.IN_PROGRESS));
+		awaitLogRecordCount(store, 1);
+		((FileChannel) ReflectionTestUtils.getField(store, "log")).close();
+		store.put(operation(BINDING, OperationState.IN_PROGRESS));
+		awaitLogRecordCount(store, 2);
+		store.close();
+
+		FileOperationStateStore recovered = store(100);
+		recovered.open();
+		try {
+			assertThat(recovered.get(INSTANCE)).isNotNull();
+			assertThat(recovered.get(BINDING)).isNotNull();
+		}
+		finally {
+			recovered.close();
+		}
+	}
+
+	@Test
+	void changesRequireOpenStore() {
+		FileOperationStateStore store = store(100);
+
+		assertThatIllegalStateException().isThrownBy(() -> store.put(operation(INSTANCE, OperationState.IN_PROGRESS)));
+		assertThat(store.get(INSTANCE)).isNull();
+	}
+
+	@Test
+	void compactionThresholdMustBePositive() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new FileOperationStateStore(this.directory, Duration.ZERO, 0));
+	}
+
+	private static void awaitLogRecordCount(FileOperationStateStore store, long count) throws InterruptedException {
+		for (int i = 0; i < 100 && store.getLogRecordCount() < count; i++) {
+			Thread.sleep(50);
+		}
+		assertThat(store.getLogRecordCount()).isEqualTo(count);
+	}
+
+	private static Map<OperationKey, String> descriptions(FileOperationStateStore store) {
+		Map<OperationKey, String> descriptions = new HashMap<>();
+		store.forEach(operation -> descriptions.put(operation.getKey(), operation.getDescription()));
+		return descriptions;
+	}
+
+	private FileOperationStateStore store(int compactionThreshold) {
+		return new FileOperationStateStore(this.directory, Duration.ZERO, compactionThreshold);
+	}
+
+	private static TrackedOperation operation(OperationKey key, OperationState state) {
+		return TrackedOperation.builder()
+				.key(key)
+				.operation("task-id")
+				.planId("plan-id")
+				.state(state)
+				.retryAfter(Duration.ofSeconds(5))
+				.times(1000L, 2000L)
+				.build();
+	}
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.operation;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceAppBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class OperationTrackingServiceInstanceServiceTest {
+
+	private final AsyncOperationTracker tracker = new AsyncOperationTracker();
+
+	@Mock
+	private ServiceInstanceService serviceInstanceService;
+
+	@Mock
+	private ServiceInstanceBindingService serviceInstanceBindingService;
+
+	@Test
+	void lastOperationIsAnsweredFromTracker() {
+		given(serviceInstanceService.createServiceInstance(any()))
+				.willReturn(Mono.just(CreateServiceInstanceResponse.builder()
+						.async(true)
+						.operation("task-id")
+						.build()));
+		ServiceInstanceService service = new OperationTrackingServiceInstanceService(serviceInstanceService, tracker);
+
+		StepVerifier.create(service.createServiceInstance(CreateServiceInstanceRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.build()))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		StepVerifier.create(service.getLastOperation(lastOperationRequest("task-id")))
+				.expectNext(GetLastServiceOperationResponse.builder()
+						.operationState(OperationState.IN_PROGRESS)
+						.build())
+				.verifyComplete();
+
+		tracker.update(OperationKey.forServiceInstance("service-instance-id"), "task-id",
+				OperationState.SUCCEEDED, "created");
+
+		StepVerifier.create(service.getLastOperation(lastOperationRequest("task-id")))
+				.expectNext(GetLastServiceOperationResponse.builder()
+						.operationState(OperationState.SUCCEEDED)
+						.description("created")
+						.build())
+				.verifyComplete();
+		then(serviceInstanceService).should(times(0)).getLastOperation(any());
+	}
+
+	@Test
+	void lastOperationIsHeldUntilOperationChanges() {
+		tracker.start(TrackedOperation.builder()
+				.key(OperationKey.forServiceInstance("service-instance-id"))
+				.operation("task-id")
+				.build());
+		ServiceInstanceService service = new OperationTrackingServiceInstanceService(serviceInstanceService, tracker,
+				Duration.ofMinutes(1));
+
+		StepVerifier.create(service.getLastOperation(lastOperationRequest("task-id")))
+				.expectSubscription()
+				.then(() -> tracker.update(OperationKey.forServiceInstance("service-instance-id"), "task-id",
+						OperationState.SUCCEEDED, "created"))
+				.expectNext(GetLastServiceOperationResponse.builder()
+						.operationState(OperationState.SUCCEEDED)
+						.description("created")
+						.build())
+				.verifyComplete();
+		then(serviceInstanceService).should(times(0)).getLastOperation(any());
+	}
+
+	@Test
+	void lastOperationIsAnsweredInProgressAfterLongPollTimeout() {
+		tracker.start(TrackedOperation.builder()
+				.key(OperationKey.forServiceInstance("service-instance-id"))
+				.operation("task-id")
+				.build());
+		ServiceInstanceService service = new OperationTrackingServiceInstanceService(serviceInstanceService, tracker,
+				Duration.ofSeconds(20));
+
+		StepVerifier.withVirtualTime(() -> service.getLastOperation(lastOperationRequest("task-id")))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofSeconds(19))
+				.thenAwait(Duration.ofSeconds(1))
+				.expectNext(GetLastServiceOperationResponse.builder()
+						.operationState(OperationState.IN_PROGRESS)
+						.build())
+				.verifyComplete();
+	}
+
+	@Test
+	void lastOperationIsReadFromServiceOnMiss() {
+		given(serviceInstanceService.getLastOperation(any()))
+				.willReturn(Mono.just(GetLastServiceOperationResponse.builder()
+						.operationState(OperationState.SUCCEEDED)
+						.deleteOperation(true)
+						.build()));
+		ServiceInstanceService service = new OperationTrackingServiceInstanceService(serviceInstanceService, tracker);
+
+		StepVerifier.create(service.getLastOperation(lastOperationRequest("task-id")))
+				.expectNextMatches(GetLastServiceOperationResponse::isDeleteOperation)
+				.verifyComplete();
+		StepVerifier.create(service.getLastOperation(lastOperationRequest("task-id")))
+				.expectNextMatches(GetLastServiceOperationResponse::isDeleteOperation)
+				.verifyComplete();
+
+		then(serviceInstanceService).should(times(1)).getLastOperation(any());
+	}
+
+	@Test
+	void synchronousResponseStopsTracking() {
+		tracker.start(TrackedOperation.builder()
+				.key(OperationKey.forServiceInstance("service-instance-id"))
+				.operation("task-id")
+				.build());
+		given(serviceInstanceService.deleteServiceInstance(any()))
+				.willReturn(Mono.just(DeleteServiceInstanceResponse.builder().build()));
+		ServiceInstanceService service = new OperationTrackingServiceInstanceService(serviceInstanceService, tracker);
+
+		StepVerifier.create(service.deleteServiceInstance(DeleteServiceInstanceRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.build()))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		assertThat(tracker.size()).isZero();
+	}
+
+	@Test
+	void bindingLastOperationIsAnsweredFromTracker() {
+		given(serviceInstanceBindingService.createServiceInstanceBinding(any()))
+				.willReturn(Mono.just(CreateServiceInstanceAppBindingResponse.builder()
+						.async(true)
+						.operation("task-id")
+						.build()));
+		ServiceInstanceBindingService service = new OperationTrackingServiceInstanceBindingService(
+				serviceInstanceBindingService, tracker);
+
+		StepVerifier.create(service.createServiceInstanceBinding(CreateServiceInstanceBindingRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.bindingId("binding-id")
+				.build()))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		StepVerifier.create(service.getLastOperation(GetLastServiceBindingOperationRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.bindingId("binding-id")
+				.operation("task-id")
+				.build()))
+				.expectNext(GetLastServiceBindingOperationResponse.builder()
+						.operationState(OperationState.IN_PROGRESS)
+						.build())
+				.verifyComplete();
+		assertThat(tracker.get(OperationKey.forServiceInstance("service-instance-id"), null)).isNull();
+		then(serviceInstanceBindingService).should(times(0)).getLastOperation(any());
+	}
+
+	private static GetLastServiceOperationRequest lastOperationRequest(String operation) {
+		return GetLastServiceOperationRequest.builder()
+				.serviceInstanceId("service-instance-id")
+				.operation(operation)
+				.build();
+	}
+
+}